@@ -1,15 +1,23 @@
 package com.dieti.dietiestatesbackend.config;
 
+import java.time.Duration;
+
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
 
 @Configuration
 public class AppConfig {
 
+    /** Dettaglio property già mappato in {@code PropertyResponse}, per id. */
+    public static final String PROPERTY_DETAILS_CACHE = "propertyDetails";
+
     @Bean
     public ObjectMapper objectMapper() {
         ObjectMapper mapper = new ObjectMapper();
@@ -18,9 +26,24 @@ public class AppConfig {
         return mapper;
     }
 
+    /**
+     * Cache Caffeine con statistiche (esposte come metriche {@code cache.*} da Actuator).
+     * {@code geocoding} e {@code categories} restano senza limiti come prima; i dettagli property
+     * sono limitati per numero e durata. Il proxy transaction-aware rimanda put ed evict al commit,
+     * così una cancellazione non ancora committata (o annullata) non altera la cache.
+     */
     @Bean
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager("geocoding", "categories");
+    public CacheManager cacheManager(
+            @Value("${cache.property-details.max-size:10000}") long propertyDetailsMaxSize,
+            @Value("${cache.property-details.ttl-seconds:300}") long propertyDetailsTtlSeconds) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager("geocoding", "categories");
+        cacheManager.setCaffeine(Caffeine.newBuilder().recordStats());
+        cacheManager.registerCustomCache(PROPERTY_DETAILS_CACHE, Caffeine.newBuilder()
+                .maximumSize(propertyDetailsMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(propertyDetailsTtlSeconds))
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,27 @@
+package com.dieti.dietiestatesbackend.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.dieti.dietiestatesbackend.util.DaemonThreadFactory;
+
+/**
+ * Executor dedicato alle ricerche in batch: pool e coda limitati, così un picco di batch non
+ * esaurisce il pool di connessioni; a coda piena la ricerca viene rifiutata (e riportata come errore).
+ */
+@Configuration
+public class BatchSearchConfig {
+
+    @Bean(name = "batchSearchExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService batchSearchExecutor(@Value("${search.batch.pool-size:8}") int poolSize,
+                                               @Value("${search.batch.queue-capacity:64}") int queueCapacity) {
+        return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new DaemonThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+    }
+}
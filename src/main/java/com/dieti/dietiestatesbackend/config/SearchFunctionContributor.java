@@ -0,0 +1,59 @@
+package com.dieti.dietiestatesbackend.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+import org.hibernate.type.spi.TypeConfiguration;
+
+import com.dieti.dietiestatesbackend.service.search.PropertyTileService;
+
+/**
+ * Funzioni SQL aggiuntive usabili dalle query Criteria tramite {@code cb.function(...)}.
+ * Registrato da {@code META-INF/services/org.hibernate.boot.model.FunctionContributor}.
+ *
+ * <ul>
+ *   <li>{@value #PERCENTILE_CONT}{@code (fraction, value)}: aggregato ordered-set
+ *       {@code percentile_cont(fraction) WITHIN GROUP (ORDER BY value)}, che la sintassi
+ *       {@code cb.function} da sola non può esprimere.</li>
+ *   <li>{@value #INTERSECTS_TILE}{@code (geography, z, x, y)}: confronto fra bounding box ({@code &&},
+ *       usa l'indice GIST) con la tile {@code ST_TileEnvelope(z, x, y)} riportata in 4326. L'envelope è
+ *       segmentato a 1° prima del cast a geography: i lati delle tile a zoom bassi (fino a 360°)
+ *       sarebbero archi ambigui sulla sfera.</li>
+ *   <li>{@value #PROPERTY_TILE}{@code (id, price, category, contract, geography, z, x, y)}: aggregato
+ *       {@code ST_AsMVT} del layer {@value PropertyTileService#LAYER_NAME}, con la geometria codificata da
+ *       {@code ST_AsMVTGeom}. La riga passata a {@code ST_AsMVT} è costruita da una sottoquery scalare
+ *       perché le colonne abbiano i nomi degli attributi della feature.</li>
+ * </ul>
+ */
+public class SearchFunctionContributor implements FunctionContributor {
+
+    public static final String PERCENTILE_CONT = "percentile_cont_within_group";
+    public static final String INTERSECTS_TILE = "geography_intersects_tile";
+    public static final String PROPERTY_TILE = "property_tile_mvt";
+
+    private static final String PROPERTY_TILE_PATTERN = """
+            ST_AsMVT((SELECT f FROM (SELECT ?1 AS id, cast(?2 as float8) AS price, ?3 AS category, ?4 AS contract, \
+            ST_AsMVTGeom(ST_Transform(cast(?5 as geometry), 3857), ST_TileEnvelope(?6, ?7, ?8)) AS geom) f), \
+            '%s', 4096, 'geom', 'id')""".formatted(PropertyTileService.LAYER_NAME);
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        TypeConfiguration typeConfiguration = functionContributions.getTypeConfiguration();
+        functionContributions.getFunctionRegistry()
+                .patternDescriptorBuilder(PERCENTILE_CONT, "percentile_cont(?1) within group (order by ?2)")
+                .setExactArgumentCount(2)
+                .setInvariantType(typeConfiguration.getBasicTypeRegistry().resolve(StandardBasicTypes.DOUBLE))
+                .register();
+        functionContributions.getFunctionRegistry()
+                .patternDescriptorBuilder(INTERSECTS_TILE,
+                        "(?1 && cast(ST_Segmentize(ST_Transform(ST_TileEnvelope(?2, ?3, ?4), 4326), 1.0) as geography))")
+                .setExactArgumentCount(4)
+                .setInvariantType(typeConfiguration.getBasicTypeRegistry().resolve(StandardBasicTypes.BOOLEAN))
+                .register();
+        functionContributions.getFunctionRegistry()
+                .patternDescriptorBuilder(PROPERTY_TILE, PROPERTY_TILE_PATTERN)
+                .setExactArgumentCount(8)
+                .setInvariantType(typeConfiguration.getBasicTypeRegistry().resolve(StandardBasicTypes.BINARY))
+                .register();
+    }
+}
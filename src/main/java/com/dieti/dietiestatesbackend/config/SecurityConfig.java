@@ -1,5 +1,7 @@
 package com.dieti.dietiestatesbackend.config;
 
+import jakarta.servlet.DispatcherType;
+
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -40,6 +42,9 @@ public class SecurityConfig {
             .csrf(AbstractHttpConfigurer::disable)
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // il dispatch ASYNC completa una richiesta già autorizzata (es. export in streaming):
+                // il filtro JWT non gira di nuovo, quindi non va riautorizzato
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers(
                     AUTH_ENDPOINTS,
                     OAUTH2_ENDPOINTS,
@@ -1,22 +1,30 @@
 package com.dieti.dietiestatesbackend.controller;
  
+import com.dieti.dietiestatesbackend.dto.response.AddressSuggestionDTO;
 import com.dieti.dietiestatesbackend.entities.Address;
+
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
  
 import com.dieti.dietiestatesbackend.service.AddressService;
+import com.dieti.dietiestatesbackend.service.search.AddressSuggestionIndex;
  
 @RestController
 public class AddressController {
     
     private final AddressService addressService;
+    private final AddressSuggestionIndex suggestionIndex;
 
     @Autowired
-    public AddressController(AddressService addressService) {
+    public AddressController(AddressService addressService, AddressSuggestionIndex suggestionIndex) {
         this.addressService = addressService;
+        this.suggestionIndex = suggestionIndex;
     }
 
     @GetMapping("/address/{id}")
@@ -25,4 +33,13 @@ public class AddressController {
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
+
+    /**
+     * Autocompletamento di città, province e vie servito dall'indice in memoria (nessun accesso al DB).
+     */
+    @GetMapping("/address/suggest")
+    public ResponseEntity<List<AddressSuggestionDTO>> suggest(@RequestParam("q") String query,
+                                                              @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(suggestionIndex.suggest(query, limit));
+    }
 }
\ No newline at end of file
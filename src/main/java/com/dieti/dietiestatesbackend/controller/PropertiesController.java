@@ -1,12 +1,21 @@
 package com.dieti.dietiestatesbackend.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -24,20 +33,31 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.dieti.dietiestatesbackend.dto.request.CreatePropertyRequest;
 import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
 import com.dieti.dietiestatesbackend.dto.request.PropertyHistoryRequest;
+import com.dieti.dietiestatesbackend.dto.response.KeysetPage;
+import com.dieti.dietiestatesbackend.dto.response.PriceStatisticsResponse;
+import com.dieti.dietiestatesbackend.dto.response.PropertyClustersResponse;
 import com.dieti.dietiestatesbackend.dto.response.PropertyResponse;
+import com.dieti.dietiestatesbackend.dto.response.PropertySummary;
+import com.dieti.dietiestatesbackend.dto.response.SearchFacetsResponse;
 import com.dieti.dietiestatesbackend.entities.Property;
 import com.dieti.dietiestatesbackend.entities.PropertyCategory;
+import com.dieti.dietiestatesbackend.mappers.PropertySummaryMapper;
 import com.dieti.dietiestatesbackend.mappers.ResponseMapperRegistry;
 import com.dieti.dietiestatesbackend.security.AppPrincipal;
+import com.dieti.dietiestatesbackend.service.PropertyJsonCache;
 import com.dieti.dietiestatesbackend.service.PropertyService;
 import com.dieti.dietiestatesbackend.service.lookup.CategoryLookupService;
 import com.dieti.dietiestatesbackend.service.places.dto.PlaceDTO;
+import com.dieti.dietiestatesbackend.util.PropertyEtags;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
 
@@ -50,14 +70,20 @@ public class PropertiesController {
     private final PropertyService propertyService;
     private final CategoryLookupService categoryLookupService;
     private final ResponseMapperRegistry responseMapperRegistry;
+    private final PropertySummaryMapper summaryMapper;
+    private final PropertyJsonCache jsonCache;
 
     @Autowired
     public PropertiesController(PropertyService propertyService,
                                 CategoryLookupService categoryLookupService,
-                                ResponseMapperRegistry responseMapperRegistry) {
+                                ResponseMapperRegistry responseMapperRegistry,
+                                PropertySummaryMapper summaryMapper,
+                                PropertyJsonCache jsonCache) {
         this.propertyService = propertyService;
         this.categoryLookupService = categoryLookupService;
         this.responseMapperRegistry = responseMapperRegistry;
+        this.summaryMapper = summaryMapper;
+        this.jsonCache = jsonCache;
     }
 
     @PostMapping("/properties/search")
@@ -70,18 +96,129 @@ public class PropertiesController {
         return ResponseEntity.ok(responsePage);
     }
 
+    /**
+     * Vista ridotta della ricerca, attivata con {@code ?view=summary}: stessi filtri, ordinamento e
+     * paginazione di {@code /properties/search}, ma ogni elemento contiene solo i campi della lista
+     * (prezzo, superficie, città, categoria, contratto, prima immagine).
+     */
+    @PostMapping(value = "/properties/search", params = { "view=summary", "pagination!=keyset" })
+    @Transactional(readOnly = true)
+    public ResponseEntity<Page<PropertySummary>> getPropertySummaries(
+            @RequestBody FilterRequest filters,
+            Pageable pageable) {
+        return ResponseEntity.ok(propertyService.searchPropertySummaries(filters, pageable).map(summaryMapper::withFirstImageUrl));
+    }
+
+    /**
+     * Variante keyset della ricerca, attivata con {@code ?pagination=keyset}.
+     * Restituisce un {@link KeysetPage} con {@code nextCursor} da ripassare come {@code cursor};
+     * non esegue la query di count e non degrada sulle pagine profonde.
+     * Ordinamenti ammessi: createdAt,desc (default), price,asc, price,desc.
+     */
+    @PostMapping(value = "/properties/search", params = "pagination=keyset")
+    @Transactional(readOnly = true)
+    public ResponseEntity<KeysetPage<PropertyResponse>> getPropertiesKeyset(
+            @RequestBody FilterRequest filters,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            Sort sort) {
+        KeysetPage<Property> page = propertyService.searchPropertiesKeyset(filters, cursor, size, sort);
+        return ResponseEntity.ok(page.map(responseMapperRegistry::map));
+    }
+
+    /**
+     * Conteggi per facet della ricerca: stesso body di {@code /properties/search}.
+     * Ogni facet è calcolato ignorando il proprio filtro, il totale con tutti i filtri.
+     */
+    @PostMapping("/properties/search/facets")
+    @Transactional(readOnly = true)
+    public ResponseEntity<SearchFacetsResponse> getSearchFacets(@RequestBody FilterRequest filters) {
+        return ResponseEntity.ok(propertyService.getSearchFacets(filters));
+    }
+
+    /**
+     * Statistiche di prezzo della ricerca: stesso body di {@code /properties/search}.
+     * Restituisce min/max e percentili (p25, p50, p75, p90) di prezzo e prezzo al m²
+     * e l'istogramma del prezzo a fasce di uguale ampiezza.
+     */
+    @PostMapping("/properties/search/stats")
+    public ResponseEntity<PriceStatisticsResponse> getPriceStatistics(@RequestBody FilterRequest filters) {
+        return ResponseEntity.ok(propertyService.getPriceStatistics(filters));
+    }
+
+    /**
+     * Cluster per la schermata mappa: il viewport (minLat, maxLat, minLon, maxLon) sostituisce centro e raggio,
+     * il body opzionale accetta gli stessi filtri di {@code /properties/search}.
+     * L'aggregazione avviene nel DB; agli zoom alti la risposta contiene i singoli punti.
+     */
+    @PostMapping("/properties/clusters")
+    @Transactional(readOnly = true)
+    public ResponseEntity<PropertyClustersResponse> getClusters(
+            @RequestBody(required = false) FilterRequest filters,
+            @RequestParam("minLat") BigDecimal minLatitude,
+            @RequestParam("maxLat") BigDecimal maxLatitude,
+            @RequestParam("minLon") BigDecimal minLongitude,
+            @RequestParam("maxLon") BigDecimal maxLongitude,
+            @RequestParam("zoom") int zoom) {
+        return ResponseEntity.ok(propertyService.getClusters(filters, minLatitude, maxLatitude, minLongitude, maxLongitude, zoom));
+    }
+
+    /**
+     * Dettaglio property con ETag e Last-Modified da id e {@code updatedAt}: con
+     * {@code If-None-Match}/{@code If-Modified-Since} corrispondenti risponde 304 senza leggere il dettaglio.
+     */
     @GetMapping("/properties/details/{id}")
-    public ResponseEntity<PropertyResponse> getPropertyDetail(@PathVariable("id") long id) {
-        PropertyResponse p = responseMapperRegistry.map(propertyService.getProperty(id));
+    public ResponseEntity<PropertyResponse> getPropertyDetail(@PathVariable("id") long id, WebRequest webRequest) {
+        Optional<LocalDateTime> updatedAt = propertyService.getLastModified(id);
+        String etag = updatedAt.map(u -> PropertyEtags.of(id, u)).orElse(null);
+        long lastModified = updatedAt.map(PropertyEtags::toEpochMillis).orElse(0L);
+        if (etag != null && webRequest.checkNotModified(etag, lastModified)) {
+            return null;
+        }
+        if (etag != null && jsonCache.isEnabled()) {
+            PropertyJsonCache.Payload payload = jsonCache.get("details:" + etag, () -> propertyService.getPropertyDetails(id));
+            if (payload == null) {
+                return ResponseEntity.notFound().build();
+            }
+            writeJson(webRequest, payload, etag, lastModified);
+            return null;
+        }
+        PropertyResponse p = propertyService.getPropertyDetails(id);
         if (p == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(p);
+        return conditional(ResponseEntity.ok(), etag, lastModified).body(p);
+    }
+
+    /**
+     * Property simili a quella indicata (default 6, massimo 20), dalla più simile:
+     * stesso contratto e tipologia, vicine per prezzo, superficie, caratteristiche e posizione.
+     */
+    @GetMapping("/properties/{id}/similar")
+    public ResponseEntity<List<PropertyResponse>> getSimilarProperties(
+            @PathVariable("id") long id,
+            @RequestParam(value = "limit", defaultValue = "6") int limit) {
+        return ResponseEntity.ok(responseMapperRegistry.mapAll(propertyService.getSimilarProperties(id, limit)));
     }
 
     @GetMapping("/properties/featured")
-    public ResponseEntity<Object> getFeatured() {
-        return ResponseEntity.ok(propertyService.getFeatured().stream().map(responseMapperRegistry::map).toList());
+    public ResponseEntity<Object> getFeatured(WebRequest webRequest) {
+        List<PropertyResponse> featured = propertyService.getFeatured();
+        String etag = PropertyEtags.of(featured);
+        long lastModified = PropertyEtags.lastModified(featured);
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return null;
+        }
+        if (jsonCache.isEnabled()) {
+            writeJson(webRequest, jsonCache.get("featured:" + etag, () -> featured), etag, lastModified);
+            return null;
+        }
+        return conditional(ResponseEntity.ok(), etag, lastModified).body(featured);
+    }
+
+    @GetMapping(value = "/properties/featured", params = "view=summary")
+    public ResponseEntity<List<PropertySummary>> getFeaturedSummaries() {
+        return ResponseEntity.ok(propertyService.getFeaturedSummaries().stream().map(summaryMapper::withFirstImageUrl).toList());
     }
 
     /**
@@ -146,14 +283,23 @@ public class PropertiesController {
     public ResponseEntity<List<PlaceDTO>> getNearbyPlaces(
             @PathVariable("id") Long id,
             @RequestParam(value = "radius", defaultValue = DEFAULT_RADIUS_SPEL) int radius,
-            @RequestParam(value = "categories", defaultValue = DEFAULT_CATEGORIES_SPEL) List<String> categories) {
+            @RequestParam(value = "categories", defaultValue = DEFAULT_CATEGORIES_SPEL) List<String> categories,
+            WebRequest webRequest) {
  
         logger.debug("Richiesta luoghi vicini per propertyId={}, radius={}, categories={}", id, radius, categories);
+
+        // I luoghi dipendono dalla posizione dell'immobile: stesso updatedAt, stessa risposta per la stessa URL
+        Optional<LocalDateTime> updatedAt = propertyService.getLastModified(id);
+        String etag = updatedAt.map(u -> PropertyEtags.of(id, u)).orElse(null);
+        long lastModified = updatedAt.map(PropertyEtags::toEpochMillis).orElse(0L);
+        if (etag != null && webRequest.checkNotModified(etag, lastModified)) {
+            return null;
+        }
  
         // Il PropertyService dovrà ottenere le coordinate e chiamare il PlacesService
         List<PlaceDTO> places = propertyService.findNearbyPlaces(id, radius, categories);
  
-        return ResponseEntity.ok(places);
+        return conditional(ResponseEntity.ok(), etag, lastModified).body(places);
     }
 
     // take agentID from principal
@@ -166,6 +312,13 @@ public class PropertiesController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(value = "/api/properties/agent_properties/", params = "view=summary")
+    @PreAuthorize("@securityUtil.canViewAgentRelatedEntities(principal, principal.id)")
+    public ResponseEntity<Page<PropertySummary>> getAgentPropertySummaries(@AuthenticationPrincipal AppPrincipal principal, Pageable pageable) {
+        Page<PropertySummary> summaries = propertyService.getPropertySummariesByAgentId(principal.getId(), pageable);
+        return ResponseEntity.ok(summaries.map(summaryMapper::withFirstImageUrl));
+    }
+
     @DeleteMapping("/properties/{id}")
     @PreAuthorize("@securityUtil.canAccessProperty(authentication.principal, #id)")
     public ResponseEntity<Void> deleteProperty(@PathVariable("id") Long id, Authentication authentication) {
@@ -205,4 +358,82 @@ public class PropertiesController {
     public ResponseEntity<Object> handleConstraintViolation(ConstraintViolationException ex) {
         return ResponseEntity.badRequest().body(ex.getMessage());
     }
-}
\ No newline at end of file
+
+    /**
+     * Validatori per le richieste condizionali; {@code no-cache} obbliga il client a rivalidare
+     * ogni volta, ottenendo 304 se nulla è cambiato.
+     */
+    private static ResponseEntity.BodyBuilder conditional(ResponseEntity.BodyBuilder builder, String etag, long lastModified) {
+        if (etag == null) {
+            return builder;
+        }
+        return builder.eTag(etag).lastModified(lastModified).cacheControl(CacheControl.noCache());
+    }
+
+    /**
+     * Scrive il JSON già serializzato direttamente sulla risposta, nella versione gzip se
+     * disponibile e accettata dal client; il metodo del controller poi restituisce {@code null}.
+     */
+    private static void writeJson(WebRequest webRequest, PropertyJsonCache.Payload payload, String etag, long lastModified) {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        HttpServletResponse response = webRequest.getNativeResponse(HttpServletResponse.class);
+        boolean gzip = payload.gzip() != null && request != null
+                && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        byte[] body = gzip ? payload.gzip() : payload.json();
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        if (payload.gzip() != null) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        try {
+            response.getOutputStream().write(body);
+            response.flushBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * {@code true} se l'{@code Accept-Encoding} accetta gzip con qualità maggiore di zero,
+     * esplicitamente ({@code gzip}, {@code x-gzip}) o tramite {@code *} quando gzip non è elencato.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.length() > 2 && param.substring(0, 2).equalsIgnoreCase("q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0.0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQuality = gzipQuality == null ? quality : Math.max(gzipQuality, quality);
+            } else if (coding.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        if (gzipQuality != null) {
+            return gzipQuality > 0;
+        }
+        return wildcardQuality != null && wildcardQuality > 0;
+    }
+}
@@ -0,0 +1,60 @@
+package com.dieti.dietiestatesbackend.controller;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.mappers.ResponseMapperRegistry;
+import com.dieti.dietiestatesbackend.security.AppPrincipal;
+import com.dieti.dietiestatesbackend.service.search.PropertyExportService;
+import com.dieti.dietiestatesbackend.specifications.PropertySpecifications;
+
+/**
+ * Export in streaming (NDJSON, una {@code PropertyResponse} per riga) per chi deve scaricare
+ * l'intero inventario invece di scorrere le pagine di ricerca.
+ */
+@RestController
+public class PropertyExportController {
+
+    private final PropertyExportService exportService;
+    private final ResponseMapperRegistry responseMapperRegistry;
+
+    public PropertyExportController(PropertyExportService exportService,
+                                    ResponseMapperRegistry responseMapperRegistry) {
+        this.exportService = exportService;
+        this.responseMapperRegistry = responseMapperRegistry;
+    }
+
+    /**
+     * Tutte le property che soddisfano i filtri di {@code /properties/search}, ordinate per id.
+     */
+    @PostMapping(value = "/properties/search/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportSearch(@RequestBody FilterRequest filters) {
+        return stream(exportService.searchSpecification(filters));
+    }
+
+    /**
+     * Tutte le property dell'agente autenticato, ordinate per id.
+     */
+    @GetMapping(value = "/api/properties/agent_properties/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("@securityUtil.canViewAgentRelatedEntities(principal, principal.id)")
+    public ResponseEntity<StreamingResponseBody> exportAgentProperties(@AuthenticationPrincipal AppPrincipal principal) {
+        return stream(PropertySpecifications.ofAgent(principal.getId()));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(Specification<Property> spec) {
+        StreamingResponseBody body = out -> exportService.export(spec, responseMapperRegistry::map, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
@@ -0,0 +1,43 @@
+package com.dieti.dietiestatesbackend.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.dieti.dietiestatesbackend.dto.request.BatchSearchRequest;
+import com.dieti.dietiestatesbackend.dto.response.BatchSearchResult;
+import com.dieti.dietiestatesbackend.dto.response.PropertyResponse;
+import com.dieti.dietiestatesbackend.mappers.ResponseMapperRegistry;
+import com.dieti.dietiestatesbackend.service.search.BatchSearchService;
+
+import jakarta.validation.Valid;
+
+/**
+ * Ricerche multiple in una sola chiamata: autenticazione e parsing una volta sola,
+ * esecuzione concorrente lato server.
+ */
+@RestController
+public class PropertySearchBatchController {
+
+    private final BatchSearchService batchSearchService;
+    private final ResponseMapperRegistry responseMapperRegistry;
+
+    public PropertySearchBatchController(BatchSearchService batchSearchService,
+                                         ResponseMapperRegistry responseMapperRegistry) {
+        this.batchSearchService = batchSearchService;
+        this.responseMapperRegistry = responseMapperRegistry;
+    }
+
+    /**
+     * Esegue fino a 10 ricerche con i filtri di {@code /properties/search}. La risposta contiene un
+     * risultato per ricerca, nello stesso ordine: {@code OK} con la pagina, {@code ERROR} con il
+     * messaggio oppure {@code TIMEOUT} se la ricerca ha superato la scadenza del batch.
+     */
+    @PostMapping("/properties/search/batch")
+    public ResponseEntity<List<BatchSearchResult<PropertyResponse>>> searchBatch(@Valid @RequestBody BatchSearchRequest request) {
+        return ResponseEntity.ok(batchSearchService.search(request.getSearches(), responseMapperRegistry::map));
+    }
+}
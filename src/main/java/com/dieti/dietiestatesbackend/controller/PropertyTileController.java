@@ -0,0 +1,55 @@
+package com.dieti.dietiestatesbackend.controller;
+
+import java.time.Duration;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.service.search.PropertyTileService;
+import com.dieti.dietiestatesbackend.service.search.TileCoordinates;
+
+/**
+ * Vector tile (Mapbox Vector Tile) dei marker delle property per la mappa.
+ * I filtri sono quelli di {@link FilterRequest}, passati come query parameter.
+ */
+@RestController
+public class PropertyTileController {
+
+    public static final MediaType MVT_MEDIA_TYPE = MediaType.parseMediaType("application/vnd.mapbox-vector-tile");
+
+    private final PropertyTileService tileService;
+
+    public PropertyTileController(PropertyTileService tileService) {
+        this.tileService = tileService;
+    }
+
+    /**
+     * Restituisce la tile z/x/y. La risposta porta un ETag calcolato da numero di property e
+     * {@code max(updatedAt)} nella tile: con {@code If-None-Match} corrispondente risponde 304
+     * senza generare la tile.
+     */
+    @GetMapping("/tiles/properties/{z}/{x}/{y}.mvt")
+    public ResponseEntity<byte[]> getPropertyTile(@PathVariable("z") int z,
+                                                  @PathVariable("x") int x,
+                                                  @PathVariable("y") int y,
+                                                  @ModelAttribute FilterRequest filters,
+                                                  WebRequest webRequest) {
+        TileCoordinates tile = new TileCoordinates(z, x, y);
+        String etag = tileService.tileEtag(filters, tile);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(1)).cachePrivate().mustRevalidate())
+                .contentType(MVT_MEDIA_TYPE)
+                .body(tileService.renderTile(filters, tile));
+    }
+}
@@ -0,0 +1,60 @@
+package com.dieti.dietiestatesbackend.controller;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.dieti.dietiestatesbackend.dto.request.SavedSearchRequest;
+import com.dieti.dietiestatesbackend.dto.response.SavedSearchMatchResponse;
+import com.dieti.dietiestatesbackend.dto.response.SavedSearchResponse;
+import com.dieti.dietiestatesbackend.security.AppPrincipal;
+import com.dieti.dietiestatesbackend.service.savedsearch.SavedSearchService;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/saved-searches")
+public class SavedSearchController {
+
+    private final SavedSearchService savedSearchService;
+
+    public SavedSearchController(SavedSearchService savedSearchService) {
+        this.savedSearchService = Objects.requireNonNull(savedSearchService, "savedSearchService");
+    }
+
+    @PostMapping
+    public ResponseEntity<SavedSearchResponse> create(@AuthenticationPrincipal AppPrincipal principal,
+                                                      @RequestBody @Valid SavedSearchRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(savedSearchService.create(principal.getId(), request));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<SavedSearchResponse>> list(@AuthenticationPrincipal AppPrincipal principal) {
+        return ResponseEntity.ok(savedSearchService.list(principal.getId()));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@AuthenticationPrincipal AppPrincipal principal, @PathVariable Long id) {
+        savedSearchService.delete(principal.getId(), id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{id}/matches")
+    public ResponseEntity<Page<SavedSearchMatchResponse>> getMatches(@AuthenticationPrincipal AppPrincipal principal,
+                                                                    @PathVariable Long id,
+                                                                    Pageable pageable) {
+        return ResponseEntity.ok(savedSearchService.getMatches(principal.getId(), id, pageable));
+    }
+}
@@ -0,0 +1,44 @@
+package com.dieti.dietiestatesbackend.dto.request;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Singola ricerca di un batch: filtri di {@code /properties/search} più la pagina richiesta.
+ * {@code sort} usa il formato dei parametri Spring Data, es. {@code ["price,asc"]}.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSearchItem {
+
+    /** Identificativo scelto dal client, restituito nel risultato corrispondente. */
+    @Size(max = 64, message = "L'id della ricerca non può superare i 64 caratteri")
+    private String id;
+
+    @NotNull(message = "I filtri della ricerca sono obbligatori")
+    @Valid
+    private FilterRequest filters;
+
+    @Min(value = 0, message = "La pagina deve essere maggiore o uguale a 0")
+    private Integer page;
+
+    @Min(value = 1, message = "La dimensione della pagina deve essere almeno 1")
+    @Max(value = 100, message = "La dimensione della pagina non può superare 100")
+    private Integer size;
+
+    private List<String> sort;
+}
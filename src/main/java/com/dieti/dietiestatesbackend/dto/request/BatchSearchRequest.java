@@ -0,0 +1,27 @@
+package com.dieti.dietiestatesbackend.dto.request;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Più ricerche in una sola richiesta (es. home page: ricerche salvate, "vicino a te", "novità in città").
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSearchRequest {
+
+    @NotEmpty(message = "Il batch deve contenere almeno una ricerca")
+    @Size(max = 10, message = "Un batch può contenere al massimo 10 ricerche")
+    @Valid
+    private List<BatchSearchItem> searches;
+}
@@ -6,10 +6,13 @@ import java.util.List;
 import com.dieti.dietiestatesbackend.enums.EnergyRating;
 import com.dieti.dietiestatesbackend.enums.Garden;
 import com.dieti.dietiestatesbackend.enums.PropertyCondition;
+import com.dieti.dietiestatesbackend.validation.ValidGeographicFilter;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
-import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 
+import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
@@ -18,11 +21,14 @@ import lombok.AllArgsConstructor;
 /**
  * FilterRequest DTO — mantengo le validazioni esistenti e sostituisco
  * i getter/setter manuali con Lombok.
+ * {@code toBuilder()} permette di derivare varianti dei filtri (es. per i facet).
  */
+@Builder(toBuilder = true)
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
+@ValidGeographicFilter
 public class FilterRequest {
 
     // Common
@@ -35,6 +41,13 @@ public class FilterRequest {
      * Se specificato da solo, trova la sottocategoria indipendentemente dalla macro-categoria.
      */
     private String propertySubcategoryName;
+
+    /**
+     * Testo libero cercato in descrizione e caratteristiche aggiuntive.
+     * Ogni parola deve comparire in almeno uno dei due campi; abilita l'ordinamento {@code relevance}.
+     */
+    @Size(max = 200, message = "La query di ricerca non può superare i 200 caratteri")
+    private String query;
     
     @Pattern(regexp = "SALE|RENT", message = "Contract must be SALE or RENT")
     private String contract;
@@ -46,17 +59,31 @@ public class FilterRequest {
     private List<PropertyCondition> acceptedCondition;
     private EnergyRating minEnergyRating;
     
-    // Geographic search - now mandatory
-    @NotNull(message = "centerLatitude è obbligatorio per la ricerca geografica")
+    // Geographic search - mandatory: center and radius, a drawn area or circles (see @ValidGeographicFilter)
     private BigDecimal centerLatitude;
     
-    @NotNull(message = "centerLongitude è obbligatorio per la ricerca geografica")
     private BigDecimal centerLongitude;
     
-    @NotNull(message = "radiusInMeters è obbligatorio per la ricerca geografica")
     @Min(value = 0, message = "Il raggio di ricerca deve essere maggiore o uguale a 0")
     private Double radiusInMeters;
 
+    /**
+     * Area disegnata sulla mappa (Polygon o MultiPolygon GeoJSON). Se presente sostituisce il filtro
+     * per raggio; il centro, se indicato, resta il riferimento per l'ordinamento per distanza.
+     * Oltre {@code PropertySpecifications.AREA_MAX_VERTICES} vertici viene semplificata lato server.
+     */
+    @Valid
+    private GeoJsonGeometry area;
+
+    /**
+     * Più zone (centro e raggio) in OR, valutate in un'unica query: i risultati sono deduplicati e
+     * paginati come una ricerca singola. Se presenti sostituiscono centro e raggio; senza centro
+     * l'ordinamento per distanza usa il centro più vicino. Ignorate se è indicata un'area.
+     */
+    @Valid
+    @Size(max = 10, message = "Si possono indicare al massimo 10 zone di ricerca")
+    private List<SearchCircle> circles;
+
     // Commercial, Residential, Garage
     private Integer minNumberOfFloors;
     
@@ -0,0 +1,32 @@
+package com.dieti.dietiestatesbackend.dto.request;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Geometria GeoJSON (RFC 7946) disegnata dall'utente sulla mappa: {@code Polygon} o {@code MultiPolygon}.
+ * Le coordinate sono nell'ordine GeoJSON [longitudine, latitudine] e vengono interpretate da
+ * {@link com.dieti.dietiestatesbackend.util.GeoPolygon#fromGeoJson}.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeoJsonGeometry {
+
+    @NotNull(message = "Il tipo della geometria è obbligatorio")
+    @Pattern(regexp = "Polygon|MultiPolygon", message = "L'area di ricerca deve essere un Polygon o un MultiPolygon")
+    private String type;
+
+    @NotNull(message = "Le coordinate della geometria sono obbligatorie")
+    private JsonNode coordinates;
+}
@@ -0,0 +1,25 @@
+package com.dieti.dietiestatesbackend.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SavedSearchRequest {
+
+    @NotBlank(message = "Il nome della ricerca è obbligatorio")
+    @Size(max = 100, message = "Il nome della ricerca non può superare i 100 caratteri")
+    private String name;
+
+    @NotNull(message = "I filtri della ricerca sono obbligatori")
+    @Valid
+    private FilterRequest filters;
+}
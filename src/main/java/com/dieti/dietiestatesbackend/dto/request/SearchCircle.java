@@ -0,0 +1,33 @@
+package com.dieti.dietiestatesbackend.dto.request;
+
+import java.math.BigDecimal;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Singola zona (centro e raggio) di una ricerca multi-centro, es. "vicino all'ufficio" o "vicino ai nonni".
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchCircle {
+
+    @NotNull(message = "centerLatitude è obbligatorio per ogni zona di ricerca")
+    private BigDecimal centerLatitude;
+
+    @NotNull(message = "centerLongitude è obbligatorio per ogni zona di ricerca")
+    private BigDecimal centerLongitude;
+
+    @NotNull(message = "radiusInMeters è obbligatorio per ogni zona di ricerca")
+    @Min(value = 0, message = "Il raggio di ricerca deve essere maggiore o uguale a 0")
+    private Double radiusInMeters;
+}
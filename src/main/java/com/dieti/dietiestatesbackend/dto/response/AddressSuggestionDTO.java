@@ -0,0 +1,25 @@
+package com.dieti.dietiestatesbackend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Suggerimento di autocompletamento per città, provincia o via.
+ * {@code label} è il testo da mostrare; {@code city} e {@code province} danno il contesto
+ * (per le province {@code city} è null).
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class AddressSuggestionDTO {
+
+    public enum Type { CITY, PROVINCE, STREET }
+
+    private final Type type;
+    private final String label;
+    private final String city;
+    private final String province;
+}
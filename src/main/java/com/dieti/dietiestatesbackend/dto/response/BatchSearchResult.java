@@ -0,0 +1,37 @@
+package com.dieti.dietiestatesbackend.dto.response;
+
+import org.springframework.data.domain.Page;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Esito di una ricerca del batch: la pagina di risultati oppure l'errore, indipendente dalle altre ricerche.
+ * {@code TIMEOUT} indica che la ricerca non si è conclusa entro la scadenza del batch.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchSearchResult<T> {
+
+    public enum Status { OK, ERROR, TIMEOUT }
+
+    private final String id;
+    private final Status status;
+    private final Page<T> page;
+    private final String error;
+
+    public static <T> BatchSearchResult<T> ok(String id, Page<T> page) {
+        return new BatchSearchResult<>(id, Status.OK, page, null);
+    }
+
+    public static <T> BatchSearchResult<T> error(String id, String error) {
+        return new BatchSearchResult<>(id, Status.ERROR, null, error);
+    }
+
+    public static <T> BatchSearchResult<T> timeout(String id) {
+        return new BatchSearchResult<>(id, Status.TIMEOUT, null, "La ricerca non si è conclusa entro la scadenza del batch");
+    }
+}
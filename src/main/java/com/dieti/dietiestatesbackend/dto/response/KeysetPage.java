@@ -0,0 +1,27 @@
+package com.dieti.dietiestatesbackend.dto.response;
+
+import java.util.List;
+import java.util.function.Function;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Pagina di risultati per la paginazione keyset (seek).
+ * A differenza di {@code Page} non espone il totale: {@code nextCursor} è un token opaco
+ * da ripassare come parametro {@code cursor} per ottenere la pagina successiva
+ * ed è {@code null} quando non ci sono altri risultati.
+ */
+@Getter
+@AllArgsConstructor
+public class KeysetPage<T> {
+    private final List<T> content;
+    private final int size;
+    private final String nextCursor;
+    private final boolean hasNext;
+
+    public <R> KeysetPage<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = content.stream().<R>map(mapper).toList();
+        return new KeysetPage<>(mapped, size, nextCursor, hasNext);
+    }
+}
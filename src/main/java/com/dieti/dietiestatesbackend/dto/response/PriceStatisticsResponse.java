@@ -0,0 +1,49 @@
+package com.dieti.dietiestatesbackend.dto.response;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Statistiche di prezzo della ricerca corrente: distribuzione del prezzo e del prezzo al m²
+ * (minimo, massimo e percentili) e istogramma del prezzo a fasce di uguale ampiezza tra minimo e massimo.
+ * Con nessun risultato le distribuzioni hanno tutti i valori {@code null} e l'istogramma è vuoto.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceStatisticsResponse {
+    private long count;
+    private Distribution price;
+    private Distribution pricePerSquareMeter;
+    private List<HistogramBucket> histogram;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Distribution {
+        private BigDecimal min;
+        private BigDecimal max;
+        private BigDecimal p25;
+        private BigDecimal p50;
+        private BigDecimal p75;
+        private BigDecimal p90;
+    }
+
+    /** Fascia {@code [from, to)}; l'ultima include anche {@code to}, cioè il prezzo massimo. */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HistogramBucket {
+        private BigDecimal from;
+        private BigDecimal to;
+        private long count;
+    }
+}
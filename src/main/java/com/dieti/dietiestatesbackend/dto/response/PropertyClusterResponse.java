@@ -0,0 +1,25 @@
+package com.dieti.dietiestatesbackend.dto.response;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Cluster di property per la mappa: centroide delle coordinate, numero di property e intervallo di prezzo.
+ * Ai livelli di zoom alti ogni elemento è un singolo punto con {@code count = 1} e {@code propertyId} valorizzato.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PropertyClusterResponse {
+    private double latitude;
+    private double longitude;
+    private long count;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Long propertyId;
+}
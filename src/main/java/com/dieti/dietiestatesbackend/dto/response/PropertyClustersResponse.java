@@ -0,0 +1,24 @@
+package com.dieti.dietiestatesbackend.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Risposta dell'endpoint {@code /properties/clusters}.
+ * {@code clustered} indica se gli elementi sono aggregati per cella di griglia o sono punti singoli;
+ * {@code truncated} segnala che i punti singoli sono stati limitati al massimo configurato.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PropertyClustersResponse {
+    private int zoom;
+    private boolean clustered;
+    private boolean truncated;
+    private List<PropertyClusterResponse> clusters;
+}
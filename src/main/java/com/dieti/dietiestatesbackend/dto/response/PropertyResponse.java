@@ -33,4 +33,8 @@ public class PropertyResponse {
     private LocalDateTime updatedAt;
     private String firstImageUrl;
     private int numberOfImages;
+    /** Distanza in metri dal centro della ricerca; null fuori dalle ricerche geografiche. */
+    private Double distanceMeters;
+    /** Rilevanza rispetto alla query testuale; null se la ricerca non ha testo libero. */
+    private Double relevance;
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.dieti.dietiestatesbackend.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Vista ridotta di una property per le liste ({@code view=summary}): solo i campi mostrati
+ * nelle card dei risultati. Viene costruita direttamente dalla query JPQL
+ * ({@code select new ...PropertySummary(...)}), senza caricare entità nel persistence context.
+ *
+ * @param imageDirectoryUlid directory delle immagini, usata solo per ricavare {@code firstImageUrl}
+ * @param distanceMeters distanza dal centro della ricerca, null fuori dalle ricerche geografiche
+ * @param relevance rilevanza rispetto alla query testuale, null senza testo libero
+ */
+public record PropertySummary(
+        Long id,
+        BigDecimal price,
+        Integer area,
+        String city,
+        String propertyCategory,
+        String contract,
+        @JsonIgnore String imageDirectoryUlid,
+        int numberOfImages,
+        LocalDateTime createdAt,
+        String firstImageUrl,
+        Double distanceMeters,
+        Double relevance) {
+
+    /**
+     * Costruttore usato dalle constructor expression JPQL.
+     */
+    public PropertySummary(Long id, BigDecimal price, Integer area, String city, String propertyCategory,
+                           String contract, String imageDirectoryUlid, int numberOfImages, LocalDateTime createdAt) {
+        this(id, price, area, city, propertyCategory, contract, imageDirectoryUlid, numberOfImages, createdAt,
+                null, null, null);
+    }
+
+    public PropertySummary withFirstImageUrl(String url) {
+        return new PropertySummary(id, price, area, city, propertyCategory, contract, imageDirectoryUlid,
+                numberOfImages, createdAt, url, distanceMeters, relevance);
+    }
+
+    public PropertySummary withSearchKeys(Double distance, Double score) {
+        return new PropertySummary(id, price, area, city, propertyCategory, contract, imageDirectoryUlid,
+                numberOfImages, createdAt, firstImageUrl, distance, score);
+    }
+}
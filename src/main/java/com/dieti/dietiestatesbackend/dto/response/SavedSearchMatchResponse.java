@@ -0,0 +1,24 @@
+package com.dieti.dietiestatesbackend.dto.response;
+
+import java.time.LocalDateTime;
+
+import com.dieti.dietiestatesbackend.entities.SavedSearchMatch;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Nuova property che soddisfa una ricerca salvata.
+ * Il dettaglio si ottiene da {@code GET /properties/details/{propertyId}}.
+ */
+@Getter
+@AllArgsConstructor
+public class SavedSearchMatchResponse {
+    private final Long propertyId;
+    private final LocalDateTime matchedAt;
+    private final boolean seen;
+
+    public SavedSearchMatchResponse(SavedSearchMatch match) {
+        this(match.getProperty().getId(), match.getCreatedAt(), match.isSeen());
+    }
+}
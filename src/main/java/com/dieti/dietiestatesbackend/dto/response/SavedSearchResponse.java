@@ -0,0 +1,22 @@
+package com.dieti.dietiestatesbackend.dto.response;
+
+import java.time.LocalDateTime;
+
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.entities.SavedSearch;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SavedSearchResponse {
+    private final Long id;
+    private final String name;
+    private final FilterRequest filters;
+    private final LocalDateTime createdAt;
+
+    public SavedSearchResponse(SavedSearch savedSearch) {
+        this(savedSearch.getId(), savedSearch.getName(), savedSearch.getFilters(), savedSearch.getCreatedAt());
+    }
+}
@@ -0,0 +1,27 @@
+package com.dieti.dietiestatesbackend.dto.response;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Conteggi per facet della ricerca corrente.
+ * Ogni mappa riporta, per ogni valore della dimensione, quante property soddisfano
+ * tutti i filtri tranne quello della dimensione stessa (così la UI può mostrare le alternative);
+ * {@code total} è il numero di risultati con tutti i filtri applicati.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchFacetsResponse {
+    private long total;
+    private Map<String, Long> categories;
+    private Map<String, Long> contracts;
+    private Map<String, Long> energyRatings;
+    private Map<String, Long> conditions;
+    private Map<String, Long> priceRanges;
+}
@@ -0,0 +1,38 @@
+package com.dieti.dietiestatesbackend.entities;
+
+import org.hibernate.annotations.Formula;
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Vista in sola lettura della colonna {@code address.geography} (GEOGRAPHY(Point, 4326)).
+ * La colonna è popolata dal trigger della migrazione V8 e indicizzata GIST (V4);
+ * viene esposta separatamente da {@link Address} per non caricarla ad ogni lettura
+ * dell'indirizzo e viene usata solo come sorgente dei predicati spaziali PostGIS.
+ *
+ * È mappata come {@link Formula}: lo schema update/validate di Hibernate la ignora, così non
+ * crea mai una colonna {@code varchar} al posto della geography. La modalità PostGIS viene
+ * attivata solo se colonna e trigger esistono davvero (vedi {@code SpatialSearchSupport}).
+ */
+@Entity
+@Immutable
+@Table(name = "address")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class AddressGeography {
+
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    @Formula("geography")
+    private String geography;
+}
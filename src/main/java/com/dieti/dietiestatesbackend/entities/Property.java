@@ -86,4 +86,18 @@ public abstract class Property extends BaseEntity {
     @Min(1)
     @Column(name = "number_of_images", nullable = false)
     private int numberOfImages;
+
+    /**
+     * Distanza in metri dal centro della ricerca, calcolata dal DB nella query di ricerca.
+     * Non persistita: valorizzata solo per le property restituite da una ricerca geografica.
+     */
+    @Transient
+    private Double distanceMeters;
+
+    /**
+     * Rilevanza rispetto alla query testuale della ricerca, calcolata dal DB.
+     * Non persistita: valorizzata solo per le ricerche con {@code query}.
+     */
+    @Transient
+    private Double relevance;
 }
@@ -0,0 +1,147 @@
+package com.dieti.dietiestatesbackend.entities;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Persistable;
+
+import com.dieti.dietiestatesbackend.enums.EnergyRating;
+import com.dieti.dietiestatesbackend.enums.Garden;
+import com.dieti.dietiestatesbackend.enums.PropertyCondition;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Read model piatto della ricerca immobili: una riga per property con tutte le colonne filtrabili,
+ * comprese quelle dei sottotipi (null per le categorie a cui non si applicano) e i nomi di
+ * categoria, contratto e riscaldamento già risolti. Le ricerche su questa tabella non fanno join.
+ *
+ * L'id coincide con quello della property; la riga è mantenuta da {@code PropertySearchProjector}.
+ */
+@Entity
+@Table(name = "property_search", indexes = {
+    @Index(name = "idx_property_search_type_contract_price", columnList = "property_type, contract, price"),
+    @Index(name = "idx_property_search_price", columnList = "price"),
+    @Index(name = "idx_property_search_created_at", columnList = "created_at"),
+    @Index(name = "idx_property_search_coordinates", columnList = "latitude, longitude")
+})
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PUBLIC)
+public class PropertySearchEntry implements Persistable<Long> {
+
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "property_type", nullable = false, length = 20)
+    private String propertyType;
+
+    @Column(name = "subcategory", nullable = false)
+    private String subcategory;
+
+    @Column(name = "contract", nullable = false)
+    private String contract;
+
+    @Column(name = "price", nullable = false, precision = 12, scale = 2)
+    private BigDecimal price;
+
+    @Column(name = "area", nullable = false)
+    private Integer area;
+
+    @Column(name = "year_built")
+    private Integer yearBuilt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "condition", nullable = false)
+    private PropertyCondition condition;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "energy_rating", nullable = false)
+    private EnergyRating energyRating;
+
+    @Column(name = "latitude", precision = 10, scale = 8)
+    private BigDecimal latitude;
+
+    @Column(name = "longitude", precision = 11, scale = 8)
+    private BigDecimal longitude;
+
+    @Column(name = "description")
+    private String description;
+
+    @Column(name = "additional_features")
+    private String additionalFeatures;
+
+    // Colonne dei sottotipi: valorizzate solo per la categoria corrispondente
+
+    @Column(name = "number_of_rooms")
+    private Integer numberOfRooms;
+
+    @Column(name = "number_of_bathrooms")
+    private Integer numberOfBathrooms;
+
+    @Column(name = "parking_spaces")
+    private Integer parkingSpaces;
+
+    @Column(name = "heating")
+    private String heating;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "garden")
+    private Garden garden;
+
+    @Column(name = "is_furnished")
+    private Boolean furnished;
+
+    @Column(name = "has_elevator")
+    private Boolean elevator;
+
+    @Column(name = "number_of_floors")
+    private Integer numberOfFloors;
+
+    @Column(name = "wheelchair_access")
+    private Boolean wheelchairAccess;
+
+    @Column(name = "has_surveillance")
+    private Boolean surveillance;
+
+    @Column(name = "accessible_from_street")
+    private Boolean accessibleFromStreet;
+
+    /**
+     * Le righe nuove hanno l'id già assegnato: senza questo flag {@code save} farebbe
+     * una SELECT (merge) prima di ogni INSERT.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean isNew = true;
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
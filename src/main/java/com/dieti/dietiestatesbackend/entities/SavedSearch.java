@@ -0,0 +1,50 @@
+package com.dieti.dietiestatesbackend.entities;
+
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Ricerca salvata da un utente: i filtri sono memorizzati come JSON e valutati in memoria
+ * su ogni nuova property dal motore di matching.
+ */
+@Entity
+@Table(name = "saved_search", indexes = {
+    @Index(name = "idx_saved_search_user", columnList = "id_user")
+})
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PUBLIC)
+public class SavedSearch extends BaseEntity {
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_user", nullable = false, foreignKey = @ForeignKey(name = "fk_saved_search_user"))
+    private User user;
+
+    @NotBlank
+    @Column(name = "name", nullable = false, length = 100)
+    private String name;
+
+    @NotNull
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "filters", nullable = false)
+    private FilterRequest filters;
+}
@@ -0,0 +1,48 @@
+package com.dieti.dietiestatesbackend.entities;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotNull;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Nuova property che soddisfa una ricerca salvata; {@code createdAt} è il momento del match.
+ * Le FK sono ON DELETE CASCADE: cancellare la ricerca o la property rimuove i match senza passaggi applicativi.
+ */
+@Entity
+@Table(name = "saved_search_match", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"id_saved_search", "id_property"}, name = "uk_saved_search_match")
+})
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PUBLIC)
+public class SavedSearchMatch extends BaseEntity {
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JoinColumn(name = "id_saved_search", nullable = false, foreignKey = @ForeignKey(name = "fk_saved_search_match_search"))
+    private SavedSearch savedSearch;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JoinColumn(name = "id_property", nullable = false, foreignKey = @ForeignKey(name = "fk_saved_search_match_property"))
+    private Property property;
+
+    @Column(name = "seen", nullable = false)
+    private boolean seen = false;
+}
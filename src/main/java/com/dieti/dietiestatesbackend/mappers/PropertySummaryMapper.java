@@ -0,0 +1,30 @@
+package com.dieti.dietiestatesbackend.mappers;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.dieti.dietiestatesbackend.dto.response.PropertySummary;
+
+/**
+ * Completa le {@link PropertySummary} lette dal DB con l'URL della prima immagine,
+ * costruito come in {@link MapStructPropertyMapper}.
+ */
+@Component
+public class PropertySummaryMapper {
+
+    private final String imageBaseUrl;
+    private final String thumbnailExtension;
+
+    public PropertySummaryMapper(@Value("${storage.image.base-url}") String imageBaseUrl,
+                                 @Value("${property.images.thumbnail-extension}") String thumbnailExtension) {
+        this.imageBaseUrl = imageBaseUrl;
+        this.thumbnailExtension = thumbnailExtension;
+    }
+
+    public PropertySummary withFirstImageUrl(PropertySummary summary) {
+        if (summary.imageDirectoryUlid() == null || imageBaseUrl == null || imageBaseUrl.isEmpty()) {
+            return summary;
+        }
+        return summary.withFirstImageUrl(imageBaseUrl + "/" + summary.imageDirectoryUlid() + "/0" + thumbnailExtension);
+    }
+}
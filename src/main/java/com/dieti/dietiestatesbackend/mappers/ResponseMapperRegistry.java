@@ -1,10 +1,16 @@
 package com.dieti.dietiestatesbackend.mappers;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.function.Function;
 
+import org.hibernate.Hibernate;
+import org.hibernate.proxy.HibernateProxy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -19,12 +25,22 @@ import com.dieti.dietiestatesbackend.entities.CommercialProperty;
  * Registry type-safe (Facade) per il mapping delle Property in PropertyResponse.
  * Registra esplicitamente i mapper MapStruct per sottotipo e fornisce un metodo
  * pubblico map(Property) che nasconde i dettagli di dispatching.
+ *
+ * I proxy Hibernate vengono risolti nell'entità reale prima del dispatch. Il mapper di ogni
+ * classe concreta è risolto una sola volta (risalendo la gerarchia fino a un tipo registrato)
+ * e memorizzato in un {@link ClassValue}: le chiamate successive non fanno ricerche.
  */
 @Component
 public class ResponseMapperRegistry {
 
     private final Map<Class<? extends Property>, Function<Property, PropertyResponse>> registry = new HashMap<>();
     private final MapStructPropertyMapper defaultMapper;
+    private final ClassValue<Function<Property, PropertyResponse>> resolved = new ClassValue<>() {
+        @Override
+        protected Function<Property, PropertyResponse> computeValue(Class<?> type) {
+            return resolve(type);
+        }
+    };
 
     @Autowired
     public ResponseMapperRegistry(LandMapper landMapper,
@@ -49,24 +65,53 @@ public class ResponseMapperRegistry {
         if (property == null) {
             return null;
         }
+        Property target = unproxy(property);
+        return resolved.get(target.getClass()).apply(target);
+    }
 
-        Function<Property, PropertyResponse> fn = registry.get(property.getClass());
-
-        if (fn == null) {
-            // Cerca un handler compatibile (es. per sottoclassi)
-            for (Entry<Class<? extends Property>, Function<Property, PropertyResponse>> e : registry.entrySet()) {
-                if (e.getKey().isInstance(property)) {
-                    fn = e.getValue();
-                    break;
-                }
+    /**
+     * Mappa una lista mantenendone l'ordine (gli elementi {@code null} restano {@code null}).
+     * Gli elementi sono raggruppati per classe concreta, così ogni mapper è risolto una volta
+     * per gruppo e applicato in sequenza; l'output è dimensionato in anticipo.
+     */
+    public List<PropertyResponse> mapAll(List<? extends Property> properties) {
+        int size = properties.size();
+        if (size == 0) {
+            return List.of();
+        }
+        Property[] targets = new Property[size];
+        Map<Class<?>, List<Integer>> groups = new IdentityHashMap<>();
+        for (int i = 0; i < size; i++) {
+            Property property = properties.get(i);
+            if (property != null) {
+                targets[i] = unproxy(property);
+                groups.computeIfAbsent(targets[i].getClass(), type -> new ArrayList<>()).add(i);
             }
         }
 
-        if (fn != null) {
-            return fn.apply(property);
+        PropertyResponse[] responses = new PropertyResponse[size];
+        for (Map.Entry<Class<?>, List<Integer>> group : groups.entrySet()) {
+            Function<Property, PropertyResponse> fn = resolved.get(group.getKey());
+            for (int index : group.getValue()) {
+                responses[index] = fn.apply(targets[index]);
+            }
         }
+        return Collections.unmodifiableList(Arrays.asList(responses));
+    }
+
+    private static Property unproxy(Property property) {
+        return property instanceof HibernateProxy ? (Property) Hibernate.unproxy(property) : property;
+    }
 
+    /** Mapper del tipo registrato più specifico fra i supertipi di {@code type}, o il default. */
+    private Function<Property, PropertyResponse> resolve(Class<?> type) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            Function<Property, PropertyResponse> fn = registry.get(c);
+            if (fn != null) {
+                return fn;
+            }
+        }
         // fallback al mapper generico MapStruct
-        return defaultMapper.propertyToPropertyResponse(property);
+        return defaultMapper::propertyToPropertyResponse;
     }
-}
\ No newline at end of file
+}
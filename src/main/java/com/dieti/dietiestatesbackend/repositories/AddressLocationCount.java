@@ -0,0 +1,8 @@
+package com.dieti.dietiestatesbackend.repositories;
+
+/**
+ * Numero di indirizzi per combinazione distinta di città, provincia e via.
+ * Proiezione usata per caricare l'indice dei suggerimenti senza materializzare le entità Address.
+ */
+public record AddressLocationCount(String city, String province, String street, long total) {
+}
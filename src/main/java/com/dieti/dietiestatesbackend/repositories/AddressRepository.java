@@ -1,6 +1,9 @@
 package com.dieti.dietiestatesbackend.repositories;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.dieti.dietiestatesbackend.entities.Address;
@@ -8,4 +11,13 @@ import com.dieti.dietiestatesbackend.entities.Address;
 @Repository
 public interface AddressRepository extends JpaRepository<Address, Long> {
 
+    /**
+     * Combinazioni distinte di città, provincia e via con il numero di indirizzi associati.
+     */
+    @Query("""
+        SELECT new com.dieti.dietiestatesbackend.repositories.AddressLocationCount(a.city, a.province, a.street, COUNT(a))
+        FROM Address a
+        GROUP BY a.city, a.province, a.street
+        """)
+    List<AddressLocationCount> countDistinctLocations();
 }
\ No newline at end of file
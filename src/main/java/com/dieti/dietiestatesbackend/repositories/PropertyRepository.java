@@ -1,5 +1,6 @@
 package com.dieti.dietiestatesbackend.repositories;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
@@ -9,6 +10,7 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import com.dieti.dietiestatesbackend.dto.response.PropertySummary;
 import com.dieti.dietiestatesbackend.entities.Property;
 
 /**
@@ -22,11 +24,14 @@ import com.dieti.dietiestatesbackend.entities.Property;
  *  - address
  *  - heating (solo per ResidentialProperty)
  *
+ * Le ricerche per Specification passano da {@link PropertySearchRepository#findIds} (fase uno, solo id)
+ * e poi da {@link #findAllDetailedByIdIn} (fase due, idratazione): vedi PropertySearchExecutor.
+ *
  * NOTA: Evitiamo di fetchare collezioni potenzialmente grandi (es. images se diventasse entità)
  * per non esplodere la cardinalità nelle paginazioni.
  */
 @Repository
-public interface PropertyRepository extends JpaRepository<Property, Long>, JpaSpecificationExecutor<Property> {
+public interface PropertyRepository extends JpaRepository<Property, Long>, JpaSpecificationExecutor<Property>, PropertySearchRepository {
 
     /**
      * Metodo findAll con query JPQL custom per caricare tutte le relazioni necessarie
@@ -69,7 +74,7 @@ public interface PropertyRepository extends JpaRepository<Property, Long>, JpaSp
 
     /**
      * Featured (ultime create) con fetch relazioni.
-     * Uso di countQuery separata senza fetch join per la paginazione.
+     * Solo la prima pagina è richiesta, quindi nessuna countQuery.
      */
     @Query(value = """
         select p from Property p
@@ -80,9 +85,8 @@ public interface PropertyRepository extends JpaRepository<Property, Long>, JpaSp
           left join fetch p.address
           left join fetch treat(p as ResidentialProperty).heating
         order by p.createdAt desc
-        """,
-        countQuery = "select count(p) from Property p")
-    Page<Property> getFeatured(Pageable pageable);
+        """)
+    List<Property> getFeatured(Pageable pageable);
 
     /**
      * Dettaglio singola property con fetch completo.
@@ -99,6 +103,12 @@ public interface PropertyRepository extends JpaRepository<Property, Long>, JpaSp
         """)
     Optional<Property> findDetailedById(@Param("id") Long id);
 
+    /**
+     * Solo {@code updatedAt}, per ETag e Last-Modified senza caricare la property.
+     */
+    @Query("select p.updatedAt from Property p where p.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+
     /**
      * Recupera un insieme di proprietà per una lista di ID con fetch delle relazioni necessarie.
      * Restituisce solo le proprietà esistenti (ignora gli ID non trovati).
@@ -128,4 +138,42 @@ public interface PropertyRepository extends JpaRepository<Property, Long>, JpaSp
         countQuery = "select count(p) from Property p where p.agent.id = :agentID")
     Page<Property> getPropertiesByAgentId(@Param("agentID") Long agentID, Pageable pageable);
 
-}
\ No newline at end of file
+    /**
+     * Righe per la vista {@code summary}: constructor expression su colonne scalari,
+     * nessuna entità gestita e nessuna join sui sottotipi.
+     */
+    @Query("""
+        select new com.dieti.dietiestatesbackend.dto.response.PropertySummary(
+            p.id, p.price, p.area, a.city, c.name, k.name, p.imageDirectoryUlid, p.numberOfImages, p.createdAt)
+        from Property p
+          join p.address a
+          join p.propertyCategory c
+          join p.contract k
+        where p.id in :ids
+        """)
+    List<PropertySummary> findSummariesByIdIn(@Param("ids") List<Long> ids);
+
+    @Query("""
+        select new com.dieti.dietiestatesbackend.dto.response.PropertySummary(
+            p.id, p.price, p.area, a.city, c.name, k.name, p.imageDirectoryUlid, p.numberOfImages, p.createdAt)
+        from Property p
+          join p.address a
+          join p.propertyCategory c
+          join p.contract k
+        order by p.createdAt desc
+        """)
+    List<PropertySummary> findFeaturedSummaries(Pageable pageable);
+
+    @Query(value = """
+        select new com.dieti.dietiestatesbackend.dto.response.PropertySummary(
+            p.id, p.price, p.area, a.city, c.name, k.name, p.imageDirectoryUlid, p.numberOfImages, p.createdAt)
+        from Property p
+          join p.address a
+          join p.propertyCategory c
+          join p.contract k
+        where p.agent.id = :agentID
+        """,
+        countQuery = "select count(p) from Property p where p.agent.id = :agentID")
+    Page<PropertySummary> findSummariesByAgentId(@Param("agentID") Long agentID, Pageable pageable);
+
+}
@@ -0,0 +1,19 @@
+package com.dieti.dietiestatesbackend.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.dieti.dietiestatesbackend.entities.PropertySearchEntry;
+
+@Repository
+public interface PropertySearchEntryRepository extends JpaRepository<PropertySearchEntry, Long> {
+
+    /**
+     * Rimuove le righe rimaste senza property (es. cancellazioni avvenute con la proiezione spenta).
+     */
+    @Modifying
+    @Query("delete from PropertySearchEntry e where not exists (select 1 from Property p where p.id = e.id)")
+    int deleteOrphans();
+}
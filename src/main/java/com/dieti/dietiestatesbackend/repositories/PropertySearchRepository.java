@@ -0,0 +1,48 @@
+package com.dieti.dietiestatesbackend.repositories;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.specifications.PropertyExpression;
+
+/**
+ * Fragment di {@link PropertyRepository} per la prima fase della ricerca a due fasi:
+ * seleziona solo gli id della pagina richiesta, senza idratare entità né associazioni.
+ */
+public interface PropertySearchRepository {
+
+    /**
+     * Restituisce gli id delle property che soddisfano la Specification, nell'ordine richiesto.
+     *
+     * @param spec filtro da applicare (può essere {@code null})
+     * @param sort ordinamento; l'id viene aggiunto come tie-breaker se assente
+     * @param offset numero di righe da saltare
+     * @param limit numero massimo di id da restituire, {@code -1} per nessun limite
+     */
+    List<Long> findIds(Specification<Property> spec, Sort sort, long offset, int limit);
+
+    /**
+     * Come {@link #findIds} ma seleziona anche le chiavi calcolate indicate.
+     * Le proprietà del {@code sort} che coincidono con una chiave calcolata vengono ordinate
+     * sull'espressione corrispondente (es. {@code sort=distance,asc}).
+     *
+     * @param computedKeys espressioni da selezionare, per nome
+     */
+    List<PropertySearchRow> findRows(Specification<Property> spec,
+                                     Map<String, PropertyExpression<?>> computedKeys,
+                                     Sort sort,
+                                     long offset,
+                                     int limit);
+
+    /**
+     * Tutti gli id che soddisfano la Specification, ordinati per id, letti con un cursore
+     * ({@code ScrollableResults}) a blocchi di {@code fetchSize} righe invece che materializzati in lista.
+     * Lo stream va chiuso e consumato dentro una transazione.
+     */
+    Stream<Long> streamIds(Specification<Property> spec, int fetchSize);
+}
@@ -0,0 +1,144 @@
+package com.dieti.dietiestatesbackend.repositories;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.specifications.PropertyExpression;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Implementazione Criteria del fragment {@link PropertySearchRepository}.
+ * La query proietta solo {@code p.id} (più le chiavi calcolate): le join introdotte dalla
+ * Specification servono ai predicati ma non vengono mai materializzate come entità.
+ */
+public class PropertySearchRepositoryImpl implements PropertySearchRepository {
+
+    private static final String ID_ALIAS = "id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> findIds(Specification<Property> spec, Sort sort, long offset, int limit) {
+        return findRows(spec, Map.of(), sort, offset, limit).stream()
+                .map(PropertySearchRow::id)
+                .toList();
+    }
+
+    @Override
+    public List<PropertySearchRow> findRows(Specification<Property> spec,
+                                            Map<String, PropertyExpression<?>> computedKeys,
+                                            Sort sort,
+                                            long offset,
+                                            int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Property> root = query.from(Property.class);
+
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(root.get("id").alias(ID_ALIAS));
+        Map<String, Expression<?>> computed = new LinkedHashMap<>();
+        computedKeys.forEach((key, factory) -> {
+            Expression<?> expression = factory.toExpression(root, query, cb);
+            computed.put(key, expression);
+            selections.add(expression.alias(key));
+        });
+        query.multiselect(selections);
+        query.orderBy(toOrders(withIdTieBreaker(sort), root, cb, computed));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (offset > 0) {
+            typedQuery.setFirstResult(Math.toIntExact(offset));
+        }
+        if (limit >= 0) {
+            typedQuery.setMaxResults(limit);
+        }
+
+        List<Tuple> tuples = typedQuery.getResultList();
+        List<PropertySearchRow> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> values = computed.isEmpty() ? Map.of() : new HashMap<>(computed.size() * 2);
+            for (String key : computed.keySet()) {
+                values.put(key, tuple.get(key));
+            }
+            rows.add(new PropertySearchRow(tuple.get(ID_ALIAS, Long.class), values));
+        }
+        return rows;
+    }
+
+    @Override
+    public Stream<Long> streamIds(Specification<Property> spec, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Property> root = query.from(Property.class);
+
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.select(root.get("id")).orderBy(cb.asc(root.get("id")));
+
+        // getResultStream su Hibernate scorre un ScrollableResults forward-only: con il fetch size
+        // il driver legge le righe a blocchi (su PostgreSQL solo dentro una transazione)
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private static List<Order> toOrders(Sort sort, Root<Property> root, CriteriaBuilder cb,
+                                        Map<String, Expression<?>> computed) {
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Expression<?> expression = computed.get(order.getProperty());
+            if (expression != null) {
+                orders.add(order.isAscending() ? cb.asc(expression) : cb.desc(expression));
+            } else {
+                orders.addAll(QueryUtils.toOrders(Sort.by(order), root, cb));
+            }
+        }
+        return orders;
+    }
+
+    private static Sort withIdTieBreaker(Sort sort) {
+        Sort base = sort == null ? Sort.unsorted() : sort;
+        if (base.getOrderFor("id") != null) {
+            return base;
+        }
+        // Tie-breaker deterministico: senza di esso righe con la stessa chiave possono
+        // comparire su due pagine diverse (o su nessuna) tra una richiesta e l'altra.
+        Sort.Direction direction = base.isSorted() ? base.iterator().next().getDirection() : Sort.Direction.ASC;
+        return base.and(Sort.by(direction, "id"));
+    }
+}
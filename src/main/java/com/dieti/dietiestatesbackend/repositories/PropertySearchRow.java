@@ -0,0 +1,14 @@
+package com.dieti.dietiestatesbackend.repositories;
+
+import java.util.Map;
+
+/**
+ * Riga restituita dalla fase uno della ricerca: id della property più i valori
+ * delle eventuali chiavi calcolate (es. {@code distance}) richieste alla query.
+ */
+public record PropertySearchRow(Long id, Map<String, Object> values) {
+
+    public Object value(String key) {
+        return values.get(key);
+    }
+}
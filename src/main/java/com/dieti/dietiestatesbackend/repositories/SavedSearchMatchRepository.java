@@ -0,0 +1,14 @@
+package com.dieti.dietiestatesbackend.repositories;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.dieti.dietiestatesbackend.entities.SavedSearchMatch;
+
+@Repository
+public interface SavedSearchMatchRepository extends JpaRepository<SavedSearchMatch, Long> {
+
+    Page<SavedSearchMatch> findBySavedSearchIdOrderByCreatedAtDesc(Long savedSearchId, Pageable pageable);
+}
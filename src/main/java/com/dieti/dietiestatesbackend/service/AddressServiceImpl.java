@@ -8,11 +8,14 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.dieti.dietiestatesbackend.dto.request.AddressRequest;
 import com.dieti.dietiestatesbackend.entities.Address;
 import com.dieti.dietiestatesbackend.repositories.AddressRepository;
 import com.dieti.dietiestatesbackend.service.geocoding.GeocodingService;
+import com.dieti.dietiestatesbackend.service.search.AddressSuggestionIndex;
 import com.dieti.dietiestatesbackend.entities.Coordinates; // Importa l'entità Coordinates
 import com.dieti.dietiestatesbackend.exception.GeocodingException;
 import org.springframework.http.HttpStatus;
@@ -27,11 +30,14 @@ public class AddressServiceImpl implements AddressService {
     private static final Logger logger = LoggerFactory.getLogger(AddressServiceImpl.class);
     private final AddressRepository addressRepository;
     private final GeocodingService geocodingService;
+    private final AddressSuggestionIndex suggestionIndex;
  
     @Autowired
-    public AddressServiceImpl(AddressRepository addressRepository, GeocodingService geocodingService) {
+    public AddressServiceImpl(AddressRepository addressRepository, GeocodingService geocodingService,
+                              AddressSuggestionIndex suggestionIndex) {
         this.addressRepository = addressRepository;
         this.geocodingService = geocodingService;
+        this.suggestionIndex = suggestionIndex;
     }
 
     @Override
@@ -71,9 +77,26 @@ public class AddressServiceImpl implements AddressService {
         adr.setCreatedAt(LocalDateTime.now());
         Address saved = addressRepository.save(adr);
         logger.debug("Indirizzo creato con id={}", saved.getId());
+        addToSuggestionsAfterCommit(saved);
         return saved;
     }
 
+    /**
+     * Aggiorna l'indice dei suggerimenti solo a commit avvenuto, così un rollback non lascia voci orfane.
+     */
+    private void addToSuggestionsAfterCommit(Address saved) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            suggestionIndex.add(saved);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                suggestionIndex.add(saved);
+            }
+        });
+    }
+
     @Override
     public Address geocodeAddress(Address address) {
         if (address == null) {
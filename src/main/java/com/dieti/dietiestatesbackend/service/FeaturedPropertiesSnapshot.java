@@ -0,0 +1,111 @@
+package com.dieti.dietiestatesbackend.service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.dieti.dietiestatesbackend.dto.response.PropertyResponse;
+import com.dieti.dietiestatesbackend.mappers.ResponseMapperRegistry;
+import com.dieti.dietiestatesbackend.repositories.PropertyRepository;
+import com.dieti.dietiestatesbackend.service.events.PropertyCreatedEvent;
+import com.dieti.dietiestatesbackend.service.events.PropertyDeletedEvent;
+
+/**
+ * Snapshot immutabile delle property in evidenza, già convertite in {@link PropertyResponse}.
+ *
+ * La home legge lo snapshot con una sola lettura volatile ({@link AtomicReference}), senza query.
+ * Lo snapshot viene ricalcolato periodicamente ({@code featured.refresh-interval-ms}) e invalidato
+ * dopo il commit di ogni creazione o cancellazione: la richiesta successiva lo ricostruisce
+ * (una sola alla volta, le altre attendono il risultato).
+ *
+ * Un ricalcolo iniziato prima di un'invalidazione non pubblica il proprio risultato, che potrebbe
+ * non contenere la property appena creata o contenere quella appena cancellata.
+ */
+@Component
+public class FeaturedPropertiesSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeaturedPropertiesSnapshot.class);
+
+    public static final int FEATURED_SIZE = 4;
+
+    private final PropertyRepository propertyRepository;
+    private final ResponseMapperRegistry responseMapperRegistry;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AtomicReference<List<PropertyResponse>> snapshot = new AtomicReference<>();
+    /** Incrementato a ogni invalidazione. */
+    private final AtomicLong generation = new AtomicLong();
+
+    public FeaturedPropertiesSnapshot(PropertyRepository propertyRepository,
+                                      ResponseMapperRegistry responseMapperRegistry,
+                                      PlatformTransactionManager transactionManager) {
+        this.propertyRepository = Objects.requireNonNull(propertyRepository, "propertyRepository");
+        this.responseMapperRegistry = Objects.requireNonNull(responseMapperRegistry, "responseMapperRegistry");
+        this.readOnlyTransaction = new TransactionTemplate(Objects.requireNonNull(transactionManager, "transactionManager"));
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Property in evidenza (ultime {@value #FEATURED_SIZE} create), dallo snapshot corrente
+     * o ricostruendolo se è stato invalidato.
+     */
+    public List<PropertyResponse> get() {
+        List<PropertyResponse> current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot.get();
+            return current != null ? current : refresh();
+        }
+    }
+
+    /**
+     * Ricalcola lo snapshot e lo pubblica, salvo invalidazioni avvenute nel frattempo.
+     */
+    public synchronized List<PropertyResponse> refresh() {
+        long startedAt = generation.get();
+        List<PropertyResponse> fresh = readOnlyTransaction.execute(status ->
+                responseMapperRegistry.mapAll(propertyRepository.getFeatured(PageRequest.of(0, FEATURED_SIZE))));
+        if (generation.get() == startedAt) {
+            snapshot.set(fresh);
+        }
+        return fresh;
+    }
+
+    @Scheduled(initialDelayString = "${featured.refresh-interval-ms:60000}",
+               fixedDelayString = "${featured.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (DataAccessException e) {
+            // resta in uso lo snapshot precedente
+            logger.warn("Aggiornamento delle property in evidenza fallito: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onPropertyCreated(PropertyCreatedEvent event) {
+        invalidate();
+    }
+
+    @TransactionalEventListener
+    public void onPropertyDeleted(PropertyDeletedEvent event) {
+        invalidate();
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot.set(null);
+    }
+}
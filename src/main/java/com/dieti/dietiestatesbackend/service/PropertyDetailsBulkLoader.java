@@ -0,0 +1,97 @@
+package com.dieti.dietiestatesbackend.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import com.dieti.dietiestatesbackend.config.AppConfig;
+import com.dieti.dietiestatesbackend.dto.response.PropertyResponse;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.mappers.ResponseMapperRegistry;
+import com.dieti.dietiestatesbackend.repositories.PropertyRepository;
+
+/**
+ * Multi-get cache-aside dei dettagli property sulla cache {@value AppConfig#PROPERTY_DETAILS_CACHE},
+ * la stessa usata dal dettaglio singolo: gli id già in cache non toccano il database, i mancanti
+ * sono letti con {@code findAllDetailedByIdIn} a blocchi di {@code property.history.chunk-size}
+ * e reinseriti in cache. Il risultato segue l'ordine richiesto; gli id inesistenti sono omessi.
+ *
+ * Non apre transazioni: il chiamante ({@link PropertyService#getPropertyHistory}) è
+ * {@code @Transactional(readOnly = true)}, necessario con open-in-view disattivato perché la
+ * mappatura legge relazioni lazy. I blocchi ({@code chunk-size}, default 50) sono più piccoli del
+ * massimo di id per richiesta ({@code max-ids}, default 100), così le IN restano brevi.
+ */
+@Component
+public class PropertyDetailsBulkLoader {
+
+    private final PropertyRepository propertyRepository;
+    private final ResponseMapperRegistry responseMapperRegistry;
+    private final CacheManager cacheManager;
+    private final int chunkSize;
+    private final int maxIds;
+
+    public PropertyDetailsBulkLoader(PropertyRepository propertyRepository,
+                                     ResponseMapperRegistry responseMapperRegistry,
+                                     CacheManager cacheManager,
+                                     @Value("${property.history.chunk-size:50}") int chunkSize,
+                                     @Value("${property.history.max-ids:100}") int maxIds) {
+        this.propertyRepository = Objects.requireNonNull(propertyRepository, "propertyRepository");
+        this.responseMapperRegistry = Objects.requireNonNull(responseMapperRegistry, "responseMapperRegistry");
+        this.cacheManager = Objects.requireNonNull(cacheManager, "cacheManager");
+        if (chunkSize <= 0 || maxIds <= 0) {
+            throw new IllegalArgumentException("property.history.chunk-size and max-ids must be positive");
+        }
+        this.chunkSize = chunkSize;
+        this.maxIds = maxIds;
+    }
+
+    /**
+     * @param ids id distinti, nell'ordine in cui restituirli
+     * @throws IllegalArgumentException se gli id superano {@code property.history.max-ids}
+     */
+    public List<PropertyResponse> load(List<Long> ids) {
+        Objects.requireNonNull(ids, "ids must not be null");
+        if (ids.size() > maxIds) {
+            throw new IllegalArgumentException("Non è possibile richiedere più di " + maxIds + " immobili");
+        }
+
+        Cache cache = cacheManager.getCache(AppConfig.PROPERTY_DETAILS_CACHE);
+        Map<Long, PropertyResponse> found = new HashMap<>(ids.size() * 2);
+        List<Long> misses = new ArrayList<>();
+        for (Long id : ids) {
+            PropertyResponse cached = cache != null ? cache.get(id, PropertyResponse.class) : null;
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+
+        for (int from = 0; from < misses.size(); from += chunkSize) {
+            List<Long> chunk = misses.subList(from, Math.min(from + chunkSize, misses.size()));
+            for (Property property : propertyRepository.findAllDetailedByIdIn(chunk)) {
+                PropertyResponse response = responseMapperRegistry.map(property);
+                found.put(property.getId(), response);
+                if (cache != null) {
+                    cache.put(property.getId(), response);
+                }
+            }
+        }
+
+        List<PropertyResponse> result = new ArrayList<>(found.size());
+        for (Long id : ids) {
+            PropertyResponse response = found.get(id);
+            if (response != null) {
+                result.add(response);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,91 @@
+package com.dieti.dietiestatesbackend.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Cache opzionale ({@code property.json-cache.enabled}) delle risposte di dettaglio e featured
+ * già serializzate in JSON UTF-8 con lo stesso {@link ObjectMapper} di Spring MVC, eventualmente
+ * anche compresse gzip. Le chiavi contengono l'ETag forte della risposta, derivato da id e
+ * {@code updatedAt}: una property modificata ha una chiave nuova e la voce vecchia scade da sola.
+ *
+ * Limitata in byte ({@code property.json-cache.max-bytes}); la versione gzip è calcolata solo
+ * sopra {@code property.json-cache.gzip-min-bytes}, sotto la compressione non conviene.
+ */
+@Component
+public class PropertyJsonCache {
+
+    /** JSON serializzato e, se calcolato, la sua versione gzip. */
+    public record Payload(byte[] json, byte[] gzip) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final boolean gzipEnabled;
+    private final int gzipMinBytes;
+    private final Cache<String, Payload> cache;
+
+    public PropertyJsonCache(ObjectMapper objectMapper,
+                             @Value("${property.json-cache.enabled:false}") boolean enabled,
+                             @Value("${property.json-cache.gzip:true}") boolean gzipEnabled,
+                             @Value("${property.json-cache.gzip-min-bytes:1024}") int gzipMinBytes,
+                             @Value("${property.json-cache.max-bytes:67108864}") long maxBytes) {
+        this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper");
+        this.enabled = enabled;
+        this.gzipEnabled = gzipEnabled;
+        this.gzipMinBytes = gzipMinBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, Payload payload) -> payload.json().length
+                        + (payload.gzip() == null ? 0 : payload.gzip().length))
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Payload della risposta identificata da {@code key}; alla prima richiesta serializza il body.
+     *
+     * @return {@code null} se {@code body} restituisce {@code null} (nulla viene messo in cache)
+     */
+    public Payload get(String key, Supplier<?> body) {
+        return cache.get(key, k -> {
+            Object value = body.get();
+            return value == null ? null : serialize(value);
+        });
+    }
+
+    private Payload serialize(Object value) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Serializzazione della risposta fallita", e);
+        }
+        return new Payload(json, gzipEnabled && json.length >= gzipMinBytes ? gzip(json) : null);
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -6,6 +6,7 @@ import java.util.Objects;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -21,6 +22,7 @@ import com.dieti.dietiestatesbackend.entities.Property;
 import com.dieti.dietiestatesbackend.enums.PropertyType;
 import com.dieti.dietiestatesbackend.mappers.ResponseMapperRegistry;
 import com.dieti.dietiestatesbackend.repositories.PropertyRepository;
+import com.dieti.dietiestatesbackend.service.events.PropertyCreatedEvent;
 import com.dieti.dietiestatesbackend.service.storage.FileStorageService;
 import com.dieti.dietiestatesbackend.service.storage.ImageValidationService;
 import com.github.f4b6a3.ulid.UlidCreator;
@@ -46,6 +48,7 @@ public class PropertyManagementService {
     private final ResponseMapperRegistry responseMapperRegistry;
     private final FileStorageService fileStorageService;
     private final ImageValidationService imageValidationService;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     public PropertyManagementService(PropertyRepository propertyRepository,
@@ -54,6 +57,7 @@ public class PropertyManagementService {
                                      ResponseMapperRegistry responseMapperRegistry,
                                      FileStorageService fileStorageService,
                                      ImageValidationService imageValidationService,
+                                     ApplicationEventPublisher eventPublisher,
                                      @Lazy PropertyManagementService self) {
         this.propertyRepository = Objects.requireNonNull(propertyRepository, "propertyRepository");
         this.propertyCreationService = Objects.requireNonNull(propertyCreationService, "propertyCreationService");
@@ -61,6 +65,7 @@ public class PropertyManagementService {
         this.responseMapperRegistry = Objects.requireNonNull(responseMapperRegistry, "responseMapperRegistry");
         this.fileStorageService = Objects.requireNonNull(fileStorageService, "fileStorageService");
         this.imageValidationService = Objects.requireNonNull(imageValidationService, "imageValidationService");
+        this.eventPublisher = Objects.requireNonNull(eventPublisher, "eventPublisher");
         this.self = self;
     }
 
@@ -131,7 +136,9 @@ public class PropertyManagementService {
         Property savedProperty = propertyRepository.save(property);
         logger.info("Property created with images id={}, type={}, imagesCount={}, imageDirectoryUlid={}",
                    savedProperty.getId(), derivedPropertyType, numberOfImages, imageDirectoryUlid);
-        
+
+        // i listener transazionali (es. ricerche salvate) ricevono l'evento solo dopo il commit
+        eventPublisher.publishEvent(new PropertyCreatedEvent(savedProperty));
         return savedProperty;
     }
 }
\ No newline at end of file
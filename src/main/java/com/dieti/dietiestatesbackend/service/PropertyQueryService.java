@@ -1,6 +1,9 @@
 package com.dieti.dietiestatesbackend.service;
 
+import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,14 +11,33 @@ import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.data.jpa.domain.Specification;
 
 import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.dto.response.KeysetPage;
+import com.dieti.dietiestatesbackend.dto.response.PriceStatisticsResponse;
+import com.dieti.dietiestatesbackend.dto.response.PropertyClustersResponse;
+import com.dieti.dietiestatesbackend.dto.response.PropertySummary;
+import com.dieti.dietiestatesbackend.dto.response.SearchFacetsResponse;
 import com.dieti.dietiestatesbackend.entities.Property;
 import com.dieti.dietiestatesbackend.exception.EntityNotFoundException;
 import com.dieti.dietiestatesbackend.repositories.PropertyRepository;
+import com.dieti.dietiestatesbackend.service.search.KeysetSort;
+import com.dieti.dietiestatesbackend.service.search.PriceStatisticsService;
+import com.dieti.dietiestatesbackend.service.search.PropertyClusterService;
+import com.dieti.dietiestatesbackend.service.search.PropertyReadModelSearch;
+import com.dieti.dietiestatesbackend.service.search.PropertySearchExecutor;
+import com.dieti.dietiestatesbackend.service.search.SearchCursor;
+import com.dieti.dietiestatesbackend.service.search.SearchFacetService;
+import com.dieti.dietiestatesbackend.service.search.SimilarPropertyIndex;
+import com.dieti.dietiestatesbackend.service.search.SpatialSearchSupport;
+import com.dieti.dietiestatesbackend.service.search.TextSearchSupport;
+import com.dieti.dietiestatesbackend.specifications.DistanceExpressions;
+import com.dieti.dietiestatesbackend.specifications.PropertyExpression;
 import com.dieti.dietiestatesbackend.specifications.PropertySpecifications;
+import com.dieti.dietiestatesbackend.specifications.TextSearchExpressions;
 
 /**
  * Service dedicated to read-only queries for Property.
@@ -27,10 +49,35 @@ import com.dieti.dietiestatesbackend.specifications.PropertySpecifications;
 public class PropertyQueryService implements PropertyQueryServiceInterface {
 
     private final PropertyRepository propertyRepository;
+    private final SpatialSearchSupport spatialSearchSupport;
+    private final PropertySearchExecutor searchExecutor;
+    private final SearchFacetService searchFacetService;
+    private final PropertyClusterService clusterService;
+    private final TextSearchSupport textSearchSupport;
+    private final PropertyReadModelSearch readModelSearch;
+    private final PriceStatisticsService priceStatisticsService;
+    private final SimilarPropertyIndex similarPropertyIndex;
     private static final Logger logger = LoggerFactory.getLogger(PropertyQueryService.class);
+    private static final int MAX_KEYSET_PAGE_SIZE = 100;
 
-    public PropertyQueryService(PropertyRepository propertyRepository) {
+    public PropertyQueryService(PropertyRepository propertyRepository,
+                                SpatialSearchSupport spatialSearchSupport,
+                                PropertySearchExecutor searchExecutor,
+                                SearchFacetService searchFacetService,
+                                PropertyClusterService clusterService,
+                                TextSearchSupport textSearchSupport,
+                                PropertyReadModelSearch readModelSearch,
+                                PriceStatisticsService priceStatisticsService,
+                                SimilarPropertyIndex similarPropertyIndex) {
         this.propertyRepository = Objects.requireNonNull(propertyRepository, "propertyRepository");
+        this.spatialSearchSupport = Objects.requireNonNull(spatialSearchSupport, "spatialSearchSupport");
+        this.searchExecutor = Objects.requireNonNull(searchExecutor, "searchExecutor");
+        this.searchFacetService = Objects.requireNonNull(searchFacetService, "searchFacetService");
+        this.clusterService = Objects.requireNonNull(clusterService, "clusterService");
+        this.textSearchSupport = Objects.requireNonNull(textSearchSupport, "textSearchSupport");
+        this.readModelSearch = Objects.requireNonNull(readModelSearch, "readModelSearch");
+        this.priceStatisticsService = Objects.requireNonNull(priceStatisticsService, "priceStatisticsService");
+        this.similarPropertyIndex = Objects.requireNonNull(similarPropertyIndex, "similarPropertyIndex");
     }
 
 
@@ -38,24 +85,161 @@ public class PropertyQueryService implements PropertyQueryServiceInterface {
      * Search using rich filters with pagination. Uses specification-based query
      * with fetch-joins optimized for read and precise geographic filtering.
      * Geographic filters (centerLatitude, centerLongitude, radiusInMeters) are now mandatory and validated by Bean Validation.
-     * All geographic filtering is now handled at the database level through JPA Specifications.
+     * All geographic filtering is now handled at the database level through JPA Specifications:
+     * with PostGIS the radius is evaluated by {@code ST_DWithin} on the indexed geography column,
+     * otherwise the bounding box on latitude/longitude is used as fallback.
+     * Execution is two-phase (page of ids, then one hydrating query) to avoid N+1 lazy loads.
+     * When a center is given, the great-circle distance is computed by the database, returned
+     * in {@code distanceMeters} and usable as sort key ({@code sort=distance,asc}).
+     * With a free-text {@code query} the relevance score is returned in {@code relevance}
+     * and usable as sort key ({@code sort=relevance,desc}).
+     * With {@code search.read-model.mode=projection} phase one runs on the flat {@code property_search}
+     * table instead of the joined entity hierarchy.
      */
     public Page<Property> searchPropertiesWithFilters(FilterRequest filters, Pageable pageable) {
         Objects.requireNonNull(filters, "filters must not be null");
         Objects.requireNonNull(pageable, "pageable must not be null");
 
+        Map<String, PropertyExpression<?>> keys = computedKeys(filters, pageable.getSort());
+        if (readModelSearch.isEnabled()) {
+            return readModelSearch.search(filters, keys.keySet(), pageable);
+        }
+
         // Costruisci la Specification dinamicamente utilizzando la classe PropertySpecifications
-        Specification<Property> spec = PropertySpecifications.buildFromFilters(filters);
+        Specification<Property> spec = PropertySpecifications.buildFromFilters(filters, spatialSearchSupport.getMode());
+
+        // Fase uno: id della pagina; fase due: idratazione con fetch join in una sola query
+        return searchExecutor.search(spec, keys, pageable);
+    }
+
+    /**
+     * Same search as {@link #searchPropertiesWithFilters} returning the {@code summary} view:
+     * phase two selects only the list columns through a JPQL constructor expression,
+     * so no entity is loaded and no subtype table is joined.
+     */
+    public Page<PropertySummary> searchPropertySummaries(FilterRequest filters, Pageable pageable) {
+        Objects.requireNonNull(filters, "filters must not be null");
+        Objects.requireNonNull(pageable, "pageable must not be null");
 
-        // Usa il repository con Specification
-        return propertyRepository.findAll(spec, pageable);
+        Map<String, PropertyExpression<?>> keys = computedKeys(filters, pageable.getSort());
+        if (readModelSearch.isEnabled()) {
+            return readModelSearch.searchSummaries(filters, keys.keySet(), pageable);
+        }
+        Specification<Property> spec = PropertySpecifications.buildFromFilters(filters, spatialSearchSupport.getMode());
+        return searchExecutor.searchSummaries(spec, keys, pageable);
     }
 
     /**
-     * Get featured properties (latest 4).
+     * Search using rich filters with keyset (seek) pagination.
+     * Unlike {@link #searchPropertiesWithFilters} no count query is issued and deep pages do not
+     * scan an OFFSET: the cursor restricts the result to rows after the last (sort key, id) seen,
+     * and one extra row is fetched only to know whether a next page exists.
+     *
+     * @param cursor opaque token from a previous page, {@code null} for the first page
+     * @param size page size (1..100)
+     * @param sort requested order, see {@link KeysetSort#from(Sort)}
+     */
+    public KeysetPage<Property> searchPropertiesKeyset(FilterRequest filters, String cursor, int size, Sort sort) {
+        Objects.requireNonNull(filters, "filters must not be null");
+        if (size < 1 || size > MAX_KEYSET_PAGE_SIZE) {
+            throw new IllegalArgumentException("La dimensione della pagina deve essere compresa tra 1 e " + MAX_KEYSET_PAGE_SIZE);
+        }
+
+        KeysetSort keysetSort = KeysetSort.from(sort);
+        SearchCursor decoded = null;
+        if (cursor != null && !cursor.isBlank()) {
+            decoded = SearchCursor.decode(cursor);
+            if (decoded.getSort() != keysetSort) {
+                throw new IllegalArgumentException("Il cursore non corrisponde all'ordinamento richiesto");
+            }
+        }
+
+        Map<String, PropertyExpression<?>> keys = computedKeys(filters, Sort.unsorted());
+        List<Property> rows;
+        if (readModelSearch.isEnabled()) {
+            rows = readModelSearch.fetch(filters, decoded, keys.keySet(), keysetSort.toSort(), size + 1);
+        } else {
+            Specification<Property> spec = PropertySpecifications.buildFromFilters(filters, spatialSearchSupport.getMode());
+            if (decoded != null) {
+                spec = spec.and(PropertySpecifications.afterCursor(decoded));
+            }
+            rows = searchExecutor.fetch(spec, keys, keysetSort.toSort(), size + 1);
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<Property> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            Property last = content.get(content.size() - 1);
+            nextCursor = SearchCursor.of(keysetSort, keysetSort.extractKey(last), last.getId()).encode();
+        }
+        return new KeysetPage<>(List.copyOf(content), size, nextCursor, hasNext);
+    }
+
+    /**
+     * Facet counts for the given filters, computed in a single aggregation query.
+     * Each dimension is counted ignoring its own filter, so the client can show the alternatives.
+     */
+    public SearchFacetsResponse getSearchFacets(FilterRequest filters) {
+        Objects.requireNonNull(filters, "filters must not be null");
+        return searchFacetService.computeFacets(filters);
+    }
+
+    /**
+     * Price percentiles (price and price per m²) and price histogram for the given filters,
+     * aggregated in the database when supported and cached per filter for a short time.
+     */
+    public PriceStatisticsResponse getPriceStatistics(FilterRequest filters) {
+        Objects.requireNonNull(filters, "filters must not be null");
+        return priceStatisticsService.computeStatistics(filters);
+    }
+
+    /**
+     * Map clusters for a viewport: grid aggregation in the database, individual points at high zoom.
+     */
+    public PropertyClustersResponse getClusters(FilterRequest filters,
+                                                BigDecimal minLatitude, BigDecimal maxLatitude,
+                                                BigDecimal minLongitude, BigDecimal maxLongitude,
+                                                int zoom) {
+        return clusterService.cluster(filters, minLatitude, maxLatitude, minLongitude, maxLongitude, zoom);
+    }
+
+    /**
+     * Chiavi calcolate dal DB per la ricerca: distanza dal centro (o dalla zona più vicina) e rilevanza testuale, se applicabili.
+     */
+    private Map<String, PropertyExpression<?>> computedKeys(FilterRequest filters, Sort sort) {
+        Map<String, PropertyExpression<?>> keys = new HashMap<>();
+        if (filters.getCenterLatitude() != null && filters.getCenterLongitude() != null) {
+            keys.put(PropertySearchExecutor.DISTANCE_KEY, DistanceExpressions.distanceFrom(
+                    filters.getCenterLatitude(), filters.getCenterLongitude(), spatialSearchSupport.getMode()));
+        } else if (filters.getCircles() != null && !filters.getCircles().isEmpty()) {
+            // ricerca multi-centro senza centro di riferimento: distanza dalla zona più vicina
+            keys.put(PropertySearchExecutor.DISTANCE_KEY, DistanceExpressions.distanceFromNearest(
+                    PropertySpecifications.searchCircles(filters), spatialSearchSupport.getMode()));
+        } else if (sort.getOrderFor(PropertySearchExecutor.DISTANCE_KEY) != null) {
+            throw new IllegalArgumentException("L'ordinamento per distanza richiede centerLatitude e centerLongitude oppure circles");
+        }
+        if (!TextSearchExpressions.terms(filters.getQuery()).isEmpty()) {
+            keys.put(PropertySearchExecutor.RELEVANCE_KEY, TextSearchExpressions.relevance(
+                    filters.getQuery(), textSearchSupport.isTrigramEnabled()));
+        } else if (sort.getOrderFor(PropertySearchExecutor.RELEVANCE_KEY) != null) {
+            throw new IllegalArgumentException("L'ordinamento per rilevanza richiede il campo query");
+        }
+        return keys;
+    }
+
+    /**
+     * Get featured properties (latest {@value FeaturedPropertiesSnapshot#FEATURED_SIZE}).
      */
     public List<Property> getFeatured() {
-        return propertyRepository.getFeatured(PageRequest.of(0, 4)).getContent();
+        return propertyRepository.getFeatured(PageRequest.of(0, FeaturedPropertiesSnapshot.FEATURED_SIZE));
+    }
+
+    /**
+     * Featured properties (latest {@value FeaturedPropertiesSnapshot#FEATURED_SIZE}) in the {@code summary} view.
+     */
+    public List<PropertySummary> getFeaturedSummaries() {
+        return propertyRepository.findFeaturedSummaries(PageRequest.of(0, FeaturedPropertiesSnapshot.FEATURED_SIZE));
     }
 
     /**
@@ -66,6 +250,21 @@ public class PropertyQueryService implements PropertyQueryServiceInterface {
                 .orElseThrow(() -> new EntityNotFoundException("Property not found with id: " + propertyID));
     }
 
+    /**
+     * Most similar properties from the in-memory kNN index, hydrated in similarity order.
+     * A property not (yet) indexed is loaded and used as query vector; a missing one yields 404.
+     */
+    public List<Property> getSimilarProperties(long propertyID, int limit) {
+        if (limit < 1 || limit > SimilarPropertyIndex.MAX_LIMIT) {
+            throw new IllegalArgumentException("limit deve essere compreso tra 1 e " + SimilarPropertyIndex.MAX_LIMIT);
+        }
+        List<Long> ids = similarPropertyIndex.similarTo(propertyID, limit);
+        if (ids == null) {
+            ids = similarPropertyIndex.similarTo(getProperty(propertyID), limit);
+        }
+        return searchExecutor.hydrate(ids);
+    }
+
     /**
      * Ottiene una lista di proprietà in base agli ID specificati.
      * Restituisce solo le proprietà esistenti, ignorando gli ID non trovati.
@@ -1,11 +1,18 @@
 package com.dieti.dietiestatesbackend.service;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.dto.response.KeysetPage;
+import com.dieti.dietiestatesbackend.dto.response.PropertySummary;
+import com.dieti.dietiestatesbackend.dto.response.PriceStatisticsResponse;
+import com.dieti.dietiestatesbackend.dto.response.PropertyClustersResponse;
+import com.dieti.dietiestatesbackend.dto.response.SearchFacetsResponse;
 import com.dieti.dietiestatesbackend.entities.Property;
 
 /**
@@ -17,13 +24,64 @@ public interface PropertyQueryServiceInterface {
     
     /**
      * Cerca proprietà utilizzando filtri avanzati.
-     * Include filtri geografici con approccio a due fasi (bounding box DB + Haversine in memoria).
+     * Il filtro geografico è valutato dal DB: ST_DWithin su PostGIS, bounding box altrimenti.
      * I filtri geografici (centerLatitude, centerLongitude, radiusInMeters) sono ora obbligatori.
      *
      * @param filters filtri di ricerca
      * @return lista di proprietà che corrispondono ai filtri
      */
     Page<Property> searchPropertiesWithFilters(FilterRequest filters, Pageable pageable);
+
+    /**
+     * Come {@link #searchPropertiesWithFilters} ma restituisce la vista {@code summary},
+     * letta per colonne senza caricare le entità.
+     */
+    Page<PropertySummary> searchPropertySummaries(FilterRequest filters, Pageable pageable);
+
+    /**
+     * Cerca proprietà con paginazione keyset: nessuna query di count e nessun OFFSET.
+     *
+     * @param filters filtri di ricerca
+     * @param cursor token opaco della pagina precedente, {@code null} per la prima pagina
+     * @param size dimensione della pagina
+     * @param sort ordinamento richiesto (createdAt,desc - price,asc - price,desc)
+     * @return la pagina con il cursore per la successiva
+     */
+    KeysetPage<Property> searchPropertiesKeyset(FilterRequest filters, String cursor, int size, Sort sort);
+
+    /**
+     * Calcola i conteggi per facet (categoria, contratto, classe energetica, stato, fascia di prezzo).
+     * Ogni dimensione è conteggiata ignorando il proprio filtro.
+     *
+     * @param filters filtri di ricerca
+     * @return conteggi per facet e totale dei risultati
+     */
+    SearchFacetsResponse getSearchFacets(FilterRequest filters);
+
+    /**
+     * Calcola le statistiche di prezzo dei risultati: percentili di prezzo e prezzo al m² e istogramma del prezzo.
+     *
+     * @param filters filtri di ricerca
+     * @return statistiche di prezzo
+     */
+    PriceStatisticsResponse getPriceStatistics(FilterRequest filters);
+
+    /**
+     * Raggruppa le proprietà del viewport in cluster per la mappa.
+     * Ai livelli di zoom alti restituisce i singoli punti.
+     *
+     * @param filters filtri di ricerca (centro e raggio sono ignorati)
+     * @param minLatitude lato sud del viewport
+     * @param maxLatitude lato nord del viewport
+     * @param minLongitude lato ovest del viewport
+     * @param maxLongitude lato est del viewport
+     * @param zoom livello di zoom della mappa
+     * @return cluster o punti del viewport
+     */
+    PropertyClustersResponse getClusters(FilterRequest filters,
+                                         BigDecimal minLatitude, BigDecimal maxLatitude,
+                                         BigDecimal minLongitude, BigDecimal maxLongitude,
+                                         int zoom);
     
     /**
      * Ottiene le proprietà in evidenza (ultime 4).
@@ -31,6 +89,11 @@ public interface PropertyQueryServiceInterface {
      * @return lista delle proprietà in evidenza
      */
     List<Property> getFeatured();
+
+    /**
+     * Proprietà in evidenza nella vista {@code summary}.
+     */
+    List<PropertySummary> getFeaturedSummaries();
     
     /**
      * Ottiene una proprietà dettagliata per ID.
@@ -41,6 +104,17 @@ public interface PropertyQueryServiceInterface {
      */
     Property getProperty(long propertyID);
 
+    /**
+     * Ottiene le proprietà più simili a quella indicata (stesso contratto e tipologia),
+     * dalla più simile.
+     *
+     * @param propertyID ID della proprietà di riferimento
+     * @param limit numero di proprietà da restituire (1..20)
+     * @return proprietà simili
+     * @throws com.dieti.dietiestatesbackend.exception.EntityNotFoundException se la proprietà non viene trovata
+     */
+    List<Property> getSimilarProperties(long propertyID, int limit);
+
     /**
      * Ottiene una lista di proprietà in base agli ID specificati.
      * Restituisce solo le proprietà esistenti, ignorando gli ID non trovati.
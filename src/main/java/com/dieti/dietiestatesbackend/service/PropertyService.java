@@ -1,25 +1,41 @@
 package com.dieti.dietiestatesbackend.service;
  
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import org.springframework.web.multipart.MultipartFile;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
  
+import com.dieti.dietiestatesbackend.config.AppConfig;
 import com.dieti.dietiestatesbackend.dto.request.CreatePropertyRequest;
 import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
 import com.dieti.dietiestatesbackend.dto.request.PropertyHistoryRequest;
+import com.dieti.dietiestatesbackend.dto.response.KeysetPage;
+import com.dieti.dietiestatesbackend.dto.response.PriceStatisticsResponse;
+import com.dieti.dietiestatesbackend.dto.response.PropertyClustersResponse;
 import com.dieti.dietiestatesbackend.dto.response.PropertyResponse;
+import com.dieti.dietiestatesbackend.dto.response.PropertySummary;
+import com.dieti.dietiestatesbackend.dto.response.SearchFacetsResponse;
 import com.dieti.dietiestatesbackend.entities.Property;
 import com.dieti.dietiestatesbackend.exception.EntityNotFoundException;
 import com.dieti.dietiestatesbackend.repositories.PropertyRepository;
+import com.dieti.dietiestatesbackend.service.events.PropertyDeletedEvent;
 import com.dieti.dietiestatesbackend.service.geocoding.Coordinates;
 import com.dieti.dietiestatesbackend.service.places.PlacesService;
 import com.dieti.dietiestatesbackend.service.places.dto.PlaceDTO;
@@ -43,6 +59,9 @@ public class PropertyService {
     private final PropertyRepository propertyRepository;
     private final ResponseMapperRegistry responseMapperRegistry;
     private final FileStorageService fileStorageService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FeaturedPropertiesSnapshot featuredSnapshot;
+    private final PropertyDetailsBulkLoader detailsBulkLoader;
  
     /**
      * Costruttore principale: tutte le dipendenze sono richieste.
@@ -53,13 +72,19 @@ public class PropertyService {
                            PlacesService placesService,
                            PropertyRepository propertyRepository,
                            ResponseMapperRegistry responseMapperRegistry,
-                           FileStorageService fileStorageService) {
+                           FileStorageService fileStorageService,
+                           ApplicationEventPublisher eventPublisher,
+                           FeaturedPropertiesSnapshot featuredSnapshot,
+                           PropertyDetailsBulkLoader detailsBulkLoader) {
         this.propertyQueryService = Objects.requireNonNull(propertyQueryService, "propertyQueryService");
         this.propertyManagementService = Objects.requireNonNull(propertyManagementService, "propertyManagementService");
         this.placesService = Objects.requireNonNull(placesService, "placesService");
         this.propertyRepository = Objects.requireNonNull(propertyRepository, "propertyRepository");
         this.responseMapperRegistry = Objects.requireNonNull(responseMapperRegistry, "responseMapperRegistry");
         this.fileStorageService = Objects.requireNonNull(fileStorageService, "fileStorageService");
+        this.eventPublisher = Objects.requireNonNull(eventPublisher, "eventPublisher");
+        this.featuredSnapshot = Objects.requireNonNull(featuredSnapshot, "featuredSnapshot");
+        this.detailsBulkLoader = Objects.requireNonNull(detailsBulkLoader, "detailsBulkLoader");
     }
 
 
@@ -75,10 +100,49 @@ public class PropertyService {
     }
 
     /**
-     * Return a small list of featured properties (latest).
+     * Search with filters returning the lightweight {@code summary} view.
      */
-    public List<Property> getFeatured() {
-        return propertyQueryService.getFeatured();
+    public Page<PropertySummary> searchPropertySummaries(FilterRequest filters, Pageable pageable) {
+        Objects.requireNonNull(filters, "filters must not be null");
+        Objects.requireNonNull(pageable, "pageable must not be null");
+        return propertyQueryService.searchPropertySummaries(filters, pageable);
+    }
+
+    /**
+     * Search with filters using keyset pagination (no count query, no OFFSET scans).
+     */
+    public KeysetPage<Property> searchPropertiesKeyset(FilterRequest filters, String cursor, int size, Sort sort) {
+        Objects.requireNonNull(filters, "filters must not be null");
+        return propertyQueryService.searchPropertiesKeyset(filters, cursor, size, sort);
+    }
+
+    public SearchFacetsResponse getSearchFacets(FilterRequest filters) {
+        Objects.requireNonNull(filters, "filters must not be null");
+        return propertyQueryService.getSearchFacets(filters);
+    }
+
+    public PriceStatisticsResponse getPriceStatistics(FilterRequest filters) {
+        Objects.requireNonNull(filters, "filters must not be null");
+        return propertyQueryService.getPriceStatistics(filters);
+    }
+
+    public PropertyClustersResponse getClusters(FilterRequest filters,
+                                                BigDecimal minLatitude, BigDecimal maxLatitude,
+                                                BigDecimal minLongitude, BigDecimal maxLongitude,
+                                                int zoom) {
+        return propertyQueryService.getClusters(filters, minLatitude, maxLatitude, minLongitude, maxLongitude, zoom);
+    }
+
+    /**
+     * Return a small list of featured properties (latest), already mapped,
+     * from the precomputed {@link FeaturedPropertiesSnapshot}.
+     */
+    public List<PropertyResponse> getFeatured() {
+        return featuredSnapshot.get();
+    }
+
+    public List<PropertySummary> getFeaturedSummaries() {
+        return propertyQueryService.getFeaturedSummaries();
     }
 
     /**
@@ -88,6 +152,29 @@ public class PropertyService {
         return propertyQueryService.getProperty(propertyID);
     }
 
+    /**
+     * Ultima modifica della property, vuoto se non esiste. Usata per le richieste condizionali.
+     */
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> getLastModified(long propertyID) {
+        return propertyRepository.findUpdatedAtById(propertyID);
+    }
+
+    /**
+     * Dettaglio property già mappato, servito dalla cache {@value AppConfig#PROPERTY_DETAILS_CACHE}
+     * (limitata per dimensione e TTL, invalidata alla cancellazione). È anche la sorgente della
+     * {@link PropertyJsonCache} del dettaglio: i percorsi che modificano una property devono invalidarla qui.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = AppConfig.PROPERTY_DETAILS_CACHE, key = "#propertyID")
+    public PropertyResponse getPropertyDetails(long propertyID) {
+        return responseMapperRegistry.map(propertyQueryService.getProperty(propertyID));
+    }
+
+    public List<Property> getSimilarProperties(long propertyID, int limit) {
+        return propertyQueryService.getSimilarProperties(propertyID, limit);
+    }
+
     /**
      * Crea una proprietà con immagini a partire dal DTO unificato e una lista di file.
      * Delega la gestione completa al PropertyManagementService.
@@ -127,8 +214,13 @@ public class PropertyService {
         return propertyRepository.getPropertiesByAgentId(agentID, pageable);
     }
 
+    public Page<PropertySummary> getPropertySummariesByAgentId(Long agentID, Pageable pageable) {
+        return propertyRepository.findSummariesByAgentId(agentID, pageable);
+    }
+
 
     @Transactional
+    @CacheEvict(cacheNames = AppConfig.PROPERTY_DETAILS_CACHE, key = "#id")
     public void deleteProperty(Long id) {
         Objects.requireNonNull(id, "id must not be null");
         var propertyOptional = propertyRepository.findById(id);
@@ -152,6 +244,7 @@ public class PropertyService {
             }
 
             propertyRepository.deleteById(id);
+            eventPublisher.publishEvent(new PropertyDeletedEvent(id));
             logger.info("Proprietà con ID {} eliminata con successo.", id);
         } else {
             logger.warn("Tentativo di eliminare una proprietà non esistente con ID: {}", id);
@@ -161,27 +254,30 @@ public class PropertyService {
 
     /**
      * Recupera la cronologia degli immobili in base agli ID specificati.
-     * Metodo placeholder - la logica sarà implementata successivamente.
+     * Gli ID non numerici sono ignorati, i duplicati considerati una volta sola; i dettagli già
+     * in cache non vengono riletti (vedi {@link PropertyDetailsBulkLoader}).
      *
      * @param request DTO contenente la lista degli ID immobili da recuperare
-     * @return lista vuota (implementazione temporanea)
+     * @return dettagli degli immobili trovati, nell'ordine richiesto
      */
+    @Transactional(readOnly = true)
     public List<PropertyResponse> getPropertyHistory(PropertyHistoryRequest request) {
         logger.debug("Metodo getPropertyHistory chiamato con request: {}", request);
         Objects.requireNonNull(request, "request must not be null");
         List<String> propertyIds = request.getPropertyIds();
         Objects.requireNonNull(propertyIds, "propertyIds must not be null");
 
-        if (propertyIds.isEmpty()) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (String idStr : propertyIds) {
+            try {
+                ids.add(Long.valueOf(idStr));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid property id '{}' - ignoring", idStr);
+            }
+        }
+        if (ids.isEmpty()) {
             return List.of();
         }
-
-        // Recupera le entità Property tramite il PropertyQueryService
-        List<Property> properties = propertyQueryService.getPropertiesByIds(propertyIds);
-
-        // Mappa ogni Property in PropertyResponse usando il ResponseMapperRegistry
-        return properties.stream()
-                .map(responseMapperRegistry::map)
-                .toList();
+        return detailsBulkLoader.load(List.copyOf(ids));
     }
 }
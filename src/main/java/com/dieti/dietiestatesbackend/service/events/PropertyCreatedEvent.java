@@ -0,0 +1,14 @@
+package com.dieti.dietiestatesbackend.service.events;
+
+import com.dieti.dietiestatesbackend.entities.Property;
+
+/**
+ * Pubblicato quando una nuova property viene salvata.
+ * I listener interessati solo ai dati consolidati usano
+ * {@code @TransactionalEventListener} (fase AFTER_COMMIT, default): a quel punto
+ * l'entità è detached ma con categoria, contratto, indirizzo e coordinate già valorizzati.
+ *
+ * @param property la property appena salvata
+ */
+public record PropertyCreatedEvent(Property property) {
+}
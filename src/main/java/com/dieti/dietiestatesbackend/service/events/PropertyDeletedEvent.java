@@ -0,0 +1,9 @@
+package com.dieti.dietiestatesbackend.service.events;
+
+/**
+ * Pubblicato quando una property viene cancellata, all'interno della transazione di cancellazione.
+ *
+ * @param propertyId id della property cancellata
+ */
+public record PropertyDeletedEvent(Long propertyId) {
+}
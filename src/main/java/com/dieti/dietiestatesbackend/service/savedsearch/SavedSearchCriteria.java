@@ -0,0 +1,224 @@
+package com.dieti.dietiestatesbackend.service.savedsearch;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.dto.request.SearchCircle;
+import com.dieti.dietiestatesbackend.entities.CommercialProperty;
+import com.dieti.dietiestatesbackend.entities.Coordinates;
+import com.dieti.dietiestatesbackend.entities.Garage;
+import com.dieti.dietiestatesbackend.entities.Land;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.entities.ResidentialProperty;
+import com.dieti.dietiestatesbackend.specifications.PropertySpecifications;
+import com.dieti.dietiestatesbackend.specifications.TextSearchExpressions;
+import com.dieti.dietiestatesbackend.util.BoundingBoxUtility;
+import com.dieti.dietiestatesbackend.util.GeoPolygon;
+
+/**
+ * Versione in memoria di {@code PropertySpecifications.buildFromFilters}: valuta un {@link FilterRequest}
+ * su una singola property già caricata, senza query.
+ *
+ * La semantica replica quella della specification (estremi inclusi, classe energetica confrontata
+ * come stringa come fa il DB sulla colonna enum, categoria e contratto solo trimmati e confrontati
+ * distinguendo maiuscole e minuscole, filtri di sottotipo solo con categoria indicata,
+ * raggio con la distanza di Haversine e zone multiple in OR, area disegnata con lo stesso poligono semplificato della query).
+ */
+final class SavedSearchCriteria {
+
+    private static final BoundingBoxUtility GEO = new BoundingBoxUtility();
+
+    private final FilterRequest filters;
+    private final String category;
+    private final String contract;
+    private final List<String> terms;
+    private final GeoPolygon area;
+    private final List<SearchCircle> circles;
+
+    SavedSearchCriteria(FilterRequest filters) {
+        this.filters = filters;
+        this.category = trimOrNull(filters.getCategory());
+        this.contract = trimOrNull(filters.getContract());
+        this.terms = TextSearchExpressions.terms(filters.getQuery());
+        this.area = PropertySpecifications.searchArea(filters);
+        this.circles = area == null ? PropertySpecifications.searchCircles(filters) : List.of();
+    }
+
+    /** Categoria (RESIDENTIAL, ...) richiesta, o {@code null} se la ricerca non la vincola. */
+    String category() {
+        return category;
+    }
+
+    /** Contratto (SALE, RENT) richiesto, o {@code null} se la ricerca non lo vincola. */
+    String contract() {
+        return contract;
+    }
+
+    boolean hasGeographicFilter() {
+        return area != null || !circles.isEmpty();
+    }
+
+    boolean matches(Property property) {
+        return matchesCommon(property)
+                && matchesTypeSpecific(property)
+                && matchesText(property)
+                && matchesGeographic(property);
+    }
+
+    private boolean matchesCommon(Property p) {
+        if (filters.getMinPrice() != null && (p.getPrice() == null || p.getPrice().compareTo(filters.getMinPrice()) < 0)) {
+            return false;
+        }
+        if (filters.getMaxPrice() != null && (p.getPrice() == null || p.getPrice().compareTo(filters.getMaxPrice()) > 0)) {
+            return false;
+        }
+        if (filters.getMinArea() != null && (p.getArea() == null || p.getArea() < filters.getMinArea())) {
+            return false;
+        }
+        if (filters.getMinYearBuilt() != null && (p.getYearBuilt() == null || p.getYearBuilt() < filters.getMinYearBuilt())) {
+            return false;
+        }
+        if (!isEmpty(filters.getAcceptedCondition()) && !filters.getAcceptedCondition().contains(p.getCondition())) {
+            return false;
+        }
+        if (filters.getMinEnergyRating() != null && (p.getEnergyRating() == null
+                || p.getEnergyRating().name().compareTo(filters.getMinEnergyRating().name()) < 0)) {
+            return false;
+        }
+        if (contract != null && (p.getContract() == null || !contract.equals(p.getContract().getName()))) {
+            return false;
+        }
+        if (category != null && (p.getPropertyCategory() == null
+                || !category.equals(p.getPropertyCategory().getPropertyType()))) {
+            return false;
+        }
+        String subcategory = trimOrNull(filters.getPropertySubcategoryName());
+        return subcategory == null
+                || (p.getPropertyCategory() != null && subcategory.equals(p.getPropertyCategory().getName()));
+    }
+
+    private boolean matchesTypeSpecific(Property p) {
+        if (category == null) {
+            return true;
+        }
+        // come typeSpecificFilters: la scelta del sottotipo ignora maiuscole e minuscole
+        switch (category.toUpperCase(Locale.ROOT)) {
+            case "RESIDENTIAL":
+                return p instanceof ResidentialProperty r && matchesResidential(r);
+            case "COMMERCIAL":
+                return p instanceof CommercialProperty c && matchesCommercial(c);
+            case "GARAGE":
+                return p instanceof Garage g && matchesGarage(g);
+            case "LAND":
+                return p instanceof Land l && matchesLand(l);
+            default:
+                return true;
+        }
+    }
+
+    private boolean matchesResidential(ResidentialProperty r) {
+        if (filters.getMinNumberOfRooms() != null && (r.getNumberOfRooms() == null || r.getNumberOfRooms() < filters.getMinNumberOfRooms())) {
+            return false;
+        }
+        if (filters.getMinNumberOfBathrooms() != null
+                && (r.getNumberOfBathrooms() == null || r.getNumberOfBathrooms() < filters.getMinNumberOfBathrooms())) {
+            return false;
+        }
+        if (filters.getMinParkingSpaces() != null && (r.getParkingSpaces() == null || r.getParkingSpaces() < filters.getMinParkingSpaces())) {
+            return false;
+        }
+        String heating = trimOrNull(filters.getHeating());
+        if (heating != null && (r.getHeating() == null || !heating.equals(r.getHeating().getName()))) {
+            return false;
+        }
+        if (!isEmpty(filters.getAcceptedGarden()) && !filters.getAcceptedGarden().contains(r.getGarden())) {
+            return false;
+        }
+        if (filters.getMustBeFurnished() != null && filters.getMustBeFurnished() != r.isFurnished()) {
+            return false;
+        }
+        return filters.getMustHaveElevator() == null || filters.getMustHaveElevator() == r.hasElevator();
+    }
+
+    private boolean matchesCommercial(CommercialProperty c) {
+        if (filters.getMinNumberOfFloors() != null && (c.getNumberOfFloors() == null || c.getNumberOfFloors() < filters.getMinNumberOfFloors())) {
+            return false;
+        }
+        return filters.getMustHaveWheelchairAccess() == null || filters.getMustHaveWheelchairAccess() == c.getHasWheelchairAccess();
+    }
+
+    private boolean matchesGarage(Garage g) {
+        if (filters.getMustHaveSurveillance() != null && filters.getMustHaveSurveillance() != g.isHasSurveillance()) {
+            return false;
+        }
+        return filters.getMinNumberOfFloors() == null
+                || (g.getNumberOfFloors() != null && g.getNumberOfFloors() >= filters.getMinNumberOfFloors());
+    }
+
+    private boolean matchesLand(Land l) {
+        return filters.getMustBeAccessibleFromStreet() == null || filters.getMustBeAccessibleFromStreet() == l.isAccessibleFromStreet();
+    }
+
+    private boolean matchesText(Property p) {
+        if (terms.isEmpty()) {
+            return true;
+        }
+        String description = lower(p.getDescription());
+        String features = lower(p.getAdditionalFeatures());
+        for (String term : terms) {
+            if (!description.contains(term) && !features.contains(term)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matchesGeographic(Property p) {
+        if (!hasGeographicFilter()) {
+            return true;
+        }
+        Coordinates coordinates = p.getAddress() == null ? null : p.getAddress().getCoordinates();
+        if (coordinates == null || coordinates.getLatitude() == null || coordinates.getLongitude() == null) {
+            return false;
+        }
+        if (area != null) {
+            return area.contains(coordinates.getLatitude().doubleValue(), coordinates.getLongitude().doubleValue());
+        }
+        for (SearchCircle circle : circles) {
+            double distance = GEO.haversineDistance(
+                    circle.getCenterLatitude().doubleValue(), circle.getCenterLongitude().doubleValue(),
+                    coordinates.getLatitude().doubleValue(), coordinates.getLongitude().doubleValue());
+            if (distance <= circle.getRadiusInMeters()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static String trimOrNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static boolean isEmpty(List<?> values) {
+        return values == null || values.isEmpty();
+    }
+
+    /** Bounding box del filtro geografico: quella dell'area disegnata o una per ogni zona. */
+    List<BigDecimal[]> boundingBoxes() {
+        if (area != null) {
+            return List.of(area.boundingBox());
+        }
+        List<BigDecimal[]> boxes = new ArrayList<>(circles.size());
+        for (SearchCircle circle : circles) {
+            boxes.add(GEO.calculateBoundingBox(circle.getCenterLatitude(), circle.getCenterLongitude(), circle.getRadiusInMeters()));
+        }
+        return boxes;
+    }
+}
@@ -0,0 +1,169 @@
+package com.dieti.dietiestatesbackend.service.savedsearch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.entities.SavedSearch;
+import com.dieti.dietiestatesbackend.entities.SavedSearchMatch;
+import com.dieti.dietiestatesbackend.repositories.SavedSearchMatchRepository;
+import com.dieti.dietiestatesbackend.service.events.PropertyCreatedEvent;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Accoda i match trovati dal {@link SavedSearchMatcher} per ogni nuova property e li scrive a blocchi:
+ * un'unica transazione e un unico flush per blocco invece di una transazione per match.
+ * Il flush avviene periodicamente ({@code saved-search.flush-interval-ms}) o appena la coda
+ * raggiunge {@code saved-search.batch-size}.
+ *
+ * Ogni blocco è scritto in una transazione nuova ({@code REQUIRES_NEW}): il flush può partire dal
+ * listener after-commit della creazione, dove la transazione di origine è già committata e una
+ * partecipazione (REQUIRED) non verrebbe mai committata.
+ *
+ * Se il blocco fallisce (ad es. FK violata da una ricerca o property cancellata dopo il drain: la
+ * ricerca viene deregistrata solo dopo il commit della cancellazione) i suoi match sono riscritti uno
+ * per transazione, così si perdono solo quelli non più validi. Alla chiusura del contesto la coda
+ * viene svuotata.
+ */
+@Component
+public class SavedSearchMatchRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SavedSearchMatchRecorder.class);
+
+    private final SavedSearchMatchRepository matchRepository;
+    private final SavedSearchMatcher matcher;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Queue<PendingMatch> pending = new ConcurrentLinkedQueue<>();
+
+    public SavedSearchMatchRecorder(SavedSearchMatchRepository matchRepository,
+                                    SavedSearchMatcher matcher,
+                                    EntityManager entityManager,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${saved-search.batch-size:200}") int batchSize) {
+        this.matchRepository = Objects.requireNonNull(matchRepository, "matchRepository");
+        this.matcher = Objects.requireNonNull(matcher, "matcher");
+        this.entityManager = Objects.requireNonNull(entityManager, "entityManager");
+        this.transactionTemplate = new TransactionTemplate(Objects.requireNonNull(transactionManager, "transactionManager"));
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Valuta la property appena salvata contro le ricerche registrate, dopo il commit:
+     * un rollback della creazione non produce match.
+     */
+    @TransactionalEventListener
+    public void onPropertyCreated(PropertyCreatedEvent event) {
+        Property property = event.property();
+        List<Long> matched = matcher.match(property);
+        if (!matched.isEmpty()) {
+            enqueue(property.getId(), matched);
+        }
+    }
+
+    public void enqueue(Long propertyId, List<Long> savedSearchIds) {
+        for (Long savedSearchId : savedSearchIds) {
+            pending.add(new PendingMatch(savedSearchId, propertyId));
+        }
+        if (pending.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Scrive i match in coda, un blocco di {@code batchSize} per transazione.
+     */
+    @Scheduled(fixedDelayString = "${saved-search.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        List<PendingMatch> batch = drain();
+        while (!batch.isEmpty()) {
+            write(batch);
+            batch = drain();
+        }
+    }
+
+    /**
+     * Scrive i match ancora in coda prima dello shutdown, mentre transaction manager e datasource
+     * sono ancora disponibili.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private List<PendingMatch> drain() {
+        List<PendingMatch> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+        PendingMatch next;
+        while (batch.size() < batchSize && (next = pending.poll()) != null) {
+            // le ricerche cancellate nel frattempo non vengono più registrate
+            if (matcher.isRegistered(next.savedSearchId())) {
+                batch.add(next);
+            }
+        }
+        return batch;
+    }
+
+    private void write(List<PendingMatch> batch) {
+        try {
+            save(batch);
+            logger.debug("Registrati {} match di ricerche salvate", batch.size());
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                discarded(batch.get(0), e);
+                return;
+            }
+            logger.warn("Scrittura di {} match di ricerche salvate fallita, riprovo uno per volta: {}",
+                    batch.size(), e.getMessage());
+            batch.forEach(this::writeSingle);
+        }
+    }
+
+    private void writeSingle(PendingMatch match) {
+        try {
+            save(List.of(match));
+        } catch (RuntimeException e) {
+            discarded(match, e);
+        }
+    }
+
+    private static void discarded(PendingMatch match, RuntimeException e) {
+        logger.warn("Match della ricerca salvata {} con la property {} scartato: {}",
+                match.savedSearchId(), match.propertyId(), e.getMessage());
+    }
+
+    private void save(List<PendingMatch> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<SavedSearchMatch> matches = new ArrayList<>(batch.size());
+            for (PendingMatch match : batch) {
+                SavedSearchMatch entity = new SavedSearchMatch();
+                entity.setSavedSearch(entityManager.getReference(SavedSearch.class, match.savedSearchId()));
+                entity.setProperty(entityManager.getReference(Property.class, match.propertyId()));
+                matches.add(entity);
+            }
+            matchRepository.saveAll(matches);
+        });
+    }
+
+    record PendingMatch(Long savedSearchId, Long propertyId) {}
+}
@@ -0,0 +1,186 @@
+package com.dieti.dietiestatesbackend.service.savedsearch;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.entities.Coordinates;
+import com.dieti.dietiestatesbackend.entities.Property;
+
+/**
+ * Motore di matching in memoria delle ricerche salvate.
+ *
+ * Ogni ricerca è registrata sotto le chiavi (categoria, contratto, cella) che la possono soddisfare:
+ * categoria e contratto sono il valore richiesto oppure il jolly, la cella è ogni cella della griglia
+ * geografica coperta dalla bounding box del raggio o dell'area disegnata (oppure il jolly se la ricerca non ha filtro
+ * geografico o copre troppe celle). Per una nuova property si leggono al più 8 chiavi e si valutano
+ * per intero solo le ricerche candidate: il costo dipende da quante ricerche insistono sulla stessa
+ * zona e tipologia, non dal numero totale di ricerche salvate.
+ */
+@Component
+public class SavedSearchMatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(SavedSearchMatcher.class);
+
+    static final String ANY = "*";
+    static final long ANY_CELL = Long.MIN_VALUE;
+    /** Oltre questo numero di celle la ricerca viene registrata con la cella jolly. */
+    private static final int MAX_CELLS_PER_SEARCH = 256;
+
+    private final double cellDegrees;
+    private final Map<Long, SavedSearchCriteria> searches = new ConcurrentHashMap<>();
+    private final Map<Long, List<IndexKey>> keysBySearch = new ConcurrentHashMap<>();
+    private final Map<IndexKey, Set<Long>> index = new ConcurrentHashMap<>();
+
+    public SavedSearchMatcher(@Value("${saved-search.grid-cell-degrees:0.1}") double cellDegrees) {
+        if (cellDegrees <= 0) {
+            throw new IllegalArgumentException("saved-search.grid-cell-degrees deve essere positivo");
+        }
+        this.cellDegrees = cellDegrees;
+    }
+
+    /**
+     * Registra (o sostituisce) una ricerca salvata.
+     */
+    public synchronized void register(Long savedSearchId, FilterRequest filters) {
+        unregister(savedSearchId);
+        SavedSearchCriteria criteria = new SavedSearchCriteria(filters);
+        String category = criteria.category() == null ? ANY : criteria.category();
+        String contract = criteria.contract() == null ? ANY : criteria.contract();
+
+        List<IndexKey> keys = new ArrayList<>();
+        for (long cell : cellsFor(criteria)) {
+            IndexKey key = new IndexKey(category, contract, cell);
+            index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(savedSearchId);
+            keys.add(key);
+        }
+        keysBySearch.put(savedSearchId, keys);
+        searches.put(savedSearchId, criteria);
+    }
+
+    public synchronized void unregister(Long savedSearchId) {
+        searches.remove(savedSearchId);
+        List<IndexKey> keys = keysBySearch.remove(savedSearchId);
+        if (keys == null) {
+            return;
+        }
+        for (IndexKey key : keys) {
+            index.computeIfPresent(key, (k, ids) -> {
+                ids.remove(savedSearchId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    public int size() {
+        return searches.size();
+    }
+
+    public boolean isRegistered(Long savedSearchId) {
+        return searches.containsKey(savedSearchId);
+    }
+
+    /**
+     * Id delle ricerche salvate soddisfatte dalla property.
+     */
+    public List<Long> match(Property property) {
+        String category = property.getPropertyCategory() == null ? null : property.getPropertyCategory().getPropertyType();
+        String contract = property.getContract() == null ? null : property.getContract().getName();
+        Long cell = cellOf(property);
+
+        Set<Long> candidates = new LinkedHashSet<>();
+        for (String c : new String[] { category, ANY }) {
+            for (String k : new String[] { contract, ANY }) {
+                if (c == null || k == null) {
+                    continue;
+                }
+                collect(candidates, new IndexKey(c, k, ANY_CELL));
+                if (cell != null) {
+                    collect(candidates, new IndexKey(c, k, cell));
+                }
+            }
+        }
+
+        List<Long> matched = new ArrayList<>();
+        for (Long id : candidates) {
+            SavedSearchCriteria criteria = searches.get(id);
+            if (criteria != null && criteria.matches(property)) {
+                matched.add(id);
+            }
+        }
+        logger.debug("Property {}: {} ricerche candidate, {} corrispondenze", property.getId(), candidates.size(), matched.size());
+        return matched;
+    }
+
+    private void collect(Set<Long> candidates, IndexKey key) {
+        Set<Long> ids = index.get(key);
+        if (ids != null) {
+            candidates.addAll(ids);
+        }
+    }
+
+    private List<Long> cellsFor(SavedSearchCriteria criteria) {
+        if (!criteria.hasGeographicFilter()) {
+            return List.of(ANY_CELL);
+        }
+        List<BigDecimal[]> boxes;
+        try {
+            boxes = criteria.boundingBoxes();
+        } catch (IllegalArgumentException e) {
+            // raggio nullo o coordinate fuori intervallo: la valutazione completa deciderà
+            return List.of(ANY_CELL);
+        }
+        // Con più zone si registrano le celle di ciascuna: zone vicine condividono le celle comuni
+        Set<Long> cells = new LinkedHashSet<>();
+        for (BigDecimal[] bounds : boxes) {
+            double minLon = bounds[2].doubleValue();
+            double maxLon = bounds[3].doubleValue();
+            if (minLon > maxLon) {
+                // bounding box a cavallo dell'antimeridiano: caso raro, non vale la pena indicizzarlo
+                return List.of(ANY_CELL);
+            }
+            long minLatCell = cellIndex(bounds[0].doubleValue());
+            long maxLatCell = cellIndex(bounds[1].doubleValue());
+            long minLonCell = cellIndex(minLon);
+            long maxLonCell = cellIndex(maxLon);
+            long count = (maxLatCell - minLatCell + 1) * (maxLonCell - minLonCell + 1);
+            if (cells.size() + count > MAX_CELLS_PER_SEARCH) {
+                return List.of(ANY_CELL);
+            }
+            for (long lat = minLatCell; lat <= maxLatCell; lat++) {
+                for (long lon = minLonCell; lon <= maxLonCell; lon++) {
+                    cells.add(cellKey(lat, lon));
+                }
+            }
+        }
+        return new ArrayList<>(cells);
+    }
+
+    private Long cellOf(Property property) {
+        Coordinates coordinates = property.getAddress() == null ? null : property.getAddress().getCoordinates();
+        if (coordinates == null || coordinates.getLatitude() == null || coordinates.getLongitude() == null) {
+            return null;
+        }
+        return cellKey(cellIndex(coordinates.getLatitude().doubleValue()), cellIndex(coordinates.getLongitude().doubleValue()));
+    }
+
+    private long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long cellKey(long latCell, long lonCell) {
+        return (latCell << 32) ^ (lonCell & 0xFFFFFFFFL);
+    }
+
+    record IndexKey(String category, String contract, long cell) {}
+}
@@ -0,0 +1,130 @@
+package com.dieti.dietiestatesbackend.service.savedsearch;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.dieti.dietiestatesbackend.dto.request.SavedSearchRequest;
+import com.dieti.dietiestatesbackend.dto.response.SavedSearchMatchResponse;
+import com.dieti.dietiestatesbackend.dto.response.SavedSearchResponse;
+import com.dieti.dietiestatesbackend.entities.SavedSearch;
+import com.dieti.dietiestatesbackend.entities.User;
+import com.dieti.dietiestatesbackend.exception.EntityNotFoundException;
+import com.dieti.dietiestatesbackend.repositories.SavedSearchMatchRepository;
+import com.dieti.dietiestatesbackend.repositories.SavedSearchRepository;
+import com.dieti.dietiestatesbackend.repositories.UserRepository;
+
+/**
+ * Gestione delle ricerche salvate dell'utente. Mantiene allineato il {@link SavedSearchMatcher}
+ * con la tabella {@code saved_search}: caricamento completo all'avvio, poi aggiornamenti
+ * puntuali dopo il commit di ogni creazione/cancellazione.
+ */
+@Service
+public class SavedSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SavedSearchService.class);
+
+    private final SavedSearchRepository savedSearchRepository;
+    private final SavedSearchMatchRepository matchRepository;
+    private final UserRepository userRepository;
+    private final SavedSearchMatcher matcher;
+    private final int maxPerUser;
+
+    public SavedSearchService(SavedSearchRepository savedSearchRepository,
+                              SavedSearchMatchRepository matchRepository,
+                              UserRepository userRepository,
+                              SavedSearchMatcher matcher,
+                              @Value("${saved-search.max-per-user:20}") int maxPerUser) {
+        this.savedSearchRepository = Objects.requireNonNull(savedSearchRepository, "savedSearchRepository");
+        this.matchRepository = Objects.requireNonNull(matchRepository, "matchRepository");
+        this.userRepository = Objects.requireNonNull(userRepository, "userRepository");
+        this.matcher = Objects.requireNonNull(matcher, "matcher");
+        this.maxPerUser = maxPerUser;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadMatcher() {
+        for (SavedSearch savedSearch : savedSearchRepository.findAll()) {
+            registerSafely(savedSearch);
+        }
+        logger.info("Ricerche salvate caricate nel motore di matching: {}", matcher.size());
+    }
+
+    @Transactional
+    public SavedSearchResponse create(Long userId, SavedSearchRequest request) {
+        if (savedSearchRepository.countByUserId(userId) >= maxPerUser) {
+            throw new IllegalStateException("Raggiunto il numero massimo di ricerche salvate (" + maxPerUser + ")");
+        }
+        User user = userRepository.getReferenceById(userId);
+        SavedSearch savedSearch = new SavedSearch();
+        savedSearch.setUser(user);
+        savedSearch.setName(request.getName().trim());
+        savedSearch.setFilters(request.getFilters());
+        SavedSearch saved = savedSearchRepository.save(savedSearch);
+        afterCommit(() -> registerSafely(saved));
+        return new SavedSearchResponse(saved);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SavedSearchResponse> list(Long userId) {
+        return savedSearchRepository.findByUserIdOrderByCreatedAtDesc(userId).stream()
+                .map(SavedSearchResponse::new)
+                .toList();
+    }
+
+    @Transactional
+    public void delete(Long userId, Long savedSearchId) {
+        SavedSearch savedSearch = findOwned(userId, savedSearchId);
+        savedSearchRepository.delete(savedSearch);
+        afterCommit(() -> matcher.unregister(savedSearchId));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<SavedSearchMatchResponse> getMatches(Long userId, Long savedSearchId, Pageable pageable) {
+        findOwned(userId, savedSearchId);
+        return matchRepository.findBySavedSearchIdOrderByCreatedAtDesc(savedSearchId, pageable)
+                .map(SavedSearchMatchResponse::new);
+    }
+
+    /**
+     * Le ricerche di altri utenti vengono trattate come inesistenti, per non rivelarne l'id.
+     */
+    private SavedSearch findOwned(Long userId, Long savedSearchId) {
+        return savedSearchRepository.findById(savedSearchId)
+                .filter(savedSearch -> savedSearch.getUser().getId().equals(userId))
+                .orElseThrow(() -> new EntityNotFoundException("Ricerca salvata non trovata con id: " + savedSearchId));
+    }
+
+    private void registerSafely(SavedSearch savedSearch) {
+        try {
+            matcher.register(savedSearch.getId(), savedSearch.getFilters());
+        } catch (RuntimeException e) {
+            logger.warn("Ricerca salvata {} non registrata nel motore di matching: {}", savedSearch.getId(), e.getMessage());
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,285 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import com.dieti.dietiestatesbackend.dto.response.AddressSuggestionDTO;
+import com.dieti.dietiestatesbackend.entities.Address;
+import com.dieti.dietiestatesbackend.repositories.AddressLocationCount;
+import com.dieti.dietiestatesbackend.repositories.AddressRepository;
+
+/**
+ * Indice in memoria per l'autocompletamento di città, province e vie.
+ *
+ * Le chiavi normalizzate (minuscole, senza accenti) sono tenute in un array ordinato:
+ * una ricerca per prefisso è una binary search più una scansione dell'intervallo,
+ * senza accessi al DB. Ogni valore è indicizzato anche dall'inizio di ogni parola
+ * ("Via Roma" risponde sia a "via r" che a "rom").
+ *
+ * L'indice è immutabile e pubblicato tramite {@link AtomicReference}: le letture non
+ * prendono lock, le scritture pubblicano un nuovo snapshot (copy-on-write). Il caricamento
+ * all'avvio ordina tutte le chiavi una volta; un nuovo indirizzo copia solo l'array dei pesi
+ * se i suoi suggerimenti esistono già, altrimenti fonde le poche chiavi nuove (ordinate a parte)
+ * nell'array già ordinato, in tempo lineare e senza riordinare tutto.
+ */
+@Component
+public class AddressSuggestionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AddressSuggestionIndex.class);
+
+    public static final int MAX_LIMIT = 20;
+    /** Massimo numero di chiavi esaminate per richiesta: limita il costo dei prefissi molto corti. */
+    private static final int MAX_SCAN = 2_000;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final AddressRepository addressRepository;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+    /** Posizione di ogni suggerimento nello snapshot corrente; acceduto solo sotto il lock dell'istanza. */
+    private final Map<AddressSuggestionDTO, Integer> positions = new HashMap<>();
+    /** Incrementi ricevuti durante un caricamento, null se non ce n'è uno in corso; acceduto sotto il lock dell'istanza. */
+    private List<Map<AddressSuggestionDTO, Long>> pendingDeltas;
+
+    public AddressSuggestionIndex(AddressRepository addressRepository) {
+        this.addressRepository = Objects.requireNonNull(addressRepository, "addressRepository");
+    }
+
+    /**
+     * Carica l'indice a partire dagli indirizzi presenti; in caso di errore l'indice resta vuoto
+     * e viene comunque alimentato dai nuovi indirizzi.
+     *
+     * Gli indirizzi aggiunti durante la lettura dal DB vengono sommati al risultato prima di pubblicarlo:
+     * uno già compreso nella lettura viene contato due volte, il che sposta di poco solo l'ordinamento,
+     * mentre scartarli farebbe sparire suggerimenti nuovi fino al riavvio.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (this) {
+            pendingDeltas = new ArrayList<>();
+        }
+        try {
+            List<AddressLocationCount> locations = addressRepository.countDistinctLocations();
+            Map<AddressSuggestionDTO, Long> weights = new HashMap<>();
+            for (AddressLocationCount location : locations) {
+                addLocation(weights, location.city(), location.province(), location.street(), location.total());
+            }
+            synchronized (this) {
+                for (Map<AddressSuggestionDTO, Long> delta : pendingDeltas) {
+                    delta.forEach((suggestion, count) -> weights.merge(suggestion, count, Long::sum));
+                }
+                Snapshot loaded = Snapshot.build(weights);
+                positions.clear();
+                for (int i = 0; i < loaded.suggestions.length; i++) {
+                    positions.put(loaded.suggestions[i], i);
+                }
+                snapshot.set(loaded);
+            }
+            logger.info("Indice suggerimenti indirizzi caricato: {} voci", weights.size());
+        } catch (DataAccessException e) {
+            logger.warn("Caricamento dell'indice suggerimenti indirizzi fallito: {}", e.getMessage());
+        } finally {
+            synchronized (this) {
+                pendingDeltas = null;
+            }
+        }
+    }
+
+    /**
+     * Aggiunge all'indice città, provincia e via di un indirizzo appena salvato.
+     */
+    public synchronized void add(Address address) {
+        if (address == null) {
+            return;
+        }
+        Map<AddressSuggestionDTO, Long> delta = new HashMap<>();
+        addLocation(delta, address.getCity(), address.getProvince(), address.getStreet(), 1L);
+        apply(delta);
+        if (pendingDeltas != null) {
+            pendingDeltas.add(delta);
+        }
+    }
+
+    /**
+     * Suggerimenti il cui testo (o una sua parola) inizia con {@code query}, ignorando maiuscole e accenti.
+     * A parità di prefisso sono preferiti i valori con più indirizzi.
+     */
+    public List<AddressSuggestionDTO> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Snapshot current = snapshot.get();
+        int from = lowerBound(current.keys, prefix);
+
+        Set<Integer> matched = new LinkedHashSet<>();
+        for (int i = from, scanned = 0; i < current.keys.length && scanned < MAX_SCAN; i++, scanned++) {
+            if (!current.keys[i].startsWith(prefix)) {
+                break;
+            }
+            matched.add(current.entries[i]);
+        }
+        return matched.stream()
+                .sorted(Comparator.comparingLong((Integer e) -> current.weights[e]).reversed()
+                        .thenComparing(e -> current.suggestions[e].getLabel()))
+                .limit(Math.min(limit, MAX_LIMIT))
+                .map(e -> current.suggestions[e])
+                .toList();
+    }
+
+    public int size() {
+        return snapshot.get().suggestions.length;
+    }
+
+    private static void addLocation(Map<AddressSuggestionDTO, Long> weights,
+                                    String city, String province, String street, long count) {
+        if (!isBlank(province)) {
+            weights.merge(new AddressSuggestionDTO(AddressSuggestionDTO.Type.PROVINCE, province.trim(), null, province.trim()),
+                    count, Long::sum);
+        }
+        if (!isBlank(city)) {
+            String cityProvince = isBlank(province) ? null : province.trim();
+            weights.merge(new AddressSuggestionDTO(AddressSuggestionDTO.Type.CITY, city.trim(), city.trim(), cityProvince),
+                    count, Long::sum);
+            if (!isBlank(street)) {
+                weights.merge(new AddressSuggestionDTO(AddressSuggestionDTO.Type.STREET, street.trim(), city.trim(), cityProvince),
+                        count, Long::sum);
+            }
+        }
+    }
+
+    /**
+     * Somma {@code delta} ai pesi dello snapshot corrente. I suggerimenti nuovi vengono accodati
+     * e le loro chiavi fuse nell'array ordinato; se non ce ne sono, chiavi e suggerimenti
+     * dello snapshot precedente sono riusati e cambia solo l'array dei pesi.
+     */
+    private void apply(Map<AddressSuggestionDTO, Long> delta) {
+        Snapshot current = snapshot.get();
+        List<AddressSuggestionDTO> added = new ArrayList<>();
+        for (AddressSuggestionDTO suggestion : delta.keySet()) {
+            if (!positions.containsKey(suggestion)) {
+                added.add(suggestion);
+            }
+        }
+        AddressSuggestionDTO[] suggestions = added.isEmpty()
+                ? current.suggestions
+                : Arrays.copyOf(current.suggestions, current.suggestions.length + added.size());
+        long[] weights = Arrays.copyOf(current.weights, suggestions.length);
+        List<KeyEntry> addedKeys = new ArrayList<>();
+        int entry = current.suggestions.length;
+        for (AddressSuggestionDTO suggestion : added) {
+            suggestions[entry] = suggestion;
+            positions.put(suggestion, entry);
+            addKeys(addedKeys, suggestion, entry);
+            entry++;
+        }
+        delta.forEach((suggestion, count) -> weights[positions.get(suggestion)] += count);
+
+        snapshot.set(addedKeys.isEmpty()
+                ? new Snapshot(current.keys, current.entries, suggestions, weights)
+                : current.merge(addedKeys, suggestions, weights));
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.trim(), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private static int lowerBound(String[] keys, String prefix) {
+        int index = Arrays.binarySearch(keys, prefix);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static void addKeys(List<KeyEntry> target, AddressSuggestionDTO suggestion, int entry) {
+        String normalized = normalize(suggestion.getLabel());
+        target.add(new KeyEntry(normalized, entry));
+        // Una chiave aggiuntiva per ogni parola successiva alla prima
+        for (int pos = normalized.indexOf(' '); pos >= 0; pos = normalized.indexOf(' ', pos + 1)) {
+            target.add(new KeyEntry(normalized.substring(pos + 1), entry));
+        }
+    }
+
+    /**
+     * Stato immutabile dell'indice: chiavi ordinate e, in parallelo, l'indice del suggerimento a cui puntano.
+     */
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new String[0], new int[0], new AddressSuggestionDTO[0], new long[0]);
+
+        final String[] keys;
+        final int[] entries;
+        final AddressSuggestionDTO[] suggestions;
+        final long[] weights;
+
+        private Snapshot(String[] keys, int[] entries, AddressSuggestionDTO[] suggestions, long[] weights) {
+            this.keys = keys;
+            this.entries = entries;
+            this.suggestions = suggestions;
+            this.weights = weights;
+        }
+
+        static Snapshot build(Map<AddressSuggestionDTO, Long> source) {
+            AddressSuggestionDTO[] suggestions = source.keySet().toArray(new AddressSuggestionDTO[0]);
+            long[] weights = new long[suggestions.length];
+            List<KeyEntry> keyEntries = new ArrayList<>(suggestions.length * 2);
+            for (int i = 0; i < suggestions.length; i++) {
+                weights[i] = source.get(suggestions[i]);
+                addKeys(keyEntries, suggestions[i], i);
+            }
+            keyEntries.sort(Comparator.comparing(KeyEntry::key));
+
+            String[] keys = new String[keyEntries.size()];
+            int[] entries = new int[keyEntries.size()];
+            for (int i = 0; i < keyEntries.size(); i++) {
+                keys[i] = keyEntries.get(i).key();
+                entries[i] = keyEntries.get(i).entry();
+            }
+            return new Snapshot(keys, entries, suggestions, weights);
+        }
+
+        /**
+         * Nuovo snapshot con le chiavi {@code added} fuse (merge lineare) in quelle già ordinate.
+         */
+        Snapshot merge(List<KeyEntry> added, AddressSuggestionDTO[] suggestions, long[] weights) {
+            added.sort(Comparator.comparing(KeyEntry::key));
+            String[] mergedKeys = new String[keys.length + added.size()];
+            int[] mergedEntries = new int[mergedKeys.length];
+            int i = 0;
+            int j = 0;
+            for (int k = 0; k < mergedKeys.length; k++) {
+                if (j == added.size() || (i < keys.length && keys[i].compareTo(added.get(j).key()) <= 0)) {
+                    mergedKeys[k] = keys[i];
+                    mergedEntries[k] = entries[i++];
+                } else {
+                    mergedKeys[k] = added.get(j).key();
+                    mergedEntries[k] = added.get(j++).entry();
+                }
+            }
+            return new Snapshot(mergedKeys, mergedEntries, suggestions, weights);
+        }
+    }
+
+    private record KeyEntry(String key, int entry) {}
+}
@@ -0,0 +1,151 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.dieti.dietiestatesbackend.dto.request.BatchSearchItem;
+import com.dieti.dietiestatesbackend.dto.response.BatchSearchResult;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.service.PropertyService;
+
+/**
+ * Esegue le ricerche di un batch in parallelo sull'executor dedicato.
+ *
+ * Ogni ricerca gira nella propria transazione read-only (con timeout pari alla scadenza del batch,
+ * applicato da Spring anche come timeout delle query) e la mappatura in risposta avviene dentro
+ * la transazione. Gli errori restano confinati alla singola ricerca; allo scadere del batch le
+ * ricerche non concluse vengono annullate e riportate come {@code TIMEOUT}.
+ */
+@Service
+public class BatchSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchSearchService.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final String GENERIC_ERROR = "Errore durante l'esecuzione della ricerca";
+
+    private final PropertyService propertyService;
+    private final ExecutorService executor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long deadlineMillis;
+
+    public BatchSearchService(PropertyService propertyService,
+                              @Qualifier("batchSearchExecutor") ExecutorService executor,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${search.batch.deadline-ms:3000}") long deadlineMillis) {
+        if (deadlineMillis <= 0) {
+            throw new IllegalArgumentException("search.batch.deadline-ms deve essere positivo");
+        }
+        this.propertyService = Objects.requireNonNull(propertyService, "propertyService");
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.deadlineMillis = deadlineMillis;
+        this.readOnlyTransaction = new TransactionTemplate(Objects.requireNonNull(transactionManager, "transactionManager"));
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(deadlineMillis + 999)));
+    }
+
+    /**
+     * Esegue le ricerche e restituisce un risultato per ciascuna, nello stesso ordine della richiesta.
+     *
+     * @param mapper conversione delle property nella risposta, eseguita dentro la transazione della ricerca
+     */
+    public <R> List<BatchSearchResult<R>> search(List<BatchSearchItem> searches, Function<Property, R> mapper) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+
+        List<Future<BatchSearchResult<R>>> futures = new ArrayList<>(searches.size());
+        for (BatchSearchItem item : searches) {
+            try {
+                futures.add(executor.submit(() -> runSearch(item, mapper)));
+            } catch (RejectedExecutionException e) {
+                logger.warn("Executor delle ricerche in batch saturo, ricerca {} rifiutata", item.getId());
+                futures.add(CompletableFuture.completedFuture(
+                        BatchSearchResult.error(item.getId(), "Troppe ricerche in corso, riprovare più tardi")));
+            }
+        }
+
+        List<BatchSearchResult<R>> results = new ArrayList<>(searches.size());
+        for (int i = 0; i < searches.size(); i++) {
+            results.add(await(futures.get(i), searches.get(i).getId(), deadline));
+        }
+        return results;
+    }
+
+    private <R> BatchSearchResult<R> await(Future<BatchSearchResult<R>> future, String id, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            logger.warn("Ricerca {} del batch oltre la scadenza di {} ms", id, deadlineMillis);
+            return BatchSearchResult.timeout(id);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return BatchSearchResult.timeout(id);
+        } catch (ExecutionException e) {
+            // runSearch converte già le eccezioni in risultati: qui arrivano solo errori imprevisti
+            logger.error("Ricerca {} del batch fallita", id, e.getCause());
+            return BatchSearchResult.error(id, GENERIC_ERROR);
+        }
+    }
+
+    private <R> BatchSearchResult<R> runSearch(BatchSearchItem item, Function<Property, R> mapper) {
+        try {
+            Page<R> page = readOnlyTransaction.execute(status ->
+                    propertyService.searchPropertiesWithFilters(item.getFilters(), pageable(item)).map(mapper));
+            return BatchSearchResult.ok(item.getId(), page);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return BatchSearchResult.error(item.getId(), e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Ricerca {} del batch fallita", item.getId(), e);
+            return BatchSearchResult.error(item.getId(), GENERIC_ERROR);
+        }
+    }
+
+    static Pageable pageable(BatchSearchItem item) {
+        int page = item.getPage() == null ? 0 : item.getPage();
+        int size = item.getSize() == null ? DEFAULT_PAGE_SIZE : item.getSize();
+        List<Sort.Order> orders = new ArrayList<>();
+        if (item.getSort() != null) {
+            for (String sort : item.getSort()) {
+                orders.add(order(sort));
+            }
+        }
+        return PageRequest.of(page, size, Sort.by(orders));
+    }
+
+    /** {@code "price,desc"} come il parametro {@code sort} di Spring Data; direzione di default ASC. */
+    private static Sort.Order order(String sort) {
+        if (sort == null || sort.isBlank()) {
+            throw new IllegalArgumentException("Ordinamento non valido");
+        }
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (parts.length == 1) {
+            return Sort.Order.asc(property);
+        }
+        Sort.Direction direction = Sort.Direction.fromOptionalString(parts[1].trim())
+                .orElseThrow(() -> new IllegalArgumentException("Direzione di ordinamento non valida: " + parts[1].trim()));
+        return new Sort.Order(direction, property);
+    }
+}
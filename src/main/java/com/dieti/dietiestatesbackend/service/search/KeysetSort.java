@@ -0,0 +1,77 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Sort;
+
+import com.dieti.dietiestatesbackend.entities.Property;
+
+/**
+ * Ordinamenti supportati dalla paginazione keyset.
+ * Ogni ordinamento usa una chiave non nulla più l'id come tie-breaker, così che
+ * la coppia (chiave, id) identifichi univocamente la posizione nel risultato.
+ */
+public enum KeysetSort {
+    CREATED_AT_DESC("createdAt", Sort.Direction.DESC, Property::getCreatedAt, LocalDateTime::parse),
+    PRICE_ASC("price", Sort.Direction.ASC, Property::getPrice, BigDecimal::new),
+    PRICE_DESC("price", Sort.Direction.DESC, Property::getPrice, BigDecimal::new);
+
+    private final String attribute;
+    private final Sort.Direction direction;
+    private final Function<Property, Comparable<?>> keyExtractor;
+    private final Function<String, Comparable<?>> keyParser;
+
+    KeysetSort(String attribute,
+               Sort.Direction direction,
+               Function<Property, Comparable<?>> keyExtractor,
+               Function<String, Comparable<?>> keyParser) {
+        this.attribute = attribute;
+        this.direction = direction;
+        this.keyExtractor = keyExtractor;
+        this.keyParser = keyParser;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * Ordinamento JPA completo, con l'id come tie-breaker nella stessa direzione.
+     */
+    public Sort toSort() {
+        return Sort.by(new Sort.Order(direction, attribute), new Sort.Order(direction, "id"));
+    }
+
+    public Comparable<?> extractKey(Property property) {
+        return keyExtractor.apply(property);
+    }
+
+    public Comparable<?> parseKey(String raw) {
+        return keyParser.apply(raw);
+    }
+
+    /**
+     * Ricava l'ordinamento keyset dal {@link Sort} della richiesta.
+     * Sono accettati solo {@code createdAt,desc}, {@code price,asc} e {@code price,desc};
+     * senza ordinamento si usa {@link #CREATED_AT_DESC}.
+     */
+    public static KeysetSort from(Sort sort) {
+        if (sort == null || sort.isUnsorted()) {
+            return CREATED_AT_DESC;
+        }
+        Sort.Order order = sort.iterator().next();
+        for (KeysetSort candidate : values()) {
+            if (candidate.attribute.equals(order.getProperty()) && candidate.direction == order.getDirection()) {
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException("Ordinamento non supportato dalla paginazione keyset: " + order
+                + " (valori ammessi: createdAt,desc - price,asc - price,desc)");
+    }
+}
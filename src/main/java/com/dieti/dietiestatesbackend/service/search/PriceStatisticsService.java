@@ -0,0 +1,340 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.dieti.dietiestatesbackend.config.SearchFunctionContributor;
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.dto.response.PriceStatisticsResponse;
+import com.dieti.dietiestatesbackend.dto.response.PriceStatisticsResponse.Distribution;
+import com.dieti.dietiestatesbackend.dto.response.PriceStatisticsResponse.HistogramBucket;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.specifications.PropertySpecifications;
+import com.dieti.dietiestatesbackend.util.TDigest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Statistiche di prezzo (percentili di prezzo e prezzo al m², istogramma del prezzo) sui risultati
+ * dei filtri di {@code /properties/search}.
+ *
+ * Con PostgreSQL tutto è calcolato nel DB: una query di aggregazione con {@code percentile_cont ... WITHIN GROUP}
+ * (vedi {@link SearchFunctionContributor}) e una con {@code width_bucket} per le fasce dell'istogramma.
+ * Sui DB che non li supportano (H2) le righe filtrate vengono lette a blocchi e i percentili stimati
+ * con un {@link TDigest}. La modalità è risolta all'avvio da {@code search.stats.mode}
+ * (auto, database, memory).
+ *
+ * I risultati sono in cache per filtro, con TTL breve ({@code search.stats.cache-ttl-seconds}):
+ * sono statistiche di mercato, qualche secondo di ritardo sulle ultime inserzioni è accettabile.
+ */
+@Service
+public class PriceStatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceStatisticsService.class);
+
+    static final double[] PERCENTILES = {0.25, 0.5, 0.75, 0.9};
+
+    private static final String DETECTION_QUERY =
+            "SELECT width_bucket(1.5, 1.0, 2.0, 2), percentile_cont(0.5) WITHIN GROUP (ORDER BY t.x) FROM (VALUES (1.0)) AS t(x)";
+    private static final int DIGEST_COMPRESSION = 100;
+    private static final int STREAM_FETCH_SIZE = 1000;
+    private static final int SCALE = 2;
+
+    private final EntityManager entityManager;
+    private final SpatialSearchSupport spatialSearchSupport;
+    private final ObjectMapper objectMapper;
+    private final boolean databaseAggregation;
+    private final int histogramBuckets;
+    private final Cache<String, PriceStatisticsResponse> cache;
+
+    public PriceStatisticsService(EntityManager entityManager,
+                                  SpatialSearchSupport spatialSearchSupport,
+                                  JdbcTemplate jdbcTemplate,
+                                  ObjectMapper objectMapper,
+                                  @Value("${search.stats.mode:auto}") String configuredMode,
+                                  @Value("${search.stats.histogram-buckets:20}") int histogramBuckets,
+                                  @Value("${search.stats.cache-ttl-seconds:60}") long cacheTtlSeconds,
+                                  @Value("${search.stats.cache-max-size:1000}") long cacheMaxSize) {
+        if (histogramBuckets < 1) {
+            throw new IllegalArgumentException("search.stats.histogram-buckets deve essere positivo");
+        }
+        this.entityManager = Objects.requireNonNull(entityManager, "entityManager");
+        this.spatialSearchSupport = Objects.requireNonNull(spatialSearchSupport, "spatialSearchSupport");
+        this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper");
+        this.databaseAggregation = resolveMode(Objects.requireNonNull(jdbcTemplate, "jdbcTemplate"), configuredMode);
+        this.histogramBuckets = histogramBuckets;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .maximumSize(cacheMaxSize)
+                .build();
+        logger.info("Statistiche di prezzo calcolate nel DB (percentile_cont/width_bucket): {}", databaseAggregation);
+    }
+
+    @Transactional(readOnly = true)
+    public PriceStatisticsResponse computeStatistics(FilterRequest filters) {
+        Objects.requireNonNull(filters, "filters must not be null");
+        Specification<Property> spec = PropertySpecifications.buildFromFilters(filters, spatialSearchSupport.getMode());
+        return cache.get(cacheKey(filters), key -> databaseAggregation ? computeInDatabase(spec) : computeInMemory(spec));
+    }
+
+    /**
+     * Chiave di cache: la serializzazione JSON dei filtri, con i campi sempre nello stesso ordine,
+     * così due richieste con gli stessi filtri condividono la voce indipendentemente dal body ricevuto.
+     */
+    private String cacheKey(FilterRequest filters) {
+        try {
+            return objectMapper.writeValueAsString(filters);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Filtri di ricerca non validi", e);
+        }
+    }
+
+    /** {@code true} se percentili e istogramma sono calcolati nel DB, {@code false} se in memoria. */
+    boolean usesDatabaseAggregation() {
+        return databaseAggregation;
+    }
+
+    private PriceStatisticsResponse computeInDatabase(Specification<Property> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Property> root = filteredRoot(query, spec, cb);
+        Expression<BigDecimal> price = root.get("price");
+        Expression<Number> pricePerSquareMeter = pricePerSquareMeter(cb, root);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(cb.count(root));
+        addDistribution(selections, cb, price);
+        addDistribution(selections, cb, pricePerSquareMeter);
+        query.multiselect(selections);
+        Tuple row = entityManager.createQuery(query).getSingleResult();
+
+        long count = ((Number) row.get(0)).longValue();
+        if (count == 0) {
+            return empty();
+        }
+        Distribution priceDistribution = distribution(row, 1);
+        Distribution perSquareMeterDistribution = distribution(row, 1 + 2 + PERCENTILES.length);
+        long[] counts = priceHistogramInDatabase(spec, priceDistribution.getMin(), priceDistribution.getMax(), count);
+        return new PriceStatisticsResponse(count, priceDistribution, perSquareMeterDistribution,
+                histogram(priceDistribution.getMin(), priceDistribution.getMax(), counts));
+    }
+
+    /**
+     * Conteggi per fascia con {@code width_bucket(price, min, max, n)}, in una sola scansione come i facet
+     * (una colonna {@code SUM(CASE ...)} per fascia). Il prezzo massimo ricade nella fascia n+1 di
+     * width_bucket e viene riportato nell'ultima con {@code least}.
+     */
+    private long[] priceHistogramInDatabase(Specification<Property> spec, BigDecimal min, BigDecimal max, long count) {
+        long[] counts = new long[histogramBuckets];
+        if (min.compareTo(max) == 0) {
+            counts[0] = count;
+            return counts;
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Property> root = filteredRoot(query, spec, cb);
+        Expression<Integer> bucket = cb.function("least", Integer.class,
+                cb.function("width_bucket", Integer.class, root.get("price"), cb.literal(min), cb.literal(max), cb.literal(histogramBuckets)),
+                cb.literal(histogramBuckets));
+
+        List<Selection<?>> selections = new ArrayList<>(histogramBuckets);
+        for (int i = 1; i <= histogramBuckets; i++) {
+            selections.add(cb.sum(cb.<Integer>selectCase().when(cb.equal(bucket, i), 1).otherwise(0)));
+        }
+        query.multiselect(selections);
+        Tuple row = entityManager.createQuery(query).getSingleResult();
+        for (int i = 0; i < histogramBuckets; i++) {
+            Object value = row.get(i);
+            counts[i] = value == null ? 0L : ((Number) value).longValue();
+        }
+        return counts;
+    }
+
+    /**
+     * Fallback senza funzioni di aggregazione ordinate: minimo e massimo dal DB (servono per le fasce),
+     * poi una sola lettura in streaming di prezzo e superficie che alimenta i due digest e l'istogramma.
+     */
+    private PriceStatisticsResponse computeInMemory(Specification<Property> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> rangeQuery = cb.createTupleQuery();
+        Root<Property> rangeRoot = filteredRoot(rangeQuery, spec, cb);
+        Expression<BigDecimal> rangePrice = rangeRoot.get("price");
+        rangeQuery.multiselect(cb.count(rangeRoot), cb.min(rangePrice), cb.max(rangePrice));
+        Tuple range = entityManager.createQuery(rangeQuery).getSingleResult();
+        if (((Number) range.get(0)).longValue() == 0) {
+            return empty();
+        }
+        BigDecimal min = decimal(range.get(1));
+        BigDecimal max = decimal(range.get(2));
+        double low = min.doubleValue();
+        double high = max.doubleValue();
+
+        CriteriaQuery<Tuple> rowsQuery = cb.createTupleQuery();
+        Root<Property> root = filteredRoot(rowsQuery, spec, cb);
+        rowsQuery.multiselect(root.get("price"), root.get("area"));
+
+        TDigest priceDigest = new TDigest(DIGEST_COMPRESSION);
+        TDigest perSquareMeterDigest = new TDigest(DIGEST_COMPRESSION);
+        long[] counts = new long[histogramBuckets];
+        try (Stream<Tuple> rows = entityManager.createQuery(rowsQuery)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream()) {
+            rows.forEach(row -> {
+                double price = ((Number) row.get(0)).doubleValue();
+                priceDigest.add(price);
+                Object area = row.get(1);
+                if (area instanceof Number number && number.doubleValue() > 0) {
+                    perSquareMeterDigest.add(price / number.doubleValue());
+                }
+                counts[histogramBucket(price, low, high, histogramBuckets) - 1]++;
+            });
+        }
+        return new PriceStatisticsResponse(priceDigest.count(), distribution(priceDigest),
+                distribution(perSquareMeterDigest), histogram(min, max, counts));
+    }
+
+    /**
+     * Fascia (da 1 a {@code buckets}) di {@code price}, come {@code least(width_bucket(price, min, max, buckets), buckets)}
+     * in {@link #priceHistogramInDatabase}: fasce {@code [from, to)}, il massimo nell'ultima.
+     * Con {@code min == max} c'è una sola fascia.
+     */
+    static int histogramBucket(double price, double min, double max, int buckets) {
+        if (max <= min) {
+            return 1;
+        }
+        int bucket = (int) Math.floor((price - min) / (max - min) * buckets) + 1;
+        return Math.max(1, Math.min(buckets, bucket));
+    }
+
+    private static Root<Property> filteredRoot(CriteriaQuery<Tuple> query, Specification<Property> spec, CriteriaBuilder cb) {
+        Root<Property> root = query.from(Property.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return root;
+    }
+
+    /** Prezzo al m²; le superfici a zero diventano NULL e sono ignorate dagli aggregati. */
+    private static Expression<Number> pricePerSquareMeter(CriteriaBuilder cb, Root<Property> root) {
+        return cb.quot(root.<BigDecimal>get("price"), cb.nullif(root.<Integer>get("area"), 0));
+    }
+
+    private static <N extends Number> void addDistribution(List<Selection<?>> selections, CriteriaBuilder cb,
+                                                           Expression<N> value) {
+        selections.add(cb.min(value));
+        selections.add(cb.max(value));
+        for (double percentile : PERCENTILES) {
+            selections.add(cb.function(SearchFunctionContributor.PERCENTILE_CONT, Double.class, cb.literal(percentile), value));
+        }
+    }
+
+    /** Distribuzione dalle colonne min, max, p25..p90 a partire da {@code first}. */
+    private static Distribution distribution(Tuple row, int first) {
+        return new Distribution(decimal(row.get(first)), decimal(row.get(first + 1)),
+                decimal(row.get(first + 2)), decimal(row.get(first + 3)),
+                decimal(row.get(first + 4)), decimal(row.get(first + 5)));
+    }
+
+    private static Distribution distribution(TDigest digest) {
+        if (digest.count() == 0) {
+            return new Distribution();
+        }
+        return new Distribution(decimal(digest.min()), decimal(digest.max()),
+                decimal(digest.quantile(PERCENTILES[0])), decimal(digest.quantile(PERCENTILES[1])),
+                decimal(digest.quantile(PERCENTILES[2])), decimal(digest.quantile(PERCENTILES[3])));
+    }
+
+    /**
+     * Fasce di uguale ampiezza tra {@code min} e {@code max}; con un solo prezzo distinto c'è
+     * un'unica fascia degenere {@code [min, max]}.
+     */
+    static List<HistogramBucket> histogram(BigDecimal min, BigDecimal max, long[] counts) {
+        if (min.compareTo(max) == 0) {
+            return List.of(new HistogramBucket(min, max, counts[0]));
+        }
+        BigDecimal width = max.subtract(min);
+        int buckets = counts.length;
+        List<HistogramBucket> histogram = new ArrayList<>(buckets);
+        BigDecimal from = min;
+        for (int i = 0; i < buckets; i++) {
+            BigDecimal to = i == buckets - 1
+                    ? max
+                    : min.add(width.multiply(BigDecimal.valueOf(i + 1L)).divide(BigDecimal.valueOf(buckets), SCALE, RoundingMode.HALF_UP));
+            histogram.add(new HistogramBucket(from, to, counts[i]));
+            from = to;
+        }
+        return histogram;
+    }
+
+    private static PriceStatisticsResponse empty() {
+        return new PriceStatisticsResponse(0L, new Distribution(), new Distribution(), List.of());
+    }
+
+    private static BigDecimal decimal(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal.setScale(SCALE, RoundingMode.HALF_UP);
+        }
+        if (value instanceof Number number) {
+            return decimal(number.doubleValue());
+        }
+        return null;
+    }
+
+    private static BigDecimal decimal(double value) {
+        return Double.isNaN(value) ? null : BigDecimal.valueOf(value).setScale(SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static boolean resolveMode(JdbcTemplate jdbcTemplate, String configuredMode) {
+        String normalized = configuredMode == null ? "auto" : configuredMode.trim().toLowerCase(Locale.ROOT);
+        switch (normalized) {
+            case "database":
+                return true;
+            case "memory":
+                return false;
+            case "auto":
+                return detectDatabaseAggregation(jdbcTemplate);
+            default:
+                throw new IllegalArgumentException("Valore non valido per search.stats.mode: " + configuredMode
+                        + " (valori ammessi: auto, database, memory)");
+        }
+    }
+
+    private static boolean detectDatabaseAggregation(JdbcTemplate jdbcTemplate) {
+        try {
+            jdbcTemplate.queryForList(DETECTION_QUERY);
+            return true;
+        } catch (DataAccessException e) {
+            // width_bucket o percentile_cont non disponibili (es. H2): stima in memoria
+            logger.debug("percentile_cont/width_bucket non disponibili, uso il t-digest: {}", e.getMessage());
+            return false;
+        }
+    }
+}
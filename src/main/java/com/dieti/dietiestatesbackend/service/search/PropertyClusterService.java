@@ -0,0 +1,198 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.dto.response.PropertyClusterResponse;
+import com.dieti.dietiestatesbackend.dto.response.PropertyClustersResponse;
+import com.dieti.dietiestatesbackend.entities.Address;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.specifications.JoinSupport;
+import com.dieti.dietiestatesbackend.specifications.PropertySpecifications;
+import com.dieti.dietiestatesbackend.util.BoundingBoxUtility;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Aggrega le property di un viewport della mappa in cluster calcolati dal DB.
+ *
+ * Le coordinate sono raggruppate su una griglia globale (floor(lat / cella), floor(lon / cella)),
+ * con la cella dimensionata sullo zoom come le tile web mercator: i cluster restano stabili
+ * quando l'utente sposta la mappa allo stesso zoom. Da {@code search.clusters.points-min-zoom}
+ * in su si restituiscono i singoli punti, fino a {@code search.clusters.max-points}.
+ */
+@Service
+public class PropertyClusterService {
+
+    static final int MAX_ZOOM = 22;
+    /** Celle per lato di una tile da 256px: una cella corrisponde a circa 64px sullo schermo. */
+    private static final int CELLS_PER_TILE = 4;
+    /** Limite di celle per richiesta, per evitare viewport enormi a zoom alti. */
+    private static final long MAX_CELLS = 20_000;
+
+    private final EntityManager entityManager;
+    private final SpatialSearchSupport spatialSearchSupport;
+    private final BoundingBoxUtility boundingBoxUtility;
+    private final int pointsMinZoom;
+    private final int maxPoints;
+
+    public PropertyClusterService(EntityManager entityManager,
+                                  SpatialSearchSupport spatialSearchSupport,
+                                  BoundingBoxUtility boundingBoxUtility,
+                                  @Value("${search.clusters.points-min-zoom:16}") int pointsMinZoom,
+                                  @Value("${search.clusters.max-points:500}") int maxPoints) {
+        this.entityManager = Objects.requireNonNull(entityManager, "entityManager");
+        this.spatialSearchSupport = Objects.requireNonNull(spatialSearchSupport, "spatialSearchSupport");
+        this.boundingBoxUtility = Objects.requireNonNull(boundingBoxUtility, "boundingBoxUtility");
+        this.pointsMinZoom = pointsMinZoom;
+        this.maxPoints = maxPoints;
+    }
+
+    /**
+     * @param filters filtri di ricerca; centro e raggio, area e zone sono ignorati perché il filtro geografico è il viewport
+     * @param minLatitude lato sud del viewport
+     * @param maxLatitude lato nord del viewport
+     * @param minLongitude lato ovest del viewport (maggiore di maxLongitude se attraversa l'antimeridiano)
+     * @param maxLongitude lato est del viewport
+     * @param zoom livello di zoom della mappa (0..22)
+     */
+    @Transactional(readOnly = true)
+    public PropertyClustersResponse cluster(FilterRequest filters,
+                                            BigDecimal minLatitude, BigDecimal maxLatitude,
+                                            BigDecimal minLongitude, BigDecimal maxLongitude,
+                                            int zoom) {
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new IllegalArgumentException("Il livello di zoom deve essere compreso tra 0 e " + MAX_ZOOM);
+        }
+        BigDecimal[] viewport = boundingBoxUtility.fromCorners(minLatitude, maxLatitude, minLongitude, maxLongitude);
+        FilterRequest viewportFilters = viewportFilters(filters);
+
+        if (zoom >= pointsMinZoom) {
+            return points(viewportFilters, viewport, zoom);
+        }
+        return clusters(viewportFilters, viewport, zoom);
+    }
+
+    /**
+     * Filtri senza alcun filtro geografico (centro e raggio, area disegnata, zone): la mappa mostra
+     * tutto il viewport, anche fuori dalla zona della ricerca corrente.
+     */
+    static FilterRequest viewportFilters(FilterRequest filters) {
+        return (filters == null ? FilterRequest.builder() : filters.toBuilder())
+                .centerLatitude(null)
+                .centerLongitude(null)
+                .radiusInMeters(null)
+                .area(null)
+                .circles(null)
+                .build();
+    }
+
+    private PropertyClustersResponse clusters(FilterRequest filters, BigDecimal[] viewport, int zoom) {
+        double lonCell = cellSizeDegrees(zoom);
+        // In web mercator un grado di latitudine occupa più pixel allontanandosi dall'equatore:
+        // la cella in latitudine si riduce con il coseno della latitudine centrale del viewport.
+        double centerLat = (viewport[0].doubleValue() + viewport[1].doubleValue()) / 2;
+        double latCell = lonCell * Math.max(Math.cos(Math.toRadians(centerLat)), 0.01);
+        checkCellCount(viewport, latCell, lonCell);
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Property> root = query.from(Property.class);
+        Join<Property, Address> address = JoinSupport.joinOnce(root, "address");
+        Path<BigDecimal> lat = address.get("coordinates").get("latitude");
+        Path<BigDecimal> lon = address.get("coordinates").get("longitude");
+        Path<BigDecimal> price = root.get("price");
+
+        // Dimensioni della cella come letterali: la stessa espressione compare in SELECT e GROUP BY
+        // e Postgres non riconosce come uguali due parametri bind distinti.
+        Expression<Long> cellLat = cb.function("floor", Long.class, cb.quot(lat, cb.literal(latCell)));
+        Expression<Long> cellLon = cb.function("floor", Long.class, cb.quot(lon, cb.literal(lonCell)));
+
+        query.multiselect(
+                cb.count(root), cb.avg(lat), cb.avg(lon), cb.min(price), cb.max(price))
+            .where(where(cb, query, root, lat, lon, filters, viewport))
+            .groupBy(cellLat, cellLon);
+
+        List<PropertyClusterResponse> clusters = entityManager.createQuery(query).getResultList().stream()
+                .map(row -> new PropertyClusterResponse(
+                        ((Number) row.get(1)).doubleValue(),
+                        ((Number) row.get(2)).doubleValue(),
+                        ((Number) row.get(0)).longValue(),
+                        row.get(3, BigDecimal.class),
+                        row.get(4, BigDecimal.class),
+                        null))
+                .toList();
+        return new PropertyClustersResponse(zoom, true, false, clusters);
+    }
+
+    private PropertyClustersResponse points(FilterRequest filters, BigDecimal[] viewport, int zoom) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Property> root = query.from(Property.class);
+        Join<Property, Address> address = JoinSupport.joinOnce(root, "address");
+        Path<BigDecimal> lat = address.get("coordinates").get("latitude");
+        Path<BigDecimal> lon = address.get("coordinates").get("longitude");
+        Path<BigDecimal> price = root.get("price");
+
+        query.multiselect(root.get("id"), lat, lon, price)
+            .where(where(cb, query, root, lat, lon, filters, viewport))
+            .orderBy(cb.asc(root.get("id")));
+
+        List<Tuple> rows = entityManager.createQuery(query).setMaxResults(maxPoints + 1).getResultList();
+        boolean truncated = rows.size() > maxPoints;
+        List<PropertyClusterResponse> points = rows.stream()
+                .limit(maxPoints)
+                .map(row -> {
+                    BigDecimal rowPrice = row.get(3, BigDecimal.class);
+                    return new PropertyClusterResponse(
+                            ((Number) row.get(1)).doubleValue(),
+                            ((Number) row.get(2)).doubleValue(),
+                            1L, rowPrice, rowPrice,
+                            ((Number) row.get(0)).longValue());
+                })
+                .toList();
+        return new PropertyClustersResponse(zoom, false, truncated, points);
+    }
+
+    private Predicate where(CriteriaBuilder cb, CriteriaQuery<?> query, Root<Property> root,
+                            Path<BigDecimal> lat, Path<BigDecimal> lon,
+                            FilterRequest filters, BigDecimal[] viewport) {
+        Predicate inViewport = PropertySpecifications.boundingBoxPredicate(cb, lat, lon, viewport);
+        Predicate matchesFilters = PropertySpecifications.buildFromFilters(filters, spatialSearchSupport.getMode())
+                .toPredicate(root, query, cb);
+        return matchesFilters == null ? inViewport : cb.and(inViewport, matchesFilters);
+    }
+
+    /**
+     * Lato della cella in gradi di longitudine: una tile a zoom z copre 360 / 2^z gradi.
+     */
+    static double cellSizeDegrees(int zoom) {
+        return 360.0 / ((1L << zoom) * CELLS_PER_TILE);
+    }
+
+    private static void checkCellCount(BigDecimal[] viewport, double latCell, double lonCell) {
+        double latSpan = viewport[1].doubleValue() - viewport[0].doubleValue();
+        double lonSpan = viewport[3].doubleValue() - viewport[2].doubleValue();
+        if (lonSpan < 0) {
+            lonSpan += 360.0;
+        }
+        double cells = Math.ceil(latSpan / latCell + 1) * Math.ceil(lonSpan / lonCell + 1);
+        if (cells > MAX_CELLS) {
+            throw new IllegalArgumentException("Viewport troppo ampio per il livello di zoom richiesto");
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.repositories.PropertyRepository;
+import com.dieti.dietiestatesbackend.specifications.PropertySpecifications;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Export completo in NDJSON (una property JSON per riga) dei risultati di una ricerca o del
+ * portafoglio di un agente, senza paginazione.
+ *
+ * Gli id vengono letti con un cursore ({@link PropertyRepository#streamIds}) e idratati a blocchi
+ * di {@code chunkSize} con la stessa query in fetch join della ricerca a due fasi; dopo ogni blocco
+ * le righe vengono scritte e il persistence context svuotato, così la memoria occupata non dipende
+ * dal numero di property esportate.
+ */
+@Service
+public class PropertyExportService {
+
+    private static final byte NEWLINE = '\n';
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    private final PropertyRepository propertyRepository;
+    private final PropertySearchExecutor searchExecutor;
+    private final SpatialSearchSupport spatialSearchSupport;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+    private final int chunkSize;
+
+    public PropertyExportService(PropertyRepository propertyRepository,
+                                 PropertySearchExecutor searchExecutor,
+                                 SpatialSearchSupport spatialSearchSupport,
+                                 EntityManager entityManager,
+                                 ObjectMapper objectMapper,
+                                 @Value("${search.export.fetch-size:1000}") int fetchSize,
+                                 @Value("${search.export.chunk-size:500}") int chunkSize) {
+        if (fetchSize <= 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("search.export.fetch-size e search.export.chunk-size devono essere positivi");
+        }
+        this.propertyRepository = Objects.requireNonNull(propertyRepository, "propertyRepository");
+        this.searchExecutor = Objects.requireNonNull(searchExecutor, "searchExecutor");
+        this.spatialSearchSupport = Objects.requireNonNull(spatialSearchSupport, "spatialSearchSupport");
+        this.entityManager = Objects.requireNonNull(entityManager, "entityManager");
+        this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper");
+        this.fetchSize = fetchSize;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Specification dei filtri di {@code /properties/search}. Va costruita prima di aprire lo stream
+     * della risposta, così i filtri non validi diventano un 400 e non un export troncato.
+     */
+    public Specification<Property> searchSpecification(FilterRequest filters) {
+        Objects.requireNonNull(filters, "filters must not be null");
+        return PropertySpecifications.buildFromFilters(filters, spatialSearchSupport.getMode());
+    }
+
+    /**
+     * Scrive su {@code out} una riga JSON per ogni property che soddisfa la Specification, ordinate per id.
+     *
+     * @param mapper conversione di ogni property nell'oggetto serializzato sulla riga
+     * @return numero di righe scritte
+     */
+    @Transactional(readOnly = true)
+    public long export(Specification<Property> spec, Function<Property, ?> mapper, OutputStream out) throws IOException {
+        Objects.requireNonNull(mapper, "mapper must not be null");
+        OutputStream buffered = new BufferedOutputStream(out, OUTPUT_BUFFER_SIZE);
+        long written = 0;
+        List<Long> chunk = new ArrayList<>(chunkSize);
+        try (Stream<Long> ids = propertyRepository.streamIds(spec, fetchSize)) {
+            Iterator<Long> iterator = ids.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize) {
+                    written += writeChunk(chunk, mapper, buffered);
+                    chunk.clear();
+                }
+            }
+            written += writeChunk(chunk, mapper, buffered);
+        }
+        buffered.flush();
+        return written;
+    }
+
+    /**
+     * Idrata, serializza e scrive un blocco di id, poi stacca le entità dal persistence context.
+     * Il flush verso il client a ogni blocco fa arrivare le righe man mano che vengono lette.
+     */
+    private int writeChunk(List<Long> ids, Function<Property, ?> mapper, OutputStream out) throws IOException {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Property> properties = searchExecutor.hydrate(ids);
+        for (Property property : properties) {
+            out.write(objectMapper.writeValueAsBytes(mapper.apply(property)));
+            out.write(NEWLINE);
+        }
+        out.flush();
+        entityManager.clear();
+        return properties.size();
+    }
+}
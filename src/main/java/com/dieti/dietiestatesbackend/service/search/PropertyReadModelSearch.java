@@ -0,0 +1,243 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.dto.request.SearchCircle;
+import com.dieti.dietiestatesbackend.dto.response.PropertySummary;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.entities.PropertySearchEntry;
+import com.dieti.dietiestatesbackend.repositories.PropertySearchRow;
+import com.dieti.dietiestatesbackend.specifications.DistanceExpressions;
+import com.dieti.dietiestatesbackend.specifications.PropertySearchEntrySpecifications;
+import com.dieti.dietiestatesbackend.specifications.PropertySpecifications;
+import com.dieti.dietiestatesbackend.specifications.TextSearchExpressions;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Prima fase della ricerca sul read model {@code property_search} ({@code search.read-model.mode=projection}).
+ *
+ * Filtri, ordinamento e paginazione sono valutati su un'unica tabella con indici semplici; le chiavi
+ * calcolate (distanza, rilevanza) sono selezionate come nella ricerca sulle entità. Gli id trovati
+ * vengono poi idratati da {@link PropertySearchExecutor#hydrate}, quindi il risultato è identico
+ * a quello della modalità {@code entity}.
+ */
+@Component
+public class PropertyReadModelSearch {
+
+    private static final Logger logger = LoggerFactory.getLogger(PropertyReadModelSearch.class);
+    private static final String ID_ALIAS = "id";
+
+    private final EntityManager entityManager;
+    private final PropertySearchExecutor searchExecutor;
+    private final TextSearchSupport textSearchSupport;
+    private final boolean enabled;
+
+    public PropertyReadModelSearch(EntityManager entityManager,
+                                   PropertySearchExecutor searchExecutor,
+                                   TextSearchSupport textSearchSupport,
+                                   @Value("${search.read-model.mode:entity}") String mode) {
+        this.entityManager = Objects.requireNonNull(entityManager, "entityManager");
+        this.searchExecutor = Objects.requireNonNull(searchExecutor, "searchExecutor");
+        this.textSearchSupport = Objects.requireNonNull(textSearchSupport, "textSearchSupport");
+        this.enabled = resolveMode(mode);
+        logger.info("Modello di lettura per la ricerca: {}", enabled ? "projection" : "entity");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ricerca paginata; il count viene eseguito solo quando serve.
+     *
+     * @param computedKeys chiavi calcolate richieste (vedi {@link PropertySearchExecutor#DISTANCE_KEY})
+     */
+    public Page<Property> search(FilterRequest filters, Set<String> computedKeys, Pageable pageable) {
+        Specification<PropertySearchEntry> spec = PropertySearchEntrySpecifications.buildFromFilters(filters);
+        List<PropertySearchRow> rows = pageable.isPaged()
+                ? findRows(spec, filters, computedKeys, pageable.getSort(), pageable.getOffset(), pageable.getPageSize())
+                : findRows(spec, filters, computedKeys, pageable.getSort(), 0, -1);
+        return PageableExecutionUtils.getPage(hydrate(rows), pageable, () -> count(spec));
+    }
+
+    /**
+     * Come {@link #search} ma restituisce la vista {@code summary}.
+     */
+    public Page<PropertySummary> searchSummaries(FilterRequest filters, Set<String> computedKeys, Pageable pageable) {
+        Specification<PropertySearchEntry> spec = PropertySearchEntrySpecifications.buildFromFilters(filters);
+        List<PropertySearchRow> rows = pageable.isPaged()
+                ? findRows(spec, filters, computedKeys, pageable.getSort(), pageable.getOffset(), pageable.getPageSize())
+                : findRows(spec, filters, computedKeys, pageable.getSort(), 0, -1);
+        return PageableExecutionUtils.getPage(searchExecutor.summarize(rows), pageable, () -> count(spec));
+    }
+
+    /**
+     * Prime {@code limit} property dopo il cursore (paginazione keyset), senza count.
+     */
+    public List<Property> fetch(FilterRequest filters, SearchCursor cursor, Set<String> computedKeys, Sort sort, int limit) {
+        Specification<PropertySearchEntry> spec = PropertySearchEntrySpecifications.buildFromFilters(filters);
+        if (cursor != null) {
+            spec = spec.and(PropertySearchEntrySpecifications.afterCursor(cursor));
+        }
+        return hydrate(findRows(spec, filters, computedKeys, sort, 0, limit));
+    }
+
+    private List<PropertySearchRow> findRows(Specification<PropertySearchEntry> spec,
+                                             FilterRequest filters,
+                                             Set<String> computedKeys,
+                                             Sort sort,
+                                             long offset,
+                                             int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<PropertySearchEntry> root = query.from(PropertySearchEntry.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        Map<String, Expression<?>> computed = computedExpressions(root, cb, filters, computedKeys);
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(root.get("id").alias(ID_ALIAS));
+        computed.forEach((key, expression) -> selections.add(expression.alias(key)));
+        query.multiselect(selections);
+        query.orderBy(toOrders(sort, root, cb, computed));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (offset > 0) {
+            typedQuery.setFirstResult(Math.toIntExact(offset));
+        }
+        if (limit >= 0) {
+            typedQuery.setMaxResults(limit);
+        }
+
+        List<Tuple> tuples = typedQuery.getResultList();
+        List<PropertySearchRow> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> values = computed.isEmpty() ? Map.of() : new HashMap<>(computed.size() * 2);
+            for (String key : computed.keySet()) {
+                values.put(key, tuple.get(key));
+            }
+            rows.add(new PropertySearchRow(tuple.get(ID_ALIAS, Long.class), values));
+        }
+        return rows;
+    }
+
+    private long count(Specification<PropertySearchEntry> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<PropertySearchEntry> root = query.from(PropertySearchEntry.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        query.select(cb.count(root));
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private Map<String, Expression<?>> computedExpressions(Root<PropertySearchEntry> root, CriteriaBuilder cb,
+                                                           FilterRequest filters, Set<String> computedKeys) {
+        Map<String, Expression<?>> computed = new LinkedHashMap<>();
+        if (computedKeys.contains(PropertySearchExecutor.DISTANCE_KEY)) {
+            Path<BigDecimal> latPath = root.get("latitude");
+            Path<BigDecimal> lonPath = root.get("longitude");
+            if (filters.getCenterLatitude() != null && filters.getCenterLongitude() != null) {
+                computed.put(PropertySearchExecutor.DISTANCE_KEY, DistanceExpressions.haversineDistance(
+                        cb, latPath, lonPath, filters.getCenterLatitude(), filters.getCenterLongitude()));
+            } else {
+                List<Expression<Double>> distances = new ArrayList<>();
+                for (SearchCircle circle : PropertySpecifications.searchCircles(filters)) {
+                    distances.add(DistanceExpressions.haversineDistance(
+                            cb, latPath, lonPath, circle.getCenterLatitude(), circle.getCenterLongitude()));
+                }
+                computed.put(PropertySearchExecutor.DISTANCE_KEY, DistanceExpressions.nearest(cb, distances));
+            }
+        }
+        if (computedKeys.contains(PropertySearchExecutor.RELEVANCE_KEY)) {
+            computed.put(PropertySearchExecutor.RELEVANCE_KEY, TextSearchExpressions.relevance(
+                    root, cb, filters.getQuery(), textSearchSupport.isTrigramEnabled()));
+        }
+        return computed;
+    }
+
+    private List<Property> hydrate(List<PropertySearchRow> rows) {
+        List<Property> properties = searchExecutor.hydrate(rows.stream().map(PropertySearchRow::id).toList());
+        Map<Long, PropertySearchRow> byId = new HashMap<>(rows.size() * 2);
+        for (PropertySearchRow row : rows) {
+            byId.put(row.id(), row);
+        }
+        for (Property property : properties) {
+            PropertySearchRow row = byId.get(property.getId());
+            if (row.value(PropertySearchExecutor.DISTANCE_KEY) instanceof Number distance) {
+                property.setDistanceMeters(distance.doubleValue());
+            }
+            if (row.value(PropertySearchExecutor.RELEVANCE_KEY) instanceof Number relevance) {
+                property.setRelevance(relevance.doubleValue());
+            }
+        }
+        return properties;
+    }
+
+    private static List<Order> toOrders(Sort sort, Root<PropertySearchEntry> root, CriteriaBuilder cb,
+                                        Map<String, Expression<?>> computed) {
+        Sort base = sort == null ? Sort.unsorted() : sort;
+        if (base.getOrderFor("id") == null) {
+            Sort.Direction direction = base.isSorted() ? base.iterator().next().getDirection() : Sort.Direction.ASC;
+            base = base.and(Sort.by(direction, "id"));
+        }
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : base) {
+            Expression<?> expression = computed.get(order.getProperty());
+            if (expression != null) {
+                orders.add(order.isAscending() ? cb.asc(expression) : cb.desc(expression));
+            } else {
+                orders.addAll(QueryUtils.toOrders(Sort.by(order), root, cb));
+            }
+        }
+        return orders;
+    }
+
+    private static boolean resolveMode(String mode) {
+        String normalized = mode == null ? "entity" : mode.trim().toLowerCase(Locale.ROOT);
+        switch (normalized) {
+            case "entity":
+                return false;
+            case "projection":
+                return true;
+            default:
+                throw new IllegalArgumentException("Valore non valido per search.read-model.mode: " + mode
+                        + " (valori ammessi: entity, projection)");
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+import com.dieti.dietiestatesbackend.dto.response.PropertySummary;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.repositories.PropertyRepository;
+import com.dieti.dietiestatesbackend.repositories.PropertySearchRow;
+import com.dieti.dietiestatesbackend.specifications.PropertyExpression;
+
+/**
+ * Esegue le ricerche per Specification in due fasi per evitare il problema N+1:
+ * <ol>
+ *   <li>seleziona solo gli id della pagina tramite la Specification (filtri, ordinamento, limit),
+ *       insieme alle eventuali chiavi calcolate come la distanza;</li>
+ *   <li>idrata quegli id con una sola query {@code findAllDetailedByIdIn} che carica in fetch join
+ *       contract, category, agent/agency, address e heating, ripristinando l'ordine della fase uno.</li>
+ * </ol>
+ * Una pagina costa quindi due statement (più il count, solo quando serve davvero),
+ * indipendentemente dal numero di righe e dal sottotipo delle property.
+ */
+@Component
+public class PropertySearchExecutor {
+
+    /** Chiave calcolata con la distanza in metri dal centro della ricerca. */
+    public static final String DISTANCE_KEY = "distance";
+
+    /** Chiave calcolata con la rilevanza rispetto alla query testuale. */
+    public static final String RELEVANCE_KEY = "relevance";
+
+    private final PropertyRepository propertyRepository;
+
+    public PropertySearchExecutor(PropertyRepository propertyRepository) {
+        this.propertyRepository = Objects.requireNonNull(propertyRepository, "propertyRepository");
+    }
+
+    public Page<Property> search(Specification<Property> spec, Pageable pageable) {
+        return search(spec, Map.of(), pageable);
+    }
+
+    /**
+     * Ricerca paginata. Il count viene eseguito solo se la pagina non basta a dedurre il totale
+     * (vedi {@link PageableExecutionUtils#getPage}).
+     *
+     * @param computedKeys chiavi calcolate da selezionare e rendere ordinabili (es. {@link #DISTANCE_KEY})
+     */
+    public Page<Property> search(Specification<Property> spec,
+                                 Map<String, PropertyExpression<?>> computedKeys,
+                                 Pageable pageable) {
+        Objects.requireNonNull(pageable, "pageable must not be null");
+        List<PropertySearchRow> rows = pageable.isPaged()
+                ? propertyRepository.findRows(spec, computedKeys, pageable.getSort(), pageable.getOffset(), pageable.getPageSize())
+                : propertyRepository.findRows(spec, computedKeys, pageable.getSort(), 0, -1);
+        List<Property> content = hydrateRows(rows);
+        return PageableExecutionUtils.getPage(content, pageable, () -> propertyRepository.count(spec));
+    }
+
+    /**
+     * Come {@link #search(Specification, Map, Pageable)} ma la seconda fase legge solo le colonne
+     * della vista {@code summary} tramite constructor expression, senza entità.
+     */
+    public Page<PropertySummary> searchSummaries(Specification<Property> spec,
+                                                 Map<String, PropertyExpression<?>> computedKeys,
+                                                 Pageable pageable) {
+        Objects.requireNonNull(pageable, "pageable must not be null");
+        List<PropertySearchRow> rows = pageable.isPaged()
+                ? propertyRepository.findRows(spec, computedKeys, pageable.getSort(), pageable.getOffset(), pageable.getPageSize())
+                : propertyRepository.findRows(spec, computedKeys, pageable.getSort(), 0, -1);
+        return PageableExecutionUtils.getPage(summarize(rows), pageable, () -> propertyRepository.count(spec));
+    }
+
+    /**
+     * Summary per le righe della fase uno, nell'ordine delle righe e con le chiavi calcolate.
+     */
+    public List<PropertySummary> summarize(List<PropertySearchRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<PropertySummary> loaded = propertyRepository.findSummariesByIdIn(rows.stream().map(PropertySearchRow::id).toList());
+        Map<Long, PropertySummary> byId = new HashMap<>(loaded.size() * 2);
+        for (PropertySummary summary : loaded) {
+            byId.put(summary.id(), summary);
+        }
+        List<PropertySummary> ordered = new ArrayList<>(rows.size());
+        for (PropertySearchRow row : rows) {
+            PropertySummary summary = byId.get(row.id());
+            if (summary != null) {
+                ordered.add(summary.withSearchKeys(asDouble(row.value(DISTANCE_KEY)), asDouble(row.value(RELEVANCE_KEY))));
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Prime {@code limit} property secondo l'ordinamento, senza count (usato dalla paginazione keyset).
+     */
+    public List<Property> fetch(Specification<Property> spec,
+                                Map<String, PropertyExpression<?>> computedKeys,
+                                Sort sort,
+                                int limit) {
+        return hydrateRows(propertyRepository.findRows(spec, computedKeys, sort, 0, limit));
+    }
+
+    /**
+     * Carica le property complete per gli id dati in un'unica query, preservando l'ordine degli id.
+     * Gli id non più esistenti (es. cancellati tra le due fasi) vengono ignorati.
+     */
+    public List<Property> hydrate(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Property> byId = loadById(ids);
+        List<Property> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Property property = byId.get(id);
+            if (property != null) {
+                ordered.add(property);
+            }
+        }
+        return ordered;
+    }
+
+    private List<Property> hydrateRows(List<PropertySearchRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Property> byId = loadById(rows.stream().map(PropertySearchRow::id).toList());
+        List<Property> ordered = new ArrayList<>(rows.size());
+        for (PropertySearchRow row : rows) {
+            Property property = byId.get(row.id());
+            if (property == null) {
+                continue;
+            }
+            if (row.value(DISTANCE_KEY) instanceof Number distance) {
+                property.setDistanceMeters(distance.doubleValue());
+            }
+            if (row.value(RELEVANCE_KEY) instanceof Number relevance) {
+                property.setRelevance(relevance.doubleValue());
+            }
+            ordered.add(property);
+        }
+        return ordered;
+    }
+
+    private static Double asDouble(Object value) {
+        return value instanceof Number number ? number.doubleValue() : null;
+    }
+
+    private Map<Long, Property> loadById(List<Long> ids) {
+        List<Property> loaded = propertyRepository.findAllDetailedByIdIn(ids);
+        Map<Long, Property> byId = new HashMap<>(loaded.size() * 2);
+        for (Property property : loaded) {
+            byId.put(property.getId(), property);
+        }
+        return byId;
+    }
+}
@@ -0,0 +1,147 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.dieti.dietiestatesbackend.entities.CommercialProperty;
+import com.dieti.dietiestatesbackend.entities.Coordinates;
+import com.dieti.dietiestatesbackend.entities.Garage;
+import com.dieti.dietiestatesbackend.entities.Land;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.entities.PropertySearchEntry;
+import com.dieti.dietiestatesbackend.entities.ResidentialProperty;
+import com.dieti.dietiestatesbackend.repositories.PropertyRepository;
+import com.dieti.dietiestatesbackend.repositories.PropertySearchEntryRepository;
+import com.dieti.dietiestatesbackend.service.events.PropertyCreatedEvent;
+import com.dieti.dietiestatesbackend.service.events.PropertyDeletedEvent;
+
+/**
+ * Mantiene il read model {@code property_search} allineato alle property.
+ *
+ * Gli aggiornamenti sono sincroni: i listener girano nella transazione che crea o cancella
+ * la property, quindi la riga di ricerca e la property vengono confermate (o annullate) insieme.
+ * {@link #rebuild()} ricostruisce la tabella a blocchi per il backfill iniziale o dopo un disallineamento.
+ */
+@Component
+public class PropertySearchProjector {
+
+    private static final Logger logger = LoggerFactory.getLogger(PropertySearchProjector.class);
+
+    private final PropertySearchEntryRepository entryRepository;
+    private final PropertyRepository propertyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int rebuildChunkSize;
+
+    public PropertySearchProjector(PropertySearchEntryRepository entryRepository,
+                                   PropertyRepository propertyRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${search.read-model.rebuild-chunk-size:500}") int rebuildChunkSize) {
+        this.entryRepository = Objects.requireNonNull(entryRepository, "entryRepository");
+        this.propertyRepository = Objects.requireNonNull(propertyRepository, "propertyRepository");
+        this.transactionTemplate = Objects.requireNonNull(transactionTemplate, "transactionTemplate");
+        if (rebuildChunkSize < 1) {
+            throw new IllegalArgumentException("search.read-model.rebuild-chunk-size deve essere positivo");
+        }
+        this.rebuildChunkSize = rebuildChunkSize;
+    }
+
+    @EventListener
+    public void onPropertyCreated(PropertyCreatedEvent event) {
+        entryRepository.save(toEntry(event.property()));
+    }
+
+    @EventListener
+    public void onPropertyDeleted(PropertyDeletedEvent event) {
+        entryRepository.deleteById(event.propertyId());
+    }
+
+    /**
+     * Ricostruisce l'intera proiezione a blocchi di {@code search.read-model.rebuild-chunk-size} property,
+     * una transazione per blocco (le righe esistenti del blocco vengono sostituite), poi elimina
+     * le righe orfane.
+     *
+     * @return numero di property proiettate
+     */
+    public long rebuild() {
+        long projected = 0;
+        long lastId = 0;
+        while (true) {
+            long afterId = lastId;
+            Specification<Property> afterLastId = (root, query, cb) -> cb.greaterThan(root.get("id"), afterId);
+            List<Long> ids = propertyRepository.findIds(afterLastId, Sort.by("id"), 0, rebuildChunkSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                List<PropertySearchEntry> entries = new ArrayList<>(ids.size());
+                for (Property property : propertyRepository.findAllDetailedByIdIn(ids)) {
+                    entries.add(toEntry(property));
+                }
+                entryRepository.deleteAllByIdInBatch(ids);
+                entryRepository.saveAll(entries);
+            });
+            projected += ids.size();
+            lastId = ids.get(ids.size() - 1);
+            logger.debug("Read model di ricerca: proiettate {} property (ultimo id {})", projected, lastId);
+        }
+        Integer orphans = transactionTemplate.execute(status -> entryRepository.deleteOrphans());
+        logger.info("Read model di ricerca ricostruito: {} property, {} righe orfane rimosse", projected, orphans);
+        return projected;
+    }
+
+    /**
+     * Riga piatta per la property; le associazioni (categoria, contratto, indirizzo, riscaldamento)
+     * devono essere già caricate.
+     */
+    public static PropertySearchEntry toEntry(Property property) {
+        PropertySearchEntry entry = new PropertySearchEntry();
+        entry.setId(property.getId());
+        entry.setCreatedAt(property.getCreatedAt() != null ? property.getCreatedAt() : LocalDateTime.now());
+        entry.setPropertyType(property.getPropertyCategory().getPropertyType());
+        entry.setSubcategory(property.getPropertyCategory().getName());
+        entry.setContract(property.getContract().getName());
+        entry.setPrice(property.getPrice());
+        entry.setArea(property.getArea());
+        entry.setYearBuilt(property.getYearBuilt());
+        entry.setCondition(property.getCondition());
+        entry.setEnergyRating(property.getEnergyRating());
+        entry.setDescription(property.getDescription());
+        entry.setAdditionalFeatures(property.getAdditionalFeatures());
+
+        Coordinates coordinates = property.getAddress() == null ? null : property.getAddress().getCoordinates();
+        if (coordinates != null) {
+            entry.setLatitude(coordinates.getLatitude());
+            entry.setLongitude(coordinates.getLongitude());
+        }
+
+        if (property instanceof ResidentialProperty residential) {
+            entry.setNumberOfRooms(residential.getNumberOfRooms());
+            entry.setNumberOfBathrooms(residential.getNumberOfBathrooms());
+            entry.setParkingSpaces(residential.getParkingSpaces());
+            entry.setHeating(residential.getHeating() == null ? null : residential.getHeating().getName());
+            entry.setGarden(residential.getGarden());
+            entry.setFurnished(residential.isFurnished());
+            entry.setElevator(residential.hasElevator());
+        } else if (property instanceof CommercialProperty commercial) {
+            entry.setNumberOfFloors(commercial.getNumberOfFloors());
+            entry.setWheelchairAccess(commercial.getHasWheelchairAccess());
+        } else if (property instanceof Garage garage) {
+            entry.setNumberOfFloors(garage.getNumberOfFloors());
+            entry.setSurveillance(garage.isHasSurveillance());
+        } else if (property instanceof Land land) {
+            entry.setAccessibleFromStreet(land.isAccessibleFromStreet());
+        }
+        return entry;
+    }
+}
@@ -0,0 +1,29 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import java.util.Objects;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ricostruisce il read model {@code property_search} all'avvio.
+ * Attivo solo con {@code search.read-model.rebuild-on-startup=true}: serve per il backfill
+ * iniziale della tabella, poi la proiezione è mantenuta da {@link PropertySearchProjector}.
+ */
+@Component
+@ConditionalOnProperty(name = "search.read-model.rebuild-on-startup", havingValue = "true")
+public class PropertySearchRebuildRunner implements ApplicationRunner {
+
+    private final PropertySearchProjector projector;
+
+    public PropertySearchRebuildRunner(PropertySearchProjector projector) {
+        this.projector = Objects.requireNonNull(projector, "projector");
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        projector.rebuild();
+    }
+}
@@ -0,0 +1,189 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.hibernate.query.criteria.JpaSubQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.dieti.dietiestatesbackend.config.SearchFunctionContributor;
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.entities.Address;
+import com.dieti.dietiestatesbackend.entities.AddressGeography;
+import com.dieti.dietiestatesbackend.entities.Contract;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.entities.PropertyCategory;
+import com.dieti.dietiestatesbackend.specifications.JoinSupport;
+import com.dieti.dietiestatesbackend.specifications.PropertySpecifications;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+/**
+ * Genera le vector tile (MVT) dei marker delle property.
+ *
+ * Le property della tile sono quelle che soddisfano i filtri di {@link PropertySpecifications} e
+ * ricadono nella tile: con PostGIS {@code address.geography && ST_TileEnvelope(z, x, y)} (indice GIST),
+ * altrimenti la bounding box su latitude/longitude. Se sono più di {@code search.tiles.max-features}
+ * la tile contiene solo le prime per id: il taglio è deterministico e la stessa sottoquery limitata
+ * seleziona le righe della tile e quelle dell'ETag, così una modifica a una property esclusa non
+ * invalida la tile.
+ *
+ * Con PostGIS la tile è prodotta da un'unica query ({@code ST_AsMVT}/{@code ST_AsMVTGeom} su
+ * {@code address.geography}, vedi {@link SearchFunctionContributor#PROPERTY_TILE}), altrimenti le righe
+ * sono codificate da {@link VectorTileEncoder}. Ogni feature porta id, price, category e contract.
+ */
+@Service
+public class PropertyTileService {
+
+    public static final String LAYER_NAME = "properties";
+
+    private final EntityManager entityManager;
+    private final SpatialSearchSupport spatialSearchSupport;
+    private final int maxFeatures;
+
+    public PropertyTileService(EntityManager entityManager,
+                               SpatialSearchSupport spatialSearchSupport,
+                               @Value("${search.tiles.max-features:5000}") int maxFeatures) {
+        this.entityManager = Objects.requireNonNull(entityManager, "entityManager");
+        this.spatialSearchSupport = Objects.requireNonNull(spatialSearchSupport, "spatialSearchSupport");
+        if (maxFeatures < 1) {
+            throw new IllegalArgumentException("search.tiles.max-features deve essere positivo");
+        }
+        this.maxFeatures = maxFeatures;
+    }
+
+    /**
+     * ETag della tile: numero di property e {@code max(updatedAt)} fra quelle contenute nella tile.
+     * Una modifica, un inserimento o una cancellazione nella tile cambiano almeno uno dei due valori.
+     */
+    @Transactional(readOnly = true)
+    public String tileEtag(FilterRequest filters, TileCoordinates tile) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Property> root = query.from(Property.class);
+        Path<LocalDateTime> updatedAt = root.get("updatedAt");
+        query.multiselect(cb.count(root), cb.greatest(updatedAt))
+            .where(root.get("id").in(tileIds(cb, query, filters, tile)));
+
+        Tuple row = entityManager.createQuery(query).getSingleResult();
+        long count = ((Number) row.get(0)).longValue();
+        LocalDateTime lastModified = row.get(1, LocalDateTime.class);
+        long lastModifiedMillis = lastModified == null ? 0L : lastModified.toInstant(ZoneOffset.UTC).toEpochMilli();
+        return "\"" + count + "-" + Long.toHexString(lastModifiedMillis) + "\"";
+    }
+
+    /**
+     * Contenuto binario della tile (layer {@value #LAYER_NAME}); vuoto se la tile non contiene property.
+     */
+    @Transactional(readOnly = true)
+    public byte[] renderTile(FilterRequest filters, TileCoordinates tile) {
+        return spatialSearchSupport.isPostgisEnabled() ? renderWithPostgis(filters, tile) : renderInJava(filters, tile);
+    }
+
+    private byte[] renderWithPostgis(FilterRequest filters, TileCoordinates tile) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<byte[]> query = cb.createQuery(byte[].class);
+        Root<Property> root = query.from(Property.class);
+        Root<AddressGeography> geography = query.from(AddressGeography.class);
+        Join<Property, PropertyCategory> category = JoinSupport.joinOnce(root, "propertyCategory");
+        Join<Property, Contract> contract = JoinSupport.joinOnce(root, "contract");
+
+        query.select(cb.function(SearchFunctionContributor.PROPERTY_TILE, byte[].class,
+                    root.get("id"),
+                    root.get("price"),
+                    category.get("propertyType"),
+                    contract.get("name"),
+                    geography.get("geography"),
+                    cb.literal(tile.z()), cb.literal(tile.x()), cb.literal(tile.y())))
+            .where(
+                cb.equal(geography.get("id"), root.get("address").get("id")),
+                root.get("id").in(tileIds(cb, query, filters, tile)));
+
+        byte[] tileBytes = entityManager.createQuery(query).getSingleResult();
+        return tileBytes == null ? new byte[0] : tileBytes;
+    }
+
+    private byte[] renderInJava(FilterRequest filters, TileCoordinates tile) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Property> root = query.from(Property.class);
+        Join<Property, Address> address = JoinSupport.joinOnce(root, "address");
+        Join<Property, PropertyCategory> category = JoinSupport.joinOnce(root, "propertyCategory");
+        Join<Property, Contract> contract = JoinSupport.joinOnce(root, "contract");
+
+        query.multiselect(
+                root.get("id"),
+                address.get("coordinates").get("latitude"),
+                address.get("coordinates").get("longitude"),
+                root.get("price"),
+                category.get("propertyType"),
+                contract.get("name"))
+            .where(root.get("id").in(tileIds(cb, query, filters, tile)))
+            .orderBy(cb.asc(root.get("id")));
+
+        List<Tuple> rows = entityManager.createQuery(query).getResultList();
+        if (rows.isEmpty()) {
+            return new byte[0];
+        }
+        VectorTileEncoder encoder = new VectorTileEncoder(LAYER_NAME);
+        for (Tuple row : rows) {
+            int[] point = tile.project(((Number) row.get(1)).doubleValue(), ((Number) row.get(2)).doubleValue(),
+                    VectorTileEncoder.DEFAULT_EXTENT);
+            Map<String, Object> attributes = new LinkedHashMap<>();
+            attributes.put("price", row.get(3, BigDecimal.class));
+            attributes.put("category", row.get(4, String.class));
+            attributes.put("contract", row.get(5, String.class));
+            encoder.addPoint(((Number) row.get(0)).longValue(), point[0], point[1], attributes);
+        }
+        return encoder.encode();
+    }
+
+    /**
+     * Id delle property della tile: filtri, intersezione con la tile e al più {@code maxFeatures} righe,
+     * le prime per id. Condivisa da ETag e rendering perché contino esattamente le stesse property.
+     */
+    private Subquery<Long> tileIds(CriteriaBuilder cb, CriteriaQuery<?> query, FilterRequest filters, TileCoordinates tile) {
+        JpaSubQuery<Long> ids = (JpaSubQuery<Long>) query.subquery(Long.class);
+        Root<Property> root = ids.from(Property.class);
+        Join<Property, Address> address = JoinSupport.joinOnce(root, "address");
+        Predicate inTile = inTile(cb, query, address, tile);
+        Predicate matchesFilters = PropertySpecifications.buildFromFilters(filters, spatialSearchSupport.getMode())
+                .toPredicate(root, query, cb);
+
+        ids.select(root.get("id"))
+            .where(matchesFilters == null ? inTile : cb.and(inTile, matchesFilters));
+        ids.orderBy(cb.asc(root.get("id")));
+        ids.fetch(maxFeatures);
+        return ids;
+    }
+
+    private Predicate inTile(CriteriaBuilder cb, CriteriaQuery<?> query, Join<Property, Address> address,
+                             TileCoordinates tile) {
+        if (!spatialSearchSupport.isPostgisEnabled()) {
+            Path<BigDecimal> lat = address.get("coordinates").get("latitude");
+            Path<BigDecimal> lon = address.get("coordinates").get("longitude");
+            return PropertySpecifications.boundingBoxPredicate(cb, lat, lon, tile.bounds());
+        }
+        Subquery<Long> addressesInTile = query.subquery(Long.class);
+        Root<AddressGeography> geographyRoot = addressesInTile.from(AddressGeography.class);
+        addressesInTile.select(geographyRoot.get("id"))
+            .where(cb.isTrue(cb.function(SearchFunctionContributor.INTERSECTS_TILE, Boolean.class,
+                    geographyRoot.get("geography"), cb.literal(tile.z()), cb.literal(tile.x()), cb.literal(tile.y()))));
+        return address.get("id").in(addressesInTile);
+    }
+}
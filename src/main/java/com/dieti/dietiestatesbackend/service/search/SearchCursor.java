@@ -0,0 +1,73 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Token di continuazione per la paginazione keyset.
+ * Codifica l'ordinamento e l'ultima coppia (chiave di ordinamento, id) restituita;
+ * per il client è una stringa opaca in Base64 URL-safe.
+ */
+public final class SearchCursor {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    private final KeysetSort sort;
+    private final String key;
+    private final long lastId;
+
+    private SearchCursor(KeysetSort sort, String key, long lastId) {
+        this.sort = sort;
+        this.key = key;
+        this.lastId = lastId;
+    }
+
+    public static SearchCursor of(KeysetSort sort, Comparable<?> key, long lastId) {
+        String rawKey = key instanceof BigDecimal decimal ? decimal.toPlainString() : String.valueOf(key);
+        return new SearchCursor(sort, rawKey, lastId);
+    }
+
+    public KeysetSort getSort() {
+        return sort;
+    }
+
+    public Comparable<?> getKey() {
+        return sort.parseKey(key);
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, VERSION, sort.name(), key, Long.toString(lastId));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un token prodotto da {@link #encode()}.
+     *
+     * @throws IllegalArgumentException se il token è malformato
+     */
+    public static SearchCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("Cursore di paginazione vuoto");
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Cursore di paginazione non valido");
+            }
+            KeysetSort sort = KeysetSort.valueOf(parts[1]);
+            SearchCursor cursor = new SearchCursor(sort, parts[2], Long.parseLong(parts[3]));
+            // Verifica subito che la chiave sia interpretabile per l'ordinamento dichiarato
+            cursor.getKey();
+            return cursor;
+        } catch (IllegalArgumentException | java.time.format.DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursore di paginazione non valido", e);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.dto.response.SearchFacetsResponse;
+import com.dieti.dietiestatesbackend.entities.Contract;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.entities.PropertyCategory;
+import com.dieti.dietiestatesbackend.enums.EnergyRating;
+import com.dieti.dietiestatesbackend.enums.PropertyCondition;
+import com.dieti.dietiestatesbackend.enums.PropertyType;
+import com.dieti.dietiestatesbackend.specifications.JoinSupport;
+import com.dieti.dietiestatesbackend.specifications.PropertySpecifications;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Calcola i conteggi per facet (categoria, contratto, classe energetica, stato, fascia di prezzo)
+ * con un'unica query di aggregazione condizionale: una sola scansione delle righe filtrate,
+ * una colonna {@code SUM(CASE WHEN ...)} per ogni valore di ogni facet.
+ *
+ * La clausola WHERE contiene i filtri comuni a tutti i facet ({@link PropertySpecifications#buildForFacets});
+ * il filtro della dimensione D entra nelle CASE di tutti i facet tranne D stesso.
+ */
+@Service
+public class SearchFacetService {
+
+    private static final List<String> CONTRACTS = List.of("SALE", "RENT");
+
+    private final EntityManager entityManager;
+    private final SpatialSearchSupport spatialSearchSupport;
+    private final List<BigDecimal> priceBucketEdges;
+
+    public SearchFacetService(EntityManager entityManager,
+                              SpatialSearchSupport spatialSearchSupport,
+                              @Value("${search.facets.price-buckets:100000,200000,300000,500000,1000000}") List<BigDecimal> priceBucketEdges) {
+        this.entityManager = Objects.requireNonNull(entityManager, "entityManager");
+        this.spatialSearchSupport = Objects.requireNonNull(spatialSearchSupport, "spatialSearchSupport");
+        this.priceBucketEdges = priceBucketEdges.stream().sorted().distinct().toList();
+    }
+
+    @Transactional(readOnly = true)
+    public SearchFacetsResponse computeFacets(FilterRequest filters) {
+        Objects.requireNonNull(filters, "filters must not be null");
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Property> root = query.from(Property.class);
+
+        Predicate base = PropertySpecifications.buildForFacets(filters, spatialSearchSupport.getMode())
+                .toPredicate(root, query, cb);
+        if (base != null) {
+            query.where(base);
+        }
+
+        Join<Property, PropertyCategory> categoryJoin = JoinSupport.joinOnce(root, "propertyCategory");
+        Join<Property, Contract> contractJoin = JoinSupport.joinOnce(root, "contract");
+        Expression<String> category = categoryJoin.get("propertyType");
+        Expression<String> contract = contractJoin.get("name");
+        Expression<EnergyRating> energyRating = root.get("energyRating");
+        Expression<PropertyCondition> condition = root.get("condition");
+        Expression<BigDecimal> price = root.get("price");
+
+        FacetFilters active = new FacetFilters(cb, filters, category, contract, energyRating, condition, price);
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(countWhen(cb, active.allExcept(null)));
+
+        for (PropertyType type : PropertyType.values()) {
+            selections.add(countWhen(cb, cb.and(cb.equal(category, type.name()), active.allExcept(Facet.CATEGORY))));
+        }
+        for (String name : CONTRACTS) {
+            selections.add(countWhen(cb, cb.and(cb.equal(contract, name), active.allExcept(Facet.CONTRACT))));
+        }
+        for (EnergyRating rating : EnergyRating.values()) {
+            selections.add(countWhen(cb, cb.and(cb.equal(energyRating, rating), active.allExcept(Facet.ENERGY_RATING))));
+        }
+        for (PropertyCondition value : PropertyCondition.values()) {
+            selections.add(countWhen(cb, cb.and(cb.equal(condition, value), active.allExcept(Facet.CONDITION))));
+        }
+        List<String> priceLabels = priceBucketLabels(priceBucketEdges);
+        for (int i = 0; i < priceLabels.size(); i++) {
+            selections.add(countWhen(cb, cb.and(priceBucket(cb, price, i), active.allExcept(Facet.PRICE))));
+        }
+
+        query.multiselect(selections);
+        Tuple row = entityManager.createQuery(query).getSingleResult();
+
+        int column = 0;
+        long total = asLong(row.get(column++));
+        Map<String, Long> categories = new LinkedHashMap<>();
+        for (PropertyType type : PropertyType.values()) {
+            categories.put(type.name(), asLong(row.get(column++)));
+        }
+        Map<String, Long> contracts = new LinkedHashMap<>();
+        for (String name : CONTRACTS) {
+            contracts.put(name, asLong(row.get(column++)));
+        }
+        Map<String, Long> energyRatings = new LinkedHashMap<>();
+        for (EnergyRating rating : EnergyRating.values()) {
+            energyRatings.put(rating.name(), asLong(row.get(column++)));
+        }
+        Map<String, Long> conditions = new LinkedHashMap<>();
+        for (PropertyCondition value : PropertyCondition.values()) {
+            conditions.put(value.name(), asLong(row.get(column++)));
+        }
+        Map<String, Long> priceRanges = new LinkedHashMap<>();
+        for (String label : priceLabels) {
+            priceRanges.put(label, asLong(row.get(column++)));
+        }
+        return new SearchFacetsResponse(total, categories, contracts, energyRatings, conditions, priceRanges);
+    }
+
+    /**
+     * Etichette delle fasce di prezzo: {@code [0, e1)}, {@code [e1, e2)}, ..., {@code [en, +inf)}
+     * rese come "0-e1", "e1-e2", ..., "en+".
+     */
+    static List<String> priceBucketLabels(List<BigDecimal> edges) {
+        List<String> labels = new ArrayList<>(edges.size() + 1);
+        String lower = "0";
+        for (BigDecimal edge : edges) {
+            String upper = edge.stripTrailingZeros().toPlainString();
+            labels.add(lower + "-" + upper);
+            lower = upper;
+        }
+        labels.add(lower + "+");
+        return labels;
+    }
+
+    private Predicate priceBucket(CriteriaBuilder cb, Expression<BigDecimal> price, int index) {
+        List<Predicate> bounds = new ArrayList<>(2);
+        if (index > 0) {
+            bounds.add(cb.greaterThanOrEqualTo(price, priceBucketEdges.get(index - 1)));
+        }
+        if (index < priceBucketEdges.size()) {
+            bounds.add(cb.lessThan(price, priceBucketEdges.get(index)));
+        }
+        return cb.and(bounds.toArray(new Predicate[0]));
+    }
+
+    private static Expression<Integer> countWhen(CriteriaBuilder cb, Predicate condition) {
+        return cb.sum(cb.<Integer>selectCase().when(condition, 1).otherwise(0));
+    }
+
+    private static long asLong(Object value) {
+        // SUM su nessuna riga restituisce NULL
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    private enum Facet { CATEGORY, CONTRACT, ENERGY_RATING, CONDITION, PRICE }
+
+    /**
+     * Predicati dei filtri di facet attivi nella richiesta, combinabili escludendo una dimensione.
+     * Replicano la semantica di {@link PropertySpecifications#buildFromFilters}.
+     */
+    private static final class FacetFilters {
+        private final CriteriaBuilder cb;
+        private final Map<Facet, Predicate> predicates = new LinkedHashMap<>();
+
+        FacetFilters(CriteriaBuilder cb, FilterRequest filters,
+                     Expression<String> category, Expression<String> contract,
+                     Expression<EnergyRating> energyRating, Expression<PropertyCondition> condition,
+                     Expression<BigDecimal> price) {
+            this.cb = cb;
+            if (filters.getCategory() != null && !filters.getCategory().isBlank()) {
+                predicates.put(Facet.CATEGORY, cb.equal(category, filters.getCategory().trim()));
+            }
+            if (filters.getContract() != null && !filters.getContract().isBlank()) {
+                predicates.put(Facet.CONTRACT, cb.equal(contract, filters.getContract().trim()));
+            }
+            if (filters.getMinEnergyRating() != null) {
+                predicates.put(Facet.ENERGY_RATING, cb.greaterThanOrEqualTo(energyRating, filters.getMinEnergyRating()));
+            }
+            if (filters.getAcceptedCondition() != null && !filters.getAcceptedCondition().isEmpty()) {
+                predicates.put(Facet.CONDITION, condition.in(filters.getAcceptedCondition()));
+            }
+            List<Predicate> priceBounds = new ArrayList<>(2);
+            if (filters.getMinPrice() != null) {
+                priceBounds.add(cb.greaterThanOrEqualTo(price, filters.getMinPrice()));
+            }
+            if (filters.getMaxPrice() != null) {
+                priceBounds.add(cb.lessThanOrEqualTo(price, filters.getMaxPrice()));
+            }
+            if (!priceBounds.isEmpty()) {
+                predicates.put(Facet.PRICE, cb.and(priceBounds.toArray(new Predicate[0])));
+            }
+        }
+
+        Predicate allExcept(Facet excluded) {
+            Predicate[] others = predicates.entrySet().stream()
+                    .filter(e -> e.getKey() != excluded)
+                    .map(Map.Entry::getValue)
+                    .toArray(Predicate[]::new);
+            return others.length == 0 ? cb.conjunction() : cb.and(others);
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.dieti.dietiestatesbackend.entities.CommercialProperty;
+import com.dieti.dietiestatesbackend.entities.Coordinates;
+import com.dieti.dietiestatesbackend.entities.Garage;
+import com.dieti.dietiestatesbackend.entities.Land;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.entities.ResidentialProperty;
+import com.dieti.dietiestatesbackend.repositories.PropertyRepository;
+import com.dieti.dietiestatesbackend.service.events.PropertyCreatedEvent;
+import com.dieti.dietiestatesbackend.service.events.PropertyDeletedEvent;
+
+/**
+ * Indice kNN in memoria per le "property simili".
+ *
+ * Ogni property è un vettore di {@value #DIMENSIONS} feature già normalizzate (divise per una scala
+ * fissa, così una unità pesa "una differenza rilevante" in ogni dimensione): log del prezzo e della
+ * superficie, locali, bagni, anno di costruzione, classe energetica, posizione proiettata in metri,
+ * piano e una caratteristica booleana del sottotipo. Le scale sono costanti e non derivate dai dati,
+ * così gli inserimenti incrementali non spostano lo spazio delle feature.
+ *
+ * Le property sono partizionate per contratto e tipologia (un affitto non è simile a una vendita)
+ * e ogni partizione tiene id ordinati e feature in array piatti: la ricerca è una scansione lineare
+ * della sola partizione con potatura sulla distanza parziale, senza accessi al DB.
+ * Una sottocategoria diversa aggiunge una penalità fissa alla distanza.
+ *
+ * Come {@link AddressSuggestionIndex} lo stato è immutabile e pubblicato tramite {@link AtomicReference}:
+ * le letture non prendono lock, creazioni e cancellazioni ricostruiscono la sola partizione coinvolta.
+ * Creazioni e cancellazioni arrivate durante il caricamento vengono riapplicate all'indice caricato
+ * prima di pubblicarlo (entrambe sono idempotenti: un id già letto dal DB viene sostituito, non duplicato).
+ */
+@Component
+public class SimilarPropertyIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimilarPropertyIndex.class);
+
+    public static final int MAX_LIMIT = 20;
+
+    static final int DIMENSIONS = 10;
+    private static final int PRICE = 0;
+    private static final int AREA = 1;
+    private static final int ROOMS = 2;
+    private static final int BATHROOMS = 3;
+    private static final int YEAR_BUILT = 4;
+    private static final int ENERGY_RATING = 5;
+    private static final int NORTH = 6;
+    private static final int EAST = 7;
+    private static final int FLOOR = 8;
+    private static final int FLAG = 9;
+
+    /** Differenza che vale una unità di distanza, per dimensione (vedi indici sopra). */
+    private static final double[] SCALES = {
+        0.25,   // log prezzo: circa ±28%
+        0.25,   // log superficie
+        1,      // locali
+        1,      // bagni
+        15,     // anni
+        2,      // classi energetiche
+        2_000,  // metri verso nord
+        2_000,  // metri verso est
+        2,      // piani
+        1       // caratteristica booleana del sottotipo
+    };
+    private static final double SUBCATEGORY_PENALTY = 1.0;
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+
+    private final PropertyRepository propertyRepository;
+    private final int loadChunkSize;
+    private final AtomicReference<Map<String, Partition>> partitions = new AtomicReference<>(Map.of());
+    /** Aggiornamenti ricevuti durante un caricamento, null se non ce n'è uno in corso; acceduto sotto il lock dell'istanza. */
+    private List<UnaryOperator<Map<String, Partition>>> pendingUpdates;
+
+    public SimilarPropertyIndex(PropertyRepository propertyRepository,
+                                @Value("${search.similar.load-chunk-size:500}") int loadChunkSize) {
+        this.propertyRepository = Objects.requireNonNull(propertyRepository, "propertyRepository");
+        if (loadChunkSize < 1) {
+            throw new IllegalArgumentException("search.similar.load-chunk-size deve essere positivo");
+        }
+        this.loadChunkSize = loadChunkSize;
+    }
+
+    /**
+     * Carica l'indice a blocchi di id crescenti; in caso di errore resta quello già caricato
+     * e viene comunque alimentato dalle nuove property.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (this) {
+            pendingUpdates = new ArrayList<>();
+        }
+        try {
+            Map<String, PartitionBuilder> builders = new HashMap<>();
+            long lastId = 0;
+            long loaded = 0;
+            while (true) {
+                long afterId = lastId;
+                Specification<Property> afterLastId = (root, query, cb) -> cb.greaterThan(root.get("id"), afterId);
+                List<Long> ids = propertyRepository.findIds(afterLastId, Sort.by("id"), 0, loadChunkSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                List<Property> properties = new ArrayList<>(propertyRepository.findAllDetailedByIdIn(ids));
+                // le partizioni si costruiscono in ordine di id crescente
+                properties.sort(Comparator.comparing(Property::getId));
+                for (Property property : properties) {
+                    Entry entry = Entry.of(property);
+                    if (entry != null) {
+                        builders.computeIfAbsent(entry.partition(), key -> new PartitionBuilder()).add(entry);
+                        loaded++;
+                    }
+                }
+                lastId = ids.get(ids.size() - 1);
+            }
+            Map<String, Partition> built = new HashMap<>(builders.size() * 2);
+            builders.forEach((key, builder) -> built.put(key, builder.build()));
+            synchronized (this) {
+                Map<String, Partition> next = built;
+                for (UnaryOperator<Map<String, Partition>> update : pendingUpdates) {
+                    next = update.apply(next);
+                }
+                partitions.set(Map.copyOf(next));
+            }
+            logger.info("Indice property simili caricato: {} property in {} partizioni", loaded, built.size());
+        } catch (DataAccessException e) {
+            logger.warn("Caricamento dell'indice property simili fallito: {}", e.getMessage());
+        } finally {
+            synchronized (this) {
+                pendingUpdates = null;
+            }
+        }
+    }
+
+    /** Indicizza la property appena creata, dopo il commit. */
+    @TransactionalEventListener
+    public void onPropertyCreated(PropertyCreatedEvent event) {
+        add(event.property());
+    }
+
+    /** Rimuove la property cancellata, dopo il commit. */
+    @TransactionalEventListener
+    public void onPropertyDeleted(PropertyDeletedEvent event) {
+        remove(event.propertyId());
+    }
+
+    public synchronized void add(Property property) {
+        Entry entry = property == null ? null : Entry.of(property);
+        if (entry == null || entry.id() == null) {
+            return;
+        }
+        update(current -> withEntry(current, entry));
+    }
+
+    public synchronized void remove(Long propertyId) {
+        if (propertyId != null) {
+            update(current -> withoutId(current, propertyId));
+        }
+    }
+
+    /** Applica {@code update} all'indice pubblicato e, se un caricamento è in corso, lo conserva per il risultato. */
+    private void update(UnaryOperator<Map<String, Partition>> update) {
+        partitions.set(Map.copyOf(update.apply(partitions.get())));
+        if (pendingUpdates != null) {
+            pendingUpdates.add(update);
+        }
+    }
+
+    public boolean contains(long propertyId) {
+        return locate(partitions.get(), propertyId) != null;
+    }
+
+    public int size() {
+        return partitions.get().values().stream().mapToInt(Partition::size).sum();
+    }
+
+    /**
+     * Id delle {@code limit} property più simili a quella indicata, dalla più simile,
+     * oppure {@code null} se la property non è nell'indice.
+     */
+    public List<Long> similarTo(long propertyId, int limit) {
+        Map<String, Partition> current = partitions.get();
+        Located located = locate(current, propertyId);
+        if (located == null) {
+            return null;
+        }
+        Partition partition = located.partition();
+        double[] query = Arrays.copyOfRange(partition.features, located.index() * DIMENSIONS, (located.index() + 1) * DIMENSIONS);
+        return partition.nearest(query, partition.subcategories[located.index()], propertyId, limit);
+    }
+
+    /**
+     * Come {@link #similarTo(long, int)} per una property non (ancora) indicizzata,
+     * con associazioni e campi del sottotipo già caricati.
+     */
+    public List<Long> similarTo(Property property, int limit) {
+        Entry entry = Entry.of(property);
+        if (entry == null) {
+            return List.of();
+        }
+        Partition partition = partitions.get().get(entry.partition());
+        if (partition == null) {
+            return List.of();
+        }
+        long excluded = entry.id() == null ? Long.MIN_VALUE : entry.id();
+        return partition.nearest(entry.features(), entry.subcategory(), excluded, limit);
+    }
+
+    private static Map<String, Partition> withEntry(Map<String, Partition> source, Entry entry) {
+        Map<String, Partition> next = new HashMap<>(withoutId(source, entry.id()));
+        next.merge(entry.partition(), Partition.EMPTY.with(entry), (existing, ignored) -> existing.with(entry));
+        return next;
+    }
+
+    private static Map<String, Partition> withoutId(Map<String, Partition> source, long propertyId) {
+        Located located = locate(source, propertyId);
+        if (located == null) {
+            return source;
+        }
+        Map<String, Partition> next = new HashMap<>(source);
+        Partition reduced = located.partition().without(located.index());
+        if (reduced.size() == 0) {
+            next.remove(located.key());
+        } else {
+            next.put(located.key(), reduced);
+        }
+        return next;
+    }
+
+    private static Located locate(Map<String, Partition> source, long propertyId) {
+        for (Map.Entry<String, Partition> e : source.entrySet()) {
+            int index = Arrays.binarySearch(e.getValue().ids, propertyId);
+            if (index >= 0) {
+                return new Located(e.getKey(), e.getValue(), index);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Vettore normalizzato della property; {@code NaN} per le feature assenti, che vengono
+     * ignorate nel calcolo della distanza.
+     */
+    static double[] features(Property property) {
+        double[] features = new double[DIMENSIONS];
+        Arrays.fill(features, Double.NaN);
+        features[PRICE] = logScaled(property.getPrice(), PRICE);
+        features[AREA] = property.getArea() == null ? Double.NaN : logScaled(BigDecimal.valueOf(property.getArea()), AREA);
+        features[YEAR_BUILT] = scaled(property.getYearBuilt(), YEAR_BUILT);
+        if (property.getEnergyRating() != null) {
+            features[ENERGY_RATING] = property.getEnergyRating().ordinal() / SCALES[ENERGY_RATING];
+        }
+        Coordinates coordinates = property.getAddress() == null ? null : property.getAddress().getCoordinates();
+        if (coordinates != null && coordinates.getLatitude() != null && coordinates.getLongitude() != null) {
+            // Proiezione equirettangolare: accurata alle distanze per cui la similarità ha senso
+            double latitude = Math.toRadians(coordinates.getLatitude().doubleValue());
+            double longitude = Math.toRadians(coordinates.getLongitude().doubleValue());
+            features[NORTH] = EARTH_RADIUS_METERS * latitude / SCALES[NORTH];
+            features[EAST] = EARTH_RADIUS_METERS * longitude * Math.cos(latitude) / SCALES[EAST];
+        }
+
+        if (property instanceof ResidentialProperty residential) {
+            features[ROOMS] = scaled(residential.getNumberOfRooms(), ROOMS);
+            features[BATHROOMS] = scaled(residential.getNumberOfBathrooms(), BATHROOMS);
+            features[FLOOR] = scaled(residential.getFloor(), FLOOR);
+            features[FLAG] = residential.hasElevator() ? 1 : 0;
+        } else if (property instanceof CommercialProperty commercial) {
+            features[ROOMS] = scaled(commercial.getNumberOfRooms(), ROOMS);
+            features[BATHROOMS] = scaled(commercial.getNumberOfBathrooms(), BATHROOMS);
+            features[FLOOR] = scaled(commercial.getFloor(), FLOOR);
+            features[FLAG] = commercial.getHasWheelchairAccess() ? 1 : 0;
+        } else if (property instanceof Garage garage) {
+            features[FLOOR] = scaled(garage.getFloor(), FLOOR);
+            features[FLAG] = garage.isHasSurveillance() ? 1 : 0;
+        } else if (property instanceof Land land) {
+            features[FLAG] = land.isAccessibleFromStreet() ? 1 : 0;
+        }
+        return features;
+    }
+
+    private static double scaled(Integer value, int dimension) {
+        return value == null ? Double.NaN : value / SCALES[dimension];
+    }
+
+    private static double logScaled(BigDecimal value, int dimension) {
+        return value == null || value.signum() <= 0 ? Double.NaN : Math.log(value.doubleValue()) / SCALES[dimension];
+    }
+
+    /** Voce dell'indice; {@code null} se mancano i dati che determinano la partizione. */
+    private record Entry(Long id, String partition, String subcategory, double[] features) {
+        static Entry of(Property property) {
+            if (property.getContract() == null || property.getPropertyCategory() == null) {
+                return null;
+            }
+            String partition = property.getContract().getName() + ":" + property.getPropertyCategory().getPropertyType();
+            return new Entry(property.getId(), partition, property.getPropertyCategory().getName(), features(property));
+        }
+    }
+
+    private record Located(String key, Partition partition, int index) {}
+
+    /**
+     * Partizione immutabile: id ordinati e, in parallelo, sottocategorie e feature
+     * ({@value #DIMENSIONS} valori consecutivi per property).
+     */
+    private static final class Partition {
+        static final Partition EMPTY = new Partition(new long[0], new String[0], new double[0]);
+
+        final long[] ids;
+        final String[] subcategories;
+        final double[] features;
+
+        Partition(long[] ids, String[] subcategories, double[] features) {
+            this.ids = ids;
+            this.subcategories = subcategories;
+            this.features = features;
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        /** Copia con la voce inserita nella posizione che mantiene gli id ordinati. */
+        Partition with(Entry entry) {
+            int position = -Arrays.binarySearch(ids, entry.id()) - 1;
+            int n = ids.length;
+            long[] newIds = new long[n + 1];
+            String[] newSubcategories = new String[n + 1];
+            double[] newFeatures = new double[(n + 1) * DIMENSIONS];
+            System.arraycopy(ids, 0, newIds, 0, position);
+            System.arraycopy(subcategories, 0, newSubcategories, 0, position);
+            System.arraycopy(features, 0, newFeatures, 0, position * DIMENSIONS);
+            newIds[position] = entry.id();
+            newSubcategories[position] = entry.subcategory();
+            System.arraycopy(entry.features(), 0, newFeatures, position * DIMENSIONS, DIMENSIONS);
+            System.arraycopy(ids, position, newIds, position + 1, n - position);
+            System.arraycopy(subcategories, position, newSubcategories, position + 1, n - position);
+            System.arraycopy(features, position * DIMENSIONS, newFeatures, (position + 1) * DIMENSIONS, (n - position) * DIMENSIONS);
+            return new Partition(newIds, newSubcategories, newFeatures);
+        }
+
+        Partition without(int index) {
+            int n = ids.length;
+            long[] newIds = new long[n - 1];
+            String[] newSubcategories = new String[n - 1];
+            double[] newFeatures = new double[(n - 1) * DIMENSIONS];
+            System.arraycopy(ids, 0, newIds, 0, index);
+            System.arraycopy(subcategories, 0, newSubcategories, 0, index);
+            System.arraycopy(features, 0, newFeatures, 0, index * DIMENSIONS);
+            System.arraycopy(ids, index + 1, newIds, index, n - index - 1);
+            System.arraycopy(subcategories, index + 1, newSubcategories, index, n - index - 1);
+            System.arraycopy(features, (index + 1) * DIMENSIONS, newFeatures, index * DIMENSIONS, (n - index - 1) * DIMENSIONS);
+            return new Partition(newIds, newSubcategories, newFeatures);
+        }
+
+        /**
+         * I {@code limit} vicini più prossimi (escluso {@code excludedId}), tenuti in un array ordinato
+         * per distanza: una candidata smette di essere valutata appena la distanza parziale supera
+         * l'ultima tenuta. A parità di distanza vince l'id minore.
+         */
+        List<Long> nearest(double[] query, String subcategory, long excludedId, int limit) {
+            int k = Math.max(0, Math.min(limit, MAX_LIMIT));
+            long[] bestIds = new long[k];
+            double[] bestDistances = new double[k];
+            int found = 0;
+            for (int i = 0; i < ids.length && k > 0; i++) {
+                if (ids[i] == excludedId) {
+                    continue;
+                }
+                double worst = found < k ? Double.POSITIVE_INFINITY : bestDistances[k - 1];
+                double distance = Objects.equals(subcategory, subcategories[i]) ? 0 : SUBCATEGORY_PENALTY;
+                int base = i * DIMENSIONS;
+                for (int d = 0; d < DIMENSIONS && distance < worst; d++) {
+                    double diff = query[d] - features[base + d];
+                    if (!Double.isNaN(diff)) {
+                        distance += diff * diff;
+                    }
+                }
+                if (distance >= worst) {
+                    continue;
+                }
+                int position = found < k ? found++ : k - 1;
+                while (position > 0 && bestDistances[position - 1] > distance) {
+                    bestDistances[position] = bestDistances[position - 1];
+                    bestIds[position] = bestIds[position - 1];
+                    position--;
+                }
+                bestDistances[position] = distance;
+                bestIds[position] = ids[i];
+            }
+            return Arrays.stream(bestIds, 0, found).boxed().toList();
+        }
+    }
+
+    /** Accumula le voci del caricamento iniziale, già in ordine di id crescente. */
+    private static final class PartitionBuilder {
+        private long[] ids = new long[16];
+        private String[] subcategories = new String[16];
+        private double[] features = new double[16 * DIMENSIONS];
+        private int size;
+
+        void add(Entry entry) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                subcategories = Arrays.copyOf(subcategories, size * 2);
+                features = Arrays.copyOf(features, size * 2 * DIMENSIONS);
+            }
+            ids[size] = entry.id();
+            subcategories[size] = entry.subcategory();
+            System.arraycopy(entry.features(), 0, features, size * DIMENSIONS, DIMENSIONS);
+            size++;
+        }
+
+        Partition build() {
+            return new Partition(Arrays.copyOf(ids, size), Arrays.copyOf(subcategories, size),
+                    Arrays.copyOf(features, size * DIMENSIONS));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+/**
+ * Strategie disponibili per il filtro geografico della ricerca immobili.
+ */
+public enum SpatialSearchMode {
+    /**
+     * Raggio circolare valutato dal DB con {@code ST_DWithin} sulla colonna
+     * {@code address.geography} (usa l'indice GIST).
+     */
+    POSTGIS,
+    /**
+     * Bounding box su latitude/longitude calcolata da {@code BoundingBoxUtility}.
+     * Fallback portabile quando PostGIS non è disponibile (es. H2 nei test).
+     */
+    BOUNDING_BOX
+}
@@ -0,0 +1,112 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Risolve una sola volta, all'avvio, quale {@link SpatialSearchMode} usare per la ricerca.
+ *
+ * La modalità PostGIS richiede l'estensione, la colonna {@code address.geography} di tipo
+ * {@code geography} nello schema dell'applicazione ({@code hibernate.default_schema}, altrimenti
+ * {@code current_schema()}) e il trigger {@value #GEOGRAPHY_TRIGGER} (migrazione V8) che la tiene
+ * allineata a latitudine e longitudine: senza trigger gli indirizzi creati dall'applicazione
+ * resterebbero con geography {@code NULL} e sparirebbero dalle ricerche per raggio e dalle tile.
+ *
+ * Con {@code search.spatial.mode=auto} (default) se uno dei requisiti manca si ricade sulla bounding box;
+ * con {@code search.spatial.mode=postgis} un requisito mancante blocca l'avvio.
+ */
+@Component
+public class SpatialSearchSupport {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpatialSearchSupport.class);
+
+    static final String GEOGRAPHY_TRIGGER = "trg_address_sync_geography";
+
+    private static final String POSTGIS_EXTENSION_QUERY =
+            "SELECT COUNT(*) FROM pg_extension WHERE extname = 'postgis'";
+    private static final String GEOGRAPHY_COLUMN_QUERY =
+            "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = %s"
+            + " AND table_name = 'address' AND column_name = 'geography' AND udt_name = 'geography'";
+    private static final String GEOGRAPHY_TRIGGER_QUERY =
+            "SELECT COUNT(*) FROM information_schema.triggers WHERE event_object_schema = %s"
+            + " AND event_object_table = 'address' AND trigger_name = '" + GEOGRAPHY_TRIGGER + "'";
+
+    private final SpatialSearchMode mode;
+
+    public SpatialSearchSupport(JdbcTemplate jdbcTemplate,
+                                @Value("${search.spatial.mode:auto}") String configuredMode,
+                                @Value("${spring.jpa.properties.hibernate.default_schema:}") String defaultSchema) {
+        String schema = defaultSchema == null || defaultSchema.isBlank() ? null : defaultSchema.trim();
+        this.mode = resolveMode(jdbcTemplate, configuredMode, schema);
+        logger.info("Modalità di ricerca spaziale attiva: {}", mode);
+    }
+
+    public SpatialSearchMode getMode() {
+        return mode;
+    }
+
+    public boolean isPostgisEnabled() {
+        return mode == SpatialSearchMode.POSTGIS;
+    }
+
+    private static SpatialSearchMode resolveMode(JdbcTemplate jdbcTemplate, String configuredMode, String schema) {
+        String normalized = configuredMode == null ? "auto" : configuredMode.trim().toLowerCase(Locale.ROOT);
+        switch (normalized) {
+            case "postgis":
+                String missing = missingPostgisRequirement(jdbcTemplate, schema);
+                if (missing != null) {
+                    throw new IllegalStateException("search.spatial.mode=postgis ma " + missing);
+                }
+                return SpatialSearchMode.POSTGIS;
+            case "bbox":
+            case "bounding_box":
+                return SpatialSearchMode.BOUNDING_BOX;
+            case "auto":
+                String unavailable = missingPostgisRequirement(jdbcTemplate, schema);
+                if (unavailable != null) {
+                    logger.info("PostGIS non utilizzabile ({}), uso la bounding box", unavailable);
+                    return SpatialSearchMode.BOUNDING_BOX;
+                }
+                return SpatialSearchMode.POSTGIS;
+            default:
+                throw new IllegalArgumentException("Valore non valido per search.spatial.mode: " + configuredMode
+                        + " (valori ammessi: auto, postgis, bbox)");
+        }
+    }
+
+    /**
+     * @return descrizione del primo requisito PostGIS mancante, {@code null} se sono tutti presenti
+     */
+    private static String missingPostgisRequirement(JdbcTemplate jdbcTemplate, String schema) {
+        try {
+            if (count(jdbcTemplate, POSTGIS_EXTENSION_QUERY, null) == 0) {
+                return "estensione postgis non installata";
+            }
+            if (count(jdbcTemplate, GEOGRAPHY_COLUMN_QUERY, schema) == 0) {
+                return "colonna address.geography di tipo geography assente";
+            }
+            if (count(jdbcTemplate, GEOGRAPHY_TRIGGER_QUERY, schema) == 0) {
+                return "trigger " + GEOGRAPHY_TRIGGER + " assente (migrazione V8 non applicata)";
+            }
+            return null;
+        } catch (DataAccessException e) {
+            // pg_extension non esiste (es. H2): PostGIS non disponibile
+            logger.debug("Rilevamento PostGIS fallito: {}", e.getMessage());
+            return "rilevamento fallito: " + e.getMessage();
+        }
+    }
+
+    /** Esegue la query di conteggio filtrando per {@code schema}, o per lo schema corrente se {@code null}. */
+    private static int count(JdbcTemplate jdbcTemplate, String query, String schema) {
+        Integer result = schema == null
+                ? jdbcTemplate.queryForObject(query.formatted("current_schema()"), Integer.class)
+                : jdbcTemplate.queryForObject(query.formatted("?"), Integer.class, schema);
+        return result == null ? 0 : result;
+    }
+}
@@ -0,0 +1,66 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Risolve una sola volta, all'avvio, se la ricerca testuale può usare {@code pg_trgm}
+ * per il punteggio di rilevanza.
+ *
+ * Il filtro ({@code ILIKE}) è identico in entrambi i casi e usa gli indici trigram quando presenti;
+ * cambia solo il calcolo della rilevanza: {@code word_similarity} con pg_trgm, un punteggio
+ * a corrispondenze con funzioni standard altrimenti (H2, Postgres senza estensione).
+ * Valori di {@code search.text.mode}: auto (default), trigram, like.
+ */
+@Component
+public class TextSearchSupport {
+
+    private static final Logger logger = LoggerFactory.getLogger(TextSearchSupport.class);
+
+    private static final String PG_TRGM_EXTENSION_QUERY =
+            "SELECT COUNT(*) FROM pg_extension WHERE extname = 'pg_trgm'";
+
+    private final boolean trigramEnabled;
+
+    public TextSearchSupport(JdbcTemplate jdbcTemplate,
+                             @Value("${search.text.mode:auto}") String configuredMode) {
+        this.trigramEnabled = resolveMode(jdbcTemplate, configuredMode);
+        logger.info("Rilevanza della ricerca testuale con pg_trgm: {}", trigramEnabled);
+    }
+
+    public boolean isTrigramEnabled() {
+        return trigramEnabled;
+    }
+
+    private static boolean resolveMode(JdbcTemplate jdbcTemplate, String configuredMode) {
+        String normalized = configuredMode == null ? "auto" : configuredMode.trim().toLowerCase(Locale.ROOT);
+        switch (normalized) {
+            case "trigram":
+                return true;
+            case "like":
+                return false;
+            case "auto":
+                return detectTrigram(jdbcTemplate);
+            default:
+                throw new IllegalArgumentException("Valore non valido per search.text.mode: " + configuredMode
+                        + " (valori ammessi: auto, trigram, like)");
+        }
+    }
+
+    private static boolean detectTrigram(JdbcTemplate jdbcTemplate) {
+        try {
+            Integer extensions = jdbcTemplate.queryForObject(PG_TRGM_EXTENSION_QUERY, Integer.class);
+            return extensions != null && extensions > 0;
+        } catch (DataAccessException e) {
+            // pg_extension non esiste (es. H2): pg_trgm non disponibile
+            logger.debug("Rilevamento pg_trgm fallito, uso il punteggio standard: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import java.math.BigDecimal;
+
+/**
+ * Coordinate di una tile web mercator (schema XYZ, origine in alto a sinistra).
+ *
+ * @param z livello di zoom (0..22)
+ * @param x colonna, 0..2^z-1
+ * @param y riga, 0..2^z-1
+ */
+public record TileCoordinates(int z, int x, int y) {
+
+    public static final int MAX_ZOOM = 22;
+
+    public TileCoordinates {
+        if (z < 0 || z > MAX_ZOOM) {
+            throw new IllegalArgumentException("Il livello di zoom della tile deve essere compreso tra 0 e " + MAX_ZOOM);
+        }
+        long tiles = 1L << z;
+        if (x < 0 || x >= tiles || y < 0 || y >= tiles) {
+            throw new IllegalArgumentException("Coordinate della tile fuori intervallo: " + z + "/" + x + "/" + y);
+        }
+    }
+
+    /**
+     * Limiti geografici della tile nel formato di {@code BoundingBoxUtility}: [minLat, maxLat, minLon, maxLon].
+     */
+    public BigDecimal[] bounds() {
+        return new BigDecimal[] {
+            BigDecimal.valueOf(tileToLatitude(y + 1)),
+            BigDecimal.valueOf(tileToLatitude(y)),
+            BigDecimal.valueOf(tileToLongitude(x)),
+            BigDecimal.valueOf(tileToLongitude(x + 1))
+        };
+    }
+
+    /**
+     * Proietta un punto nelle coordinate interne della tile, con origine in alto a sinistra
+     * e lato {@code extent}. I punti fuori dalla tile danno valori fuori da [0, extent).
+     */
+    public int[] project(double latitude, double longitude, int extent) {
+        double tiles = 1L << z;
+        double latRad = Math.toRadians(latitude);
+        double tileX = (longitude + 180.0) / 360.0 * tiles;
+        double tileY = (1.0 - Math.log(Math.tan(latRad) + 1.0 / Math.cos(latRad)) / Math.PI) / 2.0 * tiles;
+        return new int[] {
+            (int) Math.floor((tileX - x) * extent),
+            (int) Math.floor((tileY - y) * extent)
+        };
+    }
+
+    private double tileToLongitude(int tileX) {
+        return tileX / (double) (1L << z) * 360.0 - 180.0;
+    }
+
+    private double tileToLatitude(int tileY) {
+        double n = Math.PI - 2.0 * Math.PI * tileY / (1L << z);
+        return Math.toDegrees(Math.atan(Math.sinh(n)));
+    }
+}
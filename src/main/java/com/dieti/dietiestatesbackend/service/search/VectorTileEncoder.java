@@ -0,0 +1,188 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encoder minimale di Mapbox Vector Tile (specifica 2.1) per un singolo layer di punti.
+ *
+ * Usato quando PostGIS non è disponibile (es. H2 nei test): produce lo stesso formato di
+ * {@code ST_AsMVT}, scrivendo a mano il protobuf. Supporta solo geometrie POINT e attributi
+ * stringa, numerici e booleani, che è quanto serve per i marker delle property.
+ */
+public final class VectorTileEncoder {
+
+    public static final int DEFAULT_EXTENT = 4096;
+
+    private static final int VERSION = 2;
+    private static final int GEOM_TYPE_POINT = 1;
+    private static final int CMD_MOVE_TO_ONE = (1 & 0x7) | (1 << 3);
+
+    private final String layerName;
+    private final int extent;
+    private final List<Feature> features = new ArrayList<>();
+    private final Map<String, Integer> keys = new LinkedHashMap<>();
+    private final Map<Object, Integer> values = new LinkedHashMap<>();
+
+    public VectorTileEncoder(String layerName) {
+        this(layerName, DEFAULT_EXTENT);
+    }
+
+    public VectorTileEncoder(String layerName, int extent) {
+        this.layerName = layerName;
+        this.extent = extent;
+    }
+
+    /**
+     * Aggiunge un punto in coordinate tile (vedi {@link TileCoordinates#project}).
+     * I punti fuori da [0, extent) vengono scartati, come fa {@code ST_AsMVTGeom} senza buffer.
+     * Gli attributi {@code null} non vengono scritti.
+     *
+     * @return {@code true} se il punto è stato aggiunto
+     */
+    public boolean addPoint(long id, int x, int y, Map<String, ?> attributes) {
+        if (x < 0 || y < 0 || x >= extent || y >= extent) {
+            return false;
+        }
+        List<Integer> tags = new ArrayList<>();
+        attributes.forEach((key, value) -> {
+            if (value != null) {
+                tags.add(keys.computeIfAbsent(key, k -> keys.size()));
+                tags.add(values.computeIfAbsent(normalize(value), v -> values.size()));
+            }
+        });
+        features.add(new Feature(id, tags, x, y));
+        return true;
+    }
+
+    public int size() {
+        return features.size();
+    }
+
+    /**
+     * Serializza la tile. Senza feature restituisce un array vuoto, che è una tile valida.
+     */
+    public byte[] encode() {
+        if (features.isEmpty()) {
+            return new byte[0];
+        }
+        ProtoWriter layer = new ProtoWriter();
+        layer.writeVarintField(15, VERSION);
+        layer.writeBytesField(1, layerName.getBytes(StandardCharsets.UTF_8));
+        for (Feature feature : features) {
+            layer.writeBytesField(2, encodeFeature(feature));
+        }
+        for (String key : keys.keySet()) {
+            layer.writeBytesField(3, key.getBytes(StandardCharsets.UTF_8));
+        }
+        for (Object value : values.keySet()) {
+            layer.writeBytesField(4, encodeValue(value));
+        }
+        layer.writeVarintField(5, extent);
+
+        ProtoWriter tile = new ProtoWriter();
+        tile.writeBytesField(3, layer.toByteArray());
+        return tile.toByteArray();
+    }
+
+    private static byte[] encodeFeature(Feature feature) {
+        ProtoWriter writer = new ProtoWriter();
+        writer.writeVarintField(1, feature.id());
+        if (!feature.tags().isEmpty()) {
+            writer.writePackedField(2, feature.tags().stream().mapToLong(Integer::longValue).toArray());
+        }
+        writer.writeVarintField(3, GEOM_TYPE_POINT);
+        writer.writePackedField(4, new long[] { CMD_MOVE_TO_ONE, zigZag(feature.x()), zigZag(feature.y()) });
+        return writer.toByteArray();
+    }
+
+    private static byte[] encodeValue(Object value) {
+        ProtoWriter writer = new ProtoWriter();
+        if (value instanceof String text) {
+            writer.writeBytesField(1, text.getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof Double number) {
+            writer.writeDoubleField(3, number);
+        } else if (value instanceof Long number) {
+            writer.writeVarintField(6, zigZag(number));
+        } else if (value instanceof Boolean flag) {
+            writer.writeVarintField(7, flag ? 1 : 0);
+        }
+        return writer.toByteArray();
+    }
+
+    /** Riduce i valori ai tipi del protobuf, così valori uguali condividono lo stesso indice. */
+    private static Object normalize(Object value) {
+        if (value instanceof BigDecimal || value instanceof Double || value instanceof Float) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof Boolean) {
+            return value;
+        }
+        return value.toString();
+    }
+
+    private static long zigZag(long n) {
+        return (n << 1) ^ (n >> 63);
+    }
+
+    private record Feature(long id, List<Integer> tags, int x, int y) {}
+
+    private static final class ProtoWriter {
+        private static final int WIRE_VARINT = 0;
+        private static final int WIRE_FIXED64 = 1;
+        private static final int WIRE_LENGTH_DELIMITED = 2;
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        void writeVarintField(int field, long value) {
+            writeTag(field, WIRE_VARINT);
+            writeVarint(value);
+        }
+
+        void writeDoubleField(int field, double value) {
+            writeTag(field, WIRE_FIXED64);
+            long bits = Double.doubleToLongBits(value);
+            for (int i = 0; i < 8; i++) {
+                out.write((int) (bits >>> (8 * i)) & 0xFF);
+            }
+        }
+
+        void writeBytesField(int field, byte[] bytes) {
+            writeTag(field, WIRE_LENGTH_DELIMITED);
+            writeVarint(bytes.length);
+            out.writeBytes(bytes);
+        }
+
+        void writePackedField(int field, long[] values) {
+            ProtoWriter packed = new ProtoWriter();
+            for (long value : values) {
+                packed.writeVarint(value);
+            }
+            writeBytesField(field, packed.toByteArray());
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+
+        private void writeTag(int field, int wireType) {
+            writeVarint(((long) field << 3) | wireType);
+        }
+
+        private void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.dieti.dietiestatesbackend.specifications;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.dieti.dietiestatesbackend.dto.request.SearchCircle;
+import com.dieti.dietiestatesbackend.entities.Address;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.service.search.SpatialSearchMode;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Espressioni SQL per la distanza ortodromica (in metri) tra l'indirizzo di una property
+ * e un punto di riferimento.
+ * Con PostGIS si usa {@code ST_Distance} su geography (sferoide WGS84);
+ * altrimenti la formula di Haversine con funzioni SQL standard (radians, sin, cos, asin, sqrt),
+ * disponibili sia su PostgreSQL che su H2.
+ */
+@UtilityClass
+public class DistanceExpressions {
+
+    /** Raggio medio terrestre (IUGG) in metri, usato dalla formula di Haversine. */
+    public static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    /**
+     * Distanza dal centro indicato, come {@link PropertyExpression} selezionabile e ordinabile.
+     */
+    public static PropertyExpression<Double> distanceFrom(BigDecimal centerLatitude,
+                                                          BigDecimal centerLongitude,
+                                                          SpatialSearchMode mode) {
+        return (root, query, cb) -> {
+            Join<Property, Address> addressJoin = JoinSupport.joinOnce(root, "address");
+            Path<BigDecimal> latPath = addressJoin.get("coordinates").get("latitude");
+            Path<BigDecimal> lonPath = addressJoin.get("coordinates").get("longitude");
+            return mode == SpatialSearchMode.POSTGIS
+                    ? postgisDistance(cb, latPath, lonPath, centerLatitude, centerLongitude)
+                    : haversineDistance(cb, latPath, lonPath, centerLatitude, centerLongitude);
+        };
+    }
+
+    /**
+     * Distanza dal più vicino dei centri di una ricerca multi-centro, calcolata riga per riga.
+     */
+    public static PropertyExpression<Double> distanceFromNearest(List<SearchCircle> circles, SpatialSearchMode mode) {
+        List<PropertyExpression<Double>> distances = circles.stream()
+                .map(circle -> distanceFrom(circle.getCenterLatitude(), circle.getCenterLongitude(), mode))
+                .toList();
+        return (root, query, cb) -> {
+            List<Expression<Double>> expressions = new ArrayList<>(distances.size());
+            for (PropertyExpression<Double> distance : distances) {
+                expressions.add(distance.toExpression(root, query, cb));
+            }
+            return nearest(cb, expressions);
+        };
+    }
+
+    /**
+     * Minimo riga per riga fra più distanze con {@code LEAST} (PostgreSQL e H2; il {@code min} del
+     * CriteriaBuilder è un aggregato). Un CASE annidato raddoppierebbe l'espressione ad ogni centro.
+     */
+    public static Expression<Double> nearest(CriteriaBuilder cb, List<Expression<Double>> distances) {
+        if (distances.size() == 1) {
+            return distances.get(0);
+        }
+        return cb.function("least", Double.class, distances.toArray(new Expression<?>[0]));
+    }
+
+    /**
+     * Haversine: {@code 2R * asin(sqrt(sin²(Δφ/2) + cos φ1 · cos φ2 · sin²(Δλ/2)))}.
+     */
+    public static Expression<Double> haversineDistance(CriteriaBuilder cb,
+                                                       Expression<? extends Number> latitude,
+                                                       Expression<? extends Number> longitude,
+                                                       BigDecimal centerLatitude,
+                                                       BigDecimal centerLongitude) {
+        double centerLatRad = Math.toRadians(centerLatitude.doubleValue());
+        double centerLonRad = Math.toRadians(centerLongitude.doubleValue());
+
+        Expression<Double> latRad = cb.function("radians", Double.class, latitude);
+        Expression<Double> lonRad = cb.function("radians", Double.class, longitude);
+
+        Expression<Double> sinHalfDeltaLat = cb.function("sin", Double.class,
+                cb.quot(cb.diff(latRad, centerLatRad), 2.0).as(Double.class));
+        Expression<Double> sinHalfDeltaLon = cb.function("sin", Double.class,
+                cb.quot(cb.diff(lonRad, centerLonRad), 2.0).as(Double.class));
+
+        Expression<Double> a = cb.sum(
+                cb.prod(sinHalfDeltaLat, sinHalfDeltaLat),
+                cb.prod(
+                        cb.prod(cb.function("cos", Double.class, latRad), Math.cos(centerLatRad)),
+                        cb.prod(sinHalfDeltaLon, sinHalfDeltaLon)));
+
+        Expression<Double> centralAngle = cb.function("asin", Double.class, cb.sqrt(a).as(Double.class));
+        return cb.prod(centralAngle, 2 * EARTH_RADIUS_METERS);
+    }
+
+    private static Expression<Double> postgisDistance(CriteriaBuilder cb,
+                                                      Expression<? extends Number> latitude,
+                                                      Expression<? extends Number> longitude,
+                                                      BigDecimal centerLatitude,
+                                                      BigDecimal centerLongitude) {
+        Expression<String> point = cb.function("geography", String.class,
+                cb.function("ST_SetSRID", String.class,
+                        cb.function("ST_MakePoint", String.class, longitude, latitude),
+                        cb.literal(4326)));
+        return cb.function("ST_Distance", Double.class, point, centerGeography(cb, centerLatitude, centerLongitude));
+    }
+
+    /**
+     * Punto di riferimento come geography PostGIS (EWKT con SRID 4326).
+     */
+    static Expression<String> centerGeography(CriteriaBuilder cb, BigDecimal latitude, BigDecimal longitude) {
+        // WKT usa l'ordine (longitudine latitudine)
+        String ewkt = String.format(Locale.ROOT, "SRID=4326;POINT(%s %s)", longitude.toPlainString(), latitude.toPlainString());
+        return cb.function("ST_GeogFromText", String.class, cb.literal(ewkt));
+    }
+}
@@ -0,0 +1,39 @@
+package com.dieti.dietiestatesbackend.specifications;
+
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Riuso delle join all'interno di una stessa query Criteria.
+ *
+ * Ogni {@code root.join(attr)} aggiunge una join SQL anche se la stessa associazione è già
+ * stata joinata da un'altra Specification (es. categoria e sottocategoria) o caricata in fetch join.
+ * {@link #joinOnce} restituisce la join esistente quando c'è e ne crea una solo la prima volta:
+ * lo stato è quello della query stessa ({@code getJoins()/getFetches()}), quindi non serve
+ * condividere nulla tra le Specification.
+ */
+@UtilityClass
+public class JoinSupport {
+
+    /**
+     * Join sull'attributo indicato, riusando una join o fetch join già presente su {@code from}.
+     * Una join LEFT esistente va bene anche per i predicati di uguaglianza, che scartano comunque i null.
+     */
+    @SuppressWarnings("unchecked")
+    public static <X, Y> Join<X, Y> joinOnce(From<?, X> from, String attribute) {
+        for (Join<X, ?> join : from.getJoins()) {
+            if (attribute.equals(join.getAttribute().getName())) {
+                return (Join<X, Y>) join;
+            }
+        }
+        for (Fetch<X, ?> fetch : from.getFetches()) {
+            // in Hibernate le fetch join sono anche Join e possono essere usate nei predicati
+            if (fetch instanceof Join<?, ?> join && attribute.equals(fetch.getAttribute().getName())) {
+                return (Join<X, Y>) join;
+            }
+        }
+        return from.join(attribute);
+    }
+}
@@ -0,0 +1,19 @@
+package com.dieti.dietiestatesbackend.specifications;
+
+import com.dieti.dietiestatesbackend.entities.Property;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Espressione calcolata su una {@link Property}, costruita per query come una Specification.
+ * Usata per le chiavi di ricerca derivate (es. distanza) che vanno selezionate
+ * e ordinate dal DB ma non sono attributi dell'entità.
+ */
+@FunctionalInterface
+public interface PropertyExpression<T> {
+
+    Expression<T> toExpression(Root<Property> root, CriteriaQuery<?> query, CriteriaBuilder cb);
+}
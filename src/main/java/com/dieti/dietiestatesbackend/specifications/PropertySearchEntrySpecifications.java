@@ -0,0 +1,180 @@
+package com.dieti.dietiestatesbackend.specifications;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.dto.request.SearchCircle;
+import com.dieti.dietiestatesbackend.entities.PropertySearchEntry;
+import com.dieti.dietiestatesbackend.service.search.KeysetSort;
+import com.dieti.dietiestatesbackend.service.search.SearchCursor;
+import com.dieti.dietiestatesbackend.util.BoundingBoxUtility;
+import com.dieti.dietiestatesbackend.util.GeoPolygon;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Equivalente di {@link PropertySpecifications#buildFromFilters} sul read model {@link PropertySearchEntry}.
+ * Stessa semantica dei filtri, ma ogni predicato è su una colonna della sola tabella {@code property_search}:
+ * niente join né TREAT sui sottotipi. Il filtro geografico è la bounding box (indice su latitude/longitude)
+ * rifinita con la distanza di Haversine.
+ */
+@UtilityClass
+public class PropertySearchEntrySpecifications {
+
+    public static Specification<PropertySearchEntry> buildFromFilters(FilterRequest filters) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (filters.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), filters.getMinPrice()));
+            }
+            if (filters.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), filters.getMaxPrice()));
+            }
+            if (filters.getMinArea() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("area"), filters.getMinArea()));
+            }
+            if (filters.getMinYearBuilt() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("yearBuilt"), filters.getMinYearBuilt()));
+            }
+            if (!isNullOrEmpty(filters.getAcceptedCondition())) {
+                predicates.add(root.get("condition").in(filters.getAcceptedCondition()));
+            }
+            if (filters.getMinEnergyRating() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("energyRating"), filters.getMinEnergyRating()));
+            }
+            addEqualIfPresent(predicates, cb, root.get("contract"), filters.getContract());
+            addEqualIfPresent(predicates, cb, root.get("propertyType"), filters.getCategory());
+            addEqualIfPresent(predicates, cb, root.get("subcategory"), filters.getPropertySubcategoryName());
+
+            List<String> terms = TextSearchExpressions.terms(filters.getQuery());
+            if (!terms.isEmpty()) {
+                predicates.add(TextSearchExpressions.matchesAllTerms(root, cb, terms));
+            }
+
+            typeSpecificPredicates(predicates, root, cb, filters);
+            addGeographicPredicate(predicates, root, cb, filters);
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Predicato keyset, come {@link PropertySpecifications#afterCursor}: gli attributi di ordinamento
+     * ({@code createdAt}, {@code price}, {@code id}) hanno lo stesso nome nel read model.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<PropertySearchEntry> afterCursor(SearchCursor cursor) {
+        return (root, query, cb) -> {
+            KeysetSort sort = cursor.getSort();
+            Path keyPath = root.get(sort.getAttribute());
+            Path<Long> idPath = root.get("id");
+            Comparable key = cursor.getKey();
+            Long lastId = cursor.getLastId();
+
+            if (sort.getDirection().isDescending()) {
+                return cb.or(cb.lessThan(keyPath, key), cb.and(cb.equal(keyPath, key), cb.lessThan(idPath, lastId)));
+            }
+            return cb.or(cb.greaterThan(keyPath, key), cb.and(cb.equal(keyPath, key), cb.greaterThan(idPath, lastId)));
+        };
+    }
+
+    private static void typeSpecificPredicates(List<Predicate> predicates, Root<PropertySearchEntry> root,
+                                               CriteriaBuilder cb, FilterRequest filters) {
+        String category = safeTrim(filters.getCategory());
+        if (category == null) {
+            return;
+        }
+        switch (category.toUpperCase(Locale.ROOT)) {
+            case "RESIDENTIAL":
+                addMinIfPresent(predicates, cb, root.get("numberOfRooms"), filters.getMinNumberOfRooms());
+                addMinIfPresent(predicates, cb, root.get("numberOfBathrooms"), filters.getMinNumberOfBathrooms());
+                addMinIfPresent(predicates, cb, root.get("parkingSpaces"), filters.getMinParkingSpaces());
+                addEqualIfPresent(predicates, cb, root.get("heating"), filters.getHeating());
+                if (!isNullOrEmpty(filters.getAcceptedGarden())) {
+                    predicates.add(root.get("garden").in(filters.getAcceptedGarden()));
+                }
+                addFlagIfPresent(predicates, cb, root.get("furnished"), filters.getMustBeFurnished());
+                addFlagIfPresent(predicates, cb, root.get("elevator"), filters.getMustHaveElevator());
+                break;
+            case "COMMERCIAL":
+                addMinIfPresent(predicates, cb, root.get("numberOfFloors"), filters.getMinNumberOfFloors());
+                addFlagIfPresent(predicates, cb, root.get("wheelchairAccess"), filters.getMustHaveWheelchairAccess());
+                break;
+            case "GARAGE":
+                addFlagIfPresent(predicates, cb, root.get("surveillance"), filters.getMustHaveSurveillance());
+                addMinIfPresent(predicates, cb, root.get("numberOfFloors"), filters.getMinNumberOfFloors());
+                break;
+            case "LAND":
+                addFlagIfPresent(predicates, cb, root.get("accessibleFromStreet"), filters.getMustBeAccessibleFromStreet());
+                break;
+            default:
+                // categoria sconosciuta -> nessun filtro specifico
+                break;
+        }
+    }
+
+    private static void addGeographicPredicate(List<Predicate> predicates, Root<PropertySearchEntry> root,
+                                               CriteriaBuilder cb, FilterRequest filters) {
+        GeoPolygon area = PropertySpecifications.searchArea(filters);
+        if (area != null) {
+            predicates.add(PropertySpecifications.polygonPredicate(cb, root.get("latitude"), root.get("longitude"), area));
+            return;
+        }
+        List<SearchCircle> circles = PropertySpecifications.searchCircles(filters);
+        if (circles.isEmpty()) {
+            return;
+        }
+        BoundingBoxUtility util = new BoundingBoxUtility();
+        Path<BigDecimal> latPath = root.get("latitude");
+        Path<BigDecimal> lonPath = root.get("longitude");
+        List<Predicate> withinAny = new ArrayList<>(circles.size());
+        for (SearchCircle circle : circles) {
+            BigDecimal[] bounds = util.calculateBoundingBox(
+                    circle.getCenterLatitude(), circle.getCenterLongitude(), circle.getRadiusInMeters());
+            withinAny.add(cb.and(
+                    PropertySpecifications.boundingBoxPredicate(cb, latPath, lonPath, bounds),
+                    cb.lessThanOrEqualTo(
+                            DistanceExpressions.haversineDistance(cb, latPath, lonPath,
+                                    circle.getCenterLatitude(), circle.getCenterLongitude()),
+                            circle.getRadiusInMeters())));
+        }
+        predicates.add(cb.or(withinAny.toArray(new Predicate[0])));
+    }
+
+    private static void addEqualIfPresent(List<Predicate> predicates, CriteriaBuilder cb, Path<String> path, String value) {
+        String trimmed = safeTrim(value);
+        if (trimmed != null) {
+            predicates.add(cb.equal(path, trimmed));
+        }
+    }
+
+    private static void addMinIfPresent(List<Predicate> predicates, CriteriaBuilder cb, Path<Integer> path, Integer min) {
+        if (min != null) {
+            predicates.add(cb.greaterThanOrEqualTo(path, min));
+        }
+    }
+
+    private static void addFlagIfPresent(List<Predicate> predicates, CriteriaBuilder cb, Path<Boolean> path, Boolean value) {
+        if (value != null) {
+            predicates.add(cb.equal(path, value));
+        }
+    }
+
+    private static boolean isNullOrEmpty(List<?> list) {
+        return list == null || list.isEmpty();
+    }
+
+    private static String safeTrim(String s) {
+        return s == null || s.trim().isEmpty() ? null : s.trim();
+    }
+}
@@ -1,7 +1,10 @@
 package com.dieti.dietiestatesbackend.specifications;
 
 import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.dto.request.GeoJsonGeometry;
+import com.dieti.dietiestatesbackend.dto.request.SearchCircle;
 import com.dieti.dietiestatesbackend.entities.Address;
+import com.dieti.dietiestatesbackend.entities.AddressGeography;
 import com.dieti.dietiestatesbackend.entities.Property;
 import com.dieti.dietiestatesbackend.entities.Contract;
 import com.dieti.dietiestatesbackend.entities.PropertyCategory;
@@ -12,37 +15,123 @@ import com.dieti.dietiestatesbackend.entities.Land;
 import com.dieti.dietiestatesbackend.entities.Heating;
 import com.dieti.dietiestatesbackend.enums.EnergyRating;
 import com.dieti.dietiestatesbackend.enums.PropertyCondition;
+import com.dieti.dietiestatesbackend.service.search.KeysetSort;
+import com.dieti.dietiestatesbackend.service.search.SearchCursor;
+import com.dieti.dietiestatesbackend.service.search.SpatialSearchMode;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import lombok.experimental.UtilityClass;
 import org.springframework.data.jpa.domain.Specification;
 import com.dieti.dietiestatesbackend.util.BoundingBoxUtility;
+import com.dieti.dietiestatesbackend.util.GeoPolygon;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 @UtilityClass
 public class PropertySpecifications {
 
+    /** Oltre questo numero di vertici l'area disegnata viene semplificata prima di costruire la query. */
+    public static final int AREA_MAX_VERTICES = 128;
+
+    /** Zone massime di una ricerca multi-centro. */
+    public static final int MAX_SEARCH_CIRCLES = 10;
+
+    /**
+     * Builds the search specification using the portable bounding-box geographic filter.
+     */
     public static Specification<Property> buildFromFilters(FilterRequest filters) {
+        return buildFromFilters(filters, SpatialSearchMode.BOUNDING_BOX);
+    }
+
+    /**
+     * Builds the search specification using the given strategy for the geographic filter.
+     * {@link SpatialSearchMode#POSTGIS} pushes the radius test into {@code ST_DWithin}
+     * over the GIST-indexed {@code address.geography} column.
+     *
+     * Predicates are emitted most selective first: geographic filter, category/subcategory and
+     * contract (indexed, usually narrow), then the range filters and finally the free-text ILIKE,
+     * the most expensive to evaluate per row. Everything that depends only on the filters
+     * (trimmed values, bounding box, text terms) is computed here once, not on every
+     * {@code toPredicate} call (the same spec is evaluated for the page and for the count).
+     * Joins are shared through {@link JoinSupport#joinOnce}: one join per association per query.
+     */
+    public static Specification<Property> buildFromFilters(FilterRequest filters, SpatialSearchMode spatialMode) {
         Specification<Property> spec = (root, query, cb) -> cb.conjunction();
 
+        spec = spec.and(geographicFilter(filters, spatialMode));
+        spec = spec.and(categoryEquals(filters.getCategory()));
+        spec = spec.and(subcategoryEquals(filters.getPropertySubcategoryName()));
+        spec = spec.and(contractEquals(filters.getContract()));
+        spec = spec.and(typeSpecificFilters(filters));
         spec = spec.and(priceInRange(filters.getMinPrice(), filters.getMaxPrice()));
         spec = spec.and(minArea(filters.getMinArea()));
         spec = spec.and(minYearBuilt(filters.getMinYearBuilt()));
         spec = spec.and(conditionIn(filters.getAcceptedCondition()));
         spec = spec.and(minEnergyRating(filters.getMinEnergyRating()));
-        spec = spec.and(contractEquals(filters.getContract()));
-        spec = spec.and(categoryEquals(filters.getCategory()));
-        spec = spec.and(subcategoryEquals(filters.getPropertySubcategoryName()));
-        spec = spec.and(typeSpecificFilters(filters));
-        spec = spec.and(withinBoundingBox(filters)); // Filtro geografico basato sulla bounding box
+        spec = spec.and(textMatches(filters.getQuery()));
 
         return spec;
     }
 
+    /**
+     * Base specification for facet counts: every filter except the faceted dimensions
+     * (category, contract, energy rating, condition, price), which the facet query evaluates
+     * per dimension so that each facet can ignore its own selection.
+     * Type-specific filters (rooms, heating, surveillance...) still apply, but only to rows
+     * of the selected category, so that the other categories can be counted as alternatives.
+     */
+    public static Specification<Property> buildForFacets(FilterRequest filters, SpatialSearchMode spatialMode) {
+        FilterRequest withoutFacets = filters.toBuilder()
+            .category(null)
+            .contract(null)
+            .minEnergyRating(null)
+            .acceptedCondition(null)
+            .minPrice(null)
+            .maxPrice(null)
+            .build();
+        return buildFromFilters(withoutFacets, spatialMode).and(typeSpecificFiltersForCategoryOnly(filters));
+    }
+
+    /**
+     * Keyset (seek) predicate: keeps only the rows that follow the position encoded in the cursor
+     * for its sort order, i.e. {@code key > k OR (key = k AND id > lastId)} (reversed for DESC).
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Property> afterCursor(SearchCursor cursor) {
+        return (root, query, cb) -> {
+            KeysetSort sort = cursor.getSort();
+            Path keyPath = root.get(sort.getAttribute());
+            Path<Long> idPath = root.get("id");
+            Comparable key = cursor.getKey();
+            Long lastId = cursor.getLastId();
+
+            if (sort.getDirection().isDescending()) {
+                return cb.or(
+                    cb.lessThan(keyPath, key),
+                    cb.and(cb.equal(keyPath, key), cb.lessThan(idPath, lastId))
+                );
+            }
+            return cb.or(
+                cb.greaterThan(keyPath, key),
+                cb.and(cb.equal(keyPath, key), cb.greaterThan(idPath, lastId))
+            );
+        };
+    }
+
+    /**
+     * Property assegnate all'agente indicato (senza join: confronto sulla foreign key).
+     */
+    public static Specification<Property> ofAgent(Long agentId) {
+        return (root, query, cb) -> cb.equal(root.get("agent").get("id"), agentId);
+    }
+
     private static Specification<Property> priceInRange(BigDecimal min, BigDecimal max) {
         return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
@@ -78,44 +167,52 @@ public class PropertySpecifications {
     }
 
     private static Specification<Property> contractEquals(String contractName) {
+        String name = safeTrim(contractName);
         return (root, query, cb) -> {
-            if (isNullOrBlank(contractName)) {
+            if (name == null) {
                 return null;
             }
-            Join<Property, Contract> contractJoin = root.join("contract");
-            return cb.equal(contractJoin.get("name"), contractName.trim());
+            Join<Property, Contract> contractJoin = JoinSupport.joinOnce(root, "contract");
+            return cb.equal(contractJoin.get("name"), name);
         };
     }
 
     private static Specification<Property> categoryEquals(String propertyType) {
+        String type = safeTrim(propertyType);
         return (root, query, cb) -> {
-            if (isNullOrBlank(propertyType)) {
+            if (type == null) {
                 return null;
             }
-            Join<Property, PropertyCategory> categoryJoin = root.join("propertyCategory");
-            return cb.equal(categoryJoin.get("propertyType"), propertyType.trim());
+            Join<Property, PropertyCategory> categoryJoin = JoinSupport.joinOnce(root, "propertyCategory");
+            return cb.equal(categoryJoin.get("propertyType"), type);
         };
     }
 
+    private static Specification<Property> textMatches(String text) {
+        List<String> terms = TextSearchExpressions.terms(text);
+        return (root, query, cb) -> terms.isEmpty() ? null : TextSearchExpressions.matchesAllTerms(root, cb, terms);
+    }
+
     private static Specification<Property> subcategoryEquals(String subcategoryName) {
+        String name = safeTrim(subcategoryName);
         return (root, query, cb) -> {
-            if (isNullOrBlank(subcategoryName)) {
+            if (name == null) {
                 return null;
             }
-            Join<Property, PropertyCategory> categoryJoin = root.join("propertyCategory");
-            return cb.equal(categoryJoin.get("name"), subcategoryName.trim());
+            Join<Property, PropertyCategory> categoryJoin = JoinSupport.joinOnce(root, "propertyCategory");
+            return cb.equal(categoryJoin.get("name"), name);
         };
     }
 
     private static Specification<Property> typeSpecificFilters(FilterRequest filters) {
+        String rawCategory = safeTrim(filters.getCategory());
+        String category = rawCategory == null ? null : rawCategory.toUpperCase(Locale.ROOT);
         return (root, query, cb) -> {
-            String rawCategory = safeTrim(filters.getCategory());
-            if (rawCategory == null) {
+            if (category == null) {
                 return null;
             }
 
             List<Predicate> predicates = new ArrayList<>();
-            String category = rawCategory.toUpperCase();
 
             switch (category) {
                 case "RESIDENTIAL":
@@ -139,6 +236,37 @@ public class PropertySpecifications {
         };
     }
 
+    private static Specification<Property> typeSpecificFiltersForCategoryOnly(FilterRequest filters) {
+        return (root, query, cb) -> {
+            String rawCategory = safeTrim(filters.getCategory());
+            if (rawCategory == null) {
+                return null;
+            }
+            Class<? extends Property> subtype = subtypeOf(rawCategory.toUpperCase(Locale.ROOT));
+            Predicate typePredicates = typeSpecificFilters(filters).toPredicate(root, query, cb);
+            if (subtype == null || typePredicates == null) {
+                return null;
+            }
+            // Le righe di altre categorie non sono soggette ai filtri specifici del sottotipo
+            return cb.or(cb.notEqual(root.type(), subtype), typePredicates);
+        };
+    }
+
+    private static Class<? extends Property> subtypeOf(String category) {
+        switch (category) {
+            case "RESIDENTIAL":
+                return ResidentialProperty.class;
+            case "COMMERCIAL":
+                return CommercialProperty.class;
+            case "GARAGE":
+                return Garage.class;
+            case "LAND":
+                return Land.class;
+            default:
+                return null;
+        }
+    }
+
     private static Specification<Property> commercialFilters(FilterRequest filters) {
         return (root, query, cb) -> {
             Root<CommercialProperty> commercialRoot = cb.treat(root, CommercialProperty.class);
@@ -216,55 +344,214 @@ public class PropertySpecifications {
         };
     }
 
-    private static Specification<Property> withinBoundingBox(FilterRequest filters) {
+    /**
+     * Area disegnata già interpretata e, oltre {@link #AREA_MAX_VERTICES} vertici, semplificata;
+     * {@code null} se la ricerca non ne ha una.
+     *
+     * @throws IllegalArgumentException se la geometria non è valida
+     */
+    public static GeoPolygon searchArea(FilterRequest filters) {
+        GeoJsonGeometry area = filters == null ? null : filters.getArea();
+        if (area == null) {
+            return null;
+        }
+        return GeoPolygon.fromGeoJson(area.getType(), area.getCoordinates()).simplify(AREA_MAX_VERTICES);
+    }
+
+    /**
+     * Zone del filtro per raggio: quelle di {@code circles} se presenti, altrimenti centro e raggio
+     * della ricerca; lista vuota se la ricerca non ha filtro per raggio.
+     *
+     * @throws IllegalArgumentException se le zone sono troppe o incomplete
+     */
+    public static List<SearchCircle> searchCircles(FilterRequest filters) {
+        if (filters == null) {
+            return List.of();
+        }
+        List<SearchCircle> circles = filters.getCircles();
+        if (circles != null && !circles.isEmpty()) {
+            if (circles.size() > MAX_SEARCH_CIRCLES) {
+                throw new IllegalArgumentException("Si possono indicare al massimo " + MAX_SEARCH_CIRCLES + " zone di ricerca");
+            }
+            for (SearchCircle circle : circles) {
+                if (circle == null || circle.getCenterLatitude() == null || circle.getCenterLongitude() == null
+                        || circle.getRadiusInMeters() == null) {
+                    throw new IllegalArgumentException("Ogni zona di ricerca richiede centerLatitude, centerLongitude e radiusInMeters");
+                }
+            }
+            return circles;
+        }
+        if (!hasGeographicFilter(filters)) {
+            return List.of();
+        }
+        return List.of(new SearchCircle(filters.getCenterLatitude(), filters.getCenterLongitude(), filters.getRadiusInMeters()));
+    }
+
+    private static Specification<Property> geographicFilter(FilterRequest filters, SpatialSearchMode spatialMode) {
+        GeoPolygon area = searchArea(filters);
+        if (area != null) {
+            return withinArea(area, spatialMode); // Area disegnata: sostituisce il raggio
+        }
+        List<SearchCircle> circles = searchCircles(filters);
+        if (circles.isEmpty()) {
+            return (root, query, cb) -> null;
+        }
+        return spatialMode == SpatialSearchMode.POSTGIS
+                ? withinRadius(circles)        // Filtro geografico circolare via PostGIS
+                : withinBoundingBox(circles);  // Filtro geografico basato sulla bounding box
+    }
+
+    private static Specification<Property> withinArea(GeoPolygon area, SpatialSearchMode spatialMode) {
+        if (spatialMode == SpatialSearchMode.POSTGIS) {
+            String ewkt = "SRID=4326;" + area.toWkt();
+            return (root, query, cb) -> {
+                // Come per il raggio: semi-join su AddressGeography, ST_Intersects usa l'indice GIST
+                Subquery<Long> addressesInArea = query.subquery(Long.class);
+                Root<AddressGeography> geographyRoot = addressesInArea.from(AddressGeography.class);
+                Expression<Boolean> intersects = cb.function("ST_Intersects", Boolean.class,
+                    geographyRoot.get("geography"), cb.function("ST_GeogFromText", String.class, cb.literal(ewkt)));
+                addressesInArea.select(geographyRoot.get("id")).where(cb.isTrue(intersects));
+                return root.get("address").get("id").in(addressesInArea);
+            };
+        }
         return (root, query, cb) -> {
-            if (filters == null ||
-                filters.getCenterLatitude() == null ||
-                filters.getCenterLongitude() == null ||
-                filters.getRadiusInMeters() == null) {
-                return null;
+            Join<Property, Address> addressJoin = JoinSupport.joinOnce(root, "address");
+            return polygonPredicate(cb,
+                addressJoin.get("coordinates").get("latitude"),
+                addressJoin.get("coordinates").get("longitude"),
+                area);
+        };
+    }
+
+    private static Specification<Property> withinRadius(List<SearchCircle> circles) {
+        return (root, query, cb) -> {
+            // Subquery sulla vista AddressGeography: il planner la risolve come semi-join
+            // usando l'indice GIST su address.geography, senza caricare la colonna nell'entità Address.
+            // Con più zone l'OR di ST_DWithin sulla stessa colonna diventa un BitmapOr di scansioni dell'indice.
+            Subquery<Long> nearbyAddresses = query.subquery(Long.class);
+            Root<AddressGeography> geographyRoot = nearbyAddresses.from(AddressGeography.class);
+
+            List<Predicate> withinAny = new ArrayList<>(circles.size());
+            for (SearchCircle circle : circles) {
+                Expression<String> center = DistanceExpressions.centerGeography(cb,
+                    circle.getCenterLatitude(), circle.getCenterLongitude());
+                Expression<Boolean> withinDistance = cb.function("ST_DWithin", Boolean.class,
+                    geographyRoot.get("geography"), center, cb.literal(circle.getRadiusInMeters()));
+                withinAny.add(cb.isTrue(withinDistance));
             }
 
-            // Calcola i limiti della bounding box usando la utility (istanziata direttamente:
-            // la classe è un componente senza dipendenze quindi è sicuro crearne un'istanza qui).
-            BoundingBoxUtility util = new BoundingBoxUtility();
-            java.math.BigDecimal[] bounds = util.calculateBoundingBox(
-                filters.getCenterLatitude(),
-                filters.getCenterLongitude(),
-                filters.getRadiusInMeters()
-            );
+            nearbyAddresses.select(geographyRoot.get("id")).where(cb.or(withinAny.toArray(new Predicate[0])));
 
-            java.math.BigDecimal minLat = bounds[0];
-            java.math.BigDecimal maxLat = bounds[1];
-            java.math.BigDecimal minLon = bounds[2];
-            java.math.BigDecimal maxLon = bounds[3];
+            return root.get("address").get("id").in(nearbyAddresses);
+        };
+    }
 
-            Join<Property, Address> addressJoin = root.join("address");
+    private static Specification<Property> withinBoundingBox(List<SearchCircle> circles) {
+        // Calcola i limiti delle bounding box una sola volta per ricerca usando la utility (istanziata
+        // direttamente: la classe è un componente senza dipendenze quindi è sicuro crearne un'istanza qui).
+        BoundingBoxUtility util = new BoundingBoxUtility();
+        List<BigDecimal[]> bounds = new ArrayList<>(circles.size());
+        for (SearchCircle circle : circles) {
+            bounds.add(util.calculateBoundingBox(
+                circle.getCenterLatitude(),
+                circle.getCenterLongitude(),
+                circle.getRadiusInMeters()
+            ));
+        }
 
-            jakarta.persistence.criteria.Path<java.math.BigDecimal> latPath = addressJoin.get("coordinates").get("latitude");
-            jakarta.persistence.criteria.Path<java.math.BigDecimal> lonPath = addressJoin.get("coordinates").get("longitude");
+        return (root, query, cb) -> {
+            Join<Property, Address> addressJoin = JoinSupport.joinOnce(root, "address");
+
+            Path<BigDecimal> latPath = addressJoin.get("coordinates").get("latitude");
+            Path<BigDecimal> lonPath = addressJoin.get("coordinates").get("longitude");
+
+            // La bounding box è solo un pre-filtro (sfruttabile dagli indici su lat/lon): i punti negli
+            // angoli del quadrato ma oltre il raggio vengono scartati dal DB con la distanza di Haversine.
+            // Le zone sono in OR nella stessa query: ogni property compare una volta sola.
+            List<Predicate> withinAny = new ArrayList<>(circles.size());
+            for (int i = 0; i < circles.size(); i++) {
+                SearchCircle circle = circles.get(i);
+                Predicate withinRadius = cb.lessThanOrEqualTo(
+                    DistanceExpressions.haversineDistance(cb, latPath, lonPath,
+                        circle.getCenterLatitude(), circle.getCenterLongitude()),
+                    circle.getRadiusInMeters());
+                withinAny.add(cb.and(boundingBoxPredicate(cb, latPath, lonPath, bounds.get(i)), withinRadius));
+            }
+            return withinAny.size() == 1 ? withinAny.get(0) : cb.or(withinAny.toArray(new Predicate[0]));
+        };
+    }
 
-            Predicate latPredicate = cb.and(
-                cb.greaterThanOrEqualTo(latPath, minLat),
-                cb.lessThanOrEqualTo(latPath, maxLat)
+    /**
+     * Predicate for coordinates inside a bounding box in the {@link BoundingBoxUtility} layout
+     * [minLat, maxLat, minLon, maxLon]; minLon &gt; maxLon means the box crosses the antimeridian.
+     */
+    public static Predicate boundingBoxPredicate(jakarta.persistence.criteria.CriteriaBuilder cb,
+                                                 Path<BigDecimal> latPath,
+                                                 Path<BigDecimal> lonPath,
+                                                 BigDecimal[] bounds) {
+        BigDecimal minLat = bounds[0];
+        BigDecimal maxLat = bounds[1];
+        BigDecimal minLon = bounds[2];
+        BigDecimal maxLon = bounds[3];
+
+        Predicate latPredicate = cb.and(
+            cb.greaterThanOrEqualTo(latPath, minLat),
+            cb.lessThanOrEqualTo(latPath, maxLat)
+        );
+
+        Predicate lonPredicate;
+        // Se la bounding box attraversa l'antimeridiano, minLon > maxLon -> OR fra i due intervalli
+        if (minLon.compareTo(maxLon) <= 0) {
+            lonPredicate = cb.and(
+                cb.greaterThanOrEqualTo(lonPath, minLon),
+                cb.lessThanOrEqualTo(lonPath, maxLon)
             );
+        } else {
+            lonPredicate = cb.or(
+                cb.greaterThanOrEqualTo(lonPath, minLon),
+                cb.lessThanOrEqualTo(lonPath, maxLon)
+            );
+        }
+        return cb.and(latPredicate, lonPredicate);
+    }
 
-            Predicate lonPredicate;
-            // Se la bounding box attraversa l'antimeridiano, minLon > maxLon -> OR fra i due intervalli
-            if (minLon.compareTo(maxLon) <= 0) {
-                lonPredicate = cb.and(
-                    cb.greaterThanOrEqualTo(lonPath, minLon),
-                    cb.lessThanOrEqualTo(lonPath, maxLon)
-                );
-            } else {
-                lonPredicate = cb.or(
-                    cb.greaterThanOrEqualTo(lonPath, minLon),
-                    cb.lessThanOrEqualTo(lonPath, maxLon)
-                );
+    /**
+     * Fallback senza PostGIS del test punto-in-poligono di {@link GeoPolygon#contains}: per ogni poligono
+     * la sua bounding box (sfruttabile dagli indici su lat/lon) e la parità degli attraversamenti dei lati,
+     * ciascuno espresso come {@code CASE} lineare in latitudine. La dimensione dell'espressione è
+     * limitata dalla semplificazione a {@link #AREA_MAX_VERTICES} vertici.
+     */
+    public static Predicate polygonPredicate(jakarta.persistence.criteria.CriteriaBuilder cb,
+                                             Path<BigDecimal> latPath,
+                                             Path<BigDecimal> lonPath,
+                                             GeoPolygon area) {
+        List<Predicate> parts = new ArrayList<>();
+        for (GeoPolygon.Part part : area.parts()) {
+            BigDecimal[] bounds = {
+                BigDecimal.valueOf(part.minLat()), BigDecimal.valueOf(part.maxLat()),
+                BigDecimal.valueOf(part.minLon()), BigDecimal.valueOf(part.maxLon())
+            };
+            Expression<Integer> crossings = cb.literal(0);
+            for (GeoPolygon.Ring ring : part.rings()) {
+                for (int i = 0; i < ring.size() - 1; i++) {
+                    double y1 = ring.lat(i);
+                    double y2 = ring.lat(i + 1);
+                    if (y1 == y2) {
+                        continue; // i lati orizzontali non attraversano il raggio
+                    }
+                    double slope = (ring.lon(i + 1) - ring.lon(i)) / (y2 - y1);
+                    double intercept = ring.lon(i) - slope * y1;
+                    Predicate crosses = cb.and(
+                        cb.greaterThanOrEqualTo(latPath, BigDecimal.valueOf(Math.min(y1, y2))),
+                        cb.lessThan(latPath, BigDecimal.valueOf(Math.max(y1, y2))),
+                        cb.lessThan(lonPath,
+                            cb.sum(cb.prod(latPath, BigDecimal.valueOf(slope)), BigDecimal.valueOf(intercept))));
+                    crossings = cb.sum(crossings, cb.<Integer>selectCase().when(crosses, 1).otherwise(0));
+                }
             }
-
-            return cb.and(latPredicate, lonPredicate);
-        };
+            parts.add(cb.and(boundingBoxPredicate(cb, latPath, lonPath, bounds), cb.equal(cb.mod(crossings, 2), 1)));
+        }
+        return cb.or(parts.toArray(new Predicate[0]));
     }
 
     /* -------------------------
@@ -284,6 +571,13 @@ public class PropertySpecifications {
         }
     }
 
+    private static boolean hasGeographicFilter(FilterRequest filters) {
+        return filters != null
+            && filters.getCenterLatitude() != null
+            && filters.getCenterLongitude() != null
+            && filters.getRadiusInMeters() != null;
+    }
+
     private static boolean isNullOrBlank(String s) {
         return s == null || s.trim().isEmpty();
     }
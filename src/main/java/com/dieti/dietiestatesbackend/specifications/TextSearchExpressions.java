@@ -0,0 +1,123 @@
+package com.dieti.dietiestatesbackend.specifications;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Ricerca testuale libera su {@code description} e {@code additionalFeatures}.
+ *
+ * Ogni termine della query deve comparire (case-insensitive) in almeno una delle due colonne:
+ * il predicato è un {@code ILIKE '%termine%'}, che su Postgres è servito dagli indici GIN trigram (V9).
+ * La rilevanza è {@code word_similarity} di pg_trgm quando disponibile, altrimenti un punteggio
+ * basato sulla presenza della frase intera nelle due colonne.
+ */
+@UtilityClass
+public class TextSearchExpressions {
+
+    /** Oltre questo numero i termini aggiuntivi sono ignorati, per contenere la dimensione del predicato. */
+    public static final int MAX_TERMS = 8;
+
+    private static final char ESCAPE_CHAR = '\\';
+
+    /**
+     * Termini distinti della query, in minuscolo e nell'ordine in cui compaiono.
+     * Restituisce una lista vuota per query nulle o composte solo da spazi.
+     */
+    public static List<String> terms(String query) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : query.trim().toLowerCase(Locale.ROOT).split("\\s+")) {
+            if (!token.isEmpty() && terms.size() < MAX_TERMS) {
+                terms.add(token);
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * Pattern {@code %termine%} con i caratteri jolly di LIKE ({@code %}, {@code _}) e l'escape protetti.
+     */
+    public static String containsPattern(String term) {
+        StringBuilder pattern = new StringBuilder(term.length() + 2).append('%');
+        for (char c : term.toCharArray()) {
+            if (c == '%' || c == '_' || c == ESCAPE_CHAR) {
+                pattern.append(ESCAPE_CHAR);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+
+    /**
+     * Tutti i termini presenti in description o additionalFeatures.
+     */
+    public static Predicate matchesAllTerms(Path<?> root, CriteriaBuilder cb, List<String> terms) {
+        List<Predicate> perTerm = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            perTerm.add(containsIgnoreCase(root, cb, term));
+        }
+        return cb.and(perTerm.toArray(new Predicate[0]));
+    }
+
+    /**
+     * Punteggio di rilevanza rispetto alla query, maggiore è migliore.
+     *
+     * @param trigram {@code true} per usare {@code word_similarity} di pg_trgm (valori in [0, 1])
+     */
+    public static PropertyExpression<Double> relevance(String query, boolean trigram) {
+        String phrase = String.join(" ", terms(query));
+        return (root, criteriaQuery, cb) -> trigram
+                ? trigramRelevance(root, cb, phrase)
+                : phraseRelevance(root, cb, phrase);
+    }
+
+    /**
+     * Come {@link #relevance(String, boolean)} ma su qualunque entità con gli attributi
+     * {@code description} e {@code additionalFeatures} (es. il read model di ricerca).
+     */
+    public static Expression<Double> relevance(Path<?> root, CriteriaBuilder cb, String query, boolean trigram) {
+        String phrase = String.join(" ", terms(query));
+        return trigram ? trigramRelevance(root, cb, phrase) : phraseRelevance(root, cb, phrase);
+    }
+
+    private static Predicate containsIgnoreCase(Path<?> root, CriteriaBuilder cb, String term) {
+        HibernateCriteriaBuilder hcb = (HibernateCriteriaBuilder) cb;
+        String pattern = containsPattern(term);
+        return cb.or(
+                hcb.ilike(root.get("description"), pattern, ESCAPE_CHAR),
+                hcb.ilike(root.get("additionalFeatures"), pattern, ESCAPE_CHAR));
+    }
+
+    private static Expression<Double> trigramRelevance(Path<?> root, CriteriaBuilder cb, String phrase) {
+        Expression<String> description = cb.coalesce(root.get("description"), "");
+        Expression<String> features = cb.coalesce(root.get("additionalFeatures"), "");
+        return cb.function("greatest", Double.class,
+                cb.function("word_similarity", Double.class, cb.literal(phrase), description),
+                cb.function("word_similarity", Double.class, cb.literal(phrase), features));
+    }
+
+    private static Expression<Double> phraseRelevance(Path<?> root, CriteriaBuilder cb, String phrase) {
+        HibernateCriteriaBuilder hcb = (HibernateCriteriaBuilder) cb;
+        String pattern = containsPattern(phrase);
+        Expression<Double> inDescription = cb.<Double>selectCase()
+                .when(hcb.ilike(root.get("description"), pattern, ESCAPE_CHAR), 1.0)
+                .otherwise(0.0);
+        Expression<Double> inFeatures = cb.<Double>selectCase()
+                .when(hcb.ilike(root.get("additionalFeatures"), pattern, ESCAPE_CHAR), 0.5)
+                .otherwise(0.0);
+        return cb.sum(inDescription, inFeatures);
+    }
+}
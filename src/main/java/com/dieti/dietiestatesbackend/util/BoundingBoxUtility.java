@@ -15,6 +15,7 @@ public class BoundingBoxUtility {
     // WGS84 constants for precise geodetic calculations
     private static final double METERS_PER_DEGREE_LATITUDE = 111320.0; // ~111.32 km in meters
     private static final double MIN_COS_LATITUDE = 1e-10; // Minimum cosine value to avoid division by zero
+    private static final double EARTH_RADIUS_METERS = 6_371_008.8; // IUGG mean radius, as in DistanceExpressions
 
     /**
      * Calculate precise bounding box coordinates from center point and radius.
@@ -75,6 +76,49 @@ public class BoundingBoxUtility {
         };
     }
 
+    /**
+     * Build a bounding box from the corners of a map viewport, in the same
+     * [minLat, maxLat, minLon, maxLon] layout returned by {@link #calculateBoundingBox}.
+     * A viewport crossing the antimeridian is expressed with minLon &gt; maxLon, as for the radius case.
+     *
+     * @param minLatitude South edge in degrees
+     * @param maxLatitude North edge in degrees
+     * @param minLongitude West edge in degrees
+     * @param maxLongitude East edge in degrees
+     * @return Array of [minLat, maxLat, minLon, maxLon] in degrees
+     * @throws IllegalArgumentException if coordinates are invalid
+     */
+    public BigDecimal[] fromCorners(BigDecimal minLatitude, BigDecimal maxLatitude,
+                                    BigDecimal minLongitude, BigDecimal maxLongitude) {
+        if (minLatitude == null || maxLatitude == null || minLongitude == null || maxLongitude == null) {
+            throw new IllegalArgumentException("Viewport corners cannot be null");
+        }
+        validateLatitude(minLatitude.doubleValue());
+        validateLatitude(maxLatitude.doubleValue());
+        validateLongitude(minLongitude.doubleValue());
+        validateLongitude(maxLongitude.doubleValue());
+        if (minLatitude.compareTo(maxLatitude) > 0) {
+            throw new IllegalArgumentException("Minimum latitude must not exceed maximum latitude");
+        }
+        return new BigDecimal[] { minLatitude, maxLatitude, minLongitude, maxLongitude };
+    }
+
+    /**
+     * Great-circle distance in meters between two points (haversine formula), using the same
+     * earth radius as the SQL expression in {@code DistanceExpressions}, so that in-memory checks
+     * agree with database-side radius filters.
+     *
+     * @return Distance in meters
+     */
+    public double haversineDistance(double lat1, double lon1, double lat2, double lon2) {
+        double deltaLat = Math.toRadians(lat2 - lat1);
+        double deltaLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
     /**
      * Calculate latitude delta for bounding box.
      * Latitude spacing is approximately constant (~111.32 km per degree).
@@ -138,15 +182,8 @@ public class BoundingBoxUtility {
             throw new IllegalArgumentException("Center coordinates cannot be null");
         }
         
-        double lat = centerLatitude.doubleValue();
-        double lon = centerLongitude.doubleValue();
-        
-        if (lat < -90 || lat > 90) {
-            throw new IllegalArgumentException("Latitude must be between -90 and 90 degrees");
-        }
-        if (lon < -180 || lon > 180) {
-            throw new IllegalArgumentException("Longitude must be between -180 and 180 degrees");
-        }
+        validateLatitude(centerLatitude.doubleValue());
+        validateLongitude(centerLongitude.doubleValue());
         if (radiusMeters <= 0) {
             throw new IllegalArgumentException("Radius must be positive");
         }
@@ -155,6 +192,18 @@ public class BoundingBoxUtility {
         }
     }
 
+    private void validateLatitude(double lat) {
+        if (lat < -90 || lat > 90) {
+            throw new IllegalArgumentException("Latitude must be between -90 and 90 degrees");
+        }
+    }
+
+    private void validateLongitude(double lon) {
+        if (lon < -180 || lon > 180) {
+            throw new IllegalArgumentException("Longitude must be between -180 and 180 degrees");
+        }
+    }
+
     /**
      * Check if a point is within the calculated bounding box.
      * Useful for additional validation or client-side checks.
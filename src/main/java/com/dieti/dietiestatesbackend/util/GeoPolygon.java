@@ -0,0 +1,407 @@
+package com.dieti.dietiestatesbackend.util;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.StringJoiner;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Area di ricerca poligonale (Polygon o MultiPolygon GeoJSON), immutabile.
+ *
+ * Coordinate in gradi WGS84 trattate come piano lon/lat: è la stessa approssimazione usata dal
+ * fallback SQL senza PostGIS, così il test in memoria ({@link #contains}) e quello sul DB coincidono.
+ * Ogni poligono porta la propria bounding box, che fa da pre-filtro economico prima del
+ * conteggio degli attraversamenti (regola pari/dispari, buchi inclusi).
+ * Le aree che attraversano l'antimeridiano non sono supportate.
+ */
+public final class GeoPolygon {
+
+    /** Vertici massimi accettati in input, prima della semplificazione. */
+    public static final int MAX_INPUT_VERTICES = 10_000;
+    /** Poligoni massimi in un MultiPolygon. */
+    public static final int MAX_PARTS = 16;
+
+    private static final double INITIAL_TOLERANCE_DEGREES = 1e-6;
+    private static final int MAX_SIMPLIFY_ROUNDS = 64;
+
+    private final List<Part> parts;
+    private final double minLat;
+    private final double maxLat;
+    private final double minLon;
+    private final double maxLon;
+
+    private GeoPolygon(List<Part> parts) {
+        this.parts = Collections.unmodifiableList(parts);
+        double south = Double.POSITIVE_INFINITY;
+        double north = Double.NEGATIVE_INFINITY;
+        double west = Double.POSITIVE_INFINITY;
+        double east = Double.NEGATIVE_INFINITY;
+        for (Part part : parts) {
+            south = Math.min(south, part.minLat());
+            north = Math.max(north, part.maxLat());
+            west = Math.min(west, part.minLon());
+            east = Math.max(east, part.maxLon());
+        }
+        this.minLat = south;
+        this.maxLat = north;
+        this.minLon = west;
+        this.maxLon = east;
+    }
+
+    /**
+     * Anello chiuso (primo punto ripetuto in fondo), coordinate in gradi.
+     */
+    public record Ring(double[] lats, double[] lons) {
+
+        /** Numero di posizioni, punto di chiusura incluso. */
+        public int size() {
+            return lats.length;
+        }
+
+        public double lat(int i) {
+            return lats[i];
+        }
+
+        public double lon(int i) {
+            return lons[i];
+        }
+    }
+
+    /**
+     * Singolo poligono: perimetro esterno, eventuali buchi e bounding box del perimetro.
+     */
+    public record Part(Ring shell, List<Ring> holes, double minLat, double maxLat, double minLon, double maxLon) {
+
+        static Part of(Ring shell, List<Ring> holes) {
+            double south = Double.POSITIVE_INFINITY;
+            double north = Double.NEGATIVE_INFINITY;
+            double west = Double.POSITIVE_INFINITY;
+            double east = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < shell.size(); i++) {
+                south = Math.min(south, shell.lat(i));
+                north = Math.max(north, shell.lat(i));
+                west = Math.min(west, shell.lon(i));
+                east = Math.max(east, shell.lon(i));
+            }
+            return new Part(shell, List.copyOf(holes), south, north, west, east);
+        }
+
+        /** Perimetro e buchi: per la regola pari/dispari vanno contati insieme. */
+        public List<Ring> rings() {
+            List<Ring> rings = new ArrayList<>(holes.size() + 1);
+            rings.add(shell);
+            rings.addAll(holes);
+            return rings;
+        }
+
+        boolean contains(double lat, double lon) {
+            if (lat < minLat || lat > maxLat || lon < minLon || lon > maxLon) {
+                return false;
+            }
+            int crossings = 0;
+            for (Ring ring : rings()) {
+                crossings += crossings(ring, lat, lon);
+            }
+            return crossings % 2 == 1;
+        }
+    }
+
+    /**
+     * Interpreta una geometria GeoJSON {@code Polygon} o {@code MultiPolygon}.
+     * Gli anelli non chiusi vengono chiusi; le posizioni sono [longitudine, latitudine].
+     *
+     * @throws IllegalArgumentException se la geometria non è valida o supera i limiti
+     */
+    public static GeoPolygon fromGeoJson(String type, JsonNode coordinates) {
+        if (coordinates == null || !coordinates.isArray() || coordinates.isEmpty()) {
+            throw new IllegalArgumentException("Le coordinate dell'area di ricerca devono essere un array non vuoto");
+        }
+        List<JsonNode> polygons = new ArrayList<>();
+        if ("Polygon".equals(type)) {
+            polygons.add(coordinates);
+        } else if ("MultiPolygon".equals(type)) {
+            coordinates.forEach(polygons::add);
+        } else {
+            throw new IllegalArgumentException("L'area di ricerca deve essere un Polygon o un MultiPolygon");
+        }
+        if (polygons.size() > MAX_PARTS) {
+            throw new IllegalArgumentException("L'area di ricerca può contenere al massimo " + MAX_PARTS + " poligoni");
+        }
+
+        int[] budget = {MAX_INPUT_VERTICES};
+        List<Part> parts = new ArrayList<>(polygons.size());
+        for (JsonNode polygon : polygons) {
+            if (!polygon.isArray() || polygon.isEmpty()) {
+                throw new IllegalArgumentException("Ogni poligono deve avere almeno il perimetro esterno");
+            }
+            Ring shell = parseRing(polygon.get(0), budget);
+            List<Ring> holes = new ArrayList<>();
+            for (int i = 1; i < polygon.size(); i++) {
+                holes.add(parseRing(polygon.get(i), budget));
+            }
+            parts.add(Part.of(shell, holes));
+        }
+
+        GeoPolygon result = new GeoPolygon(parts);
+        if (result.maxLon - result.minLon > 180.0) {
+            throw new IllegalArgumentException("L'area di ricerca non può attraversare l'antimeridiano");
+        }
+        return result;
+    }
+
+    private static Ring parseRing(JsonNode ring, int[] budget) {
+        if (ring == null || !ring.isArray()) {
+            throw new IllegalArgumentException("Ogni anello deve essere un array di posizioni");
+        }
+        int positions = ring.size();
+        boolean closed = positions > 0 && ring.get(0).equals(ring.get(positions - 1));
+        int size = closed ? positions : positions + 1;
+        if (size < 4) {
+            throw new IllegalArgumentException("Ogni anello deve avere almeno 3 vertici distinti");
+        }
+        budget[0] -= size - 1;
+        if (budget[0] < 0) {
+            throw new IllegalArgumentException("L'area di ricerca può avere al massimo " + MAX_INPUT_VERTICES + " vertici");
+        }
+
+        double[] lats = new double[size];
+        double[] lons = new double[size];
+        for (int i = 0; i < positions; i++) {
+            JsonNode position = ring.get(i);
+            if (!position.isArray() || position.size() < 2 || !position.get(0).isNumber() || !position.get(1).isNumber()) {
+                throw new IllegalArgumentException("Ogni posizione deve essere una coppia numerica [longitudine, latitudine]");
+            }
+            double lon = position.get(0).asDouble();
+            double lat = position.get(1).asDouble();
+            if (!(lat >= -90.0 && lat <= 90.0) || !(lon >= -180.0 && lon <= 180.0)) {
+                throw new IllegalArgumentException("Coordinate dell'area di ricerca fuori dall'intervallo valido");
+            }
+            lats[i] = lat;
+            lons[i] = lon;
+        }
+        lats[size - 1] = lats[0];
+        lons[size - 1] = lons[0];
+        return new Ring(lats, lons);
+    }
+
+    public List<Part> parts() {
+        return parts;
+    }
+
+    /** Vertici distinti complessivi (il punto di chiusura di ogni anello non è contato). */
+    public int vertexCount() {
+        int count = 0;
+        for (Part part : parts) {
+            for (Ring ring : part.rings()) {
+                count += ring.size() - 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Bounding box complessiva nel formato di {@link BoundingBoxUtility}: [minLat, maxLat, minLon, maxLon].
+     */
+    public BigDecimal[] boundingBox() {
+        return new BigDecimal[] {
+            BigDecimal.valueOf(minLat),
+            BigDecimal.valueOf(maxLat),
+            BigDecimal.valueOf(minLon),
+            BigDecimal.valueOf(maxLon)
+        };
+    }
+
+    /**
+     * Test punto-in-poligono: prima la bounding box complessiva e quella del singolo poligono,
+     * poi il conteggio degli attraversamenti sul raggio verso est.
+     */
+    public boolean contains(double lat, double lon) {
+        if (lat < minLat || lat > maxLat || lon < minLon || lon > maxLon) {
+            return false;
+        }
+        for (Part part : parts) {
+            if (part.contains(lat, lon)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Attraversamenti del raggio verso est dal punto con i lati dell'anello. Ogni lato è semiaperto
+     * in latitudine ({@code min <= lat < max}), così un vertice sul raggio è contato una volta sola;
+     * i lati orizzontali non contano. Il fallback SQL usa la stessa formula.
+     */
+    static int crossings(Ring ring, double lat, double lon) {
+        int count = 0;
+        for (int i = 0; i < ring.size() - 1; i++) {
+            double y1 = ring.lat(i);
+            double y2 = ring.lat(i + 1);
+            if (y1 == y2 || lat < Math.min(y1, y2) || lat >= Math.max(y1, y2)) {
+                continue;
+            }
+            double slope = (ring.lon(i + 1) - ring.lon(i)) / (y2 - y1);
+            double intercept = ring.lon(i) - slope * y1;
+            if (lon < intercept + slope * lat) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Semplificazione Douglas-Peucker con tolleranza crescente finché i vertici non scendono
+     * sotto {@code maxVertices}. Ogni perimetro conserva almeno 3 vertici; i buchi che degenerano
+     * vengono eliminati (l'area risultante può solo allargarsi). Restituisce {@code this} se
+     * la geometria è già entro il limite.
+     */
+    public GeoPolygon simplify(int maxVertices) {
+        GeoPolygon result = this;
+        double tolerance = INITIAL_TOLERANCE_DEGREES;
+        for (int round = 0; round < MAX_SIMPLIFY_ROUNDS && result.vertexCount() > maxVertices; round++) {
+            result = simplified(tolerance);
+            tolerance *= 2;
+        }
+        return result;
+    }
+
+    private GeoPolygon simplified(double tolerance) {
+        List<Part> simplifiedParts = new ArrayList<>(parts.size());
+        for (Part part : parts) {
+            Ring shell = simplifyRing(part.shell(), tolerance, true);
+            List<Ring> holes = new ArrayList<>();
+            for (Ring hole : part.holes()) {
+                Ring simplifiedHole = simplifyRing(hole, tolerance, false);
+                if (simplifiedHole != null) {
+                    holes.add(simplifiedHole);
+                }
+            }
+            simplifiedParts.add(Part.of(shell, holes));
+        }
+        return new GeoPolygon(simplifiedParts);
+    }
+
+    private static Ring simplifyRing(Ring ring, double tolerance, boolean keepMinimum) {
+        int n = ring.size();
+        // Anello chiuso: lo si divide nel vertice più lontano dal primo e si semplificano le due metà
+        int far = 1;
+        double farDistance = -1;
+        for (int i = 1; i < n - 1; i++) {
+            double d = Math.hypot(ring.lon(i) - ring.lon(0), ring.lat(i) - ring.lat(0));
+            if (d > farDistance) {
+                farDistance = d;
+                far = i;
+            }
+        }
+
+        boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[far] = true;
+        keep[n - 1] = true;
+        douglasPeucker(ring, 0, far, tolerance, keep);
+        douglasPeucker(ring, far, n - 1, tolerance, keep);
+
+        int kept = 0;
+        for (boolean k : keep) {
+            kept += k ? 1 : 0;
+        }
+        if (kept < 4) {
+            if (!keepMinimum) {
+                return null;
+            }
+            keep[farthestFromSegment(ring, 0, far, keep)] = true;
+            kept++;
+        }
+
+        double[] lats = new double[kept];
+        double[] lons = new double[kept];
+        int j = 0;
+        for (int i = 0; i < n; i++) {
+            if (keep[i]) {
+                lats[j] = ring.lat(i);
+                lons[j] = ring.lon(i);
+                j++;
+            }
+        }
+        return new Ring(lats, lons);
+    }
+
+    private static void douglasPeucker(Ring ring, int from, int to, double tolerance, boolean[] keep) {
+        Deque<int[]> stack = new ArrayDeque<>();
+        stack.push(new int[] {from, to});
+        while (!stack.isEmpty()) {
+            int[] segment = stack.pop();
+            int a = segment[0];
+            int b = segment[1];
+            double maxDistance = 0;
+            int index = -1;
+            for (int i = a + 1; i < b; i++) {
+                double d = segmentDistance(ring, i, a, b);
+                if (d > maxDistance) {
+                    maxDistance = d;
+                    index = i;
+                }
+            }
+            if (index >= 0 && maxDistance > tolerance) {
+                keep[index] = true;
+                stack.push(new int[] {a, index});
+                stack.push(new int[] {index, b});
+            }
+        }
+    }
+
+    private static int farthestFromSegment(Ring ring, int a, int b, boolean[] keep) {
+        int best = -1;
+        double bestDistance = -1;
+        for (int i = 1; i < ring.size() - 1; i++) {
+            if (!keep[i]) {
+                double d = segmentDistance(ring, i, a, b);
+                if (d > bestDistance) {
+                    bestDistance = d;
+                    best = i;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static double segmentDistance(Ring ring, int p, int a, int b) {
+        double ax = ring.lon(a);
+        double ay = ring.lat(a);
+        double dx = ring.lon(b) - ax;
+        double dy = ring.lat(b) - ay;
+        double px = ring.lon(p) - ax;
+        double py = ring.lat(p) - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        if (lengthSquared == 0) {
+            return Math.hypot(px, py);
+        }
+        double t = Math.max(0, Math.min(1, (px * dx + py * dy) / lengthSquared));
+        return Math.hypot(px - t * dx, py - t * dy);
+    }
+
+    /**
+     * Rappresentazione WKT come {@code MULTIPOLYGON}, nell'ordine (longitudine latitudine).
+     */
+    public String toWkt() {
+        StringJoiner polygons = new StringJoiner(",", "MULTIPOLYGON(", ")");
+        for (Part part : parts) {
+            StringJoiner rings = new StringJoiner(",", "(", ")");
+            for (Ring ring : part.rings()) {
+                StringJoiner points = new StringJoiner(",", "(", ")");
+                for (int i = 0; i < ring.size(); i++) {
+                    points.add(BigDecimal.valueOf(ring.lon(i)).toPlainString() + " "
+                            + BigDecimal.valueOf(ring.lat(i)).toPlainString());
+                }
+                rings.add(points.toString());
+            }
+            polygons.add(rings.toString());
+        }
+        return polygons.toString();
+    }
+}
@@ -0,0 +1,47 @@
+package com.dieti.dietiestatesbackend.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import com.dieti.dietiestatesbackend.dto.response.PropertyResponse;
+
+/**
+ * ETag forti e {@code Last-Modified} delle letture di property, calcolati da id e {@code updatedAt}
+ * (aggiornato da {@code @UpdateTimestamp} a ogni modifica), senza caricare né mappare l'entità.
+ */
+public final class PropertyEtags {
+
+    private PropertyEtags() {
+    }
+
+    /** {@code updatedAt} in millisecondi epoch (fuso della JVM, lo stesso usato da {@code @UpdateTimestamp}). */
+    public static long toEpochMillis(LocalDateTime updatedAt) {
+        return updatedAt == null ? 0L : updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public static String of(long id, LocalDateTime updatedAt) {
+        return "\"" + Long.toHexString(id) + "-" + Long.toHexString(toEpochMillis(updatedAt)) + "\"";
+    }
+
+    /**
+     * ETag di una lista: cambia se cambia l'insieme, l'ordine o la versione di un elemento.
+     */
+    public static String of(List<PropertyResponse> properties) {
+        long hash = properties.size();
+        for (PropertyResponse property : properties) {
+            hash = 31 * hash + (property.getId() == null ? 0L : property.getId());
+            hash = 31 * hash + toEpochMillis(property.getUpdatedAt());
+        }
+        return "\"" + properties.size() + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    /** Ultima modifica fra gli elementi della lista, 0 se vuota. */
+    public static long lastModified(List<PropertyResponse> properties) {
+        long max = 0L;
+        for (PropertyResponse property : properties) {
+            max = Math.max(max, toEpochMillis(property.getUpdatedAt()));
+        }
+        return max;
+    }
+}
@@ -0,0 +1,164 @@
+package com.dieti.dietiestatesbackend.util;
+
+import java.util.Arrays;
+
+/**
+ * Sketch t-digest (variante "merging" di Dunning) per stimare i quantili di uno stream di valori
+ * in memoria costante: i valori vengono raccolti in un buffer e periodicamente fusi in al più
+ * ~{@code compression} centroidi, più piccoli vicino alle code dove serve più precisione.
+ *
+ * Finché i valori sono meno di {@code compression} ogni centroide contiene un solo valore e i
+ * quantili coincidono con l'interpolazione lineare di {@code percentile_cont}.
+ * Non è thread-safe.
+ */
+public final class TDigest {
+
+    private final double compression;
+    private double[] means;
+    private double[] weights;
+    private int centroids;
+
+    private final double[] buffer;
+    private int buffered;
+
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest(double compression) {
+        if (compression < 10) {
+            throw new IllegalArgumentException("compression deve essere almeno 10");
+        }
+        this.compression = compression;
+        int capacity = (int) Math.ceil(compression) * 2;
+        this.means = new double[capacity];
+        this.weights = new double[capacity];
+        this.buffer = new double[capacity * 4];
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Valore non finito: " + value);
+        }
+        if (buffered == buffer.length) {
+            merge();
+        }
+        buffer[buffered++] = value;
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double min() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    public double max() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    /**
+     * Stima del quantile {@code q} (0..1), {@code NaN} se il digest è vuoto.
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Il quantile deve essere compreso tra 0 e 1");
+        }
+        merge();
+        if (centroids == 0) {
+            return Double.NaN;
+        }
+        if (centroids == 1 || q == 0) {
+            return centroids == 1 ? means[0] : min;
+        }
+        if (q == 1) {
+            return max;
+        }
+
+        // Ogni centroide rappresenta i suoi valori attorno alla media: si interpola tra i centri
+        // (a metà del rispettivo peso); prima del primo e dopo l'ultimo si interpola verso min e max.
+        // La posizione q * (n - 1) + 0.5 riproduce percentile_cont sui centroidi di peso 1.
+        double index = q * (count - 1) + 0.5;
+        double firstHalf = weights[0] / 2;
+        if (index < firstHalf) {
+            return weights[0] == 1 ? means[0] : min + (index / firstHalf) * (means[0] - min);
+        }
+        double cumulative = firstHalf;
+        for (int i = 0; i < centroids - 1; i++) {
+            double step = (weights[i] + weights[i + 1]) / 2;
+            if (cumulative + step > index) {
+                double fraction = (index - cumulative) / step;
+                return means[i] + fraction * (means[i + 1] - means[i]);
+            }
+            cumulative += step;
+        }
+        int last = centroids - 1;
+        double lastHalf = weights[last] / 2;
+        if (weights[last] == 1) {
+            return means[last];
+        }
+        double fraction = Math.min(1, (index - cumulative) / lastHalf);
+        return means[last] + fraction * (max - means[last]);
+    }
+
+    /**
+     * Fonde buffer e centroidi esistenti: ordinati per media, due centroidi adiacenti vengono uniti
+     * finché il peso risultante resta sotto {@code 4 * n * q * (1 - q) / compression}.
+     */
+    private void merge() {
+        if (buffered == 0) {
+            return;
+        }
+        int total = centroids + buffered;
+        double[] allMeans = new double[total];
+        double[] allWeights = new double[total];
+        System.arraycopy(means, 0, allMeans, 0, centroids);
+        System.arraycopy(weights, 0, allWeights, 0, centroids);
+        System.arraycopy(buffer, 0, allMeans, centroids, buffered);
+        Arrays.fill(allWeights, centroids, total, 1);
+        buffered = 0;
+
+        Integer[] order = new Integer[total];
+        for (int i = 0; i < total; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(allMeans[a], allMeans[b]));
+
+        int merged = 0;
+        double weightSoFar = 0;
+        double currentMean = allMeans[order[0]];
+        double currentWeight = allWeights[order[0]];
+        for (int i = 1; i < total; i++) {
+            double mean = allMeans[order[i]];
+            double weight = allWeights[order[i]];
+            double proposed = currentWeight + weight;
+            double q0 = weightSoFar / count;
+            double q2 = (weightSoFar + proposed) / count;
+            double limit = 4 * count * Math.min(q0 * (1 - q0), q2 * (1 - q2)) / compression;
+            if (proposed <= limit) {
+                currentMean += (mean - currentMean) * weight / proposed;
+                currentWeight = proposed;
+            } else {
+                merged = append(merged, currentMean, currentWeight);
+                weightSoFar += currentWeight;
+                currentMean = mean;
+                currentWeight = weight;
+            }
+        }
+        centroids = append(merged, currentMean, currentWeight);
+    }
+
+    private int append(int size, double mean, double weight) {
+        if (size == means.length) {
+            means = Arrays.copyOf(means, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+        }
+        means[size] = mean;
+        weights[size] = weight;
+        return size + 1;
+    }
+}
@@ -0,0 +1,22 @@
+package com.dieti.dietiestatesbackend.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.annotation.ElementType;
+
+/**
+ * La ricerca deve avere un filtro geografico: centro e raggio, una o più zone oppure un'area disegnata valida.
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = ValidGeographicFilterValidator.class)
+@Documented
+public @interface ValidGeographicFilter {
+    String message() default "La ricerca richiede centerLatitude, centerLongitude e radiusInMeters oppure zone o un'area di ricerca.";
+    Class<?>[] groups() default {};
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,49 @@
+package com.dieti.dietiestatesbackend.validation;
+
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.dto.request.GeoJsonGeometry;
+import com.dieti.dietiestatesbackend.util.GeoPolygon;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+/**
+ * Validator class-level per @ValidGeographicFilter.
+ * - Con un'area la geometria viene interpretata subito, così gli errori arrivano come violazione sul campo {@code area}.
+ * - Le zone multiple sono validate campo per campo da @Valid su {@link com.dieti.dietiestatesbackend.dto.request.SearchCircle}.
+ * - Altrimenti servono centro e raggio (il controllo del raggio negativo resta a @Min sul campo).
+ */
+public class ValidGeographicFilterValidator implements ConstraintValidator<ValidGeographicFilter, FilterRequest> {
+
+    @Override
+    public boolean isValid(FilterRequest filters, ConstraintValidatorContext context) {
+        if (filters == null) {
+            return true;
+        }
+
+        GeoJsonGeometry area = filters.getArea();
+        if (area != null) {
+            if (area.getType() == null || area.getCoordinates() == null) {
+                // segnalato da @NotNull sui campi della geometria
+                return true;
+            }
+            try {
+                GeoPolygon.fromGeoJson(area.getType(), area.getCoordinates());
+                return true;
+            } catch (IllegalArgumentException e) {
+                context.disableDefaultConstraintViolation();
+                context.buildConstraintViolationWithTemplate(e.getMessage())
+                        .addPropertyNode("area")
+                        .addConstraintViolation();
+                return false;
+            }
+        }
+
+        if (filters.getCircles() != null && !filters.getCircles().isEmpty()) {
+            return true;
+        }
+
+        return filters.getCenterLatitude() != null
+                && filters.getCenterLongitude() != null
+                && filters.getRadiusInMeters() != null;
+    }
+}
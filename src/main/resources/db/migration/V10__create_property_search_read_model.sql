@@ -0,0 +1,39 @@
+-- Migrazione V10: read model piatto per la ricerca immobili (search.read-model.mode=projection)
+-- Una riga per property, mantenuta da PropertySearchProjector; backfill con search.read-model.rebuild-on-startup=true
+
+CREATE TABLE IF NOT EXISTS property_search (
+    id                     BIGINT PRIMARY KEY REFERENCES property (id) ON DELETE CASCADE,
+    created_at             TIMESTAMP      NOT NULL,
+    property_type          VARCHAR(20)    NOT NULL,
+    subcategory            VARCHAR(255)   NOT NULL,
+    contract               VARCHAR(255)   NOT NULL,
+    price                  NUMERIC(12, 2) NOT NULL,
+    area                   INTEGER        NOT NULL,
+    year_built             INTEGER,
+    condition              VARCHAR(255)   NOT NULL,
+    energy_rating          VARCHAR(255)   NOT NULL,
+    latitude               NUMERIC(10, 8),
+    longitude              NUMERIC(11, 8),
+    description            VARCHAR(255),
+    additional_features    VARCHAR(255),
+    number_of_rooms        INTEGER,
+    number_of_bathrooms    INTEGER,
+    parking_spaces         INTEGER,
+    heating                VARCHAR(255),
+    garden                 VARCHAR(255),
+    is_furnished           BOOLEAN,
+    has_elevator           BOOLEAN,
+    number_of_floors       INTEGER,
+    wheelchair_access      BOOLEAN,
+    has_surveillance       BOOLEAN,
+    accessible_from_street BOOLEAN
+);
+
+CREATE INDEX IF NOT EXISTS idx_property_search_type_contract_price ON property_search (property_type, contract, price);
+CREATE INDEX IF NOT EXISTS idx_property_search_price ON property_search (price);
+CREATE INDEX IF NOT EXISTS idx_property_search_created_at ON property_search (created_at);
+CREATE INDEX IF NOT EXISTS idx_property_search_coordinates ON property_search (latitude, longitude);
+CREATE INDEX IF NOT EXISTS idx_property_search_description_trgm
+    ON property_search USING gin (description gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_property_search_additional_features_trgm
+    ON property_search USING gin (additional_features gin_trgm_ops);
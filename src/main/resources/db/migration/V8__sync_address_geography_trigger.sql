@@ -0,0 +1,26 @@
+-- Migrazione V8: mantiene address.geography allineata a latitude/longitude su ogni scrittura
+
+-- La colonna geography (V4) non è mappata dall'entità Address: la sincronizziamo lato DB
+-- così che qualunque percorso di scrittura (JPA, cascade da Property, script SQL) resti coerente.
+CREATE OR REPLACE FUNCTION address_sync_geography() RETURNS trigger AS $$
+BEGIN
+    IF NEW.latitude IS NULL OR NEW.longitude IS NULL THEN
+        NEW.geography := NULL;
+    ELSE
+        NEW.geography := ST_SetSRID(ST_MakePoint(NEW.longitude::double precision, NEW.latitude::double precision), 4326)::geography;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_address_sync_geography ON address;
+
+CREATE TRIGGER trg_address_sync_geography
+    BEFORE INSERT OR UPDATE OF latitude, longitude ON address
+    FOR EACH ROW
+    EXECUTE FUNCTION address_sync_geography();
+
+-- Riallinea eventuali righe inserite dopo V4 e prima dell'installazione del trigger
+UPDATE address
+SET geography = ST_SetSRID(ST_MakePoint(longitude::double precision, latitude::double precision), 4326)::geography
+WHERE latitude IS NOT NULL AND longitude IS NOT NULL AND geography IS NULL;
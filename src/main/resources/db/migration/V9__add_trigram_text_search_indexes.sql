@@ -0,0 +1,10 @@
+-- Migrazione V9: indici trigram per la ricerca testuale libera (FilterRequest.query)
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- V1 crea l'indice GIN sulla tabella "properties", che non corrisponde alla tabella reale "property":
+-- gli indici usati da ILIKE '%termine%' e da word_similarity sono creati qui sulle colonne effettive.
+CREATE INDEX IF NOT EXISTS idx_property_description_trgm
+    ON property USING gin (description gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_property_additional_features_trgm
+    ON property USING gin (additional_features gin_trgm_ops);
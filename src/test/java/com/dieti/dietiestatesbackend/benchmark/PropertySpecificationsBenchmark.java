@@ -0,0 +1,141 @@
+package com.dieti.dietiestatesbackend.benchmark;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.entities.Address;
+import com.dieti.dietiestatesbackend.entities.AddressGeography;
+import com.dieti.dietiestatesbackend.entities.Agency;
+import com.dieti.dietiestatesbackend.entities.AgentAvailability;
+import com.dieti.dietiestatesbackend.entities.CommercialProperty;
+import com.dieti.dietiestatesbackend.entities.Contract;
+import com.dieti.dietiestatesbackend.entities.Garage;
+import com.dieti.dietiestatesbackend.entities.Heating;
+import com.dieti.dietiestatesbackend.entities.Land;
+import com.dieti.dietiestatesbackend.entities.Offer;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.entities.PropertyCategory;
+import com.dieti.dietiestatesbackend.entities.PropertySearchEntry;
+import com.dieti.dietiestatesbackend.entities.RefreshToken;
+import com.dieti.dietiestatesbackend.entities.ResidentialProperty;
+import com.dieti.dietiestatesbackend.entities.SavedSearch;
+import com.dieti.dietiestatesbackend.entities.SavedSearchMatch;
+import com.dieti.dietiestatesbackend.entities.User;
+import com.dieti.dietiestatesbackend.entities.Visit;
+import com.dieti.dietiestatesbackend.enums.EnergyRating;
+import com.dieti.dietiestatesbackend.enums.PropertyCondition;
+import com.dieti.dietiestatesbackend.service.search.SpatialSearchMode;
+import com.dieti.dietiestatesbackend.specifications.PropertySpecifications;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Micro-benchmark della costruzione del criteria tree di ricerca: {@code buildFromFilters}
+ * più {@code toPredicate} su un CriteriaBuilder Hibernate reale (H2 in memoria, nessuna
+ * tabella: serve solo il metamodello). Non fa parte della suite di test; si esegue con
+ * il {@link #main} dall'IDE o dal classpath di test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PropertySpecificationsBenchmark {
+
+    private SessionFactory sessionFactory;
+    private CriteriaBuilder cb;
+    private FilterRequest fullFilters;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Configuration configuration = new Configuration()
+            .setProperty(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:spec-benchmark")
+            .setProperty(AvailableSettings.HBM2DDL_AUTO, "none");
+        for (Class<?> entity : List.of(Address.class, AddressGeography.class, Agency.class, AgentAvailability.class,
+                CommercialProperty.class, Contract.class, Garage.class, Heating.class, Land.class, Offer.class,
+                Property.class, PropertyCategory.class, PropertySearchEntry.class, RefreshToken.class,
+                ResidentialProperty.class, SavedSearch.class, SavedSearchMatch.class, User.class, Visit.class)) {
+            configuration.addAnnotatedClass(entity);
+        }
+        sessionFactory = configuration.buildSessionFactory();
+        cb = sessionFactory.getCriteriaBuilder();
+
+        fullFilters = FilterRequest.builder()
+            .category("RESIDENTIAL")
+            .propertySubcategoryName("Appartamento")
+            .contract("SALE")
+            .minPrice(new BigDecimal("100000"))
+            .maxPrice(new BigDecimal("350000"))
+            .minArea(60)
+            .minYearBuilt(1980)
+            .acceptedCondition(List.of(PropertyCondition.values()))
+            .minEnergyRating(EnergyRating.D)
+            .minNumberOfRooms(3)
+            .mustHaveElevator(true)
+            .query("terrazzo vista mare")
+            .centerLatitude(new BigDecimal("40.8518"))
+            .centerLongitude(new BigDecimal("14.2681"))
+            .radiusInMeters(5_000.0)
+            .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    /** Costruzione della Specification e del criteria tree di una ricerca con tutti i filtri. */
+    @Benchmark
+    public CriteriaQuery<Property> buildAndApply() {
+        Specification<Property> spec = PropertySpecifications.buildFromFilters(fullFilters, SpatialSearchMode.BOUNDING_BOX);
+        CriteriaQuery<Property> query = cb.createQuery(Property.class);
+        Root<Property> root = query.from(Property.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        return query.where(predicate);
+    }
+
+    /** Stessa Specification valutata per pagina e count, come fa {@code findAll(spec, pageable)}. */
+    @Benchmark
+    public CriteriaQuery<Long> applyTwice() {
+        Specification<Property> spec = PropertySpecifications.buildFromFilters(fullFilters, SpatialSearchMode.BOUNDING_BOX);
+        CriteriaQuery<Property> page = cb.createQuery(Property.class);
+        Root<Property> pageRoot = page.from(Property.class);
+        page.where(spec.toPredicate(pageRoot, page, cb));
+
+        CriteriaQuery<Long> count = cb.createQuery(Long.class);
+        Root<Property> countRoot = count.from(Property.class);
+        return count.select(cb.count(countRoot)).where(spec.toPredicate(countRoot, count, cb));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(PropertySpecificationsBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,155 @@
+package com.dieti.dietiestatesbackend.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.dieti.dietiestatesbackend.dto.response.CommercialPropertyResponse;
+import com.dieti.dietiestatesbackend.dto.response.GarageResponse;
+import com.dieti.dietiestatesbackend.dto.response.LandResponse;
+import com.dieti.dietiestatesbackend.dto.response.PropertyResponse;
+import com.dieti.dietiestatesbackend.dto.response.ResidentialPropertyResponse;
+import com.dieti.dietiestatesbackend.entities.CommercialProperty;
+import com.dieti.dietiestatesbackend.entities.Garage;
+import com.dieti.dietiestatesbackend.entities.Land;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.entities.ResidentialProperty;
+import com.dieti.dietiestatesbackend.mappers.MapStructPropertyMapper;
+import com.dieti.dietiestatesbackend.mappers.ResponseMapperRegistry;
+
+/**
+ * Micro-benchmark del dispatch di {@link ResponseMapperRegistry}: la versione precedente
+ * ({@code HashMap} su {@code getClass()} con scansione {@code isInstance} quando la classe non è
+ * registrata, come per i proxy) contro il {@code ClassValue} attuale, elemento per elemento e con
+ * {@code mapAll}. I mapper restituiscono risposte precostruite, così si misura solo il dispatch.
+ * Il tipo {@code subclass} usa sottoclassi non registrate, il caso dei proxy generati da Hibernate.
+ * Non fa parte della suite di test; si esegue con il {@link #main} dall'IDE o dal classpath di test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseMapperDispatchBenchmark {
+
+    private static final int SIZE = 1_000;
+
+    @Param({"exact", "subclass"})
+    public String types;
+
+    private List<Property> properties;
+    private LegacyRegistry legacy;
+    private ResponseMapperRegistry registry;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LandResponse land = new LandResponse();
+        ResidentialPropertyResponse residential = new ResidentialPropertyResponse();
+        GarageResponse garage = new GarageResponse();
+        CommercialPropertyResponse commercial = new CommercialPropertyResponse();
+        PropertyResponse fallback = new PropertyResponse();
+        MapStructPropertyMapper defaultMapper = new MapStructPropertyMapper() {
+            @Override
+            public PropertyResponse propertyToPropertyResponse(Property property) {
+                return fallback;
+            }
+        };
+
+        registry = new ResponseMapperRegistry(p -> land, p -> residential, p -> garage, p -> commercial, defaultMapper);
+        legacy = new LegacyRegistry(defaultMapper);
+        legacy.registry.put(Land.class, p -> land);
+        legacy.registry.put(ResidentialProperty.class, p -> residential);
+        legacy.registry.put(Garage.class, p -> garage);
+        legacy.registry.put(CommercialProperty.class, p -> commercial);
+
+        boolean subclass = "subclass".equals(types);
+        properties = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            properties.add(switch (i % 4) {
+                case 0 -> subclass ? new ResidentialProperty() { } : new ResidentialProperty();
+                case 1 -> subclass ? new Land() { } : new Land();
+                case 2 -> subclass ? new Garage() { } : new Garage();
+                default -> subclass ? new CommercialProperty() { } : new CommercialProperty();
+            });
+        }
+    }
+
+    /** Dispatch precedente, un elemento alla volta. */
+    @Benchmark
+    public void legacyMap(Blackhole bh) {
+        for (Property property : properties) {
+            bh.consume(legacy.map(property));
+        }
+    }
+
+    /** Dispatch con {@code ClassValue}, un elemento alla volta. */
+    @Benchmark
+    public void classValueMap(Blackhole bh) {
+        for (Property property : properties) {
+            bh.consume(registry.map(property));
+        }
+    }
+
+    /** Mapping della lista intera raggruppata per sottotipo. */
+    @Benchmark
+    public List<PropertyResponse> classValueMapAll() {
+        return registry.mapAll(properties);
+    }
+
+    /** Copia del dispatch di {@code ResponseMapperRegistry} prima del passaggio a {@code ClassValue}. */
+    private static final class LegacyRegistry {
+        private final Map<Class<? extends Property>, Function<Property, PropertyResponse>> registry = new HashMap<>();
+        private final MapStructPropertyMapper defaultMapper;
+
+        LegacyRegistry(MapStructPropertyMapper defaultMapper) {
+            this.defaultMapper = defaultMapper;
+        }
+
+        PropertyResponse map(Property property) {
+            if (property == null) {
+                return null;
+            }
+            Function<Property, PropertyResponse> fn = registry.get(property.getClass());
+            if (fn == null) {
+                for (Entry<Class<? extends Property>, Function<Property, PropertyResponse>> e : registry.entrySet()) {
+                    if (e.getKey().isInstance(property)) {
+                        fn = e.getValue();
+                        break;
+                    }
+                }
+            }
+            if (fn != null) {
+                return fn.apply(property);
+            }
+            return defaultMapper.propertyToPropertyResponse(property);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ResponseMapperDispatchBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -2,9 +2,12 @@ package com.dieti.dietiestatesbackend.controller;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
@@ -14,22 +17,30 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
 import com.dieti.dietiestatesbackend.dto.response.PropertyResponse;
 import com.dieti.dietiestatesbackend.entities.Property;
 import com.dieti.dietiestatesbackend.entities.PropertyCategory;
 import com.dieti.dietiestatesbackend.entities.ResidentialProperty;
+import com.dieti.dietiestatesbackend.mappers.PropertySummaryMapper;
 import com.dieti.dietiestatesbackend.mappers.ResponseMapperRegistry;
 import com.dieti.dietiestatesbackend.security.AppPrincipal;
+import com.dieti.dietiestatesbackend.service.PropertyJsonCache;
 import com.dieti.dietiestatesbackend.service.PropertyService;
 import com.dieti.dietiestatesbackend.service.lookup.CategoryLookupService;
+import com.dieti.dietiestatesbackend.util.PropertyEtags;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -44,6 +55,12 @@ class PropertiesControllerTest {
     @Mock
     private ResponseMapperRegistry responseMapperRegistry;
 
+    @Mock
+    private PropertySummaryMapper summaryMapper;
+
+    @Mock
+    private PropertyJsonCache jsonCache;
+
     @InjectMocks
     private PropertiesController propertyController;
 
@@ -51,17 +68,14 @@ class PropertiesControllerTest {
     void getPropertyDetail_shouldReturnProperty_whenPropertyExists() {
         // Given
         Long propertyId = 1L;
-        Property property = new com.dieti.dietiestatesbackend.entities.ResidentialProperty();
-        property.setId(propertyId);
         PropertyResponse propertyResponse = new PropertyResponse();
         propertyResponse.setId(propertyId);
         propertyResponse.setDescription("Test Property Description");
 
-        when(propertyService.getProperty(anyLong())).thenReturn(property);
-        when(responseMapperRegistry.map(any(Property.class))).thenReturn(propertyResponse);
+        when(propertyService.getPropertyDetails(anyLong())).thenReturn(propertyResponse);
 
         // When
-        ResponseEntity<PropertyResponse> response = propertyController.getPropertyDetail(propertyId);
+        ResponseEntity<PropertyResponse> response = propertyController.getPropertyDetail(propertyId, webRequest());
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -72,17 +86,98 @@ class PropertiesControllerTest {
     void getPropertyDetail_shouldReturnNotFound_whenPropertyDoesNotExist() {
         // Given
         Long propertyId = 1L;
-        when(propertyService.getProperty(anyLong())).thenReturn(null);
-        when(responseMapperRegistry.map(null)).thenReturn(null);
+        when(propertyService.getPropertyDetails(anyLong())).thenReturn(null);
 
         // When
-        ResponseEntity<PropertyResponse> response = propertyController.getPropertyDetail(propertyId);
+        ResponseEntity<PropertyResponse> response = propertyController.getPropertyDetail(propertyId, webRequest());
 
         // Then
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         assertEquals(null, response.getBody());
     }
 
+    @Test
+    void getPropertyDetail_shouldSetValidators() {
+        // Given
+        long propertyId = 1L;
+        LocalDateTime updatedAt = LocalDateTime.of(2025, 3, 1, 10, 0);
+        when(propertyService.getLastModified(propertyId)).thenReturn(Optional.of(updatedAt));
+        when(propertyService.getPropertyDetails(propertyId)).thenReturn(new PropertyResponse());
+
+        // When
+        ResponseEntity<PropertyResponse> response = propertyController.getPropertyDetail(propertyId, webRequest());
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(PropertyEtags.of(propertyId, updatedAt), response.getHeaders().getETag());
+        assertEquals(PropertyEtags.toEpochMillis(updatedAt), response.getHeaders().getLastModified());
+    }
+
+    @Test
+    void getPropertyDetail_shouldReturnNotModified_whenEtagMatches() {
+        // Given
+        long propertyId = 1L;
+        LocalDateTime updatedAt = LocalDateTime.of(2025, 3, 1, 10, 0);
+        when(propertyService.getLastModified(propertyId)).thenReturn(Optional.of(updatedAt));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/properties/details/1");
+        request.addHeader("If-None-Match", PropertyEtags.of(propertyId, updatedAt));
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+        // When
+        ResponseEntity<PropertyResponse> response =
+                propertyController.getPropertyDetail(propertyId, new ServletWebRequest(request, servletResponse));
+
+        // Then
+        assertNull(response);
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), servletResponse.getStatus());
+        verify(propertyService, never()).getPropertyDetails(anyLong());
+    }
+
+    @Test
+    void getPropertyDetail_shouldWritePreSerializedJson_whenJsonCacheEnabled() {
+        // Given
+        long propertyId = 1L;
+        LocalDateTime updatedAt = LocalDateTime.of(2025, 3, 1, 10, 0);
+        byte[] json = "{\"id\":1}".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        byte[] gzip = {31, -117, 8};
+        when(propertyService.getLastModified(propertyId)).thenReturn(Optional.of(updatedAt));
+        when(jsonCache.isEnabled()).thenReturn(true);
+        when(propertyService.getPropertyDetails(propertyId)).thenReturn(new PropertyResponse());
+        when(jsonCache.get(eq("details:" + PropertyEtags.of(propertyId, updatedAt)), any()))
+                .thenAnswer(invocation -> {
+                    invocation.<java.util.function.Supplier<?>>getArgument(1).get();
+                    return new PropertyJsonCache.Payload(json, gzip);
+                });
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/properties/details/1");
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+        // When
+        ResponseEntity<PropertyResponse> response =
+                propertyController.getPropertyDetail(propertyId, new ServletWebRequest(request, servletResponse));
+
+        // Then
+        assertNull(response);
+        assertEquals(HttpStatus.OK.value(), servletResponse.getStatus());
+        assertEquals("gzip", servletResponse.getHeader("Content-Encoding"));
+        assertEquals(PropertyEtags.of(propertyId, updatedAt), servletResponse.getHeader("ETag"));
+        org.junit.jupiter.api.Assertions.assertArrayEquals(gzip, servletResponse.getContentAsByteArray());
+        // il miss della cache JSON passa dalla cache limitata del dettaglio (e dalle sue metriche)
+        verify(propertyService).getPropertyDetails(propertyId);
+    }
+
+    @Test
+    void acceptsGzip_honoursQualityValues() {
+        org.junit.jupiter.api.Assertions.assertTrue(PropertiesController.acceptsGzip("gzip, deflate, br"));
+        org.junit.jupiter.api.Assertions.assertTrue(PropertiesController.acceptsGzip("deflate;q=1.0, GZIP;q=0.5"));
+        org.junit.jupiter.api.Assertions.assertTrue(PropertiesController.acceptsGzip("*"));
+        org.junit.jupiter.api.Assertions.assertFalse(PropertiesController.acceptsGzip("gzip;q=0"));
+        org.junit.jupiter.api.Assertions.assertFalse(PropertiesController.acceptsGzip("gzip; q=0.0, *"));
+        org.junit.jupiter.api.Assertions.assertFalse(PropertiesController.acceptsGzip("*;q=0"));
+        org.junit.jupiter.api.Assertions.assertFalse(PropertiesController.acceptsGzip("identity"));
+        org.junit.jupiter.api.Assertions.assertFalse(PropertiesController.acceptsGzip(null));
+    }
+
     @Test
     void getProperties_shouldReturnProperties() {
         // Given
@@ -215,4 +310,8 @@ class PropertiesControllerTest {
         assertEquals(1, response.getBody().getNumberOfElements());
         assertEquals(propertyResponse, response.getBody().getContent().get(0));
     }
+
+    private static ServletWebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse());
+    }
 }
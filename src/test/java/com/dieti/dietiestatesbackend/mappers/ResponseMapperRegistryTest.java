@@ -0,0 +1,91 @@
+package com.dieti.dietiestatesbackend.mappers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.dieti.dietiestatesbackend.dto.response.CommercialPropertyResponse;
+import com.dieti.dietiestatesbackend.dto.response.GarageResponse;
+import com.dieti.dietiestatesbackend.dto.response.LandResponse;
+import com.dieti.dietiestatesbackend.dto.response.PropertyResponse;
+import com.dieti.dietiestatesbackend.dto.response.ResidentialPropertyResponse;
+import com.dieti.dietiestatesbackend.entities.Garage;
+import com.dieti.dietiestatesbackend.entities.Land;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.entities.ResidentialProperty;
+
+@ExtendWith(MockitoExtension.class)
+class ResponseMapperRegistryTest {
+
+    @Mock
+    private MapStructPropertyMapper defaultMapper;
+
+    private ResponseMapperRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ResponseMapperRegistry(
+                land -> withId(new LandResponse(), land.getId()),
+                residential -> withId(new ResidentialPropertyResponse(), residential.getId()),
+                garage -> withId(new GarageResponse(), garage.getId()),
+                commercial -> withId(new CommercialPropertyResponse(), commercial.getId()),
+                defaultMapper);
+    }
+
+    @Test
+    void map_dispatchesOnConcreteTypeAndRegisteredSupertypes() {
+        ResidentialProperty subclass = new ResidentialProperty() { };
+        subclass.setId(2L);
+
+        assertInstanceOf(LandResponse.class, registry.map(withId(new Land(), 1L)));
+        assertInstanceOf(ResidentialPropertyResponse.class, registry.map(subclass));
+        assertNull(registry.map(null));
+    }
+
+    @Test
+    void map_unregisteredType_usesDefaultMapper() {
+        PropertyResponse fallback = new PropertyResponse();
+        when(defaultMapper.propertyToPropertyResponse(any())).thenReturn(fallback);
+
+        assertSame(fallback, registry.map(new Property() { }));
+    }
+
+    @Test
+    void mapAll_keepsOrderAcrossSubtypes() {
+        List<Property> properties = Arrays.asList(
+                withId(new Garage(), 1L), withId(new Land(), 2L), null, withId(new Garage(), 3L), withId(new ResidentialProperty(), 4L));
+
+        List<PropertyResponse> responses = registry.mapAll(properties);
+
+        assertEquals(5, responses.size());
+        assertInstanceOf(GarageResponse.class, responses.get(0));
+        assertInstanceOf(LandResponse.class, responses.get(1));
+        assertNull(responses.get(2));
+        assertInstanceOf(GarageResponse.class, responses.get(3));
+        assertInstanceOf(ResidentialPropertyResponse.class, responses.get(4));
+        assertEquals(List.of(1L, 2L, 3L, 4L),
+                responses.stream().filter(r -> r != null).map(PropertyResponse::getId).toList());
+    }
+
+    private static <T extends Property> T withId(T property, long id) {
+        property.setId(id);
+        return property;
+    }
+
+    private static <T extends PropertyResponse> T withId(T response, Long id) {
+        response.setId(id);
+        return response;
+    }
+}
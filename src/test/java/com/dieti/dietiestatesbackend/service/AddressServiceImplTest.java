@@ -15,6 +15,7 @@ import com.dieti.dietiestatesbackend.entities.Address;
 import com.dieti.dietiestatesbackend.entities.Coordinates;
 import com.dieti.dietiestatesbackend.repositories.AddressRepository;
 import com.dieti.dietiestatesbackend.service.geocoding.GeocodingService;
+import com.dieti.dietiestatesbackend.service.search.AddressSuggestionIndex;
 import com.dieti.dietiestatesbackend.dto.request.AddressRequest;
 import com.dieti.dietiestatesbackend.exception.GeocodingException;
 import org.springframework.http.HttpStatus;
@@ -28,13 +29,15 @@ class AddressServiceImplTest {
     private AddressRepository addressRepository;
     @Mock
     private GeocodingService geocodingService;
+    @Mock
+    private AddressSuggestionIndex suggestionIndex;
 
     private AddressServiceImpl addressService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        addressService = new AddressServiceImpl(addressRepository, geocodingService);
+        addressService = new AddressServiceImpl(addressRepository, geocodingService, suggestionIndex);
     }
  
     @Test
@@ -0,0 +1,73 @@
+package com.dieti.dietiestatesbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.dieti.dietiestatesbackend.dto.response.PropertyResponse;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.mappers.ResponseMapperRegistry;
+import com.dieti.dietiestatesbackend.repositories.PropertyRepository;
+import com.dieti.dietiestatesbackend.service.events.PropertyCreatedEvent;
+import com.dieti.dietiestatesbackend.service.events.PropertyDeletedEvent;
+
+@ExtendWith(MockitoExtension.class)
+class FeaturedPropertiesSnapshotTest {
+
+    @Mock
+    private PropertyRepository propertyRepository;
+    @Mock
+    private ResponseMapperRegistry responseMapperRegistry;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private FeaturedPropertiesSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = new FeaturedPropertiesSnapshot(propertyRepository, responseMapperRegistry, transactionManager);
+    }
+
+    @Test
+    void get_loadsOnceAndServesTheSameSnapshot() {
+        Property property = mock(Property.class);
+        PropertyResponse response = new PropertyResponse();
+        when(propertyRepository.getFeatured(any(Pageable.class))).thenReturn(List.of(property));
+        when(responseMapperRegistry.mapAll(List.of(property))).thenReturn(List.of(response));
+
+        List<PropertyResponse> first = snapshot.get();
+        List<PropertyResponse> second = snapshot.get();
+
+        assertEquals(List.of(response), first);
+        assertSame(first, second);
+        verify(propertyRepository, times(1)).getFeatured(any(Pageable.class));
+    }
+
+    @Test
+    void propertyEvents_invalidateTheSnapshot() {
+        when(propertyRepository.getFeatured(any(Pageable.class))).thenReturn(List.of());
+
+        snapshot.get();
+        snapshot.onPropertyCreated(new PropertyCreatedEvent(mock(Property.class)));
+        snapshot.get();
+        snapshot.onPropertyDeleted(new PropertyDeletedEvent(1L));
+        snapshot.get();
+        snapshot.get();
+
+        verify(propertyRepository, times(3)).getFeatured(any(Pageable.class));
+    }
+}
@@ -0,0 +1,92 @@
+package com.dieti.dietiestatesbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import com.dieti.dietiestatesbackend.config.AppConfig;
+import com.dieti.dietiestatesbackend.dto.response.PropertyResponse;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.entities.ResidentialProperty;
+import com.dieti.dietiestatesbackend.mappers.ResponseMapperRegistry;
+import com.dieti.dietiestatesbackend.repositories.PropertyRepository;
+
+@ExtendWith(MockitoExtension.class)
+class PropertyDetailsBulkLoaderTest {
+
+    @Mock
+    private PropertyRepository propertyRepository;
+    @Mock
+    private ResponseMapperRegistry responseMapperRegistry;
+
+    private Cache cache;
+    private PropertyDetailsBulkLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(AppConfig.PROPERTY_DETAILS_CACHE);
+        cache = cacheManager.getCache(AppConfig.PROPERTY_DETAILS_CACHE);
+        loader = new PropertyDetailsBulkLoader(propertyRepository, responseMapperRegistry, cacheManager, 2, 10);
+    }
+
+    @Test
+    void load_fetchesOnlyMissesInChunksAndKeepsRequestedOrder() {
+        PropertyResponse cached = response(2L);
+        cache.put(2L, cached);
+        when(propertyRepository.findAllDetailedByIdIn(List.of(4L, 1L))).thenReturn(List.of(property(1L), property(4L)));
+        when(propertyRepository.findAllDetailedByIdIn(List.of(3L))).thenReturn(List.of());
+        when(responseMapperRegistry.map(any(Property.class)))
+                .thenAnswer(invocation -> response(invocation.<Property>getArgument(0).getId()));
+
+        List<PropertyResponse> result = loader.load(List.of(4L, 2L, 1L, 3L));
+
+        assertEquals(List.of(4L, 2L, 1L), result.stream().map(PropertyResponse::getId).toList());
+        assertSame(cached, result.get(1));
+        assertEquals(1L, cache.get(1L, PropertyResponse.class).getId());
+        assertEquals(4L, cache.get(4L, PropertyResponse.class).getId());
+        verify(propertyRepository).findAllDetailedByIdIn(List.of(4L, 1L));
+        verify(propertyRepository).findAllDetailedByIdIn(List.of(3L));
+    }
+
+    @Test
+    void load_allCached_doesNotQueryTheDatabase() {
+        cache.put(1L, response(1L));
+
+        assertEquals(1, loader.load(List.of(1L)).size());
+        verifyNoInteractions(propertyRepository);
+    }
+
+    @Test
+    void load_tooManyIds_isRejected() {
+        List<Long> ids = List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L);
+
+        assertThrows(IllegalArgumentException.class, () -> loader.load(ids));
+        verifyNoInteractions(propertyRepository);
+    }
+
+    private static Property property(long id) {
+        Property property = new ResidentialProperty();
+        property.setId(id);
+        return property;
+    }
+
+    private static PropertyResponse response(long id) {
+        PropertyResponse response = new PropertyResponse();
+        response.setId(id);
+        return response;
+    }
+}
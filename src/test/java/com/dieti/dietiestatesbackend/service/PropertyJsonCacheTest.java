@@ -0,0 +1,66 @@
+package com.dieti.dietiestatesbackend.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.dieti.dietiestatesbackend.dto.response.PropertyResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class PropertyJsonCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void get_serializesOncePerKey() throws IOException {
+        PropertyJsonCache cache = new PropertyJsonCache(objectMapper, true, true, 1024, 1_000_000);
+        AtomicInteger serializations = new AtomicInteger();
+        PropertyResponse response = new PropertyResponse();
+        response.setId(7L);
+
+        PropertyJsonCache.Payload first = cache.get("details:\"7-1\"", () -> {
+            serializations.incrementAndGet();
+            return response;
+        });
+        PropertyJsonCache.Payload second = cache.get("details:\"7-1\"", () -> {
+            serializations.incrementAndGet();
+            return response;
+        });
+
+        assertSame(first, second);
+        assertEquals(1, serializations.get());
+        assertArrayEquals(objectMapper.writeValueAsBytes(response), first.json());
+        assertNull(first.gzip(), "sotto la soglia non si comprime");
+    }
+
+    @Test
+    void get_largePayload_isAlsoGzipped() throws IOException {
+        PropertyJsonCache cache = new PropertyJsonCache(objectMapper, true, true, 16, 1_000_000);
+        PropertyResponse response = new PropertyResponse();
+        response.setDescription("Bilocale luminoso ".repeat(200));
+
+        PropertyJsonCache.Payload payload = cache.get("details:\"1-1\"", () -> response);
+
+        assertNotNull(payload.gzip());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(payload.gzip()))) {
+            assertArrayEquals(payload.json(), in.readAllBytes());
+        }
+    }
+
+    @Test
+    void get_nullBody_isNotCached() {
+        PropertyJsonCache cache = new PropertyJsonCache(objectMapper, true, true, 1024, 1_000_000);
+
+        assertNull(cache.get("details:\"2-1\"", () -> null));
+        assertNotNull(cache.get("details:\"2-1\"", PropertyResponse::new));
+    }
+}
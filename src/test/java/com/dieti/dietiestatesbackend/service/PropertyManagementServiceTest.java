@@ -25,6 +25,7 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -59,6 +60,8 @@ class PropertyManagementServiceTest {
     private FileStorageService fileStorageService;
     @Mock
     private ImageValidationService imageValidationService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private PropertyManagementService propertyManagementService;
@@ -80,6 +83,7 @@ class PropertyManagementServiceTest {
             responseMapperRegistry,
             fileStorageService,
             imageValidationService,
+            eventPublisher,
             null  // self will be set below
         );
         PropertyManagementService spyService = spy(realService);
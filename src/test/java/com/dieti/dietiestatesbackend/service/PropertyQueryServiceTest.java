@@ -6,9 +6,18 @@ import static org.mockito.Mockito.*;
 import com.dieti.dietiestatesbackend.entities.CommercialProperty;
 import com.dieti.dietiestatesbackend.entities.Property;
 import com.dieti.dietiestatesbackend.repositories.PropertyRepository;
+import com.dieti.dietiestatesbackend.service.search.PriceStatisticsService;
+import com.dieti.dietiestatesbackend.service.search.PropertyClusterService;
+import com.dieti.dietiestatesbackend.service.search.PropertyReadModelSearch;
+import com.dieti.dietiestatesbackend.service.search.PropertySearchExecutor;
+import com.dieti.dietiestatesbackend.service.search.SearchFacetService;
+import com.dieti.dietiestatesbackend.service.search.SimilarPropertyIndex;
+import com.dieti.dietiestatesbackend.service.search.SpatialSearchSupport;
+import com.dieti.dietiestatesbackend.service.search.TextSearchSupport;
 import com.dieti.dietiestatesbackend.util.BoundingBoxUtility;
 import java.util.Arrays;
 import java.util.List;
+import org.springframework.data.domain.PageRequest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -25,6 +34,30 @@ class PropertyQueryServiceTest {
     @Mock
     private BoundingBoxUtility boundingBoxUtility;
 
+    @Mock
+    private SpatialSearchSupport spatialSearchSupport;
+
+    @Mock
+    private PropertySearchExecutor searchExecutor;
+
+    @Mock
+    private SearchFacetService searchFacetService;
+
+    @Mock
+    private PropertyClusterService clusterService;
+
+    @Mock
+    private TextSearchSupport textSearchSupport;
+
+    @Mock
+    private PropertyReadModelSearch readModelSearch;
+
+    @Mock
+    private PriceStatisticsService priceStatisticsService;
+
+    @Mock
+    private SimilarPropertyIndex similarPropertyIndex;
+
     @InjectMocks
     private PropertyQueryService service;
 
@@ -69,4 +102,13 @@ class PropertyQueryServiceTest {
 
         verify(propertyRepository).findAllDetailedByIdIn(Arrays.asList(3L, 7L));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getFeaturedSummaries_usesTheFeaturedSnapshotSize() {
+        when(propertyRepository.findFeaturedSummaries(any())).thenReturn(List.of());
+
+        service.getFeaturedSummaries();
+
+        verify(propertyRepository).findFeaturedSummaries(PageRequest.of(0, FeaturedPropertiesSnapshot.FEATURED_SIZE));
+    }
+}
@@ -13,6 +13,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -25,6 +26,7 @@ import com.dieti.dietiestatesbackend.entities.Property;
 import com.dieti.dietiestatesbackend.exception.EntityNotFoundException;
 import com.dieti.dietiestatesbackend.repositories.PropertyRepository;
 import com.dieti.dietiestatesbackend.mappers.ResponseMapperRegistry;
+import com.dieti.dietiestatesbackend.service.events.PropertyDeletedEvent;
 import com.dieti.dietiestatesbackend.service.places.PlacesService;
 import com.dieti.dietiestatesbackend.service.storage.FileStorageService;
 
@@ -43,6 +45,12 @@ class PropertyServiceTest {
     private ResponseMapperRegistry responseMapperRegistry;
     @Mock
     private FileStorageService fileStorageService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private FeaturedPropertiesSnapshot featuredSnapshot;
+    @Mock
+    private PropertyDetailsBulkLoader detailsBulkLoader;
 
     @InjectMocks
     private PropertyService propertyService;
@@ -63,6 +71,7 @@ class PropertyServiceTest {
         verify(propertyRepository).findById(propertyId);
         verify(fileStorageService).deleteImages("someUlid");
         verify(propertyRepository).deleteById(propertyId);
+        verify(eventPublisher).publishEvent(new PropertyDeletedEvent(propertyId));
     }
 
     
@@ -123,9 +132,8 @@ class PropertyServiceTest {
     void getPropertyHistoryTest() {
         // Given
         Long propertyId = 1L;
-        Property property = new CommercialProperty();
-        PropertyHistoryRequest req = new PropertyHistoryRequest(List.of(propertyId.toString()));
-        when(propertyQueryServiceInterface.getPropertiesByIds(anyList())).thenReturn(List.of(property));
+        PropertyHistoryRequest req = new PropertyHistoryRequest(List.of(propertyId.toString(), "abc", "2", "1"));
+        when(detailsBulkLoader.load(anyList())).thenReturn(List.of(new PropertyResponse()));
 
         // When
         List<PropertyResponse> result = propertyService.getPropertyHistory(req);
@@ -133,7 +141,21 @@ class PropertyServiceTest {
         // Then
         assertNotNull(result);
         assertFalse(result.isEmpty());
-        verify(propertyQueryServiceInterface).getPropertiesByIds(List.of(propertyId.toString()));
+        verify(detailsBulkLoader).load(List.of(1L, 2L));
     }
-}
 
+    @Test
+    void getPropertyDetailsTest_mapsTheDetailedProperty() {
+        // Given
+        Property property = new CommercialProperty();
+        PropertyResponse mapped = new PropertyResponse();
+        when(propertyQueryServiceInterface.getProperty(1L)).thenReturn(property);
+        when(responseMapperRegistry.map(property)).thenReturn(mapped);
+
+        // When
+        PropertyResponse result = propertyService.getPropertyDetails(1L);
+
+        // Then
+        assertSame(mapped, result);
+    }
+}
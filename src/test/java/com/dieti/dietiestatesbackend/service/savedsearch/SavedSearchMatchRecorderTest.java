@@ -0,0 +1,136 @@
+package com.dieti.dietiestatesbackend.service.savedsearch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.entities.ResidentialProperty;
+import com.dieti.dietiestatesbackend.entities.SavedSearchMatch;
+import com.dieti.dietiestatesbackend.repositories.SavedSearchMatchRepository;
+import com.dieti.dietiestatesbackend.service.events.PropertyCreatedEvent;
+
+import jakarta.persistence.EntityManager;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("unchecked")
+class SavedSearchMatchRecorderTest {
+
+    @Mock
+    private SavedSearchMatchRepository matchRepository;
+    @Mock
+    private SavedSearchMatcher matcher;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Captor
+    private ArgumentCaptor<Iterable<SavedSearchMatch>> savedCaptor;
+
+    private SavedSearchMatchRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        lenient().when(matcher.isRegistered(any())).thenReturn(true);
+        recorder = new SavedSearchMatchRecorder(matchRepository, matcher, entityManager, transactionManager, 3);
+    }
+
+    @Test
+    void onPropertyCreated_belowBatchSize_onlyQueues() {
+        Property property = property(10L);
+        when(matcher.match(property)).thenReturn(List.of(1L, 2L));
+
+        recorder.onPropertyCreated(new PropertyCreatedEvent(property));
+
+        assertEquals(2, recorder.pendingCount());
+        verify(matchRepository, never()).saveAll(anyIterable());
+    }
+
+    @Test
+    void onPropertyCreated_reachingBatchSize_writesInANewTransaction() {
+        Property property = property(10L);
+        when(matcher.match(property)).thenReturn(List.of(1L, 2L, 3L));
+
+        recorder.onPropertyCreated(new PropertyCreatedEvent(property));
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertEquals(TransactionDefinition.PROPAGATION_REQUIRES_NEW, definition.getValue().getPropagationBehavior());
+        verify(transactionManager).commit(any());
+        verify(matchRepository).saveAll(savedCaptor.capture());
+        assertEquals(3, ((List<SavedSearchMatch>) savedCaptor.getValue()).size());
+        assertEquals(0, recorder.pendingCount());
+    }
+
+    @Test
+    void flush_writesOneTransactionPerBlockAndSkipsRemovedSearches() {
+        lenient().when(matcher.isRegistered(2L)).thenReturn(false);
+
+        recorder.enqueue(10L, List.of(1L, 2L, 3L, 4L, 5L));
+
+        verify(matchRepository, times(2)).saveAll(savedCaptor.capture());
+        assertEquals(3, ((List<SavedSearchMatch>) savedCaptor.getAllValues().get(0)).size());
+        assertEquals(1, ((List<SavedSearchMatch>) savedCaptor.getAllValues().get(1)).size());
+        verify(transactionManager, times(2)).commit(any());
+        assertEquals(0, recorder.pendingCount());
+    }
+
+    @Test
+    void flush_failedBlock_retriesEachMatchInItsOwnTransaction() {
+        // il blocco fallisce per la FK della ricerca 2, cancellata dopo il drain: solo quel match va perso
+        DataIntegrityViolationException fkViolation = new DataIntegrityViolationException("fk_saved_search_match_search");
+        when(matchRepository.saveAll(anyIterable()))
+                .thenThrow(fkViolation)
+                .thenReturn(List.of())
+                .thenThrow(fkViolation)
+                .thenReturn(List.of());
+
+        recorder.enqueue(10L, List.of(1L, 2L, 3L));
+
+        verify(matchRepository, times(4)).saveAll(savedCaptor.capture());
+        assertEquals(List.of(3, 1, 1, 1), savedCaptor.getAllValues().stream()
+                .map(matches -> ((List<SavedSearchMatch>) matches).size())
+                .toList());
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, times(2)).commit(any());
+        assertEquals(0, recorder.pendingCount());
+    }
+
+    @Test
+    void flushOnShutdown_writesQueuedMatches() {
+        recorder.enqueue(10L, List.of(1L, 2L));
+        verify(matchRepository, never()).saveAll(anyIterable());
+
+        recorder.flushOnShutdown();
+
+        verify(matchRepository).saveAll(savedCaptor.capture());
+        assertEquals(2, ((List<SavedSearchMatch>) savedCaptor.getValue()).size());
+        assertEquals(0, recorder.pendingCount());
+    }
+
+    private static Property property(long id) {
+        Property property = new ResidentialProperty();
+        property.setId(id);
+        return property;
+    }
+}
@@ -0,0 +1,119 @@
+package com.dieti.dietiestatesbackend.service.savedsearch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.dto.request.SearchCircle;
+import com.dieti.dietiestatesbackend.entities.Address;
+import com.dieti.dietiestatesbackend.entities.Contract;
+import com.dieti.dietiestatesbackend.entities.Coordinates;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.entities.PropertyCategory;
+import com.dieti.dietiestatesbackend.entities.ResidentialProperty;
+
+class SavedSearchMatcherTest {
+
+    private static final BigDecimal NAPOLI_LAT = new BigDecimal("40.8518");
+    private static final BigDecimal NAPOLI_LON = new BigDecimal("14.2681");
+
+    private SavedSearchMatcher matcher;
+
+    @BeforeEach
+    void setUp() {
+        matcher = new SavedSearchMatcher(0.1);
+    }
+
+    @Test
+    void match_returnsOnlySearchesSatisfiedByProperty() {
+        matcher.register(1L, FilterRequest.builder().category("RESIDENTIAL").contract("SALE")
+                .centerLatitude(NAPOLI_LAT).centerLongitude(NAPOLI_LON).radiusInMeters(2000.0).build());
+        matcher.register(2L, FilterRequest.builder().contract("RENT").build());
+        matcher.register(3L, FilterRequest.builder().category("COMMERCIAL").build());
+        // Milano: stessa tipologia ma altra cella della griglia
+        matcher.register(4L, FilterRequest.builder().category("RESIDENTIAL").contract("SALE")
+                .centerLatitude(new BigDecimal("45.4642")).centerLongitude(new BigDecimal("9.19")).radiusInMeters(2000.0).build());
+        matcher.register(5L, FilterRequest.builder().maxPrice(new BigDecimal("150000")).build());
+
+        assertEquals(List.of(1L), matcher.match(residential(NAPOLI_LAT, NAPOLI_LON, "200000")));
+    }
+
+    @Test
+    void match_radiusCheckedExactly_notOnlyByCell() {
+        matcher.register(1L, FilterRequest.builder()
+                .centerLatitude(NAPOLI_LAT).centerLongitude(NAPOLI_LON).radiusInMeters(500.0).build());
+
+        // circa 1,1 km a nord: stessa cella, fuori dal raggio
+        assertTrue(matcher.match(residential(new BigDecimal("40.8618"), NAPOLI_LON, "200000")).isEmpty());
+        assertEquals(List.of(1L), matcher.match(residential(new BigDecimal("40.8540"), NAPOLI_LON, "200000")));
+    }
+
+    @Test
+    void match_wideRadiusRegisteredUnderWildcardCell() {
+        // 300 km coprono ben più di 256 celle da 0,1°
+        matcher.register(1L, FilterRequest.builder()
+                .centerLatitude(new BigDecimal("41.9028")).centerLongitude(new BigDecimal("12.4964")).radiusInMeters(300_000.0).build());
+
+        assertEquals(List.of(1L), matcher.match(residential(NAPOLI_LAT, NAPOLI_LON, "200000")));
+    }
+
+    @Test
+    void match_multipleCircles_anyCircleMatches() {
+        // Napoli oppure Milano: entrambe le zone sono indicizzate con le proprie celle
+        matcher.register(1L, FilterRequest.builder().circles(List.of(
+                new SearchCircle(NAPOLI_LAT, NAPOLI_LON, 1000.0),
+                new SearchCircle(new BigDecimal("45.4642"), new BigDecimal("9.19"), 1000.0))).build());
+
+        assertEquals(List.of(1L), matcher.match(residential(NAPOLI_LAT, NAPOLI_LON, "200000")));
+        assertEquals(List.of(1L), matcher.match(residential(new BigDecimal("45.4650"), new BigDecimal("9.19"), "200000")));
+        // Roma: fuori da entrambe le zone
+        assertTrue(matcher.match(residential(new BigDecimal("41.9028"), new BigDecimal("12.4964"), "200000")).isEmpty());
+    }
+
+    @Test
+    void match_categoryTrimmedButCaseSensitive_likeTheSearchSpecification() {
+        matcher.register(1L, FilterRequest.builder().category(" RESIDENTIAL ").build());
+        matcher.register(2L, FilterRequest.builder().category("residential").build());
+
+        // categoryEquals confronta la tipologia trimmata senza ignorare maiuscole e minuscole
+        assertEquals(List.of(1L), matcher.match(residential(NAPOLI_LAT, NAPOLI_LON, "200000")));
+    }
+
+    @Test
+    void unregister_removesSearchFromIndex() {
+        matcher.register(1L, FilterRequest.builder().category("RESIDENTIAL").build());
+        matcher.unregister(1L);
+
+        assertFalse(matcher.isRegistered(1L));
+        assertEquals(0, matcher.size());
+        assertTrue(matcher.match(residential(NAPOLI_LAT, NAPOLI_LON, "200000")).isEmpty());
+    }
+
+    private static Property residential(BigDecimal lat, BigDecimal lon, String price) {
+        PropertyCategory category = new PropertyCategory();
+        category.setPropertyType("RESIDENTIAL");
+        category.setName("Appartamento");
+        Contract contract = new Contract();
+        contract.setName("SALE");
+        Coordinates coordinates = new Coordinates();
+        coordinates.setLatitude(lat);
+        coordinates.setLongitude(lon);
+        Address address = new Address();
+        address.setCoordinates(coordinates);
+
+        ResidentialProperty property = new ResidentialProperty();
+        property.setId(10L);
+        property.setPropertyCategory(category);
+        property.setContract(contract);
+        property.setAddress(address);
+        property.setPrice(new BigDecimal(price));
+        return property;
+    }
+}
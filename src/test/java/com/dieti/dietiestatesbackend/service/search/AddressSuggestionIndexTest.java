@@ -0,0 +1,133 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.dieti.dietiestatesbackend.dto.response.AddressSuggestionDTO;
+import com.dieti.dietiestatesbackend.dto.response.AddressSuggestionDTO.Type;
+import com.dieti.dietiestatesbackend.entities.Address;
+import com.dieti.dietiestatesbackend.repositories.AddressLocationCount;
+import com.dieti.dietiestatesbackend.repositories.AddressRepository;
+
+class AddressSuggestionIndexTest {
+
+    private final AddressRepository addressRepository = mock(AddressRepository.class);
+    private AddressSuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(addressRepository.countDistinctLocations()).thenReturn(List.of(
+                new AddressLocationCount("Napoli", "NA", "Via Toledo", 3),
+                new AddressLocationCount("Napoli", "NA", "Via Roma", 1),
+                new AddressLocationCount("Nardò", "LE", "Corso Galliano", 5),
+                new AddressLocationCount("Roma", "RM", "Via del Corso", 10)));
+        index = new AddressSuggestionIndex(addressRepository);
+        index.load();
+    }
+
+    @Test
+    void suggest_matchesPrefixIgnoringCaseAndAccents_preferringMoreAddresses() {
+        List<AddressSuggestionDTO> result = index.suggest("NAR", 10);
+
+        assertEquals(List.of(new AddressSuggestionDTO(Type.CITY, "Nardò", "Nardò", "LE")), result);
+        // Nardò (5 indirizzi) prima di provincia NA e Napoli (4 ciascuno, poi in ordine di etichetta)
+        assertEquals(List.of("Nardò", "NA", "Napoli"),
+                index.suggest("na", 10).stream().map(AddressSuggestionDTO::getLabel).toList());
+    }
+
+    @Test
+    void suggest_matchesStartOfInnerWords() {
+        List<String> labels = index.suggest("rom", 10).stream().map(AddressSuggestionDTO::getLabel).toList();
+
+        // "Roma" (città, 10 indirizzi) prima di "Via Roma" (1 indirizzo)
+        assertEquals(List.of("Roma", "Via Roma"), labels);
+    }
+
+    @Test
+    void suggest_blankQueryOrLimit_returnsEmpty() {
+        assertTrue(index.suggest("  ", 10).isEmpty());
+        assertTrue(index.suggest("na", 0).isEmpty());
+    }
+
+    @Test
+    void add_makesNewAddressImmediatelySearchable() {
+        Address address = new Address();
+        address.setCity("Salerno");
+        address.setProvince("SA");
+        address.setStreet("Lungomare Trieste");
+
+        index.add(address);
+
+        assertEquals(Type.STREET, index.suggest("triest", 5).get(0).getType());
+        assertEquals("Salerno", index.suggest("sal", 5).get(0).getLabel());
+    }
+
+    @Test
+    void add_existingSuggestions_updatesOnlyTheirWeight() {
+        for (int i = 0; i < 10; i++) {
+            index.add(address("Napoli", "NA", "Via Roma"));
+        }
+
+        assertEquals(10, index.size());
+        // "Via Roma" (11 indirizzi) ora precede la città di Roma (10)
+        assertEquals(List.of("Via Roma", "Roma"),
+                index.suggest("rom", 10).stream().map(AddressSuggestionDTO::getLabel).toList());
+    }
+
+    @Test
+    void add_newSuggestions_mergedIntoSortedKeys() {
+        index.add(address("Salerno", "SA", "Via Napoli"));
+        index.add(address("Avellino", "AV", "Corso Vittorio Emanuele"));
+
+        assertEquals(List.of("Napoli", "Via Napoli"),
+                index.suggest("nap", 10).stream().map(AddressSuggestionDTO::getLabel).toList());
+        assertEquals(List.of("Nardò", "NA", "Napoli", "Via Napoli"),
+                index.suggest("na", 10).stream().map(AddressSuggestionDTO::getLabel).toList());
+        assertEquals(List.of("Via del Corso", "Corso Galliano", "Corso Vittorio Emanuele"),
+                index.suggest("corso", 10).stream().map(AddressSuggestionDTO::getLabel).toList());
+        assertEquals(List.of("AV", "Avellino"),
+                index.suggest("av", 10).stream().map(AddressSuggestionDTO::getLabel).toList());
+    }
+
+    @Test
+    void load_keepsAddressesAddedWhileLoading() {
+        AddressSuggestionIndex loading = new AddressSuggestionIndex(addressRepository);
+        when(addressRepository.countDistinctLocations()).thenAnswer(invocation -> {
+            loading.add(address("Salerno", "SA", "Lungomare Trieste"));
+            return List.of(new AddressLocationCount("Napoli", "NA", "Via Toledo", 3));
+        });
+
+        loading.load();
+
+        assertEquals("Salerno", loading.suggest("sal", 5).get(0).getLabel());
+        assertEquals("Via Toledo", loading.suggest("tol", 5).get(0).getLabel());
+        assertEquals(6, loading.size());
+    }
+
+    @Test
+    void load_whenRepositoryFails_keepsIndexUsable() {
+        when(addressRepository.countDistinctLocations()).thenThrow(new DataAccessResourceFailureException("db down"));
+        AddressSuggestionIndex failing = new AddressSuggestionIndex(addressRepository);
+
+        failing.load();
+
+        assertEquals(0, failing.size());
+        assertTrue(failing.suggest("na", 5).isEmpty());
+    }
+
+    private static Address address(String city, String province, String street) {
+        Address address = new Address();
+        address.setCity(city);
+        address.setProvince(province);
+        address.setStreet(street);
+        return address;
+    }
+}
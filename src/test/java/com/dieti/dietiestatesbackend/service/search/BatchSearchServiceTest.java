@@ -0,0 +1,113 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.dieti.dietiestatesbackend.dto.request.BatchSearchItem;
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.dto.response.BatchSearchResult;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.entities.ResidentialProperty;
+import com.dieti.dietiestatesbackend.service.PropertyService;
+
+@ExtendWith(MockitoExtension.class)
+class BatchSearchServiceTest {
+
+    @Mock
+    private PropertyService propertyService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void search_returnsOneResultPerSearch_errorsStayIsolated() {
+        FilterRequest ok = FilterRequest.builder().contract("SALE").build();
+        FilterRequest invalid = FilterRequest.builder().contract("RENT").build();
+        Property property = new ResidentialProperty();
+        property.setId(7L);
+        when(propertyService.searchPropertiesWithFilters(eq(ok), any()))
+                .thenReturn(new PageImpl<>(List.of(property), PageRequest.of(0, 20), 1));
+        when(propertyService.searchPropertiesWithFilters(eq(invalid), any()))
+                .thenThrow(new IllegalArgumentException("filtro non valido"));
+        BatchSearchService service = new BatchSearchService(propertyService, executor, transactionManager, 2000);
+
+        List<BatchSearchResult<Long>> results = service.search(List.of(
+                BatchSearchItem.builder().id("a").filters(ok).build(),
+                BatchSearchItem.builder().id("b").filters(invalid).build()), Property::getId);
+
+        assertEquals("a", results.get(0).getId());
+        assertEquals(BatchSearchResult.Status.OK, results.get(0).getStatus());
+        assertEquals(List.of(7L), results.get(0).getPage().getContent());
+        assertEquals(BatchSearchResult.Status.ERROR, results.get(1).getStatus());
+        assertEquals("filtro non valido", results.get(1).getError());
+        assertNull(results.get(1).getPage());
+    }
+
+    @Test
+    void search_slowSearchReportedAsTimeout_withoutStallingTheOthers() {
+        FilterRequest fast = FilterRequest.builder().contract("SALE").build();
+        FilterRequest slow = FilterRequest.builder().contract("RENT").build();
+        when(propertyService.searchPropertiesWithFilters(eq(fast), any())).thenReturn(Page.empty());
+        when(propertyService.searchPropertiesWithFilters(eq(slow), any())).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return Page.empty();
+        });
+        BatchSearchService service = new BatchSearchService(propertyService, executor, transactionManager, 200);
+
+        long start = System.nanoTime();
+        List<BatchSearchResult<Long>> results = service.search(List.of(
+                BatchSearchItem.builder().id("slow").filters(slow).build(),
+                BatchSearchItem.builder().id("fast").filters(fast).build()), Property::getId);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(BatchSearchResult.Status.TIMEOUT, results.get(0).getStatus());
+        assertEquals(BatchSearchResult.Status.OK, results.get(1).getStatus());
+        assertTrue(elapsedMillis < 2_000, "il batch deve rispettare la scadenza");
+    }
+
+    @Test
+    void pageable_appliesDefaultsAndParsesSort() {
+        Pageable pageable = BatchSearchService.pageable(BatchSearchItem.builder()
+                .filters(new FilterRequest()).page(2).sort(List.of("price,desc", "createdAt")).build());
+
+        assertEquals(2, pageable.getPageNumber());
+        assertEquals(20, pageable.getPageSize());
+        assertEquals(Sort.by(Sort.Order.desc("price"), Sort.Order.asc("createdAt")), pageable.getSort());
+    }
+}
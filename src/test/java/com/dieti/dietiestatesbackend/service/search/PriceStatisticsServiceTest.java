@@ -0,0 +1,236 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.dto.response.PriceStatisticsResponse;
+import com.dieti.dietiestatesbackend.dto.response.PriceStatisticsResponse.Distribution;
+import com.dieti.dietiestatesbackend.dto.response.PriceStatisticsResponse.HistogramBucket;
+import com.dieti.dietiestatesbackend.entities.Address;
+import com.dieti.dietiestatesbackend.entities.Agency;
+import com.dieti.dietiestatesbackend.entities.Contract;
+import com.dieti.dietiestatesbackend.entities.Coordinates;
+import com.dieti.dietiestatesbackend.entities.Garage;
+import com.dieti.dietiestatesbackend.entities.PropertyCategory;
+import com.dieti.dietiestatesbackend.entities.User;
+import com.dieti.dietiestatesbackend.enums.EnergyRating;
+import com.dieti.dietiestatesbackend.enums.PropertyCondition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Percorso in memoria (t-digest) eseguito su H2, che non ha width_bucket; la mappatura delle fasce
+ * è verificata rispetto alla semantica di {@code least(width_bucket(...), n)} usata nel DB.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.default_schema=PUBLIC",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class PriceStatisticsServiceTest {
+
+    private static final int BUCKETS = 4;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private SpatialSearchSupport spatialSearchSupport;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        spatialSearchSupport = new SpatialSearchSupport(jdbcTemplate, "bbox", "");
+
+        Contract sale = new Contract();
+        sale.setName("SALE");
+        entityManager.persist(sale);
+        Contract rent = new Contract();
+        rent.setName("RENT");
+        entityManager.persist(rent);
+        PropertyCategory box = new PropertyCategory();
+        box.setPropertyType("GARAGE");
+        box.setName("Box");
+        entityManager.persist(box);
+        User agent = agent();
+
+        // prezzi 100.000, 200.000, ..., 1.000.000 su 50 m²: da 2.000 a 20.000 €/m²
+        for (int i = 1; i <= 10; i++) {
+            Garage garage = new Garage();
+            garage.setContract(sale);
+            garage.setPropertyCategory(box);
+            garage.setAgent(agent);
+            garage.setAddress(address(40.85 + i * 0.001));
+            garage.setPrice(BigDecimal.valueOf(i * 100_000L));
+            garage.setArea(50);
+            garage.setCondition(PropertyCondition.GOOD_CONDITION);
+            garage.setEnergyRating(EnergyRating.A2);
+            garage.setImageDirectoryUlid(String.format("01HZX3J8Y6QK2M4N5P7R9T%04d", i));
+            garage.setNumberOfImages(1);
+            entityManager.persist(garage);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void computeStatistics_inMemory_countsPercentilesAndHistogram() {
+        PriceStatisticsResponse response = service("memory").computeStatistics(filters("SALE").build());
+
+        assertEquals(10, response.getCount());
+        assertDistribution(response.getPrice(), "100000", "1000000", "325000", "550000", "775000", "910000");
+        assertDistribution(response.getPricePerSquareMeter(), "2000", "20000", "6500", "11000", "15500", "18200");
+        // fasce da 225.000: il prezzo massimo ricade nell'ultima
+        assertEquals(List.of(3L, 2L, 2L, 3L), response.getHistogram().stream().map(HistogramBucket::getCount).toList());
+        assertEquals(0, new BigDecimal("325000").compareTo(response.getHistogram().get(0).getTo()));
+        assertEquals(0, new BigDecimal("1000000").compareTo(response.getHistogram().get(BUCKETS - 1).getTo()));
+    }
+
+    @Test
+    void computeStatistics_singlePrice_singleDegenerateBucket() {
+        FilterRequest onePrice = filters("SALE")
+                .minPrice(new BigDecimal("500000"))
+                .maxPrice(new BigDecimal("500000"))
+                .build();
+
+        PriceStatisticsResponse response = service("memory").computeStatistics(onePrice);
+
+        assertEquals(1, response.getCount());
+        assertDistribution(response.getPrice(), "500000", "500000", "500000", "500000", "500000", "500000");
+        assertEquals(1, response.getHistogram().size());
+        HistogramBucket bucket = response.getHistogram().get(0);
+        assertEquals(0, new BigDecimal("500000").compareTo(bucket.getFrom()));
+        assertEquals(0, new BigDecimal("500000").compareTo(bucket.getTo()));
+        assertEquals(1, bucket.getCount());
+    }
+
+    @Test
+    void computeStatistics_noResults_emptyDistributions() {
+        PriceStatisticsResponse response = service("memory").computeStatistics(filters("RENT").build());
+
+        assertEquals(0, response.getCount());
+        assertNull(response.getPrice().getP50());
+        assertTrue(response.getHistogram().isEmpty());
+    }
+
+    @Test
+    void computeStatistics_cachedPerFilter() {
+        PriceStatisticsService service = service("memory");
+        PriceStatisticsResponse first = service.computeStatistics(filters("SALE").build());
+        statistics.clear();
+
+        // filtri uguali in un'altra istanza: stessa voce di cache, nessuna query
+        assertSame(first, service.computeStatistics(filters("SALE").build()));
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        PriceStatisticsResponse rent = service.computeStatistics(filters("RENT").build());
+        assertNotSame(first, rent);
+        assertEquals(0, rent.getCount());
+        assertTrue(statistics.getPrepareStatementCount() > 0);
+    }
+
+    @Test
+    void histogramBucket_matchesLeastOfWidthBucket() {
+        // width_bucket(price, 100, 200, 4): fasce [100,125) [125,150) [150,175) [175,200), 200 -> 5
+        assertEquals(1, PriceStatisticsService.histogramBucket(100, 100, 200, BUCKETS));
+        assertEquals(1, PriceStatisticsService.histogramBucket(124.99, 100, 200, BUCKETS));
+        assertEquals(2, PriceStatisticsService.histogramBucket(125, 100, 200, BUCKETS));
+        assertEquals(4, PriceStatisticsService.histogramBucket(199.99, 100, 200, BUCKETS));
+        // least(..., 4) riporta il massimo nell'ultima fascia
+        assertEquals(4, PriceStatisticsService.histogramBucket(200, 100, 200, BUCKETS));
+        assertEquals(1, PriceStatisticsService.histogramBucket(150, 150, 150, BUCKETS));
+    }
+
+    @Test
+    void mode_explicitOrDetected() {
+        assertFalse(service("memory").usesDatabaseAggregation());
+        assertTrue(service("database").usesDatabaseAggregation());
+        verifyNoInteractions(jdbcTemplate);
+
+        when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of());
+        assertTrue(service("auto").usesDatabaseAggregation());
+
+        when(jdbcTemplate.queryForList(anyString()))
+                .thenThrow(new BadSqlGrammarException("stats", "SELECT width_bucket(...)", new SQLException("width_bucket")));
+        assertFalse(service(" AUTO ").usesDatabaseAggregation());
+
+        assertThrows(IllegalArgumentException.class, () -> service("percentile"));
+    }
+
+    private PriceStatisticsService service(String mode) {
+        return new PriceStatisticsService(entityManager.getEntityManager(), spatialSearchSupport, jdbcTemplate,
+                new ObjectMapper(), mode, BUCKETS, 60, 100);
+    }
+
+    private static FilterRequest.FilterRequestBuilder filters(String contract) {
+        return FilterRequest.builder()
+                .contract(contract)
+                .centerLatitude(new BigDecimal("40.85"))
+                .centerLongitude(new BigDecimal("14.25"))
+                .radiusInMeters(10_000.0);
+    }
+
+    private static void assertDistribution(Distribution distribution, String min, String max,
+                                           String p25, String p50, String p75, String p90) {
+        assertEquals(0, new BigDecimal(min).compareTo(distribution.getMin()), "min");
+        assertEquals(0, new BigDecimal(max).compareTo(distribution.getMax()), "max");
+        assertEquals(0, new BigDecimal(p25).compareTo(distribution.getP25()), "p25");
+        assertEquals(0, new BigDecimal(p50).compareTo(distribution.getP50()), "p50");
+        assertEquals(0, new BigDecimal(p75).compareTo(distribution.getP75()), "p75");
+        assertEquals(0, new BigDecimal(p90).compareTo(distribution.getP90()), "p90");
+    }
+
+    private User agent() {
+        Agency agency = new Agency();
+        agency.setName("Agenzia Centro");
+        agency.setAddress(address(40.85));
+        entityManager.persist(agency);
+
+        User agent = new User();
+        agent.setEmail("agente@example.com");
+        agent.setUsername("agente");
+        agent.setPassword("password");
+        agent.setFirstName("Mario");
+        agent.setLastName("Rossi");
+        agent.setAgent(true);
+        agent.setAgency(agency);
+        return entityManager.persist(agent);
+    }
+
+    private static Address address(double latitude) {
+        Address address = new Address();
+        address.setCountry("Italia");
+        address.setProvince("NA");
+        address.setCity("Napoli");
+        address.setStreet("Via Toledo");
+        address.setCoordinates(new Coordinates(BigDecimal.valueOf(latitude), new BigDecimal("14.25")));
+        return address;
+    }
+}
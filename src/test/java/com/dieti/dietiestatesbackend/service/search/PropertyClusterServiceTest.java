@@ -0,0 +1,85 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.dto.request.GeoJsonGeometry;
+import com.dieti.dietiestatesbackend.dto.request.SearchCircle;
+import com.dieti.dietiestatesbackend.util.BoundingBoxUtility;
+
+import jakarta.persistence.EntityManager;
+
+@ExtendWith(MockitoExtension.class)
+class PropertyClusterServiceTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private SpatialSearchSupport spatialSearchSupport;
+
+    @Test
+    void cellSizeDegrees_halvesAtEachZoomLevel() {
+        assertEquals(90.0, PropertyClusterService.cellSizeDegrees(0), 1e-12);
+        assertEquals(45.0, PropertyClusterService.cellSizeDegrees(1), 1e-12);
+        assertEquals(90.0 / 4096, PropertyClusterService.cellSizeDegrees(12), 1e-12);
+    }
+
+    @Test
+    void cluster_rejectsInvalidZoomWithoutQuerying() {
+        PropertyClusterService service = newService();
+
+        assertThrows(IllegalArgumentException.class, () -> service.cluster(new FilterRequest(),
+                BigDecimal.ZERO, BigDecimal.ONE, BigDecimal.ZERO, BigDecimal.ONE, PropertyClusterService.MAX_ZOOM + 1));
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void cluster_rejectsViewportTooLargeForZoom() {
+        PropertyClusterService service = newService();
+
+        // L'intera Europa a zoom 14 richiederebbe milioni di celle
+        assertThrows(IllegalArgumentException.class, () -> service.cluster(new FilterRequest(),
+                BigDecimal.valueOf(35), BigDecimal.valueOf(70), BigDecimal.valueOf(-10), BigDecimal.valueOf(40), 14));
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void viewportFilters_dropEveryGeographicFilter_keepTheOthers() {
+        FilterRequest filters = FilterRequest.builder()
+                .contract("SALE")
+                .centerLatitude(new BigDecimal("40.85"))
+                .centerLongitude(new BigDecimal("14.27"))
+                .radiusInMeters(1_000.0)
+                .area(GeoJsonGeometry.builder().type("Polygon").build())
+                .circles(List.of(SearchCircle.builder()
+                        .centerLatitude(new BigDecimal("41.90"))
+                        .centerLongitude(new BigDecimal("12.50"))
+                        .radiusInMeters(500.0)
+                        .build()))
+                .build();
+
+        FilterRequest viewport = PropertyClusterService.viewportFilters(filters);
+
+        assertNull(viewport.getCenterLatitude());
+        assertNull(viewport.getRadiusInMeters());
+        assertNull(viewport.getArea(), "un'area disegnata taglierebbe i cluster del viewport");
+        assertNull(viewport.getCircles(), "le zone taglierebbero i cluster del viewport");
+        assertEquals("SALE", viewport.getContract());
+    }
+
+    private PropertyClusterService newService() {
+        return new PropertyClusterService(entityManager, spatialSearchSupport, new BoundingBoxUtility(), 16, 500);
+    }
+}
@@ -0,0 +1,88 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.entities.ResidentialProperty;
+import com.dieti.dietiestatesbackend.repositories.PropertyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+@ExtendWith(MockitoExtension.class)
+class PropertyExportServiceTest {
+
+    @Mock
+    private PropertyRepository propertyRepository;
+
+    @Mock
+    private SpatialSearchSupport spatialSearchSupport;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final Specification<Property> spec = (root, query, cb) -> null;
+
+    @Test
+    void export_hydratesInChunksAndClearsPersistenceContextAfterEach() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(propertyRepository.streamIds(spec, 1000))
+                .thenReturn(Stream.of(1L, 2L, 3L, 4L, 5L).onClose(() -> closed.set(true)));
+        when(propertyRepository.findAllDetailedByIdIn(List.of(1L, 2L))).thenReturn(List.of(property(2L), property(1L)));
+        when(propertyRepository.findAllDetailedByIdIn(List.of(3L, 4L))).thenReturn(List.of(property(3L), property(4L)));
+        when(propertyRepository.findAllDetailedByIdIn(List.of(5L))).thenReturn(List.of(property(5L)));
+        PropertyExportService service = new PropertyExportService(propertyRepository,
+                new PropertySearchExecutor(propertyRepository), spatialSearchSupport, entityManager, new ObjectMapper(), 1000, 2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = service.export(spec, Property::getId, out);
+
+        assertEquals(5, written);
+        assertEquals("1\n2\n3\n4\n5\n", out.toString(StandardCharsets.UTF_8));
+        assertTrue(closed.get(), "il cursore degli id va chiuso");
+        InOrder order = inOrder(propertyRepository, entityManager);
+        order.verify(propertyRepository).findAllDetailedByIdIn(List.of(1L, 2L));
+        order.verify(entityManager).clear();
+        order.verify(propertyRepository).findAllDetailedByIdIn(List.of(3L, 4L));
+        order.verify(entityManager).clear();
+        order.verify(propertyRepository).findAllDetailedByIdIn(List.of(5L));
+        order.verify(entityManager).clear();
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void export_noResults_writesNothing() throws Exception {
+        when(propertyRepository.streamIds(spec, 1000)).thenReturn(Stream.empty());
+        PropertyExportService service = new PropertyExportService(propertyRepository,
+                new PropertySearchExecutor(propertyRepository), spatialSearchSupport, entityManager, new ObjectMapper(), 1000, 2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, service.export(spec, Property::getId, out));
+        assertEquals(0, out.size());
+        verify(entityManager, times(0)).clear();
+    }
+
+    private static Property property(long id) {
+        Property property = new ResidentialProperty();
+        property.setId(id);
+        return property;
+    }
+}
@@ -0,0 +1,165 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.dieti.dietiestatesbackend.dto.response.PropertySummary;
+import com.dieti.dietiestatesbackend.entities.CommercialProperty;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.entities.ResidentialProperty;
+import com.dieti.dietiestatesbackend.repositories.PropertyRepository;
+import com.dieti.dietiestatesbackend.repositories.PropertySearchRow;
+
+/**
+ * Regression test sul numero di statement per pagina di ricerca: ogni chiamata al repository
+ * corrisponde a una query SQL, quindi verificare le interazioni fissa il costo della ricerca.
+ */
+@ExtendWith(MockitoExtension.class)
+class PropertySearchExecutorTest {
+
+    @Mock
+    private PropertyRepository propertyRepository;
+
+    @InjectMocks
+    private PropertySearchExecutor executor;
+
+    private final Specification<Property> spec = (root, query, cb) -> null;
+
+    @Test
+    void search_fullPage_issuesIdQueryHydrationAndCountOnly() {
+        Pageable pageable = PageRequest.of(1, 3, Sort.by("price"));
+        when(propertyRepository.findRows(spec, Map.of(), pageable.getSort(), 3L, 3)).thenReturn(rows(30L, 10L, 20L));
+        when(propertyRepository.findAllDetailedByIdIn(List.of(30L, 10L, 20L)))
+                .thenReturn(List.of(property(10L), property(20L), property(30L)));
+        when(propertyRepository.count(spec)).thenReturn(9L);
+
+        Page<Property> page = executor.search(spec, pageable);
+
+        assertEquals(9L, page.getTotalElements());
+        verify(propertyRepository, times(1)).findRows(any(), any(), any(), anyLong(), anyInt());
+        verify(propertyRepository, times(1)).findAllDetailedByIdIn(any());
+        verify(propertyRepository, times(1)).count(spec);
+        verifyNoMoreInteractions(propertyRepository);
+    }
+
+    @Test
+    void search_partialFirstPage_skipsCountQuery() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(propertyRepository.findRows(spec, Map.of(), pageable.getSort(), 0L, 20)).thenReturn(rows(1L, 2L));
+        when(propertyRepository.findAllDetailedByIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of(property(1L), property(2L)));
+
+        Page<Property> page = executor.search(spec, pageable);
+
+        assertEquals(2L, page.getTotalElements());
+        verify(propertyRepository, never()).count(any(Specification.class));
+        verify(propertyRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void search_emptyIdPage_doesNotHydrate() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(propertyRepository.findRows(spec, Map.of(), pageable.getSort(), 0L, 20)).thenReturn(List.of());
+
+        Page<Property> page = executor.search(spec, pageable);
+
+        assertTrue(page.getContent().isEmpty());
+        verify(propertyRepository, never()).findAllDetailedByIdIn(any());
+    }
+
+    @Test
+    void hydrate_preservesPhaseOneOrderAndSkipsVanishedIds() {
+        when(propertyRepository.findAllDetailedByIdIn(List.of(5L, 3L, 4L, 1L)))
+                .thenReturn(List.of(property(1L), property(3L), property(5L)));
+
+        List<Property> result = executor.hydrate(List.of(5L, 3L, 4L, 1L));
+
+        assertEquals(List.of(5L, 3L, 1L), result.stream().map(Property::getId).toList());
+    }
+
+    @Test
+    void fetch_usesLimitWithoutCount() {
+        Sort sort = Sort.by(Sort.Direction.DESC, "createdAt");
+        when(propertyRepository.findRows(eq(spec), eq(Map.of()), eq(sort), eq(0L), eq(21))).thenReturn(rows(8L));
+        when(propertyRepository.findAllDetailedByIdIn(List.of(8L))).thenReturn(List.of(property(8L)));
+
+        List<Property> result = executor.fetch(spec, Map.of(), sort, 21);
+
+        assertEquals(1, result.size());
+        verify(propertyRepository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    void search_copiesDatabaseDistanceOntoHydratedProperties() {
+        Pageable pageable = PageRequest.of(0, 20, Sort.by(PropertySearchExecutor.DISTANCE_KEY));
+        when(propertyRepository.findRows(eq(spec), any(), eq(pageable.getSort()), eq(0L), eq(20)))
+                .thenReturn(List.of(
+                        new PropertySearchRow(2L, Map.of(PropertySearchExecutor.DISTANCE_KEY, 120.5)),
+                        new PropertySearchRow(1L, Map.of(PropertySearchExecutor.DISTANCE_KEY, 980.0))));
+        when(propertyRepository.findAllDetailedByIdIn(List.of(2L, 1L)))
+                .thenReturn(List.of(property(1L), property(2L)));
+
+        List<Property> content = executor.search(spec, Map.of(), pageable).getContent();
+
+        assertEquals(List.of(2L, 1L), content.stream().map(Property::getId).toList());
+        assertEquals(120.5, content.get(0).getDistanceMeters());
+        assertEquals(980.0, content.get(1).getDistanceMeters());
+    }
+
+    @Test
+    void searchSummaries_readsColumnsInsteadOfEntities() {
+        Pageable pageable = PageRequest.of(0, 20, Sort.by(PropertySearchExecutor.DISTANCE_KEY));
+        when(propertyRepository.findRows(eq(spec), any(), eq(pageable.getSort()), eq(0L), eq(20)))
+                .thenReturn(List.of(
+                        new PropertySearchRow(2L, Map.of(PropertySearchExecutor.DISTANCE_KEY, 120.5)),
+                        new PropertySearchRow(1L, Map.of(PropertySearchExecutor.DISTANCE_KEY, 980.0))));
+        when(propertyRepository.findSummariesByIdIn(List.of(2L, 1L)))
+                .thenReturn(List.of(summary(1L), summary(2L)));
+
+        List<PropertySummary> content = executor.searchSummaries(spec, Map.of(), pageable).getContent();
+
+        assertEquals(List.of(2L, 1L), content.stream().map(PropertySummary::id).toList());
+        assertEquals(120.5, content.get(0).distanceMeters());
+        verify(propertyRepository, never()).findAllDetailedByIdIn(any());
+    }
+
+    private static PropertySummary summary(long id) {
+        return new PropertySummary(id, BigDecimal.TEN, 80, "Napoli", "Appartamento", "SALE", "ulid" + id, 3,
+                LocalDateTime.of(2025, 1, 1, 0, 0));
+    }
+
+    private static List<PropertySearchRow> rows(Long... ids) {
+        return java.util.Arrays.stream(ids).map(id -> new PropertySearchRow(id, Map.of())).toList();
+    }
+
+    private static Property property(long id) {
+        Property property = id % 2 == 0 ? new CommercialProperty() : new ResidentialProperty();
+        property.setId(id);
+        return property;
+    }
+}
@@ -0,0 +1,113 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.dieti.dietiestatesbackend.entities.Address;
+import com.dieti.dietiestatesbackend.entities.Contract;
+import com.dieti.dietiestatesbackend.entities.Coordinates;
+import com.dieti.dietiestatesbackend.entities.Garage;
+import com.dieti.dietiestatesbackend.entities.Heating;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.entities.PropertyCategory;
+import com.dieti.dietiestatesbackend.entities.PropertySearchEntry;
+import com.dieti.dietiestatesbackend.entities.ResidentialProperty;
+import com.dieti.dietiestatesbackend.enums.EnergyRating;
+import com.dieti.dietiestatesbackend.enums.Garden;
+import com.dieti.dietiestatesbackend.enums.PropertyCondition;
+import com.dieti.dietiestatesbackend.repositories.PropertyRepository;
+import com.dieti.dietiestatesbackend.repositories.PropertySearchEntryRepository;
+import com.dieti.dietiestatesbackend.service.events.PropertyCreatedEvent;
+import com.dieti.dietiestatesbackend.service.events.PropertyDeletedEvent;
+
+class PropertySearchProjectorTest {
+
+    private final PropertySearchEntryRepository entryRepository = mock(PropertySearchEntryRepository.class);
+    private final PropertySearchProjector projector = new PropertySearchProjector(
+            entryRepository, mock(PropertyRepository.class), mock(TransactionTemplate.class), 500);
+
+    @Test
+    void toEntry_flattensCommonAndResidentialColumns() {
+        ResidentialProperty property = new ResidentialProperty();
+        fillCommon(property, "RESIDENTIAL", "Appartamento");
+        property.setNumberOfRooms(4);
+        property.setNumberOfBathrooms(2);
+        property.setGarden(Garden.PRIVATE);
+        Heating heating = new Heating();
+        heating.setName("Autonomo");
+        property.setHeating(heating);
+
+        PropertySearchEntry entry = PropertySearchProjector.toEntry(property);
+
+        assertEquals(7L, entry.getId());
+        assertEquals("RESIDENTIAL", entry.getPropertyType());
+        assertEquals("Appartamento", entry.getSubcategory());
+        assertEquals("SALE", entry.getContract());
+        assertEquals(new BigDecimal("250000"), entry.getPrice());
+        assertEquals(new BigDecimal("40.85"), entry.getLatitude());
+        assertEquals(4, entry.getNumberOfRooms());
+        assertEquals("Autonomo", entry.getHeating());
+        assertEquals(Garden.PRIVATE, entry.getGarden());
+        assertEquals(Boolean.FALSE, entry.getElevator());
+        assertNull(entry.getSurveillance());
+        assertTrue(entry.isNew());
+    }
+
+    @Test
+    void toEntry_leavesOtherSubtypeColumnsNull() {
+        Garage garage = new Garage();
+        fillCommon(garage, "GARAGE", "Box");
+        garage.setHasSurveillance(true);
+        garage.setNumberOfFloors(2);
+
+        PropertySearchEntry entry = PropertySearchProjector.toEntry(garage);
+
+        assertEquals(Boolean.TRUE, entry.getSurveillance());
+        assertEquals(2, entry.getNumberOfFloors());
+        assertNull(entry.getNumberOfRooms());
+        assertNull(entry.getFurnished());
+    }
+
+    @Test
+    void events_keepProjectionInSync() {
+        ResidentialProperty property = new ResidentialProperty();
+        fillCommon(property, "RESIDENTIAL", "Appartamento");
+
+        projector.onPropertyCreated(new PropertyCreatedEvent(property));
+        projector.onPropertyDeleted(new PropertyDeletedEvent(7L));
+
+        verify(entryRepository).save(argThat(entry -> entry.getId() == 7L));
+        verify(entryRepository).deleteById(7L);
+    }
+
+    private static void fillCommon(Property property, String type, String subcategory) {
+        PropertyCategory category = new PropertyCategory();
+        category.setPropertyType(type);
+        category.setName(subcategory);
+        Contract contract = new Contract();
+        contract.setName("SALE");
+        Coordinates coordinates = new Coordinates();
+        coordinates.setLatitude(new BigDecimal("40.85"));
+        coordinates.setLongitude(new BigDecimal("14.27"));
+        Address address = new Address();
+        address.setCoordinates(coordinates);
+
+        property.setId(7L);
+        property.setPropertyCategory(category);
+        property.setContract(contract);
+        property.setAddress(address);
+        property.setPrice(new BigDecimal("250000"));
+        property.setArea(90);
+        property.setCondition(PropertyCondition.NEW);
+        property.setEnergyRating(EnergyRating.A1);
+    }
+}
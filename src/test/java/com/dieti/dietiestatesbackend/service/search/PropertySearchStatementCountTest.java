@@ -0,0 +1,193 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.dto.response.PropertyResponse;
+import com.dieti.dietiestatesbackend.entities.Address;
+import com.dieti.dietiestatesbackend.entities.Agency;
+import com.dieti.dietiestatesbackend.entities.Contract;
+import com.dieti.dietiestatesbackend.entities.Coordinates;
+import com.dieti.dietiestatesbackend.entities.Garage;
+import com.dieti.dietiestatesbackend.entities.Heating;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.entities.PropertyCategory;
+import com.dieti.dietiestatesbackend.entities.ResidentialProperty;
+import com.dieti.dietiestatesbackend.entities.User;
+import com.dieti.dietiestatesbackend.enums.EnergyRating;
+import com.dieti.dietiestatesbackend.enums.Garden;
+import com.dieti.dietiestatesbackend.enums.PropertyCondition;
+import com.dieti.dietiestatesbackend.mappers.AddressMapperImpl;
+import com.dieti.dietiestatesbackend.mappers.AgentMapperImpl;
+import com.dieti.dietiestatesbackend.mappers.CommercialPropertyMapperImpl;
+import com.dieti.dietiestatesbackend.mappers.GarageMapperImpl;
+import com.dieti.dietiestatesbackend.mappers.HeatingMapperImpl;
+import com.dieti.dietiestatesbackend.mappers.LandMapperImpl;
+import com.dieti.dietiestatesbackend.mappers.MapStructPropertyMapperImpl;
+import com.dieti.dietiestatesbackend.mappers.ResidentialPropertyMapperImpl;
+import com.dieti.dietiestatesbackend.mappers.ResponseMapperRegistry;
+import com.dieti.dietiestatesbackend.specifications.PropertySpecifications;
+
+/**
+ * Conta gli statement preparati da Hibernate per una pagina di ricerca convertita in
+ * {@link PropertyResponse}: un caricamento lazy durante il mapping (agent, agency, address,
+ * heating...) farebbe crescere il conteggio con il numero di righe.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.default_schema=PUBLIC",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "storage.image.base-url=https://images.example.com"
+})
+@Import({ PropertySearchExecutor.class, ResponseMapperRegistry.class,
+        MapStructPropertyMapperImpl.class, ResidentialPropertyMapperImpl.class, GarageMapperImpl.class,
+        LandMapperImpl.class, CommercialPropertyMapperImpl.class,
+        AgentMapperImpl.class, AddressMapperImpl.class, HeatingMapperImpl.class })
+class PropertySearchStatementCountTest {
+
+    private static final int PROPERTIES = 6;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PropertySearchExecutor executor;
+
+    @Autowired
+    private ResponseMapperRegistry responseMapperRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Contract sale = new Contract();
+        sale.setName("SALE");
+        entityManager.persist(sale);
+        PropertyCategory apartment = category("RESIDENTIAL", "Appartamento");
+        PropertyCategory box = category("GARAGE", "Box");
+        Heating heating = new Heating();
+        heating.setName("Autonomo");
+        entityManager.persist(heating);
+
+        for (int i = 0; i < PROPERTIES; i++) {
+            // un'agenzia e un agente per property: ogni riga ha associazioni distinte da caricare
+            User agent = agent(i);
+            Property property;
+            if (i % 2 == 0) {
+                ResidentialProperty residential = new ResidentialProperty();
+                residential.setPropertyCategory(apartment);
+                residential.setNumberOfRooms(3);
+                residential.setNumberOfBathrooms(1);
+                residential.setHeating(heating);
+                residential.setGarden(Garden.ABSENT);
+                residential.setFloor(1);
+                residential.setNumberOfFloors(4);
+                property = residential;
+            } else {
+                Garage garage = new Garage();
+                garage.setPropertyCategory(box);
+                property = garage;
+            }
+            property.setContract(sale);
+            property.setAgent(agent);
+            property.setAddress(address("Via Toledo", 40.84 + i * 0.001));
+            property.setPrice(BigDecimal.valueOf(100_000 + i * 10_000L));
+            property.setArea(80);
+            property.setCondition(PropertyCondition.GOOD_CONDITION);
+            property.setEnergyRating(EnergyRating.A2);
+            property.setImageDirectoryUlid(String.format("01HZX3J8Y6QK2M4N5P7R9T%04d", i));
+            property.setNumberOfImages(1);
+            entityManager.persist(property);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void partialFirstPage_mappedWithTwoStatements() {
+        Page<Property> page = executor.search(saleNearNaples(), PageRequest.of(0, 20, Sort.by("price")));
+        List<PropertyResponse> responses = responseMapperRegistry.mapAll(page.getContent());
+
+        assertEquals(PROPERTIES, responses.size());
+        assertEquals(PROPERTIES, page.getTotalElements());
+        // id della pagina + idratazione; il count non serve perché la pagina non è piena
+        assertEquals(2, statistics.getPrepareStatementCount());
+        responses.forEach(response -> assertNotNull(response.getAgent().getAgencyName()));
+    }
+
+    @Test
+    void fullPage_addsOnlyTheCount() {
+        Page<Property> page = executor.search(saleNearNaples(), PageRequest.of(0, 4, Sort.by("price")));
+        List<PropertyResponse> responses = responseMapperRegistry.mapAll(page.getContent());
+
+        assertEquals(4, responses.size());
+        assertEquals(PROPERTIES, page.getTotalElements());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    private static Specification<Property> saleNearNaples() {
+        return PropertySpecifications.buildFromFilters(FilterRequest.builder()
+                .contract("SALE")
+                .centerLatitude(new BigDecimal("40.85"))
+                .centerLongitude(new BigDecimal("14.25"))
+                .radiusInMeters(10_000.0)
+                .build());
+    }
+
+    private PropertyCategory category(String propertyType, String name) {
+        PropertyCategory category = new PropertyCategory();
+        category.setPropertyType(propertyType);
+        category.setName(name);
+        return entityManager.persist(category);
+    }
+
+    private User agent(int i) {
+        Agency agency = new Agency();
+        agency.setName("Agenzia " + i);
+        agency.setAddress(address("Via Roma", 40.85));
+        entityManager.persist(agency);
+
+        User agent = new User();
+        agent.setEmail("agente" + i + "@example.com");
+        agent.setUsername("agente" + i);
+        agent.setPassword("password");
+        agent.setFirstName("Mario");
+        agent.setLastName("Rossi");
+        agent.setAgent(true);
+        agent.setAgency(agency);
+        return entityManager.persist(agent);
+    }
+
+    private static Address address(String street, double latitude) {
+        Address address = new Address();
+        address.setCountry("Italia");
+        address.setProvince("NA");
+        address.setCity("Napoli");
+        address.setStreet(street);
+        address.setStreetNumber("1");
+        address.setCoordinates(new Coordinates(BigDecimal.valueOf(latitude), new BigDecimal("14.25")));
+        return address;
+    }
+}
@@ -0,0 +1,168 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.entities.Address;
+import com.dieti.dietiestatesbackend.entities.Agency;
+import com.dieti.dietiestatesbackend.entities.Contract;
+import com.dieti.dietiestatesbackend.entities.Coordinates;
+import com.dieti.dietiestatesbackend.entities.Garage;
+import com.dieti.dietiestatesbackend.entities.PropertyCategory;
+import com.dieti.dietiestatesbackend.entities.User;
+import com.dieti.dietiestatesbackend.enums.EnergyRating;
+import com.dieti.dietiestatesbackend.enums.PropertyCondition;
+
+/**
+ * Rendering in Java (bbox) su H2: con più property di {@code max-features} nella tile, ETag e
+ * contenuto della tile devono riferirsi alle stesse property, le prime per id.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.default_schema=PUBLIC",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true"
+})
+class PropertyTileServiceTest {
+
+    private static final int MAX_FEATURES = 2;
+    // tile 12/2210/1537: latitudine 40.864..40.930, longitudine 14.238..14.326 (Napoli)
+    private static final TileCoordinates TILE = new TileCoordinates(12, 2210, 1537);
+    private static final FilterRequest SALE = FilterRequest.builder().contract("SALE").build();
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private PropertyTileService service;
+    private final List<Long> inTile = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        service = new PropertyTileService(entityManager.getEntityManager(),
+                new SpatialSearchSupport(mock(JdbcTemplate.class), "bbox", ""), MAX_FEATURES);
+
+        Contract sale = new Contract();
+        sale.setName("SALE");
+        entityManager.persist(sale);
+        PropertyCategory box = new PropertyCategory();
+        box.setPropertyType("GARAGE");
+        box.setName("Box");
+        entityManager.persist(box);
+        User agent = agent();
+
+        for (double latitude : new double[] {40.87, 40.88, 40.89}) {
+            inTile.add(garage(sale, box, agent, latitude));
+        }
+        garage(sale, box, agent, 41.0); // fuori dalla tile
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void tileEtag_countsOnlyTheFeaturesKeptInTheTile() {
+        String etag = service.tileEtag(SALE, TILE);
+        assertTrue(etag.startsWith("\"" + MAX_FEATURES + "-"), etag);
+
+        // la terza property della tile supera max-features: non è nella tile né nel suo ETag
+        touch(inTile.get(2));
+        assertEquals(etag, service.tileEtag(SALE, TILE));
+
+        touch(inTile.get(0));
+        assertNotEquals(etag, service.tileEtag(SALE, TILE));
+    }
+
+    @Test
+    void renderTile_keepsTheSameFeaturesAsTheEtag() {
+        byte[] tile = service.renderTile(SALE, TILE);
+        assertTrue(tile.length > 0);
+
+        setPrice(inTile.get(2), "999999");
+        assertArrayEquals(tile, service.renderTile(SALE, TILE));
+
+        setPrice(inTile.get(1), "999999");
+        assertFalse(Arrays.equals(tile, service.renderTile(SALE, TILE)));
+    }
+
+    @Test
+    void renderTile_withoutMatches_isEmpty() {
+        FilterRequest rent = FilterRequest.builder().contract("RENT").build();
+
+        assertEquals(0, service.renderTile(rent, TILE).length);
+        assertEquals("\"0-0\"", service.tileEtag(rent, TILE));
+    }
+
+    private void touch(long id) {
+        entityManager.getEntityManager()
+                .createQuery("update Property p set p.updatedAt = :updatedAt where p.id = :id")
+                .setParameter("updatedAt", LocalDateTime.of(2100, 1, 1, 0, 0))
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    private void setPrice(long id, String price) {
+        entityManager.getEntityManager()
+                .createQuery("update Property p set p.price = :price where p.id = :id")
+                .setParameter("price", new BigDecimal(price))
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    private long garage(Contract contract, PropertyCategory category, User agent, double latitude) {
+        Garage garage = new Garage();
+        garage.setContract(contract);
+        garage.setPropertyCategory(category);
+        garage.setAgent(agent);
+        garage.setAddress(address(latitude));
+        garage.setPrice(new BigDecimal("150000"));
+        garage.setArea(20);
+        garage.setCondition(PropertyCondition.GOOD_CONDITION);
+        garage.setEnergyRating(EnergyRating.A2);
+        garage.setImageDirectoryUlid(String.format("01HZX3J8Y6QK2M4N5P7R9T%04d", inTile.size() + 1));
+        garage.setNumberOfImages(1);
+        return entityManager.persistAndGetId(garage, Long.class);
+    }
+
+    private User agent() {
+        Agency agency = new Agency();
+        agency.setName("Agenzia Centro");
+        agency.setAddress(address(40.85));
+        entityManager.persist(agency);
+
+        User agent = new User();
+        agent.setEmail("agente@example.com");
+        agent.setUsername("agente");
+        agent.setPassword("password");
+        agent.setFirstName("Mario");
+        agent.setLastName("Rossi");
+        agent.setAgent(true);
+        agent.setAgency(agency);
+        return entityManager.persist(agent);
+    }
+
+    private static Address address(double latitude) {
+        Address address = new Address();
+        address.setCountry("Italia");
+        address.setProvince("NA");
+        address.setCity("Napoli");
+        address.setStreet("Via Toledo");
+        address.setCoordinates(new Coordinates(BigDecimal.valueOf(latitude), new BigDecimal("14.25")));
+        return address;
+    }
+}
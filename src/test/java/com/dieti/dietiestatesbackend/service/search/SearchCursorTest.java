@@ -0,0 +1,64 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+class SearchCursorTest {
+
+    @Test
+    void encodeDecode_roundTripsCreatedAtCursor() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 14, 10, 15, 30, 123_000_000);
+        String token = SearchCursor.of(KeysetSort.CREATED_AT_DESC, createdAt, 42L).encode();
+
+        SearchCursor decoded = SearchCursor.decode(token);
+
+        assertEquals(KeysetSort.CREATED_AT_DESC, decoded.getSort());
+        assertEquals(createdAt, decoded.getKey());
+        assertEquals(42L, decoded.getLastId());
+    }
+
+    @Test
+    void encodeDecode_roundTripsPriceCursorWithoutScientificNotation() {
+        String token = SearchCursor.of(KeysetSort.PRICE_ASC, new BigDecimal("1E+6"), 7L).encode();
+
+        SearchCursor decoded = SearchCursor.decode(token);
+
+        assertEquals(0, new BigDecimal("1000000").compareTo((BigDecimal) decoded.getKey()));
+        assertEquals(7L, decoded.getLastId());
+    }
+
+    @Test
+    void encodedToken_isUrlSafe() {
+        String token = SearchCursor.of(KeysetSort.PRICE_DESC, new BigDecimal("250000.50"), 123456789L).encode();
+
+        assertFalse(token.contains("+") || token.contains("/") || token.contains("="));
+    }
+
+    @Test
+    void decode_rejectsMalformedTokens() {
+        String wrongVersion = Base64.getUrlEncoder().encodeToString("v0|PRICE_ASC|10|1".getBytes());
+        String badKey = Base64.getUrlEncoder().encodeToString("v1|CREATED_AT_DESC|yesterday|1".getBytes());
+
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode(""));
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode("%%%"));
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode(wrongVersion));
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode(badKey));
+    }
+
+    @Test
+    void keysetSort_resolvesSupportedOrdersAndRejectsOthers() {
+        assertEquals(KeysetSort.CREATED_AT_DESC, KeysetSort.from(Sort.unsorted()));
+        assertEquals(KeysetSort.PRICE_ASC, KeysetSort.from(Sort.by(Sort.Direction.ASC, "price")));
+        assertEquals(KeysetSort.PRICE_DESC, KeysetSort.from(Sort.by(Sort.Direction.DESC, "price")));
+        Sort unsupported = Sort.by(Sort.Direction.ASC, "area");
+        assertThrows(IllegalArgumentException.class, () -> KeysetSort.from(unsupported));
+    }
+}
@@ -0,0 +1,186 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.dto.response.SearchFacetsResponse;
+import com.dieti.dietiestatesbackend.entities.Address;
+import com.dieti.dietiestatesbackend.entities.Agency;
+import com.dieti.dietiestatesbackend.entities.Contract;
+import com.dieti.dietiestatesbackend.entities.Coordinates;
+import com.dieti.dietiestatesbackend.entities.Garage;
+import com.dieti.dietiestatesbackend.entities.Heating;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.entities.PropertyCategory;
+import com.dieti.dietiestatesbackend.entities.ResidentialProperty;
+import com.dieti.dietiestatesbackend.entities.User;
+import com.dieti.dietiestatesbackend.enums.EnergyRating;
+import com.dieti.dietiestatesbackend.enums.Garden;
+import com.dieti.dietiestatesbackend.enums.PropertyCondition;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.default_schema=PUBLIC",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class SearchFacetServiceTest {
+
+    private static final List<BigDecimal> PRICE_EDGES = List.of(
+            new BigDecimal("100000"), new BigDecimal("200000"), new BigDecimal("300000"),
+            new BigDecimal("500000"), new BigDecimal("1000000"));
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private int properties;
+
+    @Test
+    void computeFacets_eachFacetIgnoresItsOwnFilter_inOneQuery() {
+        Contract sale = contract("SALE");
+        Contract rent = contract("RENT");
+        PropertyCategory apartment = category("RESIDENTIAL", "Appartamento");
+        PropertyCategory box = category("GARAGE", "Box");
+        Heating heating = new Heating();
+        heating.setName("Autonomo");
+        entityManager.persist(heating);
+        User agent = agent();
+
+        residential(apartment, heating, sale, agent, "150000", PropertyCondition.GOOD_CONDITION); // tutti i filtri
+        residential(apartment, heating, sale, agent, "250000", PropertyCondition.NEW);            // solo stato diverso
+        residential(apartment, heating, rent, agent, "150000", PropertyCondition.GOOD_CONDITION); // solo contratto diverso
+        garage(box, sale, agent, "150000");                                                       // solo categoria diversa
+        garage(box, rent, agent, "50000");                                                        // due filtri diversi
+        residential(apartment, heating, sale, agent, "600000", PropertyCondition.GOOD_CONDITION); // solo prezzo diverso
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        SearchFacetsResponse facets = service().computeFacets(FilterRequest.builder()
+                .category("RESIDENTIAL")
+                .contract("SALE")
+                .maxPrice(new BigDecimal("300000"))
+                .acceptedCondition(List.of(PropertyCondition.GOOD_CONDITION))
+                .centerLatitude(new BigDecimal("40.85"))
+                .centerLongitude(new BigDecimal("14.25"))
+                .radiusInMeters(10_000.0)
+                .build());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, facets.getTotal());
+        assertEquals(Map.of("RESIDENTIAL", 1L, "COMMERCIAL", 0L, "LAND", 0L, "GARAGE", 1L), facets.getCategories());
+        assertEquals(Map.of("SALE", 1L, "RENT", 1L), facets.getContracts());
+        assertEquals(1L, facets.getConditions().get("GOOD_CONDITION"));
+        assertEquals(1L, facets.getConditions().get("NEW"));
+        assertEquals(Map.of("0-100000", 0L, "100000-200000", 1L, "200000-300000", 0L,
+                        "300000-500000", 0L, "500000-1000000", 1L, "1000000+", 0L),
+                facets.getPriceRanges());
+        // nessun filtro sulla classe energetica: i conteggi coincidono con il totale
+        assertEquals(1L, facets.getEnergyRatings().get(EnergyRating.A2.name()));
+    }
+
+    @Test
+    void priceBucketLabels_coverWholeRangeWithOpenLastBucket() {
+        List<String> labels = SearchFacetService.priceBucketLabels(
+                List.of(new BigDecimal("100000"), new BigDecimal("2.5E+5")));
+
+        assertEquals(List.of("0-100000", "100000-250000", "250000+"), labels);
+    }
+
+    @Test
+    void priceBucketLabels_withoutEdges_returnsSingleOpenBucket() {
+        assertEquals(List.of("0+"), SearchFacetService.priceBucketLabels(List.of()));
+    }
+
+    private SearchFacetService service() {
+        SpatialSearchSupport bbox = new SpatialSearchSupport(mock(JdbcTemplate.class), "bbox", "");
+        return new SearchFacetService(entityManager.getEntityManager(), bbox, PRICE_EDGES);
+    }
+
+    private void residential(PropertyCategory category, Heating heating, Contract contract, User agent,
+                             String price, PropertyCondition condition) {
+        ResidentialProperty property = new ResidentialProperty();
+        property.setNumberOfRooms(3);
+        property.setNumberOfBathrooms(1);
+        property.setHeating(heating);
+        property.setGarden(Garden.ABSENT);
+        property.setFloor(1);
+        property.setNumberOfFloors(4);
+        persist(property, category, contract, agent, price, condition);
+    }
+
+    private void garage(PropertyCategory category, Contract contract, User agent, String price) {
+        persist(new Garage(), category, contract, agent, price, PropertyCondition.GOOD_CONDITION);
+    }
+
+    private void persist(Property property, PropertyCategory category, Contract contract, User agent,
+                         String price, PropertyCondition condition) {
+        int i = ++properties;
+        property.setPropertyCategory(category);
+        property.setContract(contract);
+        property.setAgent(agent);
+        property.setAddress(address(40.85 + i * 0.001));
+        property.setPrice(new BigDecimal(price));
+        property.setArea(80);
+        property.setCondition(condition);
+        property.setEnergyRating(EnergyRating.A2);
+        property.setImageDirectoryUlid(String.format("01HZX3J8Y6QK2M4N5P7R9T%04d", i));
+        property.setNumberOfImages(1);
+        entityManager.persist(property);
+    }
+
+    private Contract contract(String name) {
+        Contract contract = new Contract();
+        contract.setName(name);
+        return entityManager.persist(contract);
+    }
+
+    private PropertyCategory category(String propertyType, String name) {
+        PropertyCategory category = new PropertyCategory();
+        category.setPropertyType(propertyType);
+        category.setName(name);
+        return entityManager.persist(category);
+    }
+
+    private User agent() {
+        Agency agency = new Agency();
+        agency.setName("Agenzia Centro");
+        agency.setAddress(address(40.85));
+        entityManager.persist(agency);
+
+        User agent = new User();
+        agent.setEmail("agente@example.com");
+        agent.setUsername("agente");
+        agent.setPassword("password");
+        agent.setFirstName("Mario");
+        agent.setLastName("Rossi");
+        agent.setAgent(true);
+        agent.setAgency(agency);
+        return entityManager.persist(agent);
+    }
+
+    private static Address address(double latitude) {
+        Address address = new Address();
+        address.setCountry("Italia");
+        address.setProvince("NA");
+        address.setCity("Napoli");
+        address.setStreet("Via Toledo");
+        address.setCoordinates(new Coordinates(BigDecimal.valueOf(latitude), new BigDecimal("14.25")));
+        return address;
+    }
+}
@@ -0,0 +1,142 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.dieti.dietiestatesbackend.entities.Address;
+import com.dieti.dietiestatesbackend.entities.Contract;
+import com.dieti.dietiestatesbackend.entities.Coordinates;
+import com.dieti.dietiestatesbackend.entities.Garage;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.entities.PropertyCategory;
+import com.dieti.dietiestatesbackend.entities.ResidentialProperty;
+import com.dieti.dietiestatesbackend.repositories.PropertyRepository;
+import com.dieti.dietiestatesbackend.service.events.PropertyCreatedEvent;
+import com.dieti.dietiestatesbackend.service.events.PropertyDeletedEvent;
+
+@ExtendWith(MockitoExtension.class)
+class SimilarPropertyIndexTest {
+
+    @Mock
+    private PropertyRepository propertyRepository;
+
+    private SimilarPropertyIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SimilarPropertyIndex(propertyRepository, 500);
+    }
+
+    @Test
+    void similarTo_ranksByFeatureDistanceWithinContractAndType() {
+        index.add(apartment(1L, "SALE", "250000", 90, 3, "40.850", "14.270"));
+        index.add(apartment(2L, "SALE", "260000", 95, 3, "40.852", "14.272")); // quasi identico
+        index.add(apartment(3L, "SALE", "500000", 180, 6, "40.850", "14.270")); // stesso posto, molto più grande
+        index.add(apartment(4L, "SALE", "250000", 90, 3, "45.460", "9.190"));   // identico ma a Milano
+        index.add(apartment(5L, "RENT", "1000", 90, 3, "40.850", "14.270"));    // affitto: altra partizione
+        index.add(garage(6L, "SALE", "40.850", "14.270"));                      // altra tipologia
+
+        assertEquals(List.of(2L, 3L, 4L), index.similarTo(1L, 6));
+        assertEquals(List.of(2L), index.similarTo(1L, 1));
+        assertEquals(List.of(), index.similarTo(5L, 6));
+    }
+
+    @Test
+    void events_updateIndexIncrementally() {
+        index.onPropertyCreated(new PropertyCreatedEvent(apartment(1L, "SALE", "250000", 90, 3, "40.850", "14.270")));
+        index.onPropertyCreated(new PropertyCreatedEvent(apartment(2L, "SALE", "260000", 95, 3, "40.852", "14.272")));
+
+        assertTrue(index.contains(2L));
+        assertEquals(List.of(2L), index.similarTo(1L, 6));
+
+        index.onPropertyDeleted(new PropertyDeletedEvent(2L));
+
+        assertFalse(index.contains(2L));
+        assertEquals(List.of(), index.similarTo(1L, 6));
+        assertEquals(1, index.size());
+        assertNull(index.similarTo(2L, 6), "una property non indicizzata non ha risultati");
+    }
+
+    @Test
+    void load_replaysEventsReceivedWhileLoading() {
+        ResidentialProperty first = apartment(1L, "SALE", "250000", 90, 3, "40.850", "14.270");
+        ResidentialProperty deleted = apartment(2L, "SALE", "260000", 95, 3, "40.852", "14.272");
+        when(propertyRepository.findIds(any(), any(), anyLong(), anyInt()))
+                .thenAnswer(invocation -> {
+                    // creazione e cancellazione committate mentre il caricamento legge il DB
+                    index.onPropertyCreated(new PropertyCreatedEvent(apartment(3L, "SALE", "255000", 92, 3, "40.851", "14.271")));
+                    index.onPropertyDeleted(new PropertyDeletedEvent(2L));
+                    return List.of(1L, 2L);
+                })
+                .thenReturn(List.of());
+        when(propertyRepository.findAllDetailedByIdIn(List.of(1L, 2L))).thenReturn(List.of(first, deleted));
+
+        index.load();
+
+        assertTrue(index.contains(1L));
+        assertFalse(index.contains(2L), "la cancellazione non deve essere annullata dal caricamento");
+        assertTrue(index.contains(3L), "la creazione non deve essere persa dal caricamento");
+        assertEquals(List.of(3L), index.similarTo(1L, 6));
+    }
+
+    @Test
+    void similarTo_propertyNotIndexed_usesItsOwnFeatures() {
+        index.add(apartment(1L, "SALE", "250000", 90, 3, "40.850", "14.270"));
+        index.add(apartment(2L, "SALE", "900000", 250, 8, "40.850", "14.270"));
+
+        assertEquals(List.of(1L, 2L), index.similarTo(apartment(99L, "SALE", "255000", 92, 3, "40.851", "14.271"), 6));
+    }
+
+    private static ResidentialProperty apartment(long id, String contract, String price, int area, int rooms,
+                                                 String latitude, String longitude) {
+        ResidentialProperty property = new ResidentialProperty();
+        fillCommon(property, id, "RESIDENTIAL", "Appartamento", contract, latitude, longitude);
+        property.setPrice(new BigDecimal(price));
+        property.setArea(area);
+        property.setNumberOfRooms(rooms);
+        property.setNumberOfBathrooms(1);
+        return property;
+    }
+
+    private static Garage garage(long id, String contract, String latitude, String longitude) {
+        Garage property = new Garage();
+        fillCommon(property, id, "GARAGE", "Box", contract, latitude, longitude);
+        property.setPrice(new BigDecimal("30000"));
+        property.setArea(15);
+        return property;
+    }
+
+    private static void fillCommon(Property property, long id, String type, String subcategory, String contractName,
+                                   String latitude, String longitude) {
+        PropertyCategory category = new PropertyCategory();
+        category.setPropertyType(type);
+        category.setName(subcategory);
+        Contract contract = new Contract();
+        contract.setName(contractName);
+        Coordinates coordinates = new Coordinates();
+        coordinates.setLatitude(new BigDecimal(latitude));
+        coordinates.setLongitude(new BigDecimal(longitude));
+        Address address = new Address();
+        address.setCoordinates(coordinates);
+
+        property.setId(id);
+        property.setPropertyCategory(category);
+        property.setContract(contract);
+        property.setAddress(address);
+    }
+}
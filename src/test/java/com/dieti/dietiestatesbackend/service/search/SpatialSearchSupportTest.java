@@ -0,0 +1,98 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class SpatialSearchSupportTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    void explicitMode_skipsDetection() {
+        SpatialSearchSupport support = new SpatialSearchSupport(jdbcTemplate, "bbox", "");
+
+        assertEquals(SpatialSearchMode.BOUNDING_BOX, support.getMode());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void autoMode_withPostgisAndGeographyColumn_usesPostgis() {
+        when(jdbcTemplate.queryForObject(contains("pg_extension"), eq(Integer.class))).thenReturn(1);
+        when(jdbcTemplate.queryForObject(contains("information_schema"), eq(Integer.class))).thenReturn(1);
+
+        SpatialSearchSupport support = new SpatialSearchSupport(jdbcTemplate, "auto", "");
+
+        assertTrue(support.isPostgisEnabled());
+    }
+
+    @Test
+    void autoMode_withoutGeographyColumn_fallsBackToBoundingBox() {
+        when(jdbcTemplate.queryForObject(contains("pg_extension"), eq(Integer.class))).thenReturn(1);
+        when(jdbcTemplate.queryForObject(contains("information_schema"), eq(Integer.class))).thenReturn(0);
+
+        SpatialSearchSupport support = new SpatialSearchSupport(jdbcTemplate, "auto", "");
+
+        assertEquals(SpatialSearchMode.BOUNDING_BOX, support.getMode());
+    }
+
+    @Test
+    void autoMode_probesTheConfiguredSchemaAndGeographyType() {
+        when(jdbcTemplate.queryForObject(contains("pg_extension"), eq(Integer.class))).thenReturn(1);
+        when(jdbcTemplate.queryForObject(contains("udt_name = 'geography'"), eq(Integer.class), eq("dieti_estates")))
+                .thenReturn(1);
+        when(jdbcTemplate.queryForObject(contains("information_schema.triggers"), eq(Integer.class), eq("dieti_estates")))
+                .thenReturn(1);
+
+        SpatialSearchSupport support = new SpatialSearchSupport(jdbcTemplate, "auto", "dieti_estates");
+
+        assertTrue(support.isPostgisEnabled());
+    }
+
+    @Test
+    void autoMode_withoutSyncTrigger_fallsBackToBoundingBox() {
+        when(jdbcTemplate.queryForObject(contains("pg_extension"), eq(Integer.class))).thenReturn(1);
+        when(jdbcTemplate.queryForObject(contains("information_schema.columns"), eq(Integer.class), eq("dieti_estates")))
+                .thenReturn(1);
+        when(jdbcTemplate.queryForObject(contains("information_schema.triggers"), eq(Integer.class), eq("dieti_estates")))
+                .thenReturn(0);
+
+        SpatialSearchSupport support = new SpatialSearchSupport(jdbcTemplate, "auto", "dieti_estates");
+
+        assertEquals(SpatialSearchMode.BOUNDING_BOX, support.getMode());
+    }
+
+    @Test
+    void postgisMode_withoutSyncTrigger_failsAtStartup() {
+        when(jdbcTemplate.queryForObject(contains("pg_extension"), eq(Integer.class))).thenReturn(1);
+        when(jdbcTemplate.queryForObject(contains("information_schema.columns"), eq(Integer.class))).thenReturn(1);
+        when(jdbcTemplate.queryForObject(contains("information_schema.triggers"), eq(Integer.class))).thenReturn(0);
+
+        assertThrows(IllegalStateException.class, () -> new SpatialSearchSupport(jdbcTemplate, "postgis", ""));
+    }
+
+    @Test
+    void autoMode_onDatabaseWithoutPgExtension_fallsBackToBoundingBox() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class)))
+                .thenThrow(new BadSqlGrammarException("detect", "SELECT ...", new java.sql.SQLException("no table")));
+
+        SpatialSearchSupport support = new SpatialSearchSupport(jdbcTemplate, "auto", "");
+
+        assertEquals(SpatialSearchMode.BOUNDING_BOX, support.getMode());
+    }
+
+    @Test
+    void invalidMode_throws() {
+        assertThrows(IllegalArgumentException.class, () -> new SpatialSearchSupport(jdbcTemplate, "kdtree", ""));
+    }
+}
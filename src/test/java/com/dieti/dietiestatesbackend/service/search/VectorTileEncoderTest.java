@@ -0,0 +1,138 @@
+package com.dieti.dietiestatesbackend.service.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class VectorTileEncoderTest {
+
+    @Test
+    void encode_withoutFeatures_returnsEmptyTile() {
+        assertEquals(0, new VectorTileEncoder("properties").encode().length);
+    }
+
+    @Test
+    void encode_writesLayerWithPointGeometryAndSharedAttributes() {
+        VectorTileEncoder encoder = new VectorTileEncoder("properties");
+        assertTrue(encoder.addPoint(7L, 10, 20, attributes(new BigDecimal("150000.00"), "RESIDENTIAL")));
+        assertTrue(encoder.addPoint(8L, 4095, 0, attributes(new BigDecimal("150000"), "LAND")));
+        assertFalse(encoder.addPoint(9L, 4096, 0, attributes(BigDecimal.ONE, "LAND")));
+
+        Message tile = Message.parse(encoder.encode());
+        Message layer = Message.parse(tile.bytes(3).get(0));
+
+        assertEquals(2L, layer.varints(15).get(0));
+        assertEquals("properties", new String(layer.bytes(1).get(0), StandardCharsets.UTF_8));
+        assertEquals(4096L, layer.varints(5).get(0));
+        assertEquals(List.of("price", "category"), layer.bytes(3).stream()
+                .map(b -> new String(b, StandardCharsets.UTF_8)).toList());
+        // 150000.00 e 150000 sono lo stesso valore double: un solo elemento nella tabella dei valori
+        assertEquals(3, layer.bytes(4).size());
+
+        List<byte[]> features = layer.bytes(2);
+        assertEquals(2, features.size());
+        Message first = Message.parse(features.get(0));
+        assertEquals(7L, first.varints(1).get(0));
+        assertEquals(1L, first.varints(3).get(0));
+        assertArrayEquals(new long[] { 0, 0, 1, 1 }, Message.packed(first.bytes(2).get(0)));
+        // MoveTo(1), zigzag(10) = 20, zigzag(20) = 40
+        assertArrayEquals(new long[] { 9, 20, 40 }, Message.packed(first.bytes(4).get(0)));
+
+        Message second = Message.parse(features.get(1));
+        assertArrayEquals(new long[] { 0, 0, 1, 2 }, Message.packed(second.bytes(2).get(0)));
+    }
+
+    @Test
+    void tileCoordinates_projectAndBoundsAreConsistent() {
+        TileCoordinates tile = new TileCoordinates(1, 1, 0);
+        BigDecimal[] bounds = tile.bounds();
+
+        assertEquals(0.0, bounds[0].doubleValue(), 1e-9);
+        assertEquals(85.0511, bounds[1].doubleValue(), 1e-4);
+        assertEquals(0.0, bounds[2].doubleValue(), 1e-9);
+        assertEquals(180.0, bounds[3].doubleValue(), 1e-9);
+
+        assertArrayEquals(new int[] { 2048, 4096 }, tile.project(0.0, 90.0, 4096));
+        assertThrows(IllegalArgumentException.class, () -> new TileCoordinates(1, 2, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TileCoordinates(23, 0, 0));
+    }
+
+    private static Map<String, Object> attributes(BigDecimal price, String category) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("price", price);
+        attributes.put("category", category);
+        attributes.put("contract", null);
+        return attributes;
+    }
+
+    /** Lettore protobuf minimo: raccoglie i campi varint e length-delimited per numero di campo. */
+    private static final class Message {
+        private final Map<Integer, List<Long>> varints = new LinkedHashMap<>();
+        private final Map<Integer, List<byte[]>> bytes = new LinkedHashMap<>();
+
+        static Message parse(byte[] data) {
+            Message message = new Message();
+            int[] pos = { 0 };
+            while (pos[0] < data.length) {
+                long tag = readVarint(data, pos);
+                int field = (int) (tag >>> 3);
+                int wireType = (int) (tag & 0x7);
+                if (wireType == 0) {
+                    message.varints.computeIfAbsent(field, f -> new ArrayList<>()).add(readVarint(data, pos));
+                } else if (wireType == 1) {
+                    pos[0] += 8;
+                } else if (wireType == 2) {
+                    int length = (int) readVarint(data, pos);
+                    byte[] chunk = new byte[length];
+                    System.arraycopy(data, pos[0], chunk, 0, length);
+                    pos[0] += length;
+                    message.bytes.computeIfAbsent(field, f -> new ArrayList<>()).add(chunk);
+                } else {
+                    throw new IllegalStateException("wire type non atteso: " + wireType);
+                }
+            }
+            return message;
+        }
+
+        static long[] packed(byte[] data) {
+            List<Long> values = new ArrayList<>();
+            int[] pos = { 0 };
+            while (pos[0] < data.length) {
+                values.add(readVarint(data, pos));
+            }
+            return values.stream().mapToLong(Long::longValue).toArray();
+        }
+
+        List<Long> varints(int field) {
+            return varints.getOrDefault(field, List.of());
+        }
+
+        List<byte[]> bytes(int field) {
+            return bytes.getOrDefault(field, List.of());
+        }
+
+        private static long readVarint(byte[] data, int[] pos) {
+            long result = 0;
+            int shift = 0;
+            while (true) {
+                byte b = data[pos[0]++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+                shift += 7;
+            }
+        }
+    }
+}
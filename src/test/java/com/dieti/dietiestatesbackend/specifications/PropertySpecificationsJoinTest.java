@@ -0,0 +1,80 @@
+package com.dieti.dietiestatesbackend.specifications;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.dieti.dietiestatesbackend.dto.request.FilterRequest;
+import com.dieti.dietiestatesbackend.entities.Property;
+import com.dieti.dietiestatesbackend.service.search.SpatialSearchMode;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Verifica che categoria e sottocategoria (e bounding box + distanza) condividano la stessa join.
+ */
+class PropertySpecificationsJoinTest {
+
+    private Root<Property> root;
+    private CriteriaQuery<?> query;
+    private CriteriaBuilder cb;
+    private final Set<Join<Property, ?>> joins = new HashSet<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        root = mock(Root.class);
+        query = mock(CriteriaQuery.class);
+        cb = mock(CriteriaBuilder.class, RETURNS_DEEP_STUBS);
+        when(root.getJoins()).thenReturn(joins);
+        when(root.join(anyString())).thenAnswer(invocation -> {
+            String attribute = invocation.getArgument(0);
+            Join<Property, ?> join = mock(Join.class, RETURNS_DEEP_STUBS);
+            when(join.getAttribute().getName()).thenReturn(attribute);
+            joins.add(join);
+            return join;
+        });
+    }
+
+    @Test
+    void categoryAndSubcategory_shareOnePropertyCategoryJoin() {
+        FilterRequest filters = FilterRequest.builder()
+            .category("RESIDENTIAL")
+            .propertySubcategoryName("Appartamento")
+            .contract("SALE")
+            .build();
+
+        PropertySpecifications.buildFromFilters(filters, SpatialSearchMode.BOUNDING_BOX).toPredicate(root, query, cb);
+
+        verify(root, times(1)).join("propertyCategory");
+        verify(root, times(1)).join("contract");
+    }
+
+    @Test
+    void boundingBoxAndDistance_shareOneAddressJoin() {
+        FilterRequest filters = FilterRequest.builder()
+            .centerLatitude(new BigDecimal("40.8518"))
+            .centerLongitude(new BigDecimal("14.2681"))
+            .radiusInMeters(2_000.0)
+            .build();
+
+        PropertySpecifications.buildFromFilters(filters, SpatialSearchMode.BOUNDING_BOX).toPredicate(root, query, cb);
+        DistanceExpressions.distanceFrom(filters.getCenterLatitude(), filters.getCenterLongitude(),
+                SpatialSearchMode.BOUNDING_BOX).toExpression(root, query, cb);
+
+        verify(root, times(1)).join("address");
+    }
+}
@@ -0,0 +1,34 @@
+package com.dieti.dietiestatesbackend.specifications;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TextSearchExpressionsTest {
+
+    @Test
+    void terms_normalizesCaseWhitespaceAndDuplicates() {
+        assertEquals(List.of("villa", "piscina"), TextSearchExpressions.terms("  Villa   PISCINA villa "));
+    }
+
+    @Test
+    void terms_blankQuery_returnsEmpty() {
+        assertTrue(TextSearchExpressions.terms(null).isEmpty());
+        assertTrue(TextSearchExpressions.terms("   ").isEmpty());
+    }
+
+    @Test
+    void terms_areCappedAtMaxTerms() {
+        List<String> terms = TextSearchExpressions.terms("a b c d e f g h i j");
+
+        assertEquals(TextSearchExpressions.MAX_TERMS, terms.size());
+    }
+
+    @Test
+    void containsPattern_escapesLikeWildcards() {
+        assertEquals("%100\\%\\_vista\\\\mare%", TextSearchExpressions.containsPattern("100%_vista\\mare"));
+    }
+}
@@ -120,4 +120,22 @@ class BoundingBoxUtilityTest {
         BigDecimal[] wrong = new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ONE };
         assertFalse(util.isPointInBoundingBox(0.0, 0.0, wrong));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFromCornersKeepsAntimeridianViewportAndRejectsInvalidCorners() {
+        BigDecimal[] box = util.fromCorners(BigDecimal.valueOf(-10.0), BigDecimal.valueOf(10.0),
+                BigDecimal.valueOf(170.0), BigDecimal.valueOf(-170.0));
+
+        assertTrue(util.isPointInBoundingBox(0.0, 179.5, box));
+        assertTrue(util.isPointInBoundingBox(0.0, -175.0, box));
+        assertFalse(util.isPointInBoundingBox(0.0, 0.0, box));
+
+        Executable executable = () -> util.fromCorners(BigDecimal.valueOf(10.0), BigDecimal.valueOf(-10.0),
+                BigDecimal.ZERO, BigDecimal.ONE);
+        assertThrows(IllegalArgumentException.class, executable);
+        executable = () -> util.fromCorners(BigDecimal.ZERO, BigDecimal.ONE, BigDecimal.ZERO, BigDecimal.valueOf(181.0));
+        assertThrows(IllegalArgumentException.class, executable);
+        executable = () -> util.fromCorners(null, BigDecimal.ONE, BigDecimal.ZERO, BigDecimal.ONE);
+        assertThrows(IllegalArgumentException.class, executable);
+    }
+}
@@ -0,0 +1,99 @@
+package com.dieti.dietiestatesbackend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+class GeoPolygonTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private JsonNode json(String value) throws Exception {
+        return mapper.readTree(value);
+    }
+
+    @Test
+    void contains_pointInsideAndOutsideSquareWithHole() throws Exception {
+        GeoPolygon polygon = GeoPolygon.fromGeoJson("Polygon", json(
+            "[[[14.0,40.0],[15.0,40.0],[15.0,41.0],[14.0,41.0],[14.0,40.0]],"
+                + "[[14.4,40.4],[14.6,40.4],[14.6,40.6],[14.4,40.6],[14.4,40.4]]]"));
+
+        assertTrue(polygon.contains(40.2, 14.2));
+        assertFalse(polygon.contains(40.5, 14.5), "il buco è escluso");
+        assertFalse(polygon.contains(42.0, 14.5), "fuori dalla bounding box");
+    }
+
+    @Test
+    void contains_concaveShapeExcludesNotch() throws Exception {
+        // "U" aperta verso nord: il punto al centro dell'incavo è nella bounding box ma fuori dall'area
+        GeoPolygon polygon = GeoPolygon.fromGeoJson("Polygon", json(
+            "[[[0,0],[3,0],[3,3],[2,3],[2,1],[1,1],[1,3],[0,3]]]"));
+
+        assertTrue(polygon.contains(0.5, 1.5));
+        assertFalse(polygon.contains(2.0, 1.5));
+        assertTrue(polygon.contains(2.5, 2.5));
+    }
+
+    @Test
+    void multiPolygon_matchesEitherPartAndReportsOverallBoundingBox() throws Exception {
+        GeoPolygon polygon = GeoPolygon.fromGeoJson("MultiPolygon", json(
+            "[[[[0,0],[1,0],[1,1],[0,1],[0,0]]],[[[5,5],[6,5],[6,6],[5,6],[5,5]]]]"));
+
+        assertTrue(polygon.contains(0.5, 0.5));
+        assertTrue(polygon.contains(5.5, 5.5));
+        assertFalse(polygon.contains(3.0, 3.0));
+        assertEquals(0.0, polygon.boundingBox()[0].doubleValue());
+        assertEquals(6.0, polygon.boundingBox()[3].doubleValue());
+    }
+
+    @Test
+    void fromGeoJson_rejectsInvalidGeometries() throws Exception {
+        JsonNode degenerate = json("[[[0,0],[1,1],[0,0]]]");
+        JsonNode outOfRange = json("[[[0,0],[1,0],[1,95],[0,0]]]");
+        JsonNode antimeridian = json("[[[-170,0],[170,0],[170,1],[-170,1]]]");
+
+        assertThrows(IllegalArgumentException.class, () -> GeoPolygon.fromGeoJson("Polygon", degenerate));
+        assertThrows(IllegalArgumentException.class, () -> GeoPolygon.fromGeoJson("Polygon", outOfRange));
+        assertThrows(IllegalArgumentException.class, () -> GeoPolygon.fromGeoJson("Polygon", antimeridian));
+        assertThrows(IllegalArgumentException.class, () -> GeoPolygon.fromGeoJson("Point", json("[0,0]")));
+    }
+
+    @Test
+    void simplify_reducesVerticesAndKeepsShape() {
+        // Cerchio di 1000 vertici, raggio 0.1°: semplificato resta entro il limite e copre ancora il centro
+        ArrayNode ring = mapper.createArrayNode();
+        for (int i = 0; i < 1000; i++) {
+            double angle = 2 * Math.PI * i / 1000;
+            ring.addArray().add(14.0 + 0.1 * Math.cos(angle)).add(40.0 + 0.1 * Math.sin(angle));
+        }
+        ArrayNode coordinates = mapper.createArrayNode();
+        coordinates.add(ring);
+        GeoPolygon polygon = GeoPolygon.fromGeoJson("Polygon", coordinates);
+
+        GeoPolygon simplified = polygon.simplify(64);
+
+        assertEquals(1000, polygon.vertexCount());
+        assertTrue(simplified.vertexCount() <= 64);
+        assertTrue(simplified.vertexCount() >= 3);
+        assertTrue(simplified.contains(40.0, 14.0));
+        assertTrue(simplified.contains(40.09, 14.0));
+        assertFalse(simplified.contains(40.2, 14.0));
+        assertSame(simplified, simplified.simplify(64));
+    }
+
+    @Test
+    void toWkt_usesLonLatOrderWithoutExponent() throws Exception {
+        GeoPolygon polygon = GeoPolygon.fromGeoJson("Polygon", json(
+            "[[[0.00001,40.5],[1,40.5],[1,41],[0.00001,40.5]]]"));
+
+        assertEquals("MULTIPOLYGON(((0.000010 40.5,1.0 40.5,1.0 41.0,0.000010 40.5)))", polygon.toWkt());
+    }
+}
@@ -0,0 +1,63 @@
+package com.dieti.dietiestatesbackend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TDigestTest {
+
+    @Test
+    void quantile_fewValues_matchesPercentileCont() {
+        TDigest digest = new TDigest(100);
+        for (double value : new double[] {4, 1, 3, 2}) {
+            digest.add(value);
+        }
+
+        // percentile_cont interpola linearmente sulla posizione q * (n - 1)
+        assertEquals(1.75, digest.quantile(0.25), 1e-9);
+        assertEquals(2.5, digest.quantile(0.5), 1e-9);
+        assertEquals(3.7, digest.quantile(0.9), 1e-9);
+        assertEquals(1.0, digest.quantile(0), 1e-9);
+        assertEquals(4.0, digest.quantile(1), 1e-9);
+    }
+
+    @Test
+    void quantile_largeSkewedStream_staysCloseToExactValue() {
+        // Prezzi con distribuzione log-normale, molto più numerosi dei centroidi
+        Random random = new Random(42);
+        int n = 100_000;
+        double[] values = new double[n];
+        TDigest digest = new TDigest(100);
+        for (int i = 0; i < n; i++) {
+            values[i] = Math.exp(12 + 0.5 * random.nextGaussian());
+            digest.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(n, digest.count());
+        assertEquals(values[0], digest.min());
+        assertEquals(values[n - 1], digest.max());
+        for (double q : new double[] {0.25, 0.5, 0.75, 0.9}) {
+            double position = q * (n - 1);
+            int lower = (int) position;
+            double exact = values[lower] + (position - lower) * (values[lower + 1] - values[lower]);
+            double estimate = digest.quantile(q);
+            assertTrue(Math.abs(estimate - exact) / exact < 0.005,
+                    "quantile " + q + ": stimato " + estimate + ", esatto " + exact);
+        }
+    }
+
+    @Test
+    void quantile_emptyDigestIsNaN_andInvalidInputRejected() {
+        TDigest digest = new TDigest(100);
+
+        assertTrue(Double.isNaN(digest.quantile(0.5)));
+        assertThrows(IllegalArgumentException.class, () -> digest.quantile(1.5));
+        assertThrows(IllegalArgumentException.class, () -> digest.add(Double.NaN));
+    }
+}